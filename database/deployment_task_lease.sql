@@ -0,0 +1,13 @@
+-- ====================================================================
+-- Migration: lease columns for multi-node deployment task execution
+-- Run once on databases created before tasks were claimed with leases
+-- (spring.jpa.hibernate.ddl-auto=update adds the columns but not the
+-- index). Requires MySQL 8.0+ for SELECT ... FOR UPDATE SKIP LOCKED.
+-- ====================================================================
+
+ALTER TABLE deployment_task
+    ADD COLUMN lease_owner VARCHAR(100) DEFAULT NULL,
+    ADD COLUMN lease_until DATETIME(6) DEFAULT NULL;
+
+-- Lets claims lock only the due rows instead of every PENDING task
+CREATE INDEX idx_status_scheduled ON deployment_task (status, scheduled_date);
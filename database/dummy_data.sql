@@ -8,9 +8,11 @@
 DROP TABLE IF EXISTS deployment_task;
 DROP TABLE IF EXISTS virtual_machine;
 DROP TABLE IF EXISTS hardware;
+DROP TABLE IF EXISTS subnet;
 DROP TABLE IF EXISTS site;
 DROP TABLE IF EXISTS users;
 DROP TABLE IF EXISTS department;
+DROP TABLE IF EXISTS id_generator;
 
 -- ====================================================================
 -- CREATE TABLES
@@ -51,6 +53,20 @@ CREATE TABLE site (
     INDEX idx_department (department_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Subnet Table (addresses as unsigned 32-bit numbers)
+CREATE TABLE subnet (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    network_address BIGINT NOT NULL UNIQUE,
+    prefix_length INT NOT NULL,
+    gateway BIGINT,
+    site_id BIGINT,
+    department_id BIGINT NOT NULL,
+    FOREIGN KEY (site_id) REFERENCES site(id) ON DELETE RESTRICT,
+    FOREIGN KEY (department_id) REFERENCES department(id) ON DELETE RESTRICT,
+    INDEX idx_department (department_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Hardware Table
 CREATE TABLE hardware (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -59,6 +75,7 @@ CREATE TABLE hardware (
     model VARCHAR(255) NOT NULL,
     serial_number VARCHAR(255) NOT NULL UNIQUE,
     ip_address VARCHAR(50),
+    ip_numeric BIGINT UNIQUE,
     cpu_cores INT,
     ram_gb INT,
     storage_gb INT,
@@ -81,6 +98,7 @@ CREATE TABLE virtual_machine (
     name VARCHAR(255) NOT NULL,
     hostname VARCHAR(255) NOT NULL,
     ip_address VARCHAR(50),
+    ip_numeric BIGINT UNIQUE,
     operating_system VARCHAR(255) NOT NULL,
     vcpu INT NOT NULL,
     vram INT NOT NULL,
@@ -107,15 +125,24 @@ CREATE TABLE deployment_task (
     scheduled_date DATETIME DEFAULT NULL,
     completed_at DATETIME DEFAULT NULL,
     department_id BIGINT NOT NULL,
+    lease_owner VARCHAR(100) DEFAULT NULL,
+    lease_until DATETIME(6) DEFAULT NULL,
     FOREIGN KEY (vm_id) REFERENCES virtual_machine(id) ON DELETE RESTRICT,
     FOREIGN KEY (requested_by) REFERENCES users(id) ON DELETE RESTRICT,
     FOREIGN KEY (department_id) REFERENCES department(id) ON DELETE RESTRICT,
     INDEX idx_status (status),
+    INDEX idx_status_scheduled (status, scheduled_date),
     INDEX idx_vm (vm_id),
     INDEX idx_user (requested_by),
     INDEX idx_department (department_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Id blocks for hardware and virtual_machine (JPA table generator, seeded at the end of this script)
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- ====================================================================
 -- INSERT DATA
 -- ====================================================================
@@ -498,12 +525,38 @@ INSERT INTO deployment_task (task_name, description, vm_id, requested_by, status
 ('Performance Tuning', 'Tune database performance', 67, 25, 'COMPLETED', '2024-11-05 10:00:00', '2024-11-11 09:00:00', '2024-11-11 16:20:00', 3),
 ('DR Test', 'Test disaster recovery plan', 89, 26, 'IN_PROGRESS', '2024-11-14 11:00:00', '2024-11-24 09:00:00', NULL, 3);
 
+-- ====================================================================
+-- SUBNETS AND NUMERIC IP ADDRESSES
+-- ====================================================================
+-- One server network and one VM network per department
+INSERT INTO subnet (name, network_address, prefix_length, gateway, site_id, department_id) VALUES
+('IT Servers', INET_ATON('192.168.1.0'), 24, INET_ATON('192.168.1.1'), NULL, 1),
+('IT VMs', INET_ATON('10.1.0.0'), 20, INET_ATON('10.1.0.1'), NULL, 1),
+('Operations Servers', INET_ATON('192.168.2.0'), 24, INET_ATON('192.168.2.1'), NULL, 2),
+('Operations VMs', INET_ATON('10.2.0.0'), 20, INET_ATON('10.2.0.1'), NULL, 2),
+('Finance Servers', INET_ATON('192.168.3.0'), 24, INET_ATON('192.168.3.1'), NULL, 3),
+('Finance VMs', INET_ATON('10.3.0.0'), 20, INET_ATON('10.3.0.1'), NULL, 3);
+
+UPDATE hardware SET ip_numeric = INET_ATON(ip_address) WHERE ip_address IS NOT NULL;
+UPDATE virtual_machine SET ip_numeric = INET_ATON(ip_address) WHERE ip_address IS NOT NULL;
+
+-- ====================================================================
+-- ID GENERATOR
+-- ====================================================================
+-- The application allocates hardware and VM ids 50 at a time from id_generator;
+-- start one full block above the rows inserted here
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'hardware', COALESCE(MAX(id), 0) + 51 FROM hardware;
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'virtual_machine', COALESCE(MAX(id), 0) + 51 FROM virtual_machine;
+
 -- ====================================================================
 -- SUMMARY
 -- ====================================================================
 -- 3 Departments
 -- 34 Users (4 admins + 30 regular users)
 -- 15 Sites (5 per department)
+-- 6 Subnets (2 per department)
 -- 60 Hardware items (20 per department)
 -- 90 Virtual Machines (30 per department)
 -- 60 Deployment Tasks (20 per department)
@@ -0,0 +1,19 @@
+-- ====================================================================
+-- Migration: table-based id generation for hardware and virtual_machine
+-- Run once on databases created before ids moved off AUTO_INCREMENT.
+-- Ids are allocated 50 at a time, so the counters start one full block
+-- above the highest existing id. Safe to re-run.
+-- ====================================================================
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'hardware', COALESCE(MAX(id), 0) + 51 FROM hardware
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'virtual_machine', COALESCE(MAX(id), 0) + 51 FROM virtual_machine
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -0,0 +1,30 @@
+-- ====================================================================
+-- Migration: subnets and numeric IP addresses (IPAM)
+-- Run once on databases created before IP address management.
+-- ====================================================================
+
+CREATE TABLE subnet (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    network_address BIGINT NOT NULL UNIQUE,
+    prefix_length INT NOT NULL,
+    gateway BIGINT,
+    site_id BIGINT,
+    department_id BIGINT NOT NULL,
+    FOREIGN KEY (site_id) REFERENCES site(id) ON DELETE RESTRICT,
+    FOREIGN KEY (department_id) REFERENCES department(id) ON DELETE RESTRICT,
+    INDEX idx_department (department_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+ALTER TABLE hardware ADD COLUMN ip_numeric BIGINT DEFAULT NULL;
+ALTER TABLE virtual_machine ADD COLUMN ip_numeric BIGINT DEFAULT NULL;
+
+-- INET_ATON returns NULL for anything that is not an IPv4 address; fix those rows by hand
+UPDATE hardware SET ip_numeric = INET_ATON(ip_address) WHERE ip_address IS NOT NULL;
+UPDATE virtual_machine SET ip_numeric = INET_ATON(ip_address) WHERE ip_address IS NOT NULL;
+
+-- Duplicates make the unique indexes below fail; list them with:
+--   SELECT ip_address, COUNT(*) FROM (SELECT ip_address FROM hardware UNION ALL SELECT ip_address FROM virtual_machine) a
+--   WHERE ip_address IS NOT NULL GROUP BY ip_address HAVING COUNT(*) > 1;
+CREATE UNIQUE INDEX uq_ip_numeric ON hardware (ip_numeric);
+CREATE UNIQUE INDEX uq_ip_numeric ON virtual_machine (ip_numeric);
@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.HardwareType;
+import com.example.demo.enums.Role;
+import com.example.demo.enums.VMStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Detached entities shaped like production rows, with every association set. */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static Department department(long id) {
+        Department department = new Department();
+        department.setId(id);
+        department.setName("department-" + id);
+        return department;
+    }
+
+    public static Site site(long id, Department department) {
+        Site site = new Site();
+        site.setId(id);
+        site.setName("site-" + id);
+        site.setAddress(id + " Rue de la Paix");
+        site.setCity("Paris");
+        site.setCountry("FR");
+        site.setDepartment(department);
+        return site;
+    }
+
+    public static List<Hardware> hardware(int count, Site site) {
+        List<Hardware> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Hardware hw = new Hardware();
+            hw.setId((long) i);
+            hw.setName("esx-" + i);
+            hw.setType(HardwareType.SERVER);
+            hw.setModel("PowerEdge R740");
+            hw.setSerialNumber("SN" + (1_000_000 + i));
+            hw.setIpAddress("10.0." + (i / 250) + "." + (i % 250 + 1));
+            hw.setCpuCores(64);
+            hw.setRamGb(512);
+            hw.setStorageGb(8000);
+            hw.setStatus(HardwareStatus.OPERATIONAL);
+            hw.setPurchaseDate(LocalDate.of(2023, 1, 1).plusDays(i % 365));
+            hw.setWarrantyEndDate(LocalDate.of(2028, 1, 1).plusDays(i % 365));
+            hw.setSite(site);
+            hw.setDepartment(site.getDepartment());
+            rows.add(hw);
+        }
+        return rows;
+    }
+
+    public static List<VirtualMachine> virtualMachines(int count, List<Hardware> hosts) {
+        List<VirtualMachine> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Hardware host = hosts.get(i % hosts.size());
+            VirtualMachine vm = new VirtualMachine();
+            vm.setId((long) i);
+            vm.setName("vm-" + i);
+            vm.setHostname("vm-" + i + ".corp.example.com");
+            vm.setIpAddress("10.1." + (i / 250) + "." + (i % 250 + 1));
+            vm.setOperatingSystem("Oracle Linux 9");
+            vm.setVcpu(4);
+            vm.setVram(16);
+            vm.setDiskSize(100);
+            vm.setStatus(i % 5 == 0 ? VMStatus.STOPPED : VMStatus.RUNNING);
+            vm.setHardware(host);
+            vm.setDepartment(host.getDepartment());
+            rows.add(vm);
+        }
+        return rows;
+    }
+
+    public static User user(long id, Role role, Department department) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user-" + id);
+        user.setEmail("user-" + id + "@example.com");
+        user.setRole(role);
+        user.setDepartment(department);
+        return user;
+    }
+
+    public static DeploymentTask task(long id, VirtualMachine vm, User requestedBy) {
+        DeploymentTask task = new DeploymentTask();
+        task.setId(id);
+        task.setTaskName("Patch " + vm.getName());
+        task.setDescription("Apply the monthly security updates and reboot");
+        task.setVm(vm);
+        task.setRequestedBy(requestedBy);
+        task.setStatus(DeploymentStatus.PENDING);
+        task.setCreatedAt(Instant.parse("2025-01-01T08:00:00Z"));
+        task.setScheduledDate(Instant.parse("2025-01-02T02:00:00Z"));
+        task.setDepartment(vm.getDepartment());
+        return task;
+    }
+}
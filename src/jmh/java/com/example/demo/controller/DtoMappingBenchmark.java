@@ -0,0 +1,116 @@
+package com.example.demo.controller;
+
+import com.example.demo.BenchmarkData;
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity-to-DTO mappers of the controllers: one row of each type, and a page of
+ * {@code pageSize} hardware and VM rows as the list endpoints build it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+        Hardware hardware;
+        VirtualMachine virtualMachine;
+        Site site;
+        User user;
+        DeploymentTask task;
+
+        @Setup
+        public void setUp() {
+            Department department = BenchmarkData.department(1);
+            site = BenchmarkData.site(1, department);
+            hardware = BenchmarkData.hardware(1, site).get(0);
+            virtualMachine = BenchmarkData.virtualMachines(1, List.of(hardware)).get(0);
+            user = BenchmarkData.user(1, Role.ADMIN, department);
+            task = BenchmarkData.task(1, virtualMachine, user);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"100", "1000"})
+        int pageSize;
+
+        List<Hardware> hardware;
+        List<VirtualMachine> virtualMachines;
+
+        @Setup
+        public void setUp() {
+            hardware = BenchmarkData.hardware(pageSize, BenchmarkData.site(1, BenchmarkData.department(1)));
+            virtualMachines = BenchmarkData.virtualMachines(pageSize, hardware);
+        }
+    }
+
+    @Benchmark
+    public Object hardware(Rows rows) {
+        return HardwareController.toDto(rows.hardware);
+    }
+
+    @Benchmark
+    public Object virtualMachine(Rows rows) {
+        return VirtualMachineController.toDto(rows.virtualMachine);
+    }
+
+    @Benchmark
+    public Object site(Rows rows) {
+        return SiteController.toDto(rows.site);
+    }
+
+    @Benchmark
+    public Object user(Rows rows) {
+        return UserController.toDto(rows.user);
+    }
+
+    @Benchmark
+    public Object deploymentTask(Rows rows) {
+        return DeploymentTaskController.toDto(rows.task);
+    }
+
+    @Benchmark
+    public List<HardwareDto> hardwarePage(Page page) {
+        List<HardwareDto> dtos = new ArrayList<>(page.hardware.size());
+        for (Hardware row : page.hardware) {
+            dtos.add(HardwareController.toDto(row));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<VirtualMachineDto> virtualMachinePage(Page page) {
+        List<VirtualMachineDto> dtos = new ArrayList<>(page.virtualMachines.size());
+        for (VirtualMachine row : page.virtualMachines) {
+            dtos.add(VirtualMachineController.toDto(row));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.dto;
+
+import com.example.demo.BenchmarkData;
+import com.example.demo.entite.Hardware;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of {@link HardwareDto}s and {@link VirtualMachineDto}s to JSON bytes with an
+ * {@link ObjectMapper} configured like Spring Boot's, through the mapper itself (what a controller
+ * response costs) and through a writer resolved once for the list type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    int pageSize;
+
+    private ObjectMapper mapper;
+    private ObjectWriter hardwareWriter;
+    private ObjectWriter vmWriter;
+    private List<HardwareDto> hardware;
+    private List<VirtualMachineDto> virtualMachines;
+
+    @Setup
+    public void setUp() {
+        // Spring Boot's defaults: java.time modules registered, dates as ISO strings
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        hardwareWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, HardwareDto.class));
+        vmWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, VirtualMachineDto.class));
+
+        List<Hardware> hosts = BenchmarkData.hardware(pageSize, BenchmarkData.site(1, BenchmarkData.department(1)));
+        hardware = hosts.stream().map(hw -> new HardwareDto(hw.getId(), hw.getName(), hw.getType(), hw.getModel(),
+                hw.getSerialNumber(), hw.getIpAddress(), hw.getCpuCores(), hw.getRamGb(), hw.getStorageGb(), hw.getStatus(),
+                hw.getPurchaseDate(), hw.getWarrantyEndDate(), hw.getSite().getId(), hw.getDepartment().getId())).toList();
+        virtualMachines = BenchmarkData.virtualMachines(pageSize, hosts).stream().map(vm -> new VirtualMachineDto(vm.getId(),
+                vm.getName(), vm.getHostname(), vm.getIpAddress(), vm.getOperatingSystem(), vm.getVcpu(), vm.getVram(),
+                vm.getDiskSize(), vm.getStatus(), vm.getHardware().getId(), vm.getDepartment().getId())).toList();
+    }
+
+    @Benchmark
+    public byte[] hardwarePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(hardware);
+    }
+
+    @Benchmark
+    public byte[] hardwarePageTypedWriter() throws JsonProcessingException {
+        return hardwareWriter.writeValueAsBytes(hardware);
+    }
+
+    @Benchmark
+    public byte[] virtualMachinePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(virtualMachines);
+    }
+
+    @Benchmark
+    public byte[] virtualMachinePageTypedWriter() throws JsonProcessingException {
+        return vmWriter.writeValueAsBytes(virtualMachines);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.Role;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthTokenProperties;
+import com.example.demo.security.AuthTokenService;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.UserPrincipalCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a request pays to find out who is calling and what they may see: the identity is set,
+ * role and department are checked the way the controllers do, and the context is cleared, as
+ * {@link com.example.demo.config.UserContextFilter} does at the end of the request.
+ * The legacy X-User-Id path reads a warm {@link UserPrincipalCache}; the token path verifies
+ * the signature first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserContextBenchmark {
+
+    private static final int USERS = 1000;
+    private static final Role[] ROLES = Role.values();
+
+    private UserContextService userContext;
+    private AuthTokenService tokenService;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Only findPrincipalById is called, and only once per user while the cache is warm
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findPrincipalById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return Optional.of(principal((Long) args[0]));
+                });
+        UserPrincipalCache cache = new UserPrincipalCache(users, 10_000, Duration.ofMinutes(5));
+        AuthTokenProperties properties = new AuthTokenProperties();
+        tokenService = new AuthTokenService(properties);
+        userContext = new UserContextService();
+        ReflectionTestUtils.setField(userContext, "userRepository", users);
+        ReflectionTestUtils.setField(userContext, "principalCache", cache);
+        ReflectionTestUtils.setField(userContext, "tokenProperties", properties);
+
+        tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = tokenService.issue(principal(i + 1L));
+            cache.get(i + 1L);
+        }
+    }
+
+    @Benchmark
+    public void legacyHeader(Blackhole blackhole) {
+        userContext.setCurrentUserId(nextUserId());
+        check(blackhole);
+    }
+
+    @Benchmark
+    public void bearerToken(Blackhole blackhole) {
+        UserPrincipal principal = tokenService.verify(tokens[(int) (nextUserId() - 1)]).orElseThrow();
+        userContext.setAuthenticatedPrincipal(principal);
+        check(blackhole);
+    }
+
+    private void check(Blackhole blackhole) {
+        blackhole.consume(userContext.isSuperAdmin());
+        blackhole.consume(userContext.isAdmin());
+        blackhole.consume(userContext.getCurrentUserDepartmentId());
+        userContext.clear();
+    }
+
+    private long nextUserId() {
+        next = next == USERS ? 1 : next + 1;
+        return next;
+    }
+
+    private static UserPrincipal principal(long userId) {
+        return new UserPrincipal(userId, ROLES[(int) (userId % ROLES.length)], userId % 20, true);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.audit;
+
+import com.example.demo.entite.Department;
+import com.example.demo.enums.AuditAction;
+import com.example.demo.service.TransactionHooks;
+import com.example.demo.service.UserContextService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JPA entity listener that turns inserts, updates and deletes into {@link AuditRecord}s with the
+ * fields that changed. The values before an update are the ones Hibernate keeps for dirty checking,
+ * so nothing extra is read or remembered per entity. Records are handed to {@link AuditTrail} only
+ * after the transaction commits, so rolled-back changes leave no trace.
+ *
+ * Hibernate creates this listener through Spring; its collaborators are looked up on first use
+ * because they themselves need the entity manager factory that is being built at that point.
+ * Bulk JPQL statements bypass entity listeners and record their changes directly.
+ */
+public class AuditListener {
+
+    // Not worth auditing, or not to be shown
+    private static final Set<String> SKIPPED = Set.of("updatedAt");
+    private static final Set<String> MASKED = Set.of("passwordHash");
+    private static final String MASK = "***";
+
+    private final ObjectProvider<EntityManager> entityManager;
+    private final ObjectProvider<AuditTrail> auditTrail;
+    private final ObjectProvider<UserContextService> userContext;
+
+    public AuditListener(ObjectProvider<EntityManager> entityManager, ObjectProvider<AuditTrail> auditTrail,
+                         ObjectProvider<UserContextService> userContext) {
+        this.entityManager = entityManager;
+        this.auditTrail = auditTrail;
+        this.userContext = userContext;
+    }
+
+    @PostPersist
+    void created(Object entity) {
+        record(entity, AuditAction.CREATE);
+    }
+
+    @PreUpdate
+    void updating(Object entity) {
+        record(entity, AuditAction.UPDATE);
+    }
+
+    @PreRemove
+    void removing(Object entity) {
+        record(entity, AuditAction.DELETE);
+    }
+
+    private void record(Object entity, AuditAction action) {
+        AuditTrail trail = auditTrail.getIfAvailable();
+        if (trail == null) {
+            // JPA-only test slices
+            return;
+        }
+        EntityManager em = entityManager.getObject();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(entity);
+        if (entry == null) {
+            return;
+        }
+        EntityPersister persister = entry.getPersister();
+        PersistenceUnitUtil ids = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Object[] before = action == AuditAction.CREATE ? null : entry.getLoadedState();
+        Object[] after = action == AuditAction.DELETE ? null : persister.getValues(entity);
+
+        Map<String, AuditRecord.Change> changes = new LinkedHashMap<>();
+        Long departmentId = null;
+        for (int i = 0; i < names.length; i++) {
+            if (SKIPPED.contains(names[i]) || types[i].isCollectionType()) {
+                continue;
+            }
+            Object from = before != null ? value(types[i], before[i], ids) : null;
+            Object to = after != null ? value(types[i], after[i], ids) : null;
+            if ("department".equals(names[i])) {
+                departmentId = (Long) (to != null ? to : from);
+            }
+            if (Objects.equals(from, to)) {
+                continue;
+            }
+            if (MASKED.contains(names[i])) {
+                from = from != null ? MASK : null;
+                to = to != null ? MASK : null;
+            }
+            changes.put(names[i], new AuditRecord.Change(from, to));
+        }
+        if (action == AuditAction.UPDATE && changes.isEmpty()) {
+            return;
+        }
+        Long entityId = (Long) entry.getId();
+        if (entity instanceof Department) {
+            departmentId = entityId;
+        }
+        AuditRecord record = new AuditRecord(Instant.now(), entity.getClass().getSimpleName(), entityId, departmentId, action,
+                userContext.getObject().getCurrentUserId(), changes);
+        TransactionHooks.afterCommit(() -> trail.record(record));
+    }
+
+    // Associations are recorded by id, without loading them
+    private static Object value(Type type, Object value, PersistenceUnitUtil ids) {
+        return value != null && type.isEntityType() ? ids.getIdentifier(value) : value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.audit;
+
+import com.example.demo.enums.AuditAction;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One mutation waiting in {@link AuditTrail}'s buffer. {@code changes} maps a field to its
+ * {@link Change}; values are immutable (strings, numbers, enums, dates, ids of associations), so
+ * the map is only rendered to JSON on the writer thread.
+ *
+ * @param userId who made the change, null for the system (task execution, startup jobs)
+ */
+public record AuditRecord(Instant occurredAt, String entityType, Long entityId, Long departmentId,
+                          AuditAction action, Long userId, Map<String, Change> changes) {
+
+    /** A field's value before and after; {@code from} is absent on creates and on bulk updates, which do not read it. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(Object from, Object to) {
+
+        public static Change to(Object value) {
+            return new Change(null, value);
+        }
+    }
+}
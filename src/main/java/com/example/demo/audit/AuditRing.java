@@ -0,0 +1,85 @@
+package com.example.demo.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer (D. Vyukov's bounded queue).
+ * Each slot carries a sequence number telling whose turn it is: a producer claims a position with
+ * one CAS on the tail and publishes the element by advancing the slot's sequence; the consumer
+ * takes it and hands the slot to the producer one lap ahead. A full ring rejects the element
+ * instead of blocking the writer that produced it.
+ */
+final class AuditRing<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only advanced by the consumer; volatile so size() is meaningful from other threads
+    private volatile long head;
+
+    AuditRing(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** False when the ring is full. Safe from any thread. */
+    boolean offer(E element) {
+        long position = tail.get();
+        for (;;) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The consumer has not freed this slot since the previous lap
+                return false;
+            } else {
+                // Another producer took this position
+                position = tail.get();
+            }
+        }
+    }
+
+    /** Moves up to {@code max} elements into {@code sink}. Consumer thread only. */
+    int drainTo(Collection<? super E> sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.lazySet(index, null);
+            sequences.set(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /** Approximate number of queued elements. */
+    int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
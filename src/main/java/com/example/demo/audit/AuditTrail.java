@@ -0,0 +1,159 @@
+package com.example.demo.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Who changed what, written off the request path. {@link #record} only puts the change into a
+ * lock-free ring buffer; a single writer thread drains it into {@code audit_event} with JDBC batch
+ * inserts, once {@code inventory.audit.batch-size} records are waiting or the oldest has waited
+ * {@code inventory.audit.flush-interval}, and once more on shutdown.
+ *
+ * When the buffer is full (the database is down or far behind) records are dropped and counted
+ * in {@code audit.dropped} rather than slowing every write down; a batch the database rejects is
+ * dropped the same way. {@code audit.buffer.size} shows how close the buffer is to that.
+ */
+@Component
+public class AuditTrail {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    private static final String INSERT = "insert into audit_event "
+            + "(occurred_at, entity_type, entity_id, department_id, action, user_id, changes) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final AuditRing<AuditRecord> ring;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter dropped;
+    private final Counter written;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditTrail(JdbcTemplate jdbcTemplate,
+                      ObjectMapper objectMapper,
+                      MeterRegistry registry,
+                      @Value("${inventory.audit.buffer-size:8192}") int bufferSize,
+                      @Value("${inventory.audit.batch-size:500}") int batchSize,
+                      @Value("${inventory.audit.flush-interval:1s}") Duration flushInterval) {
+        this.ring = new AuditRing<>(bufferSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, Math.min(batchSize, ring.capacity()));
+        this.flushIntervalNanos = Math.max(1, flushInterval.toNanos());
+        this.dropped = Counter.builder("audit.dropped")
+                .description("Audit records lost because the buffer was full or the insert failed")
+                .register(registry);
+        this.written = Counter.builder("audit.written")
+                .description("Audit records inserted into audit_event")
+                .register(registry);
+        Gauge.builder("audit.buffer.size", ring, AuditRing::size)
+                .description("Audit records waiting for the writer")
+                .register(registry);
+        Gauge.builder("audit.buffer.capacity", ring, AuditRing::capacity)
+                .register(registry);
+
+        this.writer = new Thread(this::drainLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Queues the record for the writer; never blocks. */
+    public void record(AuditRecord record) {
+        if (!ring.offer(record)) {
+            dropped.increment();
+            return;
+        }
+        if (ring.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        long oldestAt = 0;
+        while (running) {
+            int before = batch.size();
+            ring.drainTo(batch, batchSize - batch.size());
+            if (before == 0 && !batch.isEmpty()) {
+                oldestAt = System.nanoTime();
+            }
+            if (batch.size() >= batchSize || (!batch.isEmpty() && System.nanoTime() - oldestAt >= flushIntervalNanos)) {
+                write(batch);
+                batch.clear();
+            } else {
+                // Woken early by record() once a full batch is waiting
+                LockSupport.parkNanos(this, batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - (System.nanoTime() - oldestAt));
+            }
+        }
+        // Shutting down: write whatever is left
+        do {
+            write(batch);
+            batch.clear();
+        } while (ring.drainTo(batch, batchSize) > 0);
+    }
+
+    private void write(List<AuditRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, record) -> {
+                statement.setTimestamp(1, Timestamp.from(record.occurredAt()));
+                statement.setString(2, record.entityType());
+                setLong(statement, 3, record.entityId());
+                setLong(statement, 4, record.departmentId());
+                statement.setString(5, record.action().name());
+                setLong(statement, 6, record.userId());
+                statement.setString(7, json(record));
+            });
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            dropped.increment(batch.size());
+            log.warn("Could not write {} audit records", batch.size(), e);
+        }
+    }
+
+    private String json(AuditRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record.changes());
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
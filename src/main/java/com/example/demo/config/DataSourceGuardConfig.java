@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link GuardedDataSource} in front of the connection pool, by default when requests run
+ * on virtual threads ({@code inventory.datasource.guard.enabled} to force it either way).
+ *
+ * Unless set, {@code max-concurrency} and {@code acquire-timeout} follow the Hikari pool's
+ * maximum size and connection timeout, so nobody queues in the pool itself.
+ */
+@Configuration
+public class DataSourceGuardConfig {
+
+    private static final String PREFIX = "inventory.datasource.guard.";
+
+    // Static: post-processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor dataSourceGuard(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof GuardedDataSource) {
+                    return bean;
+                }
+                Binder binder = Binder.get(environment);
+                boolean enabled = binder.bind(PREFIX + "enabled", Boolean.class)
+                        .orElseGet(() -> Threading.VIRTUAL.isActive(environment));
+                if (!enabled) {
+                    return bean;
+                }
+                HikariDataSource hikari = bean instanceof HikariDataSource h ? h : null;
+                int maxConcurrency = binder.bind(PREFIX + "max-concurrency", Integer.class)
+                        .orElse(hikari != null ? hikari.getMaximumPoolSize() : 10);
+                Duration acquireTimeout = binder.bind(PREFIX + "acquire-timeout", Duration.class)
+                        .orElse(Duration.ofMillis(hikari != null ? hikari.getConnectionTimeout() : 30_000));
+                int maxWaiting = binder.bind(PREFIX + "max-waiting", Integer.class).orElse(10_000);
+                return new GuardedDataSource(dataSource, maxConcurrency, acquireTimeout, maxWaiting);
+            }
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets at most {@code maxConcurrency} callers hold a connection at once and queues the rest, in
+ * arrival order, in front of the pool.
+ *
+ * With a thread per request the request pool already caps how many callers reach the connection
+ * pool. With virtual threads nothing does: every request gets a thread, and thousands of them
+ * would all be inside the pool's borrow loop at the same time. Here they wait parked on a fair
+ * semaphore instead, and once {@code maxWaiting} are waiting the next one fails right away rather
+ * than adding to a queue that cannot drain within the timeout. Both failures are
+ * {@link SQLTransientConnectionException}s, as when the pool itself times out.
+ *
+ * A permit is held from {@link #getConnection()} until the returned connection is closed.
+ */
+public class GuardedDataSource extends DelegatingDataSource implements MeterBinder {
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long timeoutNanos;
+    private final int maxWaiting;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder saturated = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public GuardedDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout, int maxWaiting) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutNanos = acquireTimeout.toNanos();
+        this.maxWaiting = maxWaiting;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.guard.active", this, GuardedDataSource::getActive)
+                .description("Connections handed out through the guard")
+                .register(registry);
+        Gauge.builder("datasource.guard.waiting", this, GuardedDataSource::getWaiting)
+                .description("Callers queued for a connection")
+                .register(registry);
+        FunctionTimer.builder("datasource.guard.wait", this, g -> g.waits.sum(), g -> g.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent queued before reaching the connection pool")
+                .register(registry);
+        FunctionCounter.builder("datasource.guard.rejected", this, g -> g.saturated.sum())
+                .description("Connection requests refused without waiting because the queue was full")
+                .tag("reason", "saturated")
+                .register(registry);
+        FunctionCounter.builder("datasource.guard.rejected", this, g -> g.timedOut.sum())
+                .description("Connection requests that waited longer than the acquire timeout")
+                .tag("reason", "timeout")
+                .register(registry);
+    }
+
+    private Connection guarded(ConnectionSource source) throws SQLException {
+        boolean acquired;
+        try {
+            // Fair even when a permit is free, unlike tryAcquire()
+            acquired = permits.tryAcquire(0, TimeUnit.NANOSECONDS) || await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            timedOut.increment();
+            throw new SQLTransientConnectionException("No database connection became available within "
+                    + Duration.ofNanos(timeoutNanos).toMillis() + " ms (" + maxConcurrency + " in use)");
+        }
+        try {
+            return releasing(source.open());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean await() throws SQLException, InterruptedException {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            saturated.increment();
+            throw new SQLTransientConnectionException("Too many callers waiting for a database connection (" + maxWaiting + ")");
+        }
+        long start = System.nanoTime();
+        try {
+            return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+            waits.increment();
+            waitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    // Gives the permit back on the first close() only
+    private Connection releasing(Connection target) {
+        AtomicBoolean open = new AtomicBoolean(true);
+        return (Connection) Proxy.newProxyInstance(GuardedDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Guarded " + target;
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (open.compareAndSet(true, false)) {
+                                permits.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, typically inside a
+ * {@code synchronized} block or method on Java 21 to 23. A pinned thread keeps its carrier busy for
+ * as long as it blocks, so a few of them at once can stall every other virtual thread.
+ *
+ * Listens for JFR's {@code jdk.VirtualThreadPinned} event in process. Every pin longer than
+ * {@code inventory.virtual-threads.pinned-threshold} counts in {@code jvm.threads.virtual.pinned};
+ * the first one from each place in the code is logged with its stack. For a one-off investigation
+ * {@code -Djdk.tracePinnedThreads=short} prints the same to stdout.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    // Places already logged; enough for any code base, bounded in case frames are generated
+    private static final int MAX_SITES = 1000;
+
+    private final Counter pinned;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private final RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry registry,
+                               @Value("${inventory.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(registry);
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::pinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void close() {
+        stream.close();
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String trace = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        if (sites.size() < MAX_SITES && sites.add(trace)) {
+            log.warn("Virtual thread pinned to its carrier for {} ms{}", event.getDuration().toMillis(), trace);
+        }
+    }
+}
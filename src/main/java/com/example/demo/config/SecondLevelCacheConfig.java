@@ -0,0 +1,94 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache for reference data that hardly ever changes: departments
+ * and sites, looked up by id on nearly every write and listed by the department pickers.
+ *
+ * The caches live in this JVM only (Caffeine behind JCache). Writes through Hibernate, bulk JPQL
+ * included, update or invalidate them at once; another node, or a change made straight in the
+ * database, is seen once the entry expires after {@code inventory.cache.reference.ttl}. Each region
+ * is measured under {@code cache.gets}, {@code cache.puts} and {@code cache.evictions}, with
+ * {@code cache.hit.ratio} derived from the gets.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Regions named by @Cache on the entities
+    public static final String DEPARTMENT_REGION = "department";
+    public static final String SITE_REGION = "site";
+
+    private static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    // Last write per table; query results older than it are ignored. Must never lose an entry
+    private static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    // One manager per application context; tests start several in the same JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry registry,
+                                              @Value("${inventory.cache.reference.max-size:10000}") long maxSize,
+                                              @Value("${inventory.cache.reference.ttl:10m}") Duration ttl,
+                                              @Value("${inventory.cache.query.max-size:1000}") long queryMaxSize) {
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("inventory-" + UUID.randomUUID()), getClass().getClassLoader());
+        manager.createCache(DEPARTMENT_REGION, bounded(maxSize, ttl));
+        manager.createCache(SITE_REGION, bounded(maxSize, ttl));
+        manager.createCache(QUERY_RESULTS_REGION, bounded(queryMaxSize, ttl));
+        manager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>().setStatisticsEnabled(true));
+
+        for (String region : List.of(DEPARTMENT_REGION, SITE_REGION, QUERY_RESULTS_REGION)) {
+            Cache<Object, Object> cache = manager.getCache(region);
+            JCacheMetrics.monitor(registry, cache);
+            FunctionCounter hits = registry.get("cache.gets").tags("cache", region, "result", "hit").functionCounter();
+            FunctionCounter misses = registry.get("cache.gets").tags("cache", region, "result", "miss").functionCounter();
+            Gauge.builder("cache.hit.ratio", () -> {
+                        double gets = hits.count() + misses.count();
+                        return gets == 0 ? Double.NaN : hits.count() / gets;
+                    })
+                    .tag("cache", region)
+                    .description("Share of lookups answered from the cache since startup")
+                    .register(registry);
+        }
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // A region without a cache above is a mistake, not something to create with defaults
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxSize, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import com.example.demo.execution.SimulatedTaskRunner;
+import com.example.demo.execution.TaskRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "inventory.tasks.executor.enabled", havingValue = "true")
+public class TaskExecutionConfig {
+
+    // Used until a real provisioning backend registers its own TaskRunner
+    @Bean
+    @ConditionalOnMissingBean(TaskRunner.class)
+    public TaskRunner simulatedTaskRunner(@Value("${inventory.tasks.simulator.min-duration:2s}") Duration minDuration,
+                                          @Value("${inventory.tasks.simulator.max-duration:10s}") Duration maxDuration,
+                                          @Value("${inventory.tasks.simulator.failure-rate:0.05}") double failureRate) {
+        return new SimulatedTaskRunner(minDuration, maxDuration, failureRate);
+    }
+}
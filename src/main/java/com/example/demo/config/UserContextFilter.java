@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import com.example.demo.service.UserContextService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Clears the per-request user context so it never leaks to the next request
+ * served by the same pooled Tomcat thread.
+ */
+@Component
+public class UserContextFilter extends OncePerRequestFilter {
+    private final UserContextService userContextService;
+
+    public UserContextFilter(UserContextService userContextService) {
+        this.userContextService = userContextService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            userContextService.clear();
+        }
+    }
+}
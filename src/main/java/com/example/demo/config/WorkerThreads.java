@@ -0,0 +1,44 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the application's own pools of blocking work (task workers, change stream senders).
+ * They are virtual threads when {@code spring.threads.virtual.enabled=true} on Java 21 or later,
+ * like the request threads, and daemon platform threads otherwise. Pool sizes keep their meaning
+ * either way: they bound how much work runs at once, not how many threads can be afforded.
+ *
+ * CPU-bound pools (password hashing) and the single background threads stay on platform threads.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** Threads named {@code prefix} followed by a sequence number. */
+    public ThreadFactory factory(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
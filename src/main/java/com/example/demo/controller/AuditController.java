@@ -0,0 +1,56 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.AuditEventDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.repository.AuditEventRepository;
+import com.example.demo.service.UserContextService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Read side of the audit trail, newest first. Admins only; a department admin sees the changes
+ * made in their own department.
+ */
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+    private final AuditEventRepository repository;
+    private final UserContextService userContextService;
+
+    public AuditController(AuditEventRepository repository, UserContextService userContextService) {
+        this.repository = repository;
+        this.userContextService = userContextService;
+    }
+
+    @GetMapping
+    public CursorPageDto<AuditEventDto> list(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long byUserId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admins can read the audit trail");
+        }
+        Long scope = departmentId;
+        if (!userContextService.isSuperAdmin()) {
+            scope = userContextService.getCurrentUserDepartmentId();
+            if (scope == null) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to read the audit trail without a department");
+            }
+        }
+        return CursorPageDto.of(
+                repository.findDtoPage(entityType, entityId, scope, byUserId,
+                        cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, CursorPageDto.clampLimit(limit))),
+                dto -> dto.id);
+    }
+}
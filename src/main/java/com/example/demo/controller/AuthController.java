@@ -3,9 +3,11 @@ package com.example.demo.controller;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.LoginResponse;
 import com.example.demo.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -16,10 +18,14 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            LoginResponse response = authService.login(request);
+            // With server.forward-headers-strategy, the client behind a trusted proxy rather than the proxy itself
+            LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            // 429 when throttled or when the password verification pool is saturated
+            return ResponseEntity.status(e.getStatusCode()).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(null);
         }
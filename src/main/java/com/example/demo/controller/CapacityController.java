@@ -0,0 +1,59 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CapacityRollupDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.HostCapacityDto;
+import com.example.demo.enums.CapacityResource;
+import com.example.demo.service.CapacityService;
+import com.example.demo.service.UserContextService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/capacity")
+@CrossOrigin(origins = "*")
+public class CapacityController {
+    private final CapacityService service;
+    private final UserContextService userContextService;
+
+    public CapacityController(CapacityService service, UserContextService userContextService) {
+        this.service = service;
+        this.userContextService = userContextService;
+    }
+
+    /** Allocated and free resources summed over a department and/or site. */
+    @GetMapping("/rollup")
+    public ResponseEntity<CapacityRollupDto> rollup(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long siteId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        return ResponseEntity.ok(service.rollup(scope(departmentId, userId), siteId));
+    }
+
+    /** Hosts with at least {@code minFree} GB (or cores, for CPU) left, tightest fit first. */
+    @GetMapping("/hosts")
+    public ResponseEntity<List<HostCapacityDto>> hostsWithFree(
+            @RequestParam long minFree,
+            @RequestParam(defaultValue = "RAM") CapacityResource resource,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        return ResponseEntity.ok(service.findHostsWithFree(resource, minFree, scope(departmentId, userId),
+                CursorPageDto.clampLimit(limit)));
+    }
+
+    // Same scoping as the list endpoints: non-admins only see their own department
+    private Long scope(Long departmentId, Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                return userDeptId;
+            }
+        }
+        return departmentId;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * {@code If-None-Match} handling for the list endpoints, whose ETags come from
+ * {@link com.example.demo.service.VersionService}. Responses depend on the caller's role and
+ * department, so they are private to the client and vary on the headers that identify it.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /** Weak comparison, as RFC 9110 prescribes for If-None-Match. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers(etag)).build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok().headers(headers(etag));
+    }
+
+    private static HttpHeaders headers(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        // Cacheable, but revalidate every time: the tag check is what makes repeat polls cheap
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.setVary(List.of(HttpHeaders.AUTHORIZATION, "X-User-Id"));
+        return headers;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DashboardSummaryDto;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.service.DashboardService;
+import com.example.demo.service.UserContextService;
+import com.example.demo.service.VersionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+    private final DashboardService service;
+    private final UserContextService userContextService;
+    private final VersionService versionService;
+
+    public DashboardController(DashboardService service, UserContextService userContextService, VersionService versionService) {
+        this.service = service;
+        this.userContextService = userContextService;
+        this.versionService = versionService;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<?> summary(
+            @RequestParam(required = false) Long departmentId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+
+        // Same scoping as the list endpoints: non-admins only see their own department
+        Long scope = departmentId;
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+
+        // Every count on the dashboard, so a change to any of them gives a new tag
+        String etag = versionService.etag(scope, InventoryEntity.HARDWARE, InventoryEntity.VIRTUAL_MACHINE,
+                InventoryEntity.SITE, InventoryEntity.DEPLOYMENT_TASK);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+
+        DashboardSummaryDto dto = service.getSummary(scope);
+        dto.recentTasks = service.findRecentTasks(scope).stream()
+                .map(DeploymentTaskController::toDto).collect(Collectors.toList());
+        return ConditionalGet.ok(etag).body(dto);
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.CursorPageDto;
 import com.example.demo.dto.DeploymentTaskDto;
 import com.example.demo.entite.Department;
 import com.example.demo.entite.DeploymentTask;
+import com.example.demo.enums.InventoryEntity;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.DeltaSyncService;
 import com.example.demo.service.DeploymentTaskService;
 import com.example.demo.service.UserContextService;
+import com.example.demo.service.VersionService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.net.URI;
 import java.time.Instant;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/deployment-tasks")
@@ -20,46 +25,73 @@ public class DeploymentTaskController {
     private final DeploymentTaskService service;
     private final DepartmentRepository departmentRepository;
     private final UserContextService userContextService;
+    private final VersionService versionService;
+    private final DeltaSyncService deltaSyncService;
     
-    public DeploymentTaskController(DeploymentTaskService service, DepartmentRepository departmentRepository, UserContextService userContextService) { 
+    public DeploymentTaskController(DeploymentTaskService service, DepartmentRepository departmentRepository, UserContextService userContextService, VersionService versionService, DeltaSyncService deltaSyncService) { 
         this.service = service;
         this.departmentRepository = departmentRepository;
         this.userContextService = userContextService;
+        this.versionService = versionService;
+        this.deltaSyncService = deltaSyncService;
     }
 
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(required = false) Long departmentId,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
             if (userId != null) {
                 userContextService.setCurrentUserId(userId);
             }
+            int pageSize = CursorPageDto.clampLimit(limit);
             
-            // If not admin, force filter by user's department
+            // If not admin, force filter by user's department. Admin can filter or see all
+            Long scope = departmentId;
             if (!userContextService.isAdmin()) {
                 Long userDeptId = userContextService.getCurrentUserDepartmentId();
                 if (userDeptId != null) {
-                    return ResponseEntity.ok(service.findByDepartmentId(userDeptId).stream()
-                            .map(DeploymentTaskController::toDto).collect(Collectors.toList()));
+                    scope = userDeptId;
                 }
             }
-            
-            // Admin can filter or see all
-            if (departmentId != null) {
-                return ResponseEntity.ok(service.findByDepartmentId(departmentId).stream()
-                        .map(DeploymentTaskController::toDto).collect(Collectors.toList()));
+
+            String etag = versionService.etag(scope, InventoryEntity.DEPLOYMENT_TASK);
+            if (ConditionalGet.matches(ifNoneMatch, etag)) {
+                return ConditionalGet.notModified(etag);
             }
-            return ResponseEntity.ok(service.findAll().stream()
-                    .map(DeploymentTaskController::toDto).collect(Collectors.toList()));
+            return ConditionalGet.ok(etag).body(toPage(service.findPage(scope, cursor, pageSize)));
         } catch (Exception e) {
             System.err.println("Error loading deployment tasks: " + e.getMessage());
             e.printStackTrace();
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
+            return ResponseEntity.ok(CursorPageDto.empty()); // Return empty page instead of error
         }
     }
 
+    @GetMapping("/changes")
+    public ChangesPageDto<DeploymentTaskDto> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // Same scoping as the list
+        Long scope = departmentId;
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+        return deltaSyncService.changes(InventoryEntity.DEPLOYMENT_TASK, since, scope, CursorPageDto.clampLimit(limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DeploymentTaskDto> get(@PathVariable Long id) {
         return ResponseEntity.ok(toDto(service.findByIdOrThrow(id)));
@@ -111,7 +143,11 @@ public class DeploymentTaskController {
         return ResponseEntity.noContent().build();
     }
 
-    private static DeploymentTaskDto toDto(DeploymentTask e) {
+    private static CursorPageDto<DeploymentTaskDto> toPage(Slice<DeploymentTaskDto> slice) {
+        return CursorPageDto.of(slice, dto -> dto.id);
+    }
+
+    static DeploymentTaskDto toDto(DeploymentTask e) {
         DeploymentTaskDto dto = new DeploymentTaskDto();
         dto.id = e.getId();
         dto.taskName = e.getTaskName();
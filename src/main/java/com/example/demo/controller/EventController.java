@@ -0,0 +1,44 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ChangeFeedService;
+import com.example.demo.service.UserContextService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventController {
+    private final ChangeFeedService changeFeedService;
+    private final UserContextService userContextService;
+
+    public EventController(ChangeFeedService changeFeedService, UserContextService userContextService) {
+        this.changeFeedService = changeFeedService;
+        this.userContextService = userContextService;
+    }
+
+    /**
+     * Server-Sent Events with every change to hardware, VMs, sites and deployment tasks the caller
+     * can see. Changes made while disconnected are not replayed: reload the lists after reconnecting.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestParam(required = false) Long departmentId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+
+        // Same scoping as the list endpoints: non-admins only see their own department
+        Long scope = departmentId;
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+        return changeFeedService.subscribe(scope);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ExportService;
+import com.example.demo.service.UserContextService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService service;
+    private final UserContextService userContextService;
+
+    public ExportController(ExportService service, UserContextService userContextService) {
+        this.service = service;
+        this.userContextService = userContextService;
+    }
+
+    /**
+     * Full dump of hardware, virtual-machines or deployment-tasks as NDJSON, streamed from the database.
+     */
+    @GetMapping("/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String entity,
+            @RequestParam(required = false) Long departmentId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (!service.supports(entity)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+
+        // Same scoping as the list endpoints: non-admins only see their own department.
+        // Resolved here because the body is written on another thread, without the user context.
+        Long scope = departmentId;
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+
+        Long exportScope = scope;
+        StreamingResponseBody body = out -> service.writeNdjson(entity, exportScope, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + entity + ".ndjson\"")
+                .body(body);
+    }
+}
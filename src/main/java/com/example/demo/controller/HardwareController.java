@@ -1,16 +1,29 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.HardwareBulkChangeDto;
 import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.HostCapacityDto;
 import com.example.demo.entite.Department;
 import com.example.demo.entite.Hardware;
+import com.example.demo.enums.InventoryEntity;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.BulkChangeService;
+import com.example.demo.service.BulkImportService;
+import com.example.demo.service.CapacityService;
+import com.example.demo.service.DeltaSyncService;
 import com.example.demo.service.HardwareService;
 import com.example.demo.service.UserContextService;
+import com.example.demo.service.VersionService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/hardware")
@@ -19,45 +32,83 @@ public class HardwareController {
     private final HardwareService service;
     private final DepartmentRepository departmentRepository;
     private final UserContextService userContextService;
+    private final VersionService versionService;
+    private final DeltaSyncService deltaSyncService;
+    private final BulkImportService bulkImportService;
+    private final CapacityService capacityService;
+    private final BulkChangeService bulkChangeService;
     
-    public HardwareController(HardwareService service, DepartmentRepository departmentRepository, UserContextService userContextService) { 
+    public HardwareController(HardwareService service, DepartmentRepository departmentRepository, UserContextService userContextService, VersionService versionService, BulkImportService bulkImportService, CapacityService capacityService,
+                              BulkChangeService bulkChangeService, DeltaSyncService deltaSyncService) { 
         this.service = service;
         this.departmentRepository = departmentRepository;
         this.userContextService = userContextService;
+        this.versionService = versionService;
+        this.deltaSyncService = deltaSyncService;
+        this.bulkImportService = bulkImportService;
+        this.capacityService = capacityService;
+        this.bulkChangeService = bulkChangeService;
     }
 
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(required = false) Long departmentId,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
             // Set user context if provided
             if (userId != null) {
                 userContextService.setCurrentUserId(userId);
             }
+            int pageSize = CursorPageDto.clampLimit(limit);
             
-            // If not admin, force filter by user's department
+            // If not admin, force filter by user's department. Admin can filter by department or see all
+            Long scope = departmentId;
             if (userId != null && !userContextService.isAdmin()) {
                 Long userDeptId = userContextService.getCurrentUserDepartmentId();
                 if (userDeptId != null) {
-                    return ResponseEntity.ok(service.findByDepartmentId(userDeptId).stream()
-                            .map(HardwareController::toDto).collect(Collectors.toList()));
+                    scope = userDeptId;
                 }
             }
-            
-            // Admin can filter by department or see all
-            if (departmentId != null) {
-                return ResponseEntity.ok(service.findByDepartmentId(departmentId).stream()
-                        .map(HardwareController::toDto).collect(Collectors.toList()));
+
+            String etag = versionService.etag(scope, InventoryEntity.HARDWARE);
+            if (ConditionalGet.matches(ifNoneMatch, etag)) {
+                return ConditionalGet.notModified(etag);
             }
-            return ResponseEntity.ok(service.findAll().stream()
-                    .map(HardwareController::toDto).collect(Collectors.toList()));
+            return ConditionalGet.ok(etag).body(toPage(service.findPage(scope, cursor, pageSize)));
         } catch (Exception e) {
             System.err.println("Error loading hardware: " + e.getMessage());
             e.printStackTrace();
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
+            return ResponseEntity.ok(CursorPageDto.empty()); // Return empty page instead of error
+        }
+    }
+
+    /**
+     * Delta sync for mirrors: hardware changed and ids deleted since the {@code since} token, or
+     * every row when it is absent. Keep calling with {@code nextToken} while {@code hasMore}.
+     */
+    @GetMapping("/changes")
+    public ChangesPageDto<HardwareDto> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
         }
+        // Same scoping as the list
+        Long scope = departmentId;
+        if (userId != null && !userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+        return deltaSyncService.changes(InventoryEntity.HARDWARE, since, scope, CursorPageDto.clampLimit(limit));
     }
 
     @GetMapping("/{id}")
@@ -65,6 +116,13 @@ public class HardwareController {
         return ResponseEntity.ok(toDto(service.findByIdOrThrow(id)));
     }
 
+    @GetMapping("/{id}/capacity")
+    public ResponseEntity<HostCapacityDto> capacity(@PathVariable Long id) {
+        return capacityService.getHost(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public ResponseEntity<HardwareDto> create(@RequestBody HardwareDto dto) {
         Hardware e = new Hardware();
@@ -88,6 +146,42 @@ public class HardwareController {
         return ResponseEntity.created(URI.create("/api/hardware/" + saved.getId())).body(toDto(saved));
     }
 
+    /**
+     * Bulk import from a CSV (text/csv) or NDJSON (application/x-ndjson) request body.
+     * Department admins can only import into their own department.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> bulkImport(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) throws IOException {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can bulk import hardware");
+        }
+        Long departmentScope = userContextService.isSuperAdmin() ? null : userContextService.getCurrentUserDepartmentId();
+        return ResponseEntity.ok(bulkImportService.importHardware(body, contentType, departmentScope));
+    }
+
+    /** Sets the status of every selected host in one statement; department admins only reach their own hosts. */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> bulkUpdate(
+            @RequestBody HardwareBulkChangeDto change,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can change hardware in bulk");
+        }
+        Long departmentScope = userContextService.isSuperAdmin() ? null : userContextService.getCurrentUserDepartmentId();
+        return ResponseEntity.ok(bulkChangeService.updateHardware(change, departmentScope));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<HardwareDto> update(@PathVariable Long id, @RequestBody HardwareDto dto) {
         Hardware updated = new Hardware();
@@ -117,7 +211,11 @@ public class HardwareController {
         return ResponseEntity.noContent().build();
     }
 
-    private static HardwareDto toDto(Hardware e) {
+    private static CursorPageDto<HardwareDto> toPage(Slice<HardwareDto> slice) {
+        return CursorPageDto.of(slice, dto -> dto.id);
+    }
+
+    static HardwareDto toDto(Hardware e) {
         HardwareDto dto = new HardwareDto();
         dto.id = e.getId();
         dto.name = e.getName();
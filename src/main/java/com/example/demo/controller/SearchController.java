@@ -0,0 +1,49 @@
+package com.example.demo.controller;
+
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.service.SearchService;
+import com.example.demo.service.UserContextService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+    private final SearchService service;
+    private final UserContextService userContextService;
+
+    public SearchController(SearchService service, UserContextService userContextService) {
+        this.service = service;
+        this.userContextService = userContextService;
+    }
+
+    /**
+     * Best matches for {@code q} across hardware, VMs, sites and users, e.g. {@code q=r740 sn-12}
+     * or {@code q=10.0.3}. Narrow with {@code types=HARDWARE,VIRTUAL_MACHINE}.
+     */
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Set<InventoryEntity> types,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // Same scoping as the list endpoints: non-admins only see their own department
+        if (userId != null && !userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                departmentId = userDeptId;
+            }
+        }
+        try {
+            return ResponseEntity.ok(service.search(q, types, departmentId, limit != null ? limit : SearchService.DEFAULT_LIMIT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.CursorPageDto;
 import com.example.demo.dto.SiteDto;
 import com.example.demo.entite.Department;
 import com.example.demo.entite.Site;
+import com.example.demo.enums.InventoryEntity;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.DeltaSyncService;
 import com.example.demo.service.SiteService;
 import com.example.demo.service.UserContextService;
+import com.example.demo.service.VersionService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/sites")
@@ -19,46 +24,73 @@ public class SiteController {
     private final SiteService service;
     private final DepartmentRepository departmentRepository;
     private final UserContextService userContextService;
+    private final VersionService versionService;
+    private final DeltaSyncService deltaSyncService;
     
-    public SiteController(SiteService service, DepartmentRepository departmentRepository, UserContextService userContextService) { 
+    public SiteController(SiteService service, DepartmentRepository departmentRepository, UserContextService userContextService, VersionService versionService, DeltaSyncService deltaSyncService) { 
         this.service = service; 
         this.departmentRepository = departmentRepository;
         this.userContextService = userContextService;
+        this.versionService = versionService;
+        this.deltaSyncService = deltaSyncService;
     }
 
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(required = false) Long departmentId,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
             if (userId != null) {
                 userContextService.setCurrentUserId(userId);
             }
+            int pageSize = CursorPageDto.clampLimit(limit);
             
-            // If not admin, force filter by user's department
+            // If not admin, force filter by user's department. Admin can filter or see all
+            Long scope = departmentId;
             if (userId != null && !userContextService.isAdmin()) {
                 Long userDeptId = userContextService.getCurrentUserDepartmentId();
                 if (userDeptId != null) {
-                    return ResponseEntity.ok(service.findByDepartmentId(userDeptId).stream()
-                            .map(SiteController::toDto).collect(Collectors.toList()));
+                    scope = userDeptId;
                 }
             }
-            
-            // Admin can filter or see all
-            if (departmentId != null) {
-                return ResponseEntity.ok(service.findByDepartmentId(departmentId).stream()
-                        .map(SiteController::toDto).collect(Collectors.toList()));
+
+            String etag = versionService.etag(scope, InventoryEntity.SITE);
+            if (ConditionalGet.matches(ifNoneMatch, etag)) {
+                return ConditionalGet.notModified(etag);
             }
-            return ResponseEntity.ok(service.findAll().stream()
-                    .map(SiteController::toDto).collect(Collectors.toList()));
+            return ConditionalGet.ok(etag).body(toPage(service.findPage(scope, cursor, pageSize)));
         } catch (Exception e) {
             System.err.println("Error loading sites: " + e.getMessage());
             e.printStackTrace();
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
+            return ResponseEntity.ok(CursorPageDto.empty()); // Return empty page instead of error
         }
     }
 
+    @GetMapping("/changes")
+    public ChangesPageDto<SiteDto> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // Same scoping as the list
+        Long scope = departmentId;
+        if (userId != null && !userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
+        }
+        return deltaSyncService.changes(InventoryEntity.SITE, since, scope, CursorPageDto.clampLimit(limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SiteDto> get(@PathVariable Long id) {
         return service.findById(id).map(SiteController::toDto).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
@@ -103,7 +135,11 @@ public class SiteController {
         return ResponseEntity.noContent().build();
     }
 
-    private static SiteDto toDto(Site e) {
+    private static CursorPageDto<SiteDto> toPage(Slice<SiteDto> slice) {
+        return CursorPageDto.of(slice, dto -> dto.id);
+    }
+
+    static SiteDto toDto(Site e) {
         SiteDto dto = new SiteDto();
         dto.id = e.getId();
         dto.name = e.getName();
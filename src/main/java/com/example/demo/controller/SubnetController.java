@@ -0,0 +1,125 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SubnetDto;
+import com.example.demo.service.IpamService;
+import com.example.demo.service.UserContextService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.net.URI;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/subnets")
+@CrossOrigin(origins = "*")
+public class SubnetController {
+    private static final int MAX_FREE_LIMIT = 1024;
+
+    private final IpamService service;
+    private final UserContextService userContextService;
+
+    public SubnetController(IpamService service, UserContextService userContextService) {
+        this.service = service;
+        this.userContextService = userContextService;
+    }
+
+    /** Subnets with their used and free address counts, ordered by network address. */
+    @GetMapping
+    public ResponseEntity<?> list(
+            @RequestParam(required = false) Long departmentId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // If not admin, force filter by user's department
+        if (!userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                return ResponseEntity.ok(service.findSubnets(userDeptId));
+            }
+        }
+        return ResponseEntity.ok(service.findSubnets(departmentId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        Optional<SubnetDto> subnet = service.findSubnet(id);
+        if (subnet.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canSee(subnet.get(), userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("This subnet belongs to another department");
+        }
+        return ResponseEntity.ok(subnet.get());
+    }
+
+    /** The lowest free host addresses, e.g. to pick one by hand; nothing is reserved. */
+    @GetMapping("/{id}/free")
+    public ResponseEntity<?> free(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        Optional<SubnetDto> subnet = service.findSubnet(id);
+        if (subnet.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canSee(subnet.get(), userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("This subnet belongs to another department");
+        }
+        return ResponseEntity.ok(service.freeAddresses(id, Math.max(1, Math.min(limit, MAX_FREE_LIMIT))));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(
+            @RequestBody SubnetDto dto,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (!canManage(dto.departmentId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can create subnets, in their own department");
+        }
+        SubnetDto saved = service.createSubnet(dto);
+        return ResponseEntity.created(URI.create("/api/subnets/" + saved.id)).body(saved);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        Optional<SubnetDto> subnet = service.findSubnet(id);
+        if (subnet.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canManage(subnet.get().departmentId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can delete subnets, in their own department");
+        }
+        service.deleteSubnet(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean canSee(SubnetDto subnet, Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (userContextService.isAdmin()) {
+            return true;
+        }
+        Long userDeptId = userContextService.getCurrentUserDepartmentId();
+        return userDeptId == null || userDeptId.equals(subnet.departmentId);
+    }
+
+    // SUPER_ADMIN anywhere, department admins in their own department
+    private boolean canManage(Long departmentId, Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (userContextService.isSuperAdmin()) {
+            return true;
+        }
+        return userContextService.isAdmin()
+                && userContextService.getCurrentUserDepartmentId() != null
+                && userContextService.getCurrentUserDepartmentId().equals(departmentId);
+    }
+}
@@ -1,18 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.CursorPageDto;
 import com.example.demo.dto.UserDto;
 import com.example.demo.entite.Department;
 import com.example.demo.entite.User;
+import com.example.demo.enums.InventoryEntity;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.DeltaSyncService;
 import com.example.demo.service.UserContextService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.VersionService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,37 +28,67 @@ public class UserController {
     private final PasswordEncoder passwordEncoder;
     private final DepartmentRepository departmentRepository;
     private final UserContextService userContextService;
+    private final VersionService versionService;
+    private final DeltaSyncService deltaSyncService;
     
-    public UserController(UserService service, PasswordEncoder passwordEncoder, DepartmentRepository departmentRepository, UserContextService userContextService) { 
+    public UserController(UserService service, PasswordEncoder passwordEncoder, DepartmentRepository departmentRepository, UserContextService userContextService, VersionService versionService, DeltaSyncService deltaSyncService) { 
         this.service = service;
         this.passwordEncoder = passwordEncoder;
         this.departmentRepository = departmentRepository;
         this.userContextService = userContextService;
+        this.versionService = versionService;
+        this.deltaSyncService = deltaSyncService;
     }
 
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(required = false) Long departmentId,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         if (userId != null) {
             userContextService.setCurrentUserId(userId);
         }
+        int pageSize = CursorPageDto.clampLimit(limit);
         
-        // SUPER_ADMIN can see all users or filter by department
-        if (userContextService.isSuperAdmin()) {
-            if (departmentId != null) {
-                return ResponseEntity.ok(service.findByDepartmentId(departmentId).stream().map(UserController::toDto).collect(Collectors.toList()));
+        // SUPER_ADMIN can see all users or filter by department;
+        // regular ADMIN and USER can only see users in their own department
+        Long scope = departmentId;
+        if (!userContextService.isSuperAdmin()) {
+            scope = userContextService.getCurrentUserDepartmentId();
+            if (scope == null) {
+                return ResponseEntity.ok(CursorPageDto.empty());
             }
-            return ResponseEntity.ok(service.findAll().stream().map(UserController::toDto).collect(Collectors.toList()));
         }
-        
-        // Regular ADMIN and USER can only see users in their own department
-        Long userDeptId = userContextService.getCurrentUserDepartmentId();
-        if (userDeptId == null) {
-            return ResponseEntity.ok(List.of());
+
+        String etag = versionService.etag(scope, InventoryEntity.USER);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag);
         }
-        return ResponseEntity.ok(service.findByDepartmentId(userDeptId).stream().map(UserController::toDto).collect(Collectors.toList()));
+        return ConditionalGet.ok(etag).body(toPage(service.findPage(scope, cursor, pageSize)));
+    }
+
+    @GetMapping("/changes")
+    public ChangesPageDto<UserDto> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // Same scoping as the list
+        Long scope = departmentId;
+        if (!userContextService.isSuperAdmin()) {
+            scope = userContextService.getCurrentUserDepartmentId();
+            if (scope == null) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to sync users without a department");
+            }
+        }
+        return deltaSyncService.changes(InventoryEntity.USER, since, scope, CursorPageDto.clampLimit(limit));
     }
 
     @GetMapping("/{id}")
@@ -144,7 +180,11 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
-    private static UserDto toDto(User u) {
+    private static CursorPageDto<UserDto> toPage(Slice<UserDto> slice) {
+        return CursorPageDto.of(slice, dto -> dto.id);
+    }
+
+    static UserDto toDto(User u) {
         UserDto dto = new UserDto();
         dto.id = u.getId();
         dto.username = u.getUsername();
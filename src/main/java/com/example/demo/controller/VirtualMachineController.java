@@ -1,16 +1,30 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.CursorPageDto;
 import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.dto.VmBulkChangeDto;
 import com.example.demo.entite.Department;
 import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.enums.PlacementStrategy;
+import com.example.demo.enums.VMStatus;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.BulkChangeService;
+import com.example.demo.service.BulkImportService;
+import com.example.demo.service.DeltaSyncService;
 import com.example.demo.service.UserContextService;
+import com.example.demo.service.VersionService;
 import com.example.demo.service.VirtualMachineService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/virtual-machines")
@@ -19,44 +33,76 @@ public class VirtualMachineController {
     private final VirtualMachineService service;
     private final DepartmentRepository departmentRepository;
     private final UserContextService userContextService;
+    private final VersionService versionService;
+    private final DeltaSyncService deltaSyncService;
+    private final BulkImportService bulkImportService;
+    private final BulkChangeService bulkChangeService;
     
-    public VirtualMachineController(VirtualMachineService service, DepartmentRepository departmentRepository, UserContextService userContextService) { 
+    public VirtualMachineController(VirtualMachineService service, DepartmentRepository departmentRepository, UserContextService userContextService, VersionService versionService, BulkImportService bulkImportService,
+                                    BulkChangeService bulkChangeService, DeltaSyncService deltaSyncService) { 
         this.service = service;
         this.departmentRepository = departmentRepository;
         this.userContextService = userContextService;
+        this.versionService = versionService;
+        this.deltaSyncService = deltaSyncService;
+        this.bulkImportService = bulkImportService;
+        this.bulkChangeService = bulkChangeService;
     }
 
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(required = false) Long departmentId,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
             if (userId != null) {
                 userContextService.setCurrentUserId(userId);
             }
+            int pageSize = CursorPageDto.clampLimit(limit);
             
-            // If not admin, force filter by user's department
+            // If not admin, force filter by user's department. Admin can filter or see all
+            Long scope = departmentId;
             if (userId != null && !userContextService.isAdmin()) {
                 Long userDeptId = userContextService.getCurrentUserDepartmentId();
                 if (userDeptId != null) {
-                    return ResponseEntity.ok(service.findByDepartmentId(userDeptId).stream()
-                            .map(VirtualMachineController::toDto).collect(Collectors.toList()));
+                    scope = userDeptId;
                 }
             }
-            
-            // Admin can filter or see all
-            if (departmentId != null) {
-                return ResponseEntity.ok(service.findByDepartmentId(departmentId).stream()
-                        .map(VirtualMachineController::toDto).collect(Collectors.toList()));
+
+            String etag = versionService.etag(scope, InventoryEntity.VIRTUAL_MACHINE);
+            if (ConditionalGet.matches(ifNoneMatch, etag)) {
+                return ConditionalGet.notModified(etag);
             }
-            return ResponseEntity.ok(service.findAll().stream()
-                    .map(VirtualMachineController::toDto).collect(Collectors.toList()));
+            return ConditionalGet.ok(etag).body(toPage(service.findPage(scope, cursor, pageSize)));
         } catch (Exception e) {
             System.err.println("Error loading virtual machines: " + e.getMessage());
             e.printStackTrace();
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
+            return ResponseEntity.ok(CursorPageDto.empty()); // Return empty page instead of error
+        }
+    }
+
+    @GetMapping("/changes")
+    public ChangesPageDto<VirtualMachineDto> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        // Same scoping as the list
+        Long scope = departmentId;
+        if (userId != null && !userContextService.isAdmin()) {
+            Long userDeptId = userContextService.getCurrentUserDepartmentId();
+            if (userDeptId != null) {
+                scope = userDeptId;
+            }
         }
+        return deltaSyncService.changes(InventoryEntity.VIRTUAL_MACHINE, since, scope, CursorPageDto.clampLimit(limit));
     }
 
     @GetMapping("/{id}")
@@ -64,8 +110,17 @@ public class VirtualMachineController {
         return ResponseEntity.ok(toDto(service.findByIdOrThrow(id)));
     }
 
+    /**
+     * Leave {@code hardwareId} out to let the scheduler pick a host in the VM's department,
+     * optionally restricted to {@code siteId} and with a non-default {@code placement} strategy.
+     * Leave {@code ipAddress} out and pass {@code subnetId} to get the subnet's next free address.
+     */
     @PostMapping
-    public ResponseEntity<VirtualMachineDto> create(@RequestBody VirtualMachineDto dto) {
+    public ResponseEntity<VirtualMachineDto> create(
+            @RequestBody VirtualMachineDto dto,
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) PlacementStrategy placement,
+            @RequestParam(required = false) Long subnetId) {
         VirtualMachine e = new VirtualMachine();
         e.setName(dto.name);
         e.setHostname(dto.hostname);
@@ -80,10 +135,65 @@ public class VirtualMachineController {
                 .orElseThrow(() -> new RuntimeException("Department not found"));
             e.setDepartment(dept);
         }
-        VirtualMachine saved = service.create(e, dto.hardwareId);
+        VirtualMachine saved = service.create(e, dto.hardwareId, siteId, placement, subnetId);
         return ResponseEntity.created(URI.create("/api/virtual-machines/" + saved.getId())).body(toDto(saved));
     }
 
+    /** Same formats and department rules as {@link HardwareController#bulkImport}. */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> bulkImport(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) throws IOException {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can bulk import virtual machines");
+        }
+        Long departmentScope = userContextService.isSuperAdmin() ? null : userContextService.getCurrentUserDepartmentId();
+        return ResponseEntity.ok(bulkImportService.importVirtualMachines(body, contentType, departmentScope));
+    }
+
+    /**
+     * One UPDATE for every selected VM, e.g. {@code {"hardwareId": 12, "setStatus": "STOPPED"}}.
+     * Department admins only reach VMs of their own department.
+     */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> bulkUpdate(
+            @RequestBody VmBulkChangeDto change,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can change virtual machines in bulk");
+        }
+        Long departmentScope = userContextService.isSuperAdmin() ? null : userContextService.getCurrentUserDepartmentId();
+        return ResponseEntity.ok(bulkChangeService.updateVirtualMachines(change, departmentScope));
+    }
+
+    /** Deletes the VMs selected by {@code ids} and/or the filters, with the same rules as the bulk PATCH. */
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> bulkDelete(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) Long hardwareId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) VMStatus status,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (userId != null) {
+            userContextService.setCurrentUserId(userId);
+        }
+        if (!userContextService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only administrators can delete virtual machines in bulk");
+        }
+        Long departmentScope = userContextService.isSuperAdmin() ? null : userContextService.getCurrentUserDepartmentId();
+        return ResponseEntity.ok(bulkChangeService.deleteVirtualMachines(ids, hardwareId, departmentId, status, departmentScope));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<VirtualMachineDto> update(@PathVariable Long id, @RequestBody VirtualMachineDto dto) {
         VirtualMachine updated = new VirtualMachine();
@@ -110,7 +220,11 @@ public class VirtualMachineController {
         return ResponseEntity.noContent().build();
     }
 
-    private static VirtualMachineDto toDto(VirtualMachine e) {
+    private static CursorPageDto<VirtualMachineDto> toPage(Slice<VirtualMachineDto> slice) {
+        return CursorPageDto.of(slice, dto -> dto.id);
+    }
+
+    static VirtualMachineDto toDto(VirtualMachine e) {
         VirtualMachineDto dto = new VirtualMachineDto();
         dto.id = e.getId();
         dto.name = e.getName();
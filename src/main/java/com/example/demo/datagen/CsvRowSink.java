@@ -0,0 +1,122 @@
+package com.example.demo.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes one {@code <table>.csv} per table (header line, strings quoted, NULL as {@code \N},
+ * timestamps in UTC), then {@code load-mysql.sql} and {@code load-h2.sql} to bulk load them with
+ * {@code LOAD DATA LOCAL INFILE} or {@code CSVREAD}, followed by the given statements.
+ */
+class CsvRowSink implements RowSink {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private final Path directory;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final List<Table> tables = new ArrayList<>();
+    private final StringBuilder line = new StringBuilder(512);
+
+    private Table table;
+    private Writer out;
+    private long written;
+
+    CsvRowSink(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath();
+    }
+
+    Map<String, Long> counts() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public void begin(Table table) throws IOException {
+        this.table = table;
+        this.written = 0;
+        out = new BufferedWriter(Files.newBufferedWriter(file(table), StandardCharsets.UTF_8), 1 << 16);
+        out.write(String.join(",", table.columns()));
+        out.write('\n');
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            append(values[i]);
+        }
+        line.append('\n');
+        out.append(line);
+        written++;
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.close();
+        tables.add(table);
+        counts.put(table.name(), written);
+    }
+
+    /** Writes both load scripts; {@code mysqlAfter} and {@code h2After} run once every table is loaded. */
+    void writeScripts(List<String> mysqlAfter, List<String> h2After) throws IOException {
+        List<String> mysql = new ArrayList<>();
+        mysql.add("-- mysql --local-infile=1 inventorydb < load-mysql.sql (the server needs local_infile=ON)");
+        mysql.add("SET time_zone = '+00:00';");
+        mysql.add("SET unique_checks = 0;");
+        mysql.add("SET foreign_key_checks = 0;");
+        for (Table t : tables) {
+            mysql.add("LOAD DATA LOCAL INFILE '" + file(t) + "' INTO TABLE " + t.name()
+                    + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                    + " LINES TERMINATED BY '\\n' IGNORE 1 LINES (" + String.join(", ", t.columns()) + ");");
+        }
+        mysql.add("SET foreign_key_checks = 1;");
+        mysql.add("SET unique_checks = 1;");
+        mysqlAfter.forEach(statement -> mysql.add(statement + ";"));
+        Files.write(directory.resolve("load-mysql.sql"), mysql, StandardCharsets.UTF_8);
+
+        List<String> h2 = new ArrayList<>();
+        h2.add("-- RUNSCRIPT FROM 'load-h2.sql'");
+        h2.add("SET TIME ZONE 'UTC';");
+        for (Table t : tables) {
+            // CSVREAD only reads empty fields as NULL; \N is what LOAD DATA expects
+            List<String> values = t.columns().stream().map(column -> "NULLIF(\"" + column + "\", '\\N')").toList();
+            h2.add("INSERT INTO " + t.name() + " (" + String.join(", ", t.columns()) + ") SELECT " + String.join(", ", values)
+                    + " FROM CSVREAD('" + file(t) + "', NULL, 'charset=UTF-8 caseSensitiveColumnNames=true');");
+        }
+        h2After.forEach(statement -> h2.add(statement + ";"));
+        Files.write(directory.resolve("load-h2.sql"), h2, StandardCharsets.UTF_8);
+    }
+
+    private Path file(Table t) {
+        return directory.resolve(t.name() + ".csv");
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            line.append("\\N");
+        } else if (value instanceof String text) {
+            line.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else if (value instanceof Instant instant) {
+            line.append(TIMESTAMP.format(LocalDateTime.ofInstant(instant, ZoneOffset.UTC)));
+        } else if (value instanceof Boolean flag) {
+            line.append(flag ? '1' : '0');
+        } else {
+            line.append(value);
+        }
+    }
+}
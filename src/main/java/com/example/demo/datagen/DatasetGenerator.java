@@ -0,0 +1,403 @@
+package com.example.demo.datagen;
+
+import com.example.demo.datagen.RowSink.Table;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.HardwareType;
+import com.example.demo.enums.Role;
+import com.example.demo.enums.VMStatus;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds a synthetic inventory from {@link DatasetProperties}: departments, then their sites,
+ * users, hardware, VMs and deployment tasks, each referring only to rows generated before it.
+ *
+ * Every table draws from its own random stream derived from the seed, so a table's rows do not
+ * change when another table is resized. Hardware, users and VMs are spread over departments by
+ * the Zipf weights; VMs also favour some hosts within a department over others. Besides one
+ * {@code int} per VM (its department, needed by the tasks), nothing is kept per row, so ten
+ * million VMs need about 40 MB.
+ *
+ * Hardware addresses come from 172.16.0.0/12 and VM addresses from 10.64.0.0-10.255.255.255,
+ * both derived from the row id, so they never collide; rows whose id is past the range get none.
+ */
+public class DatasetGenerator {
+
+    static final Table DEPARTMENT = new Table("department", "id", "name", "description", "active");
+    static final Table SITE = new Table("site", "id", "name", "address", "city", "country", "department_id", "updated_at");
+    static final Table USERS = new Table("users", "id", "username", "email", "password_hash", "enabled", "role",
+            "department_id", "updated_at");
+    static final Table HARDWARE = new Table("hardware", "id", "name", "type", "model", "serial_number", "ip_address",
+            "ip_numeric", "cpu_cores", "ram_gb", "storage_gb", "status", "purchase_date", "warranty_end_date", "site_id",
+            "department_id", "updated_at");
+    static final Table VIRTUAL_MACHINE = new Table("virtual_machine", "id", "name", "hostname", "ip_address", "ip_numeric",
+            "operating_system", "vcpu", "vram", "disk_size", "status", "hardware_id", "department_id", "updated_at");
+    static final Table DEPLOYMENT_TASK = new Table("deployment_task", "id", "task_name", "description", "vm_id",
+            "requested_by", "status", "created_at", "completed_at", "scheduled_date", "department_id", "updated_at");
+    /** In the order they are generated. */
+    static final List<Table> TABLES = List.of(DEPARTMENT, SITE, USERS, HARDWARE, VIRTUAL_MACHINE, DEPLOYMENT_TASK);
+
+    /** Highest id already in each table; generated ids follow. */
+    public record IdBase(long department, long site, long users, long hardware, long virtualMachine, long deploymentTask) {
+        public static final IdBase EMPTY = new IdBase(0, 0, 0, 0, 0, 0);
+
+        public long of(Table table) {
+            return table == DEPARTMENT ? department : table == SITE ? site : table == USERS ? users
+                    : table == HARDWARE ? hardware : table == VIRTUAL_MACHINE ? virtualMachine : deploymentTask;
+        }
+    }
+
+    // The hash used by database/dummy_data.sql: every generated user signs in with "password123"
+    static final String PASSWORD_HASH = "$2a$10$ifKWhrmNcyisiOWv7K9m7OYH18mD3q3uhsPfmfON0fDg3dAKGtgFm";
+
+    private static final long HARDWARE_ADDRESSES = 172L << 24 | 16L << 16;
+    private static final long HARDWARE_ADDRESS_COUNT = 1L << 20;
+    private static final long VM_ADDRESSES = 10L << 24 | 64L << 16;
+    private static final long VM_ADDRESS_COUNT = (11L << 24) - VM_ADDRESSES;
+    private static final long YEAR_SECONDS = 365L * 24 * 3600;
+
+    private static final String[] CITIES = {"Paris", "Lyon", "Frankfurt", "Amsterdam", "London", "Dublin", "Madrid",
+            "Milan", "Warsaw", "Stockholm"};
+    private static final String[] COUNTRIES = {"FR", "FR", "DE", "NL", "GB", "IE", "ES", "IT", "PL", "SE"};
+    private static final String[] SERVER_MODELS = {"PowerEdge R740", "PowerEdge R750", "ProLiant DL380 Gen10",
+            "ProLiant DL360 Gen11", "ThinkSystem SR650"};
+    private static final String[] STORAGE_MODELS = {"PowerStore 1200T", "NetApp AFF A400", "Pure FlashArray//X20"};
+    private static final String[] NETWORK_MODELS = {"Nexus 93180YC", "Arista 7050X3", "Juniper QFX5120"};
+    private static final int[] CPU_CORES = {16, 24, 32, 48, 64, 96, 128};
+    private static final int[] RAM_GB = {64, 128, 256, 384, 512, 768, 1024};
+    private static final int[] STORAGE_GB = {960, 1920, 3840, 7680, 15360};
+    private static final String[] OPERATING_SYSTEMS = {"Oracle Linux 9", "Oracle Linux 8", "Ubuntu 22.04", "Ubuntu 24.04",
+            "RHEL 9", "Windows Server 2022", "Windows Server 2019", "Debian 12"};
+    // Small VMs are the common case
+    private static final int[] VCPU = {1, 2, 2, 2, 4, 4, 4, 8, 8, 16};
+    private static final int[] VRAM = {2, 4, 4, 8, 8, 8, 16, 16, 32, 64};
+    private static final int[] DISK = {20, 40, 40, 80, 80, 100, 100, 200, 500, 1000};
+    private static final String[] TASK_ACTIONS = {"Patch", "Upgrade", "Reboot", "Resize", "Migrate", "Back up", "Deploy agent on"};
+    private static final String[] TASK_DESCRIPTIONS = {"Monthly security updates", "Requested by the application team",
+            "Maintenance window", "Capacity rebalancing", null};
+
+    private final DatasetProperties spec;
+    private final IdBase base;
+    private final Instant reference;
+    private final LocalDate referenceDate;
+
+    public DatasetGenerator(DatasetProperties spec, IdBase base) {
+        this.spec = spec;
+        this.base = base;
+        this.reference = spec.getReferenceTime();
+        this.referenceDate = LocalDate.ofInstant(reference, ZoneOffset.UTC);
+    }
+
+    public void generate(RowSink sink) throws IOException, SQLException {
+        int departments = Math.max(1, spec.getDepartments());
+        double[] weights = zipf(departments, spec.getSkew());
+
+        departments(sink, departments);
+        int[] siteCount = apportion(weights, Math.max(spec.getSites(), departments));
+        int[] siteStart = new int[departments];
+        for (int d = 1; d < departments; d++) {
+            siteStart[d] = siteStart[d - 1] + siteCount[d - 1];
+        }
+        sites(sink, siteStart, siteCount);
+        int[][] usersByDepartment = users(sink, weights);
+        int[][] hostsByDepartment = hardware(sink, weights, siteStart, siteCount);
+        int[] vmDepartment = virtualMachines(sink, weights, hostsByDepartment);
+        tasks(sink, vmDepartment, usersByDepartment);
+    }
+
+    private void departments(RowSink sink, int count) throws IOException, SQLException {
+        sink.begin(DEPARTMENT);
+        Object[] row = new Object[DEPARTMENT.columns().size()];
+        for (int d = 0; d < count; d++) {
+            long id = base.department() + d + 1;
+            row[0] = id;
+            row[1] = "Department " + id;
+            row[2] = "Generated (seed " + spec.getSeed() + ")";
+            row[3] = Boolean.TRUE;
+            sink.row(row);
+        }
+        sink.end();
+    }
+
+    private void sites(RowSink sink, int[] siteStart, int[] siteCount) throws IOException, SQLException {
+        SplittableRandom random = random(SITE);
+        sink.begin(SITE);
+        Object[] row = new Object[SITE.columns().size()];
+        for (int d = 0; d < siteCount.length; d++) {
+            for (int s = 0; s < siteCount[d]; s++) {
+                long id = base.site() + siteStart[d] + s + 1;
+                int city = random.nextInt(CITIES.length);
+                row[0] = id;
+                row[1] = CITIES[city] + " DC" + (s + 1) + " (" + (base.department() + d + 1) + ")";
+                row[2] = (1 + random.nextInt(200)) + " Avenue " + id;
+                row[3] = CITIES[city];
+                row[4] = COUNTRIES[city];
+                row[5] = base.department() + d + 1;
+                row[6] = pastInstant(random);
+                sink.row(row);
+            }
+        }
+        sink.end();
+    }
+
+    // One SUPER_ADMIN overall and the first user of each department is its ADMIN
+    private int[][] users(RowSink sink, double[] weights) throws IOException, SQLException {
+        SplittableRandom random = random(USERS);
+        double[] cdf = cdf(weights);
+        int[] department = new int[Math.max(0, spec.getUsers())];
+        boolean[] hasAdmin = new boolean[weights.length];
+        sink.begin(USERS);
+        Object[] row = new Object[USERS.columns().size()];
+        for (int i = 0; i < department.length; i++) {
+            long id = base.users() + i + 1;
+            int d = sample(cdf, random);
+            department[i] = d;
+            Role role = i == 0 ? Role.SUPER_ADMIN : hasAdmin[d] ? Role.USER : Role.ADMIN;
+            hasAdmin[d] |= role != Role.USER;
+            row[0] = id;
+            row[1] = "user" + id;
+            row[2] = "user" + id + "@example.com";
+            row[3] = PASSWORD_HASH;
+            row[4] = random.nextInt(50) != 0;
+            row[5] = role.name();
+            row[6] = base.department() + d + 1;
+            row[7] = pastInstant(random);
+            sink.row(row);
+        }
+        sink.end();
+        return group(department, weights.length);
+    }
+
+    private int[][] hardware(RowSink sink, double[] weights, int[] siteStart, int[] siteCount) throws IOException, SQLException {
+        SplittableRandom random = random(HARDWARE);
+        double[] cdf = cdf(weights);
+        int[] department = new int[Math.max(0, spec.getHardware())];
+        sink.begin(HARDWARE);
+        Object[] row = new Object[HARDWARE.columns().size()];
+        for (int i = 0; i < department.length; i++) {
+            long id = base.hardware() + i + 1;
+            int d = sample(cdf, random);
+            department[i] = d;
+            double kind = random.nextDouble();
+            HardwareType type = kind < 0.8 ? HardwareType.SERVER : kind < 0.9 ? HardwareType.STORAGE : HardwareType.NETWORK;
+            String[] models = type == HardwareType.SERVER ? SERVER_MODELS : type == HardwareType.STORAGE ? STORAGE_MODELS : NETWORK_MODELS;
+            LocalDate purchased = referenceDate.minusDays(random.nextInt(5 * 365));
+            Long address = id <= HARDWARE_ADDRESS_COUNT - 2 ? HARDWARE_ADDRESSES + id : null;
+            row[0] = id;
+            row[1] = (type == HardwareType.SERVER ? "srv-" : type == HardwareType.STORAGE ? "stor-" : "net-") + id;
+            row[2] = type.name();
+            row[3] = models[random.nextInt(models.length)];
+            row[4] = "SN" + Long.toString(0x10000000L + id * 7919, 36).toUpperCase();
+            row[5] = address != null ? format(address) : null;
+            row[6] = address;
+            row[7] = type == HardwareType.SERVER ? CPU_CORES[random.nextInt(CPU_CORES.length)] : 8;
+            row[8] = type == HardwareType.SERVER ? RAM_GB[random.nextInt(RAM_GB.length)] : 32;
+            row[9] = STORAGE_GB[random.nextInt(STORAGE_GB.length)] * (type == HardwareType.STORAGE ? 64 : 1);
+            row[10] = hardwareStatus(random).name();
+            row[11] = purchased;
+            row[12] = purchased.plusYears(random.nextBoolean() ? 3 : 5);
+            row[13] = base.site() + siteStart[d] + random.nextInt(siteCount[d]) + 1;
+            row[14] = base.department() + d + 1;
+            row[15] = pastInstant(random);
+            sink.row(row);
+        }
+        sink.end();
+        return group(department, weights.length);
+    }
+
+    private int[] virtualMachines(RowSink sink, double[] weights, int[][] hostsByDepartment) throws IOException, SQLException {
+        SplittableRandom random = random(VIRTUAL_MACHINE);
+        // Only departments with hardware can have VMs
+        double[] hosted = weights.clone();
+        for (int d = 0; d < hosted.length; d++) {
+            if (hostsByDepartment[d].length == 0) {
+                hosted[d] = 0;
+            }
+        }
+        int count = Arrays.stream(hosted).sum() > 0 ? Math.max(0, spec.getVirtualMachines()) : 0;
+        double[] cdf = cdf(hosted);
+        int[] department = new int[count];
+        sink.begin(VIRTUAL_MACHINE);
+        Object[] row = new Object[VIRTUAL_MACHINE.columns().size()];
+        for (int i = 0; i < count; i++) {
+            long id = base.virtualMachine() + i + 1;
+            int d = sample(cdf, random);
+            department[i] = d;
+            int[] hosts = hostsByDepartment[d];
+            // Squaring favours the first hosts: a quarter of them carry half the VMs
+            double u = random.nextDouble();
+            int host = hosts[(int) (hosts.length * u * u)];
+            Long address = id <= VM_ADDRESS_COUNT - 2 ? VM_ADDRESSES + id : null;
+            row[0] = id;
+            row[1] = "vm-" + id;
+            row[2] = "vm-" + id + ".d" + (base.department() + d + 1) + ".corp.example.com";
+            row[3] = address != null ? format(address) : null;
+            row[4] = address;
+            row[5] = OPERATING_SYSTEMS[random.nextInt(OPERATING_SYSTEMS.length)];
+            row[6] = VCPU[random.nextInt(VCPU.length)];
+            row[7] = VRAM[random.nextInt(VRAM.length)];
+            row[8] = DISK[random.nextInt(DISK.length)];
+            row[9] = (random.nextInt(100) < 85 ? VMStatus.RUNNING : VMStatus.STOPPED).name();
+            row[10] = base.hardware() + host + 1;
+            row[11] = base.department() + d + 1;
+            row[12] = pastInstant(random);
+            sink.row(row);
+        }
+        sink.end();
+        return department;
+    }
+
+    private void tasks(RowSink sink, int[] vmDepartment, int[][] usersByDepartment) throws IOException, SQLException {
+        SplittableRandom random = random(DEPLOYMENT_TASK);
+        int users = Arrays.stream(usersByDepartment).mapToInt(u -> u.length).sum();
+        int count = vmDepartment.length > 0 && users > 0 ? Math.max(0, spec.getTasks()) : 0;
+        sink.begin(DEPLOYMENT_TASK);
+        Object[] row = new Object[DEPLOYMENT_TASK.columns().size()];
+        for (int i = 0; i < count; i++) {
+            long id = base.deploymentTask() + i + 1;
+            int vm = random.nextInt(vmDepartment.length);
+            int d = vmDepartment[vm];
+            int[] candidates = usersByDepartment[d];
+            long requestedBy = candidates.length > 0
+                    ? base.users() + candidates[random.nextInt(candidates.length)] + 1
+                    : base.users() + random.nextInt(users) + 1;
+
+            int roll = random.nextInt(100);
+            DeploymentStatus status = roll < 70 ? DeploymentStatus.COMPLETED : roll < 75 ? DeploymentStatus.FAILED
+                    : roll < 77 ? DeploymentStatus.IN_PROGRESS : DeploymentStatus.PENDING;
+            Instant created = pastInstant(random);
+            Instant scheduled;
+            Instant completed = null;
+            if (status == DeploymentStatus.PENDING) {
+                scheduled = reference.plusSeconds(random.nextLong(30L * 24 * 3600));
+            } else {
+                scheduled = created.plusSeconds(random.nextLong(2L * 24 * 3600));
+                if (status != DeploymentStatus.IN_PROGRESS) {
+                    completed = scheduled.plusSeconds(60 + random.nextLong(4L * 3600));
+                }
+            }
+            row[0] = id;
+            row[1] = TASK_ACTIONS[random.nextInt(TASK_ACTIONS.length)] + " vm-" + (base.virtualMachine() + vm + 1);
+            row[2] = TASK_DESCRIPTIONS[random.nextInt(TASK_DESCRIPTIONS.length)];
+            row[3] = base.virtualMachine() + vm + 1;
+            row[4] = requestedBy;
+            row[5] = status.name();
+            row[6] = created;
+            row[7] = completed;
+            row[8] = scheduled;
+            row[9] = base.department() + d + 1;
+            row[10] = completed != null ? completed : created;
+            sink.row(row);
+        }
+        sink.end();
+    }
+
+    private SplittableRandom random(Table table) {
+        return new SplittableRandom(spec.getSeed() * 0x9E3779B97F4A7C15L + table.name().hashCode());
+    }
+
+    private Instant pastInstant(SplittableRandom random) {
+        return reference.minusSeconds(1 + random.nextLong(YEAR_SECONDS));
+    }
+
+    private static HardwareStatus hardwareStatus(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        return roll < 85 ? HardwareStatus.OPERATIONAL : roll < 92 ? HardwareStatus.MAINTENANCE
+                : roll < 95 ? HardwareStatus.DOWN : HardwareStatus.DECOMMISSIONED;
+    }
+
+    /** Weight of rank i (0-based) proportional to 1 / (i + 1)^skew, summing to 1. */
+    static double[] zipf(int n, double skew) {
+        double[] weights = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1 / Math.pow(i + 1, skew);
+            sum += weights[i];
+        }
+        for (int i = 0; i < n; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    // First entry whose cumulative weight exceeds a uniform draw; zero-weight entries are never picked
+    private static int sample(double[] cdf, SplittableRandom random) {
+        double u = random.nextDouble() * cdf[cdf.length - 1];
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] > u) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /** At least one per entry, the rest split by weight (largest remainders first). */
+    static int[] apportion(double[] weights, int total) {
+        int n = weights.length;
+        int[] counts = new int[n];
+        Arrays.fill(counts, 1);
+        int rest = total - n;
+        double[] remainders = new double[n];
+        int given = 0;
+        for (int i = 0; i < n; i++) {
+            double share = weights[i] * rest;
+            counts[i] += (int) share;
+            given += (int) share;
+            remainders[i] = share - (int) share;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(remainders[b], remainders[a]));
+        for (int k = 0; k < rest - given; k++) {
+            counts[order[k % n]]++;
+        }
+        return counts;
+    }
+
+    /** Indexes of the rows of each group, in row order. */
+    private static int[][] group(int[] groupOfRow, int groups) {
+        int[] sizes = new int[groups];
+        for (int g : groupOfRow) {
+            sizes[g]++;
+        }
+        int[][] rows = new int[groups][];
+        for (int g = 0; g < groups; g++) {
+            rows[g] = new int[sizes[g]];
+        }
+        int[] filled = new int[groups];
+        for (int row = 0; row < groupOfRow.length; row++) {
+            int g = groupOfRow[row];
+            rows[g][filled[g]++] = row;
+        }
+        return rows;
+    }
+
+    private static String format(long address) {
+        return (address >>> 24) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.datagen;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command line entry point: with profile {@code datagen} the application loads the configured
+ * dataset and exits, before the in-memory views would read every row at startup.
+ */
+@Component
+@Profile("datagen")
+public class DatasetGeneratorRunner implements ApplicationRunner {
+
+    private final DatasetLoader loader;
+    private final ConfigurableApplicationContext context;
+
+    public DatasetGeneratorRunner(DatasetLoader loader, ConfigurableApplicationContext context) {
+        this.loader = loader;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        loader.load();
+        System.exit(SpringApplication.exit(context));
+    }
+}
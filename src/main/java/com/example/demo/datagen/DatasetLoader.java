@@ -0,0 +1,147 @@
+package com.example.demo.datagen;
+
+import com.example.demo.datagen.DatasetGenerator.IdBase;
+import com.example.demo.datagen.RowSink.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link DatasetGenerator} into the application's database (format INSERT) or into CSV files
+ * and load scripts (format CSV).
+ *
+ * INSERT ids continue after the highest id of each table, so existing rows are kept. Afterwards the
+ * {@code id_generator} counters (hardware, virtual_machine) are moved past the new rows, as
+ * {@code database/id_generator.sql} does, and on H2 the identity columns are restarted, since H2 does
+ * not advance them on inserts with explicit ids (MySQL does). On MySQL, unique and foreign key checks
+ * are off for the session while rows go in; the generator only refers to rows it wrote before.
+ *
+ * In-memory views (capacity, search, snapshots) and the second-level cache do not see the new rows
+ * until the application restarts.
+ */
+@Service
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetLoader.class);
+
+    // Same gap as database/id_generator.sql: one full allocation block above the highest id
+    private static final int ALLOCATION_SIZE = 50;
+
+    /** Rows written per table, in the order they were written. */
+    public record Result(DatasetProperties.Format format, Map<String, Long> rows, Duration elapsed) {
+        public long totalRows() {
+            return rows.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long rowsPerSecond() {
+            return totalRows() * 1000 / Math.max(1, elapsed.toMillis());
+        }
+    }
+
+    private final DataSource dataSource;
+    private final DatasetProperties properties;
+
+    public DatasetLoader(DataSource dataSource, DatasetProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    /** Loads the dataset configured under {@code inventory.datagen.*}. */
+    public Result load() throws IOException, SQLException {
+        return load(properties);
+    }
+
+    public Result load(DatasetProperties spec) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Map<String, Long> rows = spec.getFormat() == DatasetProperties.Format.CSV ? writeCsv(spec) : insert(spec);
+        Result result = new Result(spec.getFormat(), rows, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Generated {} rows (seed {}) in {} ms, {} rows/s: {}", result.totalRows(), spec.getSeed(),
+                result.elapsed().toMillis(), result.rowsPerSecond(), rows);
+        return result;
+    }
+
+    private Map<String, Long> insert(DatasetProperties spec) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            IdBase base = idBase(connection);
+            JdbcRowSink sink = new JdbcRowSink(connection, spec.getRowsPerStatement(), spec.getCommitInterval());
+            if (mysql) {
+                execute(connection, List.of("SET unique_checks = 0", "SET foreign_key_checks = 0"));
+            }
+            try {
+                new DatasetGenerator(spec, base).generate(sink);
+            } finally {
+                if (mysql) {
+                    execute(connection, List.of("SET foreign_key_checks = 1", "SET unique_checks = 1"));
+                }
+            }
+            execute(connection, sequences(base, sink.counts(), !mysql));
+            return sink.counts();
+        }
+    }
+
+    // Ids start at 1: the scripts are meant for an empty schema
+    private Map<String, Long> writeCsv(DatasetProperties spec) throws IOException, SQLException {
+        CsvRowSink sink = new CsvRowSink(spec.getOutputDirectory());
+        new DatasetGenerator(spec, IdBase.EMPTY).generate(sink);
+        sink.writeScripts(sequences(IdBase.EMPTY, sink.counts(), false), sequences(IdBase.EMPTY, sink.counts(), true));
+        log.info("CSV files and load scripts written to {}", spec.getOutputDirectory().toAbsolutePath());
+        return sink.counts();
+    }
+
+    private static IdBase idBase(Connection connection) throws SQLException {
+        long[] max = new long[DatasetGenerator.TABLES.size()];
+        for (int i = 0; i < max.length; i++) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + DatasetGenerator.TABLES.get(i).name())) {
+                rs.next();
+                max[i] = rs.getLong(1);
+            }
+        }
+        return new IdBase(max[0], max[1], max[2], max[3], max[4], max[5]);
+    }
+
+    /** Statements that move id allocation past the generated rows (ids are contiguous after the base). */
+    static List<String> sequences(IdBase base, Map<String, Long> rows, boolean h2) {
+        List<String> statements = new ArrayList<>();
+        for (Table table : List.of(DatasetGenerator.HARDWARE, DatasetGenerator.VIRTUAL_MACHINE)) {
+            long next = highest(base, rows, table) + ALLOCATION_SIZE + 1;
+            statements.add("insert into id_generator (sequence_name, next_val) select '" + table.name() + "', " + next
+                    + " from dual where not exists (select 1 from id_generator where sequence_name = '" + table.name() + "')");
+            statements.add("update id_generator set next_val = greatest(next_val, " + next
+                    + ") where sequence_name = '" + table.name() + "'");
+        }
+        if (h2) {
+            for (Table table : List.of(DatasetGenerator.DEPARTMENT, DatasetGenerator.SITE, DatasetGenerator.USERS,
+                    DatasetGenerator.DEPLOYMENT_TASK)) {
+                statements.add("alter table " + table.name() + " alter column id restart with " + (highest(base, rows, table) + 1));
+            }
+        }
+        return statements;
+    }
+
+    private static long highest(IdBase base, Map<String, Long> rows, Table table) {
+        return base.of(table) + rows.getOrDefault(table.name(), 0L);
+    }
+
+    private static void execute(Connection connection, List<String> statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.datagen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Size and shape of a generated inventory, bound from {@code inventory.datagen.*}.
+ *
+ * The same seed and sizes always give the same rows (apart from ids, which continue after the
+ * highest existing id of each table). Departments are Zipf-distributed with exponent {@code skew}:
+ * at 1.0 the largest department gets about twice the rows of the second and ten times those of
+ * the tenth; 0 spreads rows evenly.
+ */
+@ConfigurationProperties(prefix = "inventory.datagen")
+public class DatasetProperties {
+
+    public enum Format {
+        /** Multi-row INSERTs straight into the application's database. */
+        INSERT,
+        /** One CSV file per table plus LOAD DATA (MySQL) and CSVREAD (H2) scripts, nothing written to the database. */
+        CSV
+    }
+
+    private long seed = 42;
+    private int departments = 20;
+    private int sites = 100;
+    private int hardware = 10_000;
+    private int virtualMachines = 100_000;
+    private int users = 500;
+    private int tasks = 50_000;
+    private double skew = 1.0;
+    /** Timestamps fall in the year before this instant; pending tasks are scheduled after it. */
+    private Instant referenceTime = Instant.parse("2026-01-01T00:00:00Z");
+
+    private Format format = Format.INSERT;
+    /** Rows per INSERT statement (capped by the 65535 placeholders MySQL allows per statement). */
+    private int rowsPerStatement = 1000;
+    /** Rows per transaction. */
+    private int commitInterval = 100_000;
+    /** Where CSV files and load scripts go. */
+    private Path outputDirectory = Path.of("target", "datagen");
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public int getDepartments() { return departments; }
+    public void setDepartments(int departments) { this.departments = departments; }
+
+    public int getSites() { return sites; }
+    public void setSites(int sites) { this.sites = sites; }
+
+    public int getHardware() { return hardware; }
+    public void setHardware(int hardware) { this.hardware = hardware; }
+
+    public int getVirtualMachines() { return virtualMachines; }
+    public void setVirtualMachines(int virtualMachines) { this.virtualMachines = virtualMachines; }
+
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+
+    public int getTasks() { return tasks; }
+    public void setTasks(int tasks) { this.tasks = tasks; }
+
+    public double getSkew() { return skew; }
+    public void setSkew(double skew) { this.skew = skew; }
+
+    public Instant getReferenceTime() { return referenceTime; }
+    public void setReferenceTime(Instant referenceTime) { this.referenceTime = referenceTime; }
+
+    public Format getFormat() { return format; }
+    public void setFormat(Format format) { this.format = format; }
+
+    public int getRowsPerStatement() { return rowsPerStatement; }
+    public void setRowsPerStatement(int rowsPerStatement) { this.rowsPerStatement = rowsPerStatement; }
+
+    public int getCommitInterval() { return commitInterval; }
+    public void setCommitInterval(int commitInterval) { this.commitInterval = commitInterval; }
+
+    public Path getOutputDirectory() { return outputDirectory; }
+    public void setOutputDirectory(Path outputDirectory) { this.outputDirectory = outputDirectory; }
+}
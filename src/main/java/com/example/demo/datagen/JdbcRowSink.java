@@ -0,0 +1,120 @@
+package com.example.demo.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Inserts rows with multi-row {@code INSERT ... VALUES (...), (...)} statements, committing every
+ * {@code commitInterval} rows. One statement carries {@code rowsPerStatement} rows, or as many as
+ * fit in 65535 placeholders; the last few rows of a table go in a shorter one.
+ *
+ * The caller owns the connection; auto-commit is switched off while a table is written.
+ */
+class JdbcRowSink implements RowSink {
+
+    private static final int MAX_PLACEHOLDERS = 65_535;
+
+    private final Connection connection;
+    private final int rowsPerStatement;
+    private final int commitInterval;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    private Table table;
+    private PreparedStatement full;
+    private Object[] pending;
+    private int buffered;
+    private long uncommitted;
+    private long written;
+
+    JdbcRowSink(Connection connection, int rowsPerStatement, int commitInterval) {
+        this.connection = connection;
+        this.rowsPerStatement = rowsPerStatement;
+        this.commitInterval = Math.max(1, commitInterval);
+    }
+
+    /** Rows written per table, in the order they were written. */
+    Map<String, Long> counts() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public void begin(Table table) throws SQLException {
+        this.table = table;
+        int columns = table.columns().size();
+        int perStatement = Math.max(1, Math.min(rowsPerStatement, MAX_PLACEHOLDERS / columns));
+        connection.setAutoCommit(false);
+        full = connection.prepareStatement(insert(table, perStatement));
+        pending = new Object[perStatement * columns];
+        buffered = 0;
+        uncommitted = 0;
+        written = 0;
+    }
+
+    @Override
+    public void row(Object[] values) throws SQLException {
+        System.arraycopy(values, 0, pending, buffered * values.length, values.length);
+        buffered++;
+        if (buffered * values.length == pending.length) {
+            flush(full);
+        }
+    }
+
+    @Override
+    public void end() throws SQLException {
+        try {
+            if (buffered > 0) {
+                try (PreparedStatement rest = connection.prepareStatement(insert(table, buffered))) {
+                    flush(rest);
+                }
+            }
+            connection.commit();
+        } finally {
+            full.close();
+            connection.setAutoCommit(true);
+        }
+        counts.put(table.name(), written);
+    }
+
+    private void flush(PreparedStatement statement) throws SQLException {
+        int values = buffered * table.columns().size();
+        for (int i = 0; i < values; i++) {
+            bind(statement, i + 1, pending[i]);
+        }
+        statement.executeUpdate();
+        written += buffered;
+        uncommitted += buffered;
+        buffered = 0;
+        if (uncommitted >= commitInterval) {
+            connection.commit();
+            uncommitted = 0;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.NULL);
+        } else if (value instanceof Instant instant) {
+            // Stored in UTC, as Hibernate stores Instants
+            statement.setObject(index, instant.atOffset(ZoneOffset.UTC));
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    private static String insert(Table table, int rows) {
+        String placeholders = "(" + "?,".repeat(table.columns().size() - 1) + "?)";
+        StringBuilder sql = new StringBuilder("insert into ").append(table.name())
+                .append(" (").append(String.join(", ", table.columns())).append(") values ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ",").append(placeholders);
+        }
+        return sql.toString();
+    }
+}
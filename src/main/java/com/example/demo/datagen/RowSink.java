@@ -0,0 +1,23 @@
+package com.example.demo.datagen;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/** Where {@link DatasetGenerator} writes: tables one after the other, rows in id order. */
+public interface RowSink {
+
+    /** A table and the columns every row of it supplies, in order. */
+    record Table(String name, List<String> columns) {
+        public Table(String name, String... columns) {
+            this(name, List.of(columns));
+        }
+    }
+
+    void begin(Table table) throws IOException, SQLException;
+
+    /** Values are Long, Integer, Boolean, String, LocalDate, Instant or null; the array may be reused after the call. */
+    void row(Object[] values) throws IOException, SQLException;
+
+    void end() throws IOException, SQLException;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.AuditAction;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.Instant;
+
+public class AuditEventDto {
+    public Long id;
+    public Instant occurredAt;
+    public String entityType;
+    public Long entityId;
+    public Long departmentId;
+    public AuditAction action;
+    public Long userId;
+    // Stored as JSON, sent as is
+    @JsonRawValue
+    public String changes;
+
+    public AuditEventDto() {}
+
+    public AuditEventDto(Long id, Instant occurredAt, String entityType, Long entityId, Long departmentId, AuditAction action, Long userId, String changes) {
+        this.id = id;
+        this.occurredAt = occurredAt;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.departmentId = departmentId;
+        this.action = action;
+        this.userId = userId;
+        this.changes = changes;
+    }
+}
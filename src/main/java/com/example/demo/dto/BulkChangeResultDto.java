@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+/** Rows changed or deleted by a bulk PATCH or DELETE. */
+public class BulkChangeResultDto {
+    public int affected;
+
+    public BulkChangeResultDto() {}
+
+    public BulkChangeResultDto(int affected) {
+        this.affected = affected;
+    }
+}
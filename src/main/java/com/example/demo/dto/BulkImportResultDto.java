@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows are imported independently, so a bad row only shows up in
+ * {@code errors}; at most {@link #MAX_REPORTED_ERRORS} are listed, {@code failed} counts all of them.
+ */
+public class BulkImportResultDto {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    public int received;
+    public int imported;
+    public int failed;
+    public List<RowError> errors = new ArrayList<>();
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public static class RowError {
+        /** 1-based line number in the uploaded file (the CSV header is line 1). */
+        public long line;
+        public String message;
+
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
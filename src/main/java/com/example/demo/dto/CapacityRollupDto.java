@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+public class CapacityRollupDto {
+    public Long departmentId; // null when the rollup covers every department
+    public Long siteId;       // null when the rollup covers every site
+    public int hosts;
+    public long vmCount;
+
+    public long cpuCores;
+    public long allocatedVcpu;
+    public long freeVcpu;
+
+    public long ramGb;
+    public long allocatedRamGb;
+    public long freeRamGb;
+
+    public long storageGb;
+    public long allocatedStorageGb;
+    public long freeStorageGb;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of a delta sync. Apply {@code items} (upsert by id) and {@code deleted} (remove by id),
+ * then pass {@code nextToken} back as {@code since}. While {@code hasMore} is true the next page
+ * follows right away; once it is false the token is the one to keep for the next sync.
+ */
+public class ChangesPageDto<T> {
+    public List<T> items;
+    public List<Long> deleted;
+    public String nextToken;
+    public boolean hasMore;
+
+    public ChangesPageDto() {}
+
+    public ChangesPageDto(List<T> items, List<Long> deleted, String nextToken, boolean hasMore) {
+        this.items = items;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+}
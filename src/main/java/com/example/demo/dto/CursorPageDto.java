@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import org.springframework.data.domain.Slice;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as the
+ * {@code cursor} request parameter to get the following page; it is null on the last page.
+ */
+public class CursorPageDto<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public List<T> items;
+    public Long nextCursor;
+
+    public static <T> CursorPageDto<T> of(Slice<T> slice, Function<T, Long> idOf) {
+        CursorPageDto<T> page = new CursorPageDto<>();
+        page.items = slice.getContent();
+        page.nextCursor = slice.hasNext() && !page.items.isEmpty()
+                ? idOf.apply(page.items.get(page.items.size() - 1))
+                : null;
+        return page;
+    }
+
+    public static <T> CursorPageDto<T> empty() {
+        CursorPageDto<T> page = new CursorPageDto<>();
+        page.items = List.of();
+        return page;
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
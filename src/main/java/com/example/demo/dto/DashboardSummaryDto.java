@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.VMStatus;
+import java.util.List;
+import java.util.Map;
+
+public class DashboardSummaryDto {
+    public Long departmentId; // null when the summary covers every department
+    public long totalHardware;
+    public Map<HardwareStatus, Long> hardwareByStatus;
+    public long totalVirtualMachines;
+    public Map<VMStatus, Long> virtualMachinesByStatus;
+    public long totalSites;
+    public long activeTasks; // PENDING + IN_PROGRESS
+    public Map<DeploymentStatus, Long> tasksByStatus;
+    public List<DeploymentTaskDto> recentTasks;
+}
@@ -15,6 +15,20 @@ public class DeploymentTaskDto {
     public Instant completedAt;
     public Instant scheduledDate;
     public Long departmentId;
-}
 
+    public DeploymentTaskDto() {}
 
+    public DeploymentTaskDto(Long id, String taskName, String description, Long vmId, Long requestedById, DeploymentStatus status, Instant createdAt, Instant completedAt, Instant scheduledDate, Long departmentId) {
+        this.id = id;
+        this.taskName = taskName;
+        this.description = description;
+        this.vmId = vmId;
+        this.requestedById = requestedById;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.scheduledDate = scheduledDate;
+        this.departmentId = departmentId;
+        this.assignedUserId = requestedById;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.HardwareStatus;
+
+import java.util.List;
+
+/**
+ * Body of {@code PATCH /api/hardware/bulk}, e.g. putting every host of a site into MAINTENANCE.
+ * The selection fields combine with AND and at least one is required.
+ */
+public class HardwareBulkChangeDto {
+    public List<Long> ids;
+    public Long siteId;
+    public Long departmentId;
+    public HardwareStatus status;
+
+    public HardwareStatus setStatus;
+}
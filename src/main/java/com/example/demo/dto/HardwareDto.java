@@ -19,6 +19,23 @@ public class HardwareDto {
     public LocalDate warrantyEndDate;
     public Long siteId;
     public Long departmentId;
-}
 
+    public HardwareDto() {}
 
+    public HardwareDto(Long id, String name, HardwareType type, String model, String serialNumber, String ipAddress, Integer cpuCores, Integer ramGb, Integer storageGb, HardwareStatus status, LocalDate purchaseDate, LocalDate warrantyEndDate, Long siteId, Long departmentId) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.model = model;
+        this.serialNumber = serialNumber;
+        this.ipAddress = ipAddress;
+        this.cpuCores = cpuCores;
+        this.ramGb = ramGb;
+        this.storageGb = storageGb;
+        this.status = status;
+        this.purchaseDate = purchaseDate;
+        this.warrantyEndDate = warrantyEndDate;
+        this.siteId = siteId;
+        this.departmentId = departmentId;
+    }
+}
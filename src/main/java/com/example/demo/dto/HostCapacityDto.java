@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.HardwareStatus;
+
+public class HostCapacityDto {
+    public Long hardwareId;
+    public Long departmentId;
+    public Long siteId;
+    public HardwareStatus status;
+    public int vmCount;
+
+    // free* already apply the configured overcommit ratios
+
+    public int cpuCores;
+    public long allocatedVcpu;
+    public long freeVcpu; // negative when the host is overbooked
+
+    public int ramGb;
+    public long allocatedRamGb;
+    public long freeRamGb;
+
+    public int storageGb;
+    public long allocatedStorageGb;
+    public long freeStorageGb;
+}
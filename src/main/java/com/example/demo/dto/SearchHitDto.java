@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.InventoryEntity;
+
+public class SearchHitDto {
+    public InventoryEntity type;
+    public Long id;
+    public Long departmentId;
+    /** Name of the hardware, VM or site, username of a user. */
+    public String title;
+    /** The field that matched the query best, and its value. */
+    public String field;
+    public String value;
+    public double score;
+
+    public SearchHitDto() {}
+}
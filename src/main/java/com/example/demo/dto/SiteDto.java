@@ -7,6 +7,15 @@ public class SiteDto {
     public String city;
     public String country;
     public Long departmentId;
-}
 
+    public SiteDto() {}
 
+    public SiteDto(Long id, String name, String address, String city, String country, Long departmentId) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.city = city;
+        this.country = country;
+        this.departmentId = departmentId;
+    }
+}
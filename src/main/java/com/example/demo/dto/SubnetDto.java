@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+/**
+ * A subnet and how many of its host addresses are taken. {@code cidr} and {@code gateway} are
+ * dotted-quad strings; the counts are filled in by the server and ignored on create.
+ */
+public class SubnetDto {
+    public Long id;
+    public String name;
+    public String cidr;
+    public String gateway;
+    public Long siteId;
+    public Long departmentId;
+    public long size;
+    public long used;
+    public long free;
+
+    public SubnetDto() {}
+}
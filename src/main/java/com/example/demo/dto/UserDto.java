@@ -10,6 +10,16 @@ public class UserDto {
     public boolean enabled;
     public Role role;
     public Long departmentId;
-}
 
+    public UserDto() {}
 
+    // Used by the "select new" projections in the repositories; the password hash is never selected
+    public UserDto(Long id, String username, String email, boolean enabled, Role role, Long departmentId) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.enabled = enabled;
+        this.role = role;
+        this.departmentId = departmentId;
+    }
+}
@@ -14,6 +14,20 @@ public class VirtualMachineDto {
     public VMStatus status;
     public Long hardwareId;
     public Long departmentId;
-}
 
+    public VirtualMachineDto() {}
 
+    public VirtualMachineDto(Long id, String name, String hostname, String ipAddress, String operatingSystem, int vcpu, int vram, int diskSize, VMStatus status, Long hardwareId, Long departmentId) {
+        this.id = id;
+        this.name = name;
+        this.hostname = hostname;
+        this.ipAddress = ipAddress;
+        this.operatingSystem = operatingSystem;
+        this.vcpu = vcpu;
+        this.vram = vram;
+        this.diskSize = diskSize;
+        this.status = status;
+        this.hardwareId = hardwareId;
+        this.departmentId = departmentId;
+    }
+}
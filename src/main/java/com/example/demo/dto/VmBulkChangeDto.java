@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.VMStatus;
+
+import java.util.List;
+
+/**
+ * Body of {@code PATCH /api/virtual-machines/bulk}. The selection fields combine with AND and at
+ * least one is required; the {@code set*} fields are the changes, null ones are left alone.
+ */
+public class VmBulkChangeDto {
+    public List<Long> ids;
+    public Long hardwareId;
+    public Long departmentId;
+    public VMStatus status;
+
+    public VMStatus setStatus;
+    public Long setDepartmentId;
+}
@@ -0,0 +1,79 @@
+package com.example.demo.entite;
+
+import com.example.demo.enums.AuditAction;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One audited insert, update or delete. Rows are inserted with plain JDBC by
+ * {@link com.example.demo.audit.AuditTrail}; the mapping is for the schema and for reading them back.
+ */
+@Entity
+@Table(name = "audit_event", indexes = {
+        @Index(name = "idx_audit_event_entity", columnList = "entity_type, entity_id"),
+        @Index(name = "idx_audit_event_department", columnList = "department_id"),
+        @Index(name = "idx_audit_event_user", columnList = "user_id")
+})
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    // Entity class name: Hardware, VirtualMachine, Site, ...
+    @Column(nullable = false, length = 40)
+    private String entityType;
+
+    @Column
+    private Long entityId;
+
+    @Column
+    private Long departmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AuditAction action;
+
+    // Null for changes made by the system, such as task execution
+    @Column
+    private Long userId;
+
+    // JSON object: {"field": {"from": ..., "to": ...}}
+    @Column(columnDefinition = "text")
+    private String changes;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public Long getDepartmentId() { return departmentId; }
+    public void setDepartmentId(Long departmentId) { this.departmentId = departmentId; }
+
+    public AuditAction getAction() { return action; }
+    public void setAction(AuditAction action) { this.action = action; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getChanges() { return changes; }
+    public void setChanges(String changes) { this.changes = changes; }
+}
@@ -1,20 +1,29 @@
 package com.example.demo.entite;
 
+import com.example.demo.audit.AuditListener;
 import com.example.demo.enums.DeploymentStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "deployment_task")
+@EntityListeners(AuditListener.class)
+@Table(name = "deployment_task", indexes = {
+        @Index(name = "idx_deployment_task_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_deployment_task_department_updated_at", columnList = "department_id, updated_at")
+})
 public class DeploymentTask {
 
     @Id
@@ -27,11 +36,11 @@ public class DeploymentTask {
     @Column(length = 1000)
     private String description;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "vm_id", nullable = false)
     private VirtualMachine vm;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "requested_by", nullable = false)
     private User requestedBy;
 
@@ -48,10 +57,22 @@ public class DeploymentTask {
     @Column
     private Instant scheduledDate;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", nullable = false)
     private Department department;
 
+    // Node currently executing the task and until when its claim holds; see DeploymentTaskClaims
+    @Column(length = 100)
+    private String leaseOwner;
+
+    @Column
+    private Instant leaseUntil;
+
+    // Set on insert and update, and by the claim/finish UPDATEs of the execution engine
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -81,6 +102,13 @@ public class DeploymentTask {
 
     public Department getDepartment() { return department; }
     public void setDepartment(Department department) { this.department = department; }
-}
 
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
 
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
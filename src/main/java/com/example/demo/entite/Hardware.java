@@ -1,25 +1,39 @@
 package com.example.demo.entite;
 
+import com.example.demo.audit.AuditListener;
 import com.example.demo.enums.HardwareStatus;
 import com.example.demo.enums.HardwareType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "hardware")
+@EntityListeners(AuditListener.class)
+@Table(name = "hardware", indexes = {
+        @Index(name = "idx_hardware_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_hardware_department_updated_at", columnList = "department_id, updated_at")
+})
 public class Hardware {
 
+    // Table hi/lo instead of IDENTITY: ids are reserved 50 at a time, so inserts can go out in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "hardware_id")
+    @TableGenerator(name = "hardware_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "hardware", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,6 +52,10 @@ public class Hardware {
     @Column
     private String ipAddress;
 
+    // ipAddress as an unsigned 32-bit number, maintained by IpamService
+    @Column(unique = true)
+    private Long ipNumeric;
+
     @Column
     private Integer cpuCores;
 
@@ -57,14 +75,19 @@ public class Hardware {
     @Column(nullable = false)
     private LocalDate warrantyEndDate;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "site_id", nullable = false)
     private Site site;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", nullable = false)
     private Department department;
 
+    // Last insert or update, what delta sync (DeltaSyncService) pages by. Bulk UPDATE statements set it themselves
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -83,6 +106,9 @@ public class Hardware {
     public String getIpAddress() { return ipAddress; }
     public void setIpAddress(String ipAddress) { this.ipAddress = ipAddress; }
 
+    public Long getIpNumeric() { return ipNumeric; }
+    public void setIpNumeric(Long ipNumeric) { this.ipNumeric = ipNumeric; }
+
     public Integer getCpuCores() { return cpuCores; }
     public void setCpuCores(Integer cpuCores) { this.cpuCores = cpuCores; }
 
@@ -106,6 +132,7 @@ public class Hardware {
 
     public Department getDepartment() { return department; }
     public void setDepartment(Department department) { this.department = department; }
-}
-
 
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
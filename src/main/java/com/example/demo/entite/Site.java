@@ -1,16 +1,31 @@
 package com.example.demo.entite;
 
+import com.example.demo.audit.AuditListener;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.Instant;
 
 @Entity
-@Table(name = "site")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "site")
+@EntityListeners(AuditListener.class)
+@Table(name = "site", indexes = {
+        @Index(name = "idx_site_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_site_department_updated_at", columnList = "department_id, updated_at")
+})
 public class Site {
 
     @Id
@@ -29,10 +44,15 @@ public class Site {
     @Column(nullable = false)
     private String country;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", nullable = false)
     private Department department;
 
+    // Last insert or update; GET /api/sites/changes pages by it
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -50,6 +70,7 @@ public class Site {
 
     public Department getDepartment() { return department; }
     public void setDepartment(Department department) { this.department = department; }
-}
-
 
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.entite;
+
+import com.example.demo.audit.AuditListener;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * An IPv4 range such as 10.20.0.0/22 owned by a department, optionally tied to one site.
+ * Addresses are stored as unsigned 32-bit numbers.
+ */
+@Entity
+@EntityListeners(AuditListener.class)
+@Table(name = "subnet")
+public class Subnet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, unique = true)
+    private Long networkAddress;
+
+    @Column(nullable = false)
+    private int prefixLength;
+
+    @Column
+    private Long gateway;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "site_id")
+    private Site site;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id", nullable = false)
+    private Department department;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getNetworkAddress() { return networkAddress; }
+    public void setNetworkAddress(Long networkAddress) { this.networkAddress = networkAddress; }
+
+    public int getPrefixLength() { return prefixLength; }
+    public void setPrefixLength(int prefixLength) { this.prefixLength = prefixLength; }
+
+    public Long getGateway() { return gateway; }
+    public void setGateway(Long gateway) { this.gateway = gateway; }
+
+    public Site getSite() { return site; }
+    public void setSite(Site site) { this.site = site; }
+
+    public Department getDepartment() { return department; }
+    public void setDepartment(Department department) { this.department = department; }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.entite;
+
+import com.example.demo.enums.InventoryEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import java.time.Instant;
+
+/**
+ * A row that was deleted, or moved to another department, at {@code deletedAt}. Lets delta sync
+ * report deletes; pruned after {@code inventory.sync.tombstone-retention}.
+ */
+@Entity
+@Table(name = "tombstone", indexes = @Index(name = "idx_tombstone_type_deleted_at", columnList = "entity_type, deleted_at"))
+public class Tombstone {
+
+    // Table hi/lo so the tombstones of a bulk delete go out in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tombstone_id")
+    @TableGenerator(name = "tombstone_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "tombstone", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private InventoryEntity entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    public Tombstone() {}
+
+    public Tombstone(InventoryEntity entityType, Long entityId, Instant deletedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public InventoryEntity getEntityType() { return entityType; }
+    public void setEntityType(InventoryEntity entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+}
@@ -1,19 +1,29 @@
 package com.example.demo.entite;
 
+import com.example.demo.audit.AuditListener;
 import com.example.demo.enums.Role;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.Instant;
 
 @Entity
-@Table(name = "users")
+@EntityListeners(AuditListener.class)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_users_department_updated_at", columnList = "department_id, updated_at")
+})
 public class User {
 
     @Id
@@ -36,10 +46,15 @@ public class User {
     @Column(nullable = false, length = 20)
     private Role role = Role.USER;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", nullable = false)
     private Department department;
 
+    // Last insert or update; GET /api/users/changes pages by it
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -60,6 +75,7 @@ public class User {
 
     public Department getDepartment() { return department; }
     public void setDepartment(Department department) { this.department = department; }
-}
-
 
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,23 +1,36 @@
 package com.example.demo.entite;
 
+import com.example.demo.audit.AuditListener;
 import com.example.demo.enums.VMStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.Instant;
 
 @Entity
-@Table(name = "virtual_machine")
+@EntityListeners(AuditListener.class)
+@Table(name = "virtual_machine", indexes = {
+        @Index(name = "idx_virtual_machine_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_virtual_machine_department_updated_at", columnList = "department_id, updated_at")
+})
 public class VirtualMachine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "virtual_machine_id")
+    @TableGenerator(name = "virtual_machine_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "virtual_machine", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +42,10 @@ public class VirtualMachine {
     @Column
     private String ipAddress;
 
+    // ipAddress as an unsigned 32-bit number, maintained by IpamService
+    @Column(unique = true)
+    private Long ipNumeric;
+
     @Column(nullable = false)
     private String operatingSystem;
 
@@ -45,14 +62,19 @@ public class VirtualMachine {
     @Column(nullable = false, length = 30)
     private VMStatus status = VMStatus.STOPPED;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "hardware_id", nullable = false)
     private Hardware hardware;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", nullable = false)
     private Department department;
 
+    // Set on insert and update; BulkChangeService sets it in its UPDATE statements
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -65,6 +87,9 @@ public class VirtualMachine {
     public String getIpAddress() { return ipAddress; }
     public void setIpAddress(String ipAddress) { this.ipAddress = ipAddress; }
 
+    public Long getIpNumeric() { return ipNumeric; }
+    public void setIpNumeric(Long ipNumeric) { this.ipNumeric = ipNumeric; }
+
     public String getOperatingSystem() { return operatingSystem; }
     public void setOperatingSystem(String operatingSystem) { this.operatingSystem = operatingSystem; }
 
@@ -85,6 +110,7 @@ public class VirtualMachine {
 
     public Department getDepartment() { return department; }
     public void setDepartment(Department department) { this.department = department; }
-}
-
 
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
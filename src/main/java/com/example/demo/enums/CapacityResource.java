@@ -0,0 +1,7 @@
+package com.example.demo.enums;
+
+public enum CapacityResource {
+    CPU,      // cores (hardware cpuCores vs VM vcpu)
+    RAM,      // GB (hardware ramGb vs VM vram)
+    STORAGE   // GB (hardware storageGb vs VM diskSize)
+}
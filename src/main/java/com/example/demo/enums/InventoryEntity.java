@@ -0,0 +1,9 @@
+package com.example.demo.enums;
+
+public enum InventoryEntity {
+    HARDWARE,
+    VIRTUAL_MACHINE,
+    SITE,
+    USER,
+    DEPLOYMENT_TASK
+}
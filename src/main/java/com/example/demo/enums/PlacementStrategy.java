@@ -0,0 +1,7 @@
+package com.example.demo.enums;
+
+public enum PlacementStrategy {
+    BEST_FIT,   // host left with the least free RAM: packs hosts tightly
+    WORST_FIT,  // host with the most free RAM: keeps headroom everywhere
+    SPREAD      // host running the fewest VMs: limits the blast radius of a host failure
+}
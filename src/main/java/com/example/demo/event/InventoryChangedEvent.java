@@ -0,0 +1,44 @@
+package com.example.demo.event;
+
+import com.example.demo.enums.InventoryEntity;
+
+import java.util.List;
+
+/**
+ * Published by the services after inventory rows were written, for in-memory views such as the
+ * search index. Listeners should use {@code @TransactionalEventListener(fallbackExecution = true)}
+ * so they only see committed changes and still hear about writes made outside a transaction.
+ */
+public record InventoryChangedEvent(InventoryEntity entity, Change change, List<Long> ids) {
+
+    public enum Change {
+        SAVED,
+        /** Saved, and possibly moved out of the department the rows were in before. */
+        MOVED,
+        DELETED
+    }
+
+    public static InventoryChangedEvent saved(InventoryEntity entity, Long id) {
+        return new InventoryChangedEvent(entity, Change.SAVED, List.of(id));
+    }
+
+    public static InventoryChangedEvent saved(InventoryEntity entity, List<Long> ids) {
+        return new InventoryChangedEvent(entity, Change.SAVED, List.copyOf(ids));
+    }
+
+    public static InventoryChangedEvent moved(InventoryEntity entity, Long id) {
+        return new InventoryChangedEvent(entity, Change.MOVED, List.of(id));
+    }
+
+    public static InventoryChangedEvent moved(InventoryEntity entity, List<Long> ids) {
+        return new InventoryChangedEvent(entity, Change.MOVED, List.copyOf(ids));
+    }
+
+    public static InventoryChangedEvent deleted(InventoryEntity entity, Long id) {
+        return new InventoryChangedEvent(entity, Change.DELETED, List.of(id));
+    }
+
+    public static InventoryChangedEvent deleted(InventoryEntity entity, List<Long> ids) {
+        return new InventoryChangedEvent(entity, Change.DELETED, List.copyOf(ids));
+    }
+}
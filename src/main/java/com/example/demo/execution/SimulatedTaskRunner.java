@@ -0,0 +1,29 @@
+package com.example.demo.execution;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in runner for environments without a real provisioning backend: sleeps a random time
+ * between the configured bounds and fails a configured fraction of tasks.
+ */
+public class SimulatedTaskRunner implements TaskRunner {
+    private final long minMillis;
+    private final long maxMillis;
+    private final double failureRate;
+
+    public SimulatedTaskRunner(Duration minDuration, Duration maxDuration, double failureRate) {
+        this.minMillis = Math.max(0, minDuration.toMillis());
+        this.maxMillis = Math.max(this.minMillis, maxDuration.toMillis());
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void run(TaskExecution task) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Thread.sleep(minMillis == maxMillis ? minMillis : random.nextLong(minMillis, maxMillis + 1));
+        if (random.nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated failure of task " + task.id());
+        }
+    }
+}
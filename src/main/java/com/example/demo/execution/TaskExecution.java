@@ -0,0 +1,6 @@
+package com.example.demo.execution;
+
+import java.time.Instant;
+
+/** What a {@link TaskRunner} gets to see of the task being executed. */
+public record TaskExecution(Long id, String taskName, String description, Long vmId, Long departmentId, Instant scheduledDate) {}
@@ -0,0 +1,308 @@
+package com.example.demo.execution;
+
+import com.example.demo.audit.AuditRecord;
+import com.example.demo.audit.AuditTrail;
+import com.example.demo.config.WorkerThreads;
+import com.example.demo.enums.AuditAction;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.service.VersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs PENDING deployment tasks when their scheduledDate arrives, safely across several nodes.
+ *
+ * Every pending task with a date sits on a {@link WheelTimer}, loaded once at startup and kept
+ * in step by {@link com.example.demo.service.DeploymentTaskService}, so nothing polls the table
+ * for new work. A due timer only wakes the claimer thread, which claims as many due tasks as
+ * there are free worker slots through {@link DeploymentTaskRepository#claimDue} (SKIP LOCKED,
+ * so nodes never wait on or duplicate each other) and hands them to the {@link TaskRunner}.
+ * Claims are leases renewed by a heartbeat; the claimer also sweeps every recovery-interval for
+ * tasks whose lease ran out on a dead node. The COMPLETED/FAILED update only applies while this
+ * node still holds the lease. Tasks still running at shutdown are interrupted and handed back as
+ * PENDING rather than marked FAILED.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.tasks.executor.enabled", havingValue = "true")
+public class TaskExecutionEngine {
+    private static final Logger log = LoggerFactory.getLogger(TaskExecutionEngine.class);
+
+    private final DeploymentTaskRepository taskRepository;
+    private final TaskRunner taskRunner;
+    private final VersionService versions;
+    private final ApplicationEventPublisher events;
+    private final AuditTrail auditTrail;
+    private final String nodeId;
+    private final int capacity;
+    private final int claimBatchSize;
+    private final Duration lease;
+    private final Duration recoveryInterval;
+    private final WheelTimer timer;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService claimer;
+    private final Map<Long, WheelTimer.Timeout> scheduled = new ConcurrentHashMap<>();
+    // Claimed by this node and not finished yet, queued or running
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicBoolean saturated = new AtomicBoolean();
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+    private final Timer startDelay;
+    private final Counter claimed;
+    private final Counter leasesLost;
+
+    public TaskExecutionEngine(DeploymentTaskRepository taskRepository, TaskRunner taskRunner, VersionService versions,
+                               ApplicationEventPublisher events, AuditTrail auditTrail, WorkerThreads workerThreads,
+                               MeterRegistry registry,
+                               @Value("${inventory.tasks.executor.node-id:}") String nodeId,
+                               @Value("${inventory.tasks.executor.threads:4}") int threads,
+                               @Value("${inventory.tasks.executor.queue-capacity:100}") int queueCapacity,
+                               @Value("${inventory.tasks.executor.claim-batch-size:20}") int claimBatchSize,
+                               @Value("${inventory.tasks.executor.lease:60s}") Duration lease,
+                               @Value("${inventory.tasks.executor.recovery-interval:30s}") Duration recoveryInterval,
+                               @Value("${inventory.tasks.executor.tick:100ms}") Duration tick,
+                               @Value("${inventory.tasks.executor.wheel-size:512}") int wheelSize) {
+        this.taskRepository = taskRepository;
+        this.taskRunner = taskRunner;
+        this.versions = versions;
+        this.events = events;
+        this.auditTrail = auditTrail;
+        // "pid@hostname" by default, unique per running instance
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.capacity = threads + Math.max(0, queueCapacity);
+        this.claimBatchSize = Math.max(1, claimBatchSize);
+        this.lease = lease;
+        this.recoveryInterval = recoveryInterval;
+        this.timer = new WheelTimer("task-wheel", Math.max(1, tick.toMillis()), wheelSize);
+        // The queue is bounded by only claiming tasks for free slots (see drain)
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), workerThreads.factory("task-worker-"));
+        this.claimer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "task-claimer"));
+
+        this.completedTimer = Timer.builder("tasks.execution.duration")
+                .description("Time spent running one deployment task")
+                .tag("outcome", "completed")
+                .register(registry);
+        this.failedTimer = Timer.builder("tasks.execution.duration")
+                .description("Time spent running one deployment task")
+                .tag("outcome", "failed")
+                .register(registry);
+        this.startDelay = Timer.builder("tasks.start.delay")
+                .description("How late a task started compared to its scheduledDate")
+                .register(registry);
+        this.claimed = Counter.builder("tasks.claimed")
+                .description("Tasks claimed by this node")
+                .register(registry);
+        this.leasesLost = Counter.builder("tasks.lease.lost")
+                .description("Tasks that finished after their lease had been taken over; result discarded")
+                .register(registry);
+        Gauge.builder("tasks.scheduled", timer, WheelTimer::size)
+                .description("Pending tasks waiting for their scheduledDate")
+                .register(registry);
+        Gauge.builder("tasks.queue.depth", workers, w -> w.getQueue().size())
+                .description("Claimed tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("tasks.active", workers, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Object[]> pending = taskRepository.findPendingSchedule();
+        for (Object[] row : pending) {
+            schedule((Long) row[0], ((Instant) row[1]).toEpochMilli());
+        }
+        log.info("Node {} scheduled {} pending deployment tasks", nodeId, pending.size());
+
+        long heartbeat = Math.max(1, lease.toMillis() / 3);
+        claimer.scheduleWithFixedDelay(this::renewLeases, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        claimer.scheduleWithFixedDelay(this::drain, 0, Math.max(1, recoveryInterval.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /** Reschedules or drops the task after it was created or edited. */
+    public void taskChanged(Long taskId, DeploymentStatus status, Instant scheduledDate) {
+        if (status == DeploymentStatus.PENDING && scheduledDate != null) {
+            schedule(taskId, scheduledDate.toEpochMilli());
+        } else {
+            taskRemoved(taskId);
+        }
+    }
+
+    public void taskRemoved(Long taskId) {
+        WheelTimer.Timeout timeout = scheduled.remove(taskId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void schedule(Long taskId, long dueAtMs) {
+        // The timer never runs the action on this thread, so it cannot re-enter compute
+        scheduled.compute(taskId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return timer.schedule(dueAtMs, () -> {
+                scheduled.computeIfPresent(id, (key, current) -> current.dueAtMs() == dueAtMs ? null : current);
+                requestDrain();
+            });
+        });
+    }
+
+    // Coalesces wake-ups: one pending drain covers every timer that fired before it ran
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            try {
+                claimer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    // Runs on the claimer thread only
+    private void drain() {
+        drainRequested.set(false);
+        try {
+            int free;
+            while ((free = capacity - running.size()) > 0) {
+                int wanted = Math.min(free, claimBatchSize);
+                List<Long> ids = taskRepository.claimDue(nodeId, Instant.now(), lease, wanted);
+                claimed.increment(ids.size());
+                if (!ids.isEmpty()) {
+                    // Claimed tasks turn IN_PROGRESS; claimDue does not say which departments they belong to
+                    versions.changedEverywhere(InventoryEntity.DEPLOYMENT_TASK);
+                    events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.DEPLOYMENT_TASK, ids));
+                }
+                for (Long id : ids) {
+                    running.add(id);
+                    workers.execute(() -> execute(id));
+                }
+                if (ids.size() < wanted) {
+                    saturated.set(false);
+                    return;
+                }
+            }
+            // Out of slots with work possibly left: claim more as workers free up
+            saturated.set(true);
+        } catch (RuntimeException e) {
+            log.error("Could not claim deployment tasks", e);
+        }
+    }
+
+    private void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        try {
+            taskRepository.renewLeases(nodeId, Set.copyOf(running), Instant.now().plus(lease));
+        } catch (RuntimeException e) {
+            log.error("Could not renew deployment task leases", e);
+        }
+    }
+
+    private void execute(Long taskId) {
+        try {
+            TaskExecution task = taskRepository.findExecution(taskId);
+            audit(task, Map.of("status", AuditRecord.Change.to(DeploymentStatus.IN_PROGRESS),
+                    "leaseOwner", AuditRecord.Change.to(nodeId)));
+            if (task.scheduledDate() != null) {
+                startDelay.record(Math.max(0, System.currentTimeMillis() - task.scheduledDate().toEpochMilli()), TimeUnit.MILLISECONDS);
+            }
+            long start = System.nanoTime();
+            DeploymentStatus outcome;
+            try {
+                taskRunner.run(task);
+                outcome = DeploymentStatus.COMPLETED;
+            } catch (InterruptedException e) {
+                // Shutting down: the task did not fail, it was cut short. Released before the flag is
+                // restored so the UPDATE is not interrupted too
+                release(task);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Deployment task {} failed: {}", taskId, e.getMessage());
+                outcome = DeploymentStatus.FAILED;
+            }
+            (outcome == DeploymentStatus.COMPLETED ? completedTimer : failedTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Instant completedAt = Instant.now();
+            if (taskRepository.markFinished(taskId, nodeId, outcome, completedAt) == 0) {
+                leasesLost.increment();
+                log.warn("Lost the lease on deployment task {} before it finished; {} not recorded", taskId, outcome);
+            } else {
+                audit(task, Map.of("status", new AuditRecord.Change(DeploymentStatus.IN_PROGRESS, outcome),
+                        "completedAt", AuditRecord.Change.to(completedAt)));
+                versions.changed(InventoryEntity.DEPLOYMENT_TASK, task.departmentId());
+                events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.DEPLOYMENT_TASK, taskId));
+            }
+        } catch (RuntimeException e) {
+            // Database trouble: the lease runs out and another node (or this one) retries the task
+            log.error("Could not record the execution of deployment task {}", taskId, e);
+        } finally {
+            running.remove(taskId);
+            if (saturated.get()) {
+                requestDrain();
+            }
+        }
+    }
+
+    // Back to PENDING so the next recovery sweep, on any node, runs it again instead of waiting for the lease to run out
+    private void release(TaskExecution task) {
+        if (taskRepository.releaseClaim(task.id(), nodeId, Instant.now()) == 0) {
+            return;
+        }
+        log.info("Deployment task {} was interrupted; released for another run", task.id());
+        audit(task, Map.of("status", new AuditRecord.Change(DeploymentStatus.IN_PROGRESS, DeploymentStatus.PENDING),
+                "leaseOwner", new AuditRecord.Change(nodeId, null)));
+        versions.changed(InventoryEntity.DEPLOYMENT_TASK, task.departmentId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.DEPLOYMENT_TASK, task.id()));
+    }
+
+    // The claim and finish UPDATEs bypass the entity listeners; the engine is the one making the change
+    private void audit(TaskExecution task, Map<String, AuditRecord.Change> changes) {
+        auditTrail.record(new AuditRecord(Instant.now(), "DeploymentTask", task.id(), task.departmentId(),
+                AuditAction.UPDATE, null, changes));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.close();
+        claimer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.execution;
+
+/**
+ * Carries out one deployment task when its scheduled date is reached. Returning normally marks the
+ * task COMPLETED, throwing marks it FAILED. Declare a bean of this type to replace the
+ * {@link SimulatedTaskRunner}. Runs on the engine's worker pool, so blocking is fine.
+ */
+public interface TaskRunner {
+    void run(TaskExecution task) throws Exception;
+}
@@ -0,0 +1,159 @@
+package com.example.demo.execution;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One level of a hierarchical timing wheel: {@code wheelSize} buckets of {@code tickMs} each.
+ * Timers too far out for this level go to an overflow wheel whose tick is this whole wheel's span,
+ * created on demand. Only non-empty buckets sit in the shared {@link DelayQueue}, so the driver
+ * thread wakes once per occupied tick instead of once per timer. Not thread-safe on its own;
+ * {@link WheelTimer} guards it.
+ */
+final class TimingWheel {
+
+    /** A pending timer. Lives in at most one bucket at a time. */
+    static final class Entry {
+        final long expirationMs;
+        final Runnable action;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry(long expirationMs, Runnable action) {
+            this.expirationMs = expirationMs;
+            this.action = action;
+        }
+
+        /** Marks the timer as fired or cancelled; true for the first caller only. */
+        boolean complete() {
+            return done.compareAndSet(false, true);
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        void unlink() {
+            Bucket current = bucket;
+            if (current != null) {
+                current.remove(this);
+            }
+        }
+    }
+
+    /** Timers expiring within one tick, as a doubly linked list so cancel is O(1). */
+    static final class Bucket implements Delayed {
+        private final Entry root = new Entry(-1, null);
+        private final AtomicLong expiration = new AtomicLong(-1);
+
+        Bucket() {
+            root.next = root;
+            root.prev = root;
+        }
+
+        synchronized void add(Entry entry) {
+            entry.unlink();
+            entry.next = root;
+            entry.prev = root.prev;
+            root.prev.next = entry;
+            root.prev = entry;
+            entry.bucket = this;
+        }
+
+        synchronized void remove(Entry entry) {
+            if (entry.bucket == this) {
+                entry.next.prev = entry.prev;
+                entry.prev.next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                entry.bucket = null;
+            }
+        }
+
+        /** Empties the bucket, handing every entry to {@code sink}. */
+        synchronized void flush(Consumer<Entry> sink) {
+            Entry head = root.next;
+            while (head != root) {
+                remove(head);
+                sink.accept(head);
+                head = root.next;
+            }
+            expiration.set(-1);
+        }
+
+        /** True when the bucket was (re)armed for a new tick and must be queued again. */
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket) other).getExpiration());
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final Bucket[] buckets;
+    private final DelayQueue<Bucket> queue;
+    private long currentTime;
+    private TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.queue = queue;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /** Files the entry in the right bucket; false when it is already due and should fire now. */
+    boolean add(Entry entry) {
+        long expiration = entry.expirationMs;
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tickMs;
+            Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTime, queue);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.execution;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Timer built on a {@link TimingWheel}: scheduling and cancelling are O(1) no matter how many
+ * timers are pending, and one driver thread sleeps until the next occupied tick. Actions run on
+ * a single dispatcher thread, never on the caller's thread, so they must be short (hand work off).
+ * An action never fires before its due time and at most one tick after it.
+ */
+public final class WheelTimer implements AutoCloseable {
+
+    /** Handle for a scheduled action. */
+    public static final class Timeout {
+        private final long dueAtMs;
+        private final TimingWheel.Entry entry;
+        private final WheelTimer timer;
+
+        private Timeout(long dueAtMs, TimingWheel.Entry entry, WheelTimer timer) {
+            this.dueAtMs = dueAtMs;
+            this.entry = entry;
+            this.timer = timer;
+        }
+
+        public long dueAtMs() {
+            return dueAtMs;
+        }
+
+        /** Fired or cancelled. */
+        public boolean isDone() {
+            return entry.isDone();
+        }
+
+        /** Returns false when the action already fired or was cancelled before. */
+        public boolean cancel() {
+            if (!entry.complete()) {
+                return false;
+            }
+            entry.unlink();
+            timer.pending.decrementAndGet();
+            return true;
+        }
+    }
+
+    private final DelayQueue<TimingWheel.Bucket> queue = new DelayQueue<>();
+    private final TimingWheel wheel;
+    private final long tickMs;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final Thread driver;
+    private volatile boolean running = true;
+
+    public WheelTimer(String name, long tickMs, int wheelSize) {
+        this.tickMs = tickMs;
+        this.wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis(), queue);
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> daemon(r, name + "-dispatch"));
+        this.driver = daemon(this::drive, name);
+        this.driver.start();
+    }
+
+    /** Runs {@code action} at {@code dueAtMs} (epoch millis), or right away when that is already past. */
+    public Timeout schedule(long dueAtMs, Runnable action) {
+        // A bucket fires at the start of its tick, so file the entry under the tick it ends in
+        TimingWheel.Entry entry = new TimingWheel.Entry(dueAtMs + tickMs - 1, action);
+        pending.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            add(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Timeout(dueAtMs, entry, this);
+    }
+
+    /** Timers scheduled and neither fired nor cancelled. */
+    public int size() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        driver.interrupt();
+        dispatcher.shutdownNow();
+    }
+
+    // Caller holds a lock. Entries coming back from a flushed bucket are re-filed one level down,
+    // or fired once they fall inside the current tick.
+    private void add(TimingWheel.Entry entry) {
+        if (entry.isDone() || wheel.add(entry)) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            if (entry.complete()) {
+                pending.decrementAndGet();
+                entry.action.run();
+            }
+        });
+    }
+
+    private void drive() {
+        while (running) {
+            try {
+                TimingWheel.Bucket bucket = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (bucket == null) {
+                    continue;
+                }
+                lock.writeLock().lock();
+                try {
+                    while (bucket != null) {
+                        wheel.advanceClock(bucket.getExpiration());
+                        bucket.flush(this::add);
+                        bucket = queue.poll();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // A rejected dispatch during shutdown; keep the wheel consistent and carry on
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.AuditEventDto;
+import com.example.demo.entite.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Newest first: "id < cursor order by id desc"; every filter is optional
+    @Query("select new com.example.demo.dto.AuditEventDto(a.id, a.occurredAt, a.entityType, a.entityId, a.departmentId, a.action, a.userId, a.changes) "
+            + "from AuditEvent a where a.id < :cursor "
+            + "and (:entityType is null or a.entityType = :entityType) and (:entityId is null or a.entityId = :entityId) "
+            + "and (:departmentId is null or a.departmentId = :departmentId) and (:userId is null or a.userId = :userId) "
+            + "order by a.id desc")
+    Slice<AuditEventDto> findDtoPage(@Param("entityType") String entityType, @Param("entityId") Long entityId,
+                                     @Param("departmentId") Long departmentId, @Param("userId") Long userId,
+                                     @Param("cursor") Long cursor, Pageable pageable);
+}
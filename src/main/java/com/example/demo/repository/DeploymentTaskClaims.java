@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Work-queue access to deployment_task for running several application nodes side by side.
+ *
+ * A claim locks a batch of due rows with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent
+ * claimers each get different rows without waiting on one another, and stamps them IN_PROGRESS
+ * with the claimer's name and a lease. The owner keeps the lease alive with
+ * {@link DeploymentTaskRepository#renewLeases}; a task whose lease ran out (its node died) is
+ * claimable again. Requires MySQL 8.0+ (or H2 2.x in tests).
+ */
+public interface DeploymentTaskClaims {
+
+    /**
+     * Claims up to {@code limit} tasks that are PENDING with a scheduledDate up to {@code now},
+     * or IN_PROGRESS under an expired lease. Runs in its own transaction.
+     *
+     * @return ids of the claimed tasks, oldest first; empty when nothing is due or everything due is locked
+     */
+    List<Long> claimDue(String owner, Instant now, Duration lease, int limit);
+}
@@ -0,0 +1,45 @@
+package com.example.demo.repository;
+
+import com.example.demo.enums.DeploymentStatus;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+class DeploymentTaskClaimsImpl implements DeploymentTaskClaims {
+    private final EntityManager entityManager;
+
+    DeploymentTaskClaimsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Long> claimDue(String owner, Instant now, Duration lease, int limit) {
+        // Native because JPQL has no SKIP LOCKED; the row locks last until this transaction commits
+        List<Number> rows = entityManager.createNativeQuery(
+                        "select id from deployment_task "
+                                + "where (status = 'PENDING' and scheduled_date <= :now) "
+                                + "or (status = 'IN_PROGRESS' and lease_until < :now) "
+                                + "order by id limit :limit for update skip locked")
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(Number::longValue).toList();
+        entityManager.createQuery("update DeploymentTask t set t.status = :status, t.leaseOwner = :owner, t.leaseUntil = :leaseUntil, "
+                        + "t.updatedAt = :now where t.id in :ids")
+                .setParameter("status", DeploymentStatus.IN_PROGRESS)
+                .setParameter("owner", owner)
+                .setParameter("leaseUntil", now.plus(lease))
+                .setParameter("now", now)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids;
+    }
+}
@@ -1,11 +1,103 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.DeploymentTaskDto;
 import com.example.demo.entite.DeploymentTask;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.execution.TaskExecution;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface DeploymentTaskRepository extends JpaRepository<DeploymentTask, Long> {
+public interface DeploymentTaskRepository extends JpaRepository<DeploymentTask, Long>, DeploymentTaskClaims {
     List<DeploymentTask> findByDepartmentId(Long departmentId);
-}
 
+    @Query("select new com.example.demo.dto.DeploymentTaskDto(t.id, t.taskName, t.description, t.vm.id, t.requestedBy.id, t.status, t.createdAt, t.completedAt, t.scheduledDate, t.department.id) from DeploymentTask t "
+            + "where t.id > :cursor order by t.id")
+    Slice<DeploymentTaskDto> findDtoPage(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.DeploymentTaskDto(t.id, t.taskName, t.description, t.vm.id, t.requestedBy.id, t.status, t.createdAt, t.completedAt, t.scheduledDate, t.department.id) from DeploymentTask t "
+            + "where t.department.id = :departmentId and t.id > :cursor order by t.id")
+    Slice<DeploymentTaskDto> findDtoPageByDepartmentId(@Param("departmentId") Long departmentId, @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.DeploymentTaskDto(t.id, t.taskName, t.description, t.vm.id, t.requestedBy.id, t.status, t.createdAt, t.completedAt, t.scheduledDate, t.department.id) from DeploymentTask t where t.id in :ids")
+    List<DeploymentTaskDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Each row is [Long id, Instant updatedAt]; see HardwareRepository.findChangedSince
+    @Query("select t.id, t.updatedAt from DeploymentTask t "
+            + "where (t.updatedAt > :since or (t.updatedAt = :since and t.id > :afterId)) and t.updatedAt <= :until "
+            + "order by t.updatedAt, t.id")
+    List<Object[]> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, @Param("until") Instant until,
+                                    Pageable pageable);
+
+    @Query("select t.id, t.updatedAt from DeploymentTask t "
+            + "where (t.updatedAt > :since or (t.updatedAt = :since and t.id > :afterId)) and t.updatedAt <= :until "
+            + "and t.department.id = :departmentId order by t.updatedAt, t.id")
+    List<Object[]> findChangedSinceByDepartmentId(@Param("departmentId") Long departmentId, @Param("since") Instant since,
+                                                  @Param("afterId") long afterId, @Param("until") Instant until, Pageable pageable);
+
+    @Query("select t.id from DeploymentTask t where t.id in :ids and (:departmentId is null or t.department.id = :departmentId)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("departmentId") Long departmentId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.DeploymentTaskDto(t.id, t.taskName, t.description, t.vm.id, t.requestedBy.id, t.status, t.createdAt, t.completedAt, t.scheduledDate, t.department.id) from DeploymentTask t "
+            + "order by t.id")
+    Stream<DeploymentTaskDto> streamDtos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.DeploymentTaskDto(t.id, t.taskName, t.description, t.vm.id, t.requestedBy.id, t.status, t.createdAt, t.completedAt, t.scheduledDate, t.department.id) from DeploymentTask t "
+            + "where t.department.id = :departmentId order by t.id")
+    Stream<DeploymentTaskDto> streamDtosByDepartmentId(@Param("departmentId") Long departmentId);
+
+    List<DeploymentTask> findTop5ByOrderByCreatedAtDesc();
 
+    List<DeploymentTask> findTop5ByDepartmentIdOrderByCreatedAtDesc(Long departmentId);
+
+    // Each row is [DeploymentStatus, Long count]
+    @Query("select t.status, count(t) from DeploymentTask t group by t.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("select t.status, count(t) from DeploymentTask t where t.department.id = :departmentId group by t.status")
+    List<Object[]> countGroupByStatusForDepartment(@Param("departmentId") Long departmentId);
+
+    // Each row is [Long id, Instant scheduledDate]; what the execution engine loads onto its timer at startup
+    @Query("select t.id, t.scheduledDate from DeploymentTask t where t.status = com.example.demo.enums.DeploymentStatus.PENDING and t.scheduledDate is not null")
+    List<Object[]> findPendingSchedule();
+
+    @Query("select new com.example.demo.execution.TaskExecution(t.id, t.taskName, t.description, t.vm.id, t.department.id, t.scheduledDate) from DeploymentTask t where t.id = :id")
+    TaskExecution findExecution(@Param("id") Long id);
+
+    // Heartbeat for claimed tasks; only counts the ones this owner still holds
+    @Modifying
+    @Transactional
+    @Query("update DeploymentTask t set t.leaseUntil = :leaseUntil where t.id in :ids and t.leaseOwner = :owner "
+            + "and t.status = com.example.demo.enums.DeploymentStatus.IN_PROGRESS")
+    int renewLeases(@Param("owner") String owner, @Param("ids") Collection<Long> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    // 0 when the lease was lost (expired and reclaimed, or the task was edited): the result is then not recorded
+    @Modifying
+    @Transactional
+    @Query("update DeploymentTask t set t.status = :status, t.completedAt = :completedAt, t.leaseOwner = null, t.leaseUntil = null, "
+            + "t.updatedAt = :completedAt "
+            + "where t.id = :id and t.leaseOwner = :owner and t.status = com.example.demo.enums.DeploymentStatus.IN_PROGRESS")
+    int markFinished(@Param("id") Long id, @Param("owner") String owner, @Param("status") DeploymentStatus status,
+                     @Param("completedAt") Instant completedAt);
+
+    // Hands a claimed task back unrun, e.g. when the node shuts down mid-run; 0 when the lease was already lost
+    @Modifying
+    @Transactional
+    @Query("update DeploymentTask t set t.status = com.example.demo.enums.DeploymentStatus.PENDING, t.leaseOwner = null, "
+            + "t.leaseUntil = null, t.updatedAt = :now "
+            + "where t.id = :id and t.leaseOwner = :owner and t.status = com.example.demo.enums.DeploymentStatus.IN_PROGRESS")
+    int releaseClaim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -1,11 +1,90 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.HardwareDto;
 import com.example.demo.entite.Hardware;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface HardwareRepository extends JpaRepository<Hardware, Long> {
     List<Hardware> findByDepartmentId(Long departmentId);
-}
 
+    // Read-modify-write updates: a concurrent update or bulk status change waits for this transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hardware h where h.id = :id")
+    Optional<Hardware> findByIdForUpdate(@Param("id") Long id);
+
+    // Keyset pages: "id > cursor order by id limit n", so deep pages cost the same as the first one.
+    // Rows are projected straight into DTOs, so nothing is hydrated or tracked by the persistence context.
+    @Query("select new com.example.demo.dto.HardwareDto(h.id, h.name, h.type, h.model, h.serialNumber, h.ipAddress, h.cpuCores, h.ramGb, h.storageGb, h.status, h.purchaseDate, h.warrantyEndDate, h.site.id, h.department.id) from Hardware h "
+            + "where h.id > :cursor order by h.id")
+    Slice<HardwareDto> findDtoPage(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.HardwareDto(h.id, h.name, h.type, h.model, h.serialNumber, h.ipAddress, h.cpuCores, h.ramGb, h.storageGb, h.status, h.purchaseDate, h.warrantyEndDate, h.site.id, h.department.id) from Hardware h "
+            + "where h.department.id = :departmentId and h.id > :cursor order by h.id")
+    Slice<HardwareDto> findDtoPageByDepartmentId(@Param("departmentId") Long departmentId, @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.HardwareDto(h.id, h.name, h.type, h.model, h.serialNumber, h.ipAddress, h.cpuCores, h.ramGb, h.storageGb, h.status, h.purchaseDate, h.warrantyEndDate, h.site.id, h.department.id) from Hardware h where h.id in :ids")
+    List<HardwareDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Delta sync: rows changed after the position (updatedAt, id) and no later than :until, in that order.
+    // Each row is [Long id, Instant updatedAt]; served from the updated_at index, or (department_id, updated_at) for
+    // one department. Two queries rather than ":departmentId is null or ...", which the planner cannot use an index for.
+    @Query("select h.id, h.updatedAt from Hardware h "
+            + "where (h.updatedAt > :since or (h.updatedAt = :since and h.id > :afterId)) and h.updatedAt <= :until "
+            + "order by h.updatedAt, h.id")
+    List<Object[]> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, @Param("until") Instant until,
+                                    Pageable pageable);
+
+    @Query("select h.id, h.updatedAt from Hardware h "
+            + "where (h.updatedAt > :since or (h.updatedAt = :since and h.id > :afterId)) and h.updatedAt <= :until "
+            + "and h.department.id = :departmentId order by h.updatedAt, h.id")
+    List<Object[]> findChangedSinceByDepartmentId(@Param("departmentId") Long departmentId, @Param("since") Instant since,
+                                                  @Param("afterId") long afterId, @Param("until") Instant until, Pageable pageable);
+
+    // Which of these ids still exist (in the department, when given); the others were deleted or moved away
+    @Query("select h.id from Hardware h where h.id in :ids and (:departmentId is null or h.department.id = :departmentId)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("departmentId") Long departmentId);
 
+    // Whole-table export: rows arrive in chunks of the JDBC fetch size (MySQL needs useCursorFetch=true) and,
+    // being DTOs, never enter the persistence context. Must be consumed and closed inside a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.HardwareDto(h.id, h.name, h.type, h.model, h.serialNumber, h.ipAddress, h.cpuCores, h.ramGb, h.storageGb, h.status, h.purchaseDate, h.warrantyEndDate, h.site.id, h.department.id) from Hardware h "
+            + "order by h.id")
+    Stream<HardwareDto> streamDtos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.HardwareDto(h.id, h.name, h.type, h.model, h.serialNumber, h.ipAddress, h.cpuCores, h.ramGb, h.storageGb, h.status, h.purchaseDate, h.warrantyEndDate, h.site.id, h.department.id) from Hardware h "
+            + "where h.department.id = :departmentId order by h.id")
+    Stream<HardwareDto> streamDtosByDepartmentId(@Param("departmentId") Long departmentId);
+
+    // Each row is [HardwareStatus, Long count]
+    @Query("select h.status, count(h) from Hardware h group by h.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("select h.status, count(h) from Hardware h where h.department.id = :departmentId group by h.status")
+    List<Object[]> countGroupByStatusForDepartment(@Param("departmentId") Long departmentId);
+
+    // Each row is [Long id, Long departmentId]; lets bulk imports resolve hardwareId without a lookup per row
+    @Query("select h.id, h.department.id from Hardware h")
+    List<Object[]> findAllIdAndDepartmentId();
+
+    // Each row is [Long id, Long departmentId, Long siteId, HardwareStatus status, Integer cpuCores, Integer ramGb, Integer storageGb]
+    @Query("select h.id, h.department.id, h.site.id, h.status, h.cpuCores, h.ramGb, h.storageGb from Hardware h")
+    List<Object[]> findAllCapacities();
+
+    @Query("select h.ipNumeric from Hardware h where h.ipNumeric is not null")
+    List<Long> findAllIpNumerics();
+}
@@ -1,11 +1,59 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.SiteDto;
 import com.example.demo.entite.Site;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface SiteRepository extends JpaRepository<Site, Long> {
+    // Cached until the next site write (see SecondLevelCacheConfig)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Site> findByDepartmentId(Long departmentId);
-}
 
+    @Query("select new com.example.demo.dto.SiteDto(s.id, s.name, s.address, s.city, s.country, s.department.id) from Site s "
+            + "where s.id > :cursor order by s.id")
+    Slice<SiteDto> findDtoPage(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.SiteDto(s.id, s.name, s.address, s.city, s.country, s.department.id) from Site s "
+            + "where s.department.id = :departmentId and s.id > :cursor order by s.id")
+    Slice<SiteDto> findDtoPageByDepartmentId(@Param("departmentId") Long departmentId, @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.SiteDto(s.id, s.name, s.address, s.city, s.country, s.department.id) from Site s where s.id in :ids")
+    List<SiteDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Each row is [Long id, Instant updatedAt]; see HardwareRepository.findChangedSince
+    @Query("select s.id, s.updatedAt from Site s "
+            + "where (s.updatedAt > :since or (s.updatedAt = :since and s.id > :afterId)) and s.updatedAt <= :until "
+            + "order by s.updatedAt, s.id")
+    List<Object[]> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, @Param("until") Instant until,
+                                    Pageable pageable);
+
+    @Query("select s.id, s.updatedAt from Site s "
+            + "where (s.updatedAt > :since or (s.updatedAt = :since and s.id > :afterId)) and s.updatedAt <= :until "
+            + "and s.department.id = :departmentId order by s.updatedAt, s.id")
+    List<Object[]> findChangedSinceByDepartmentId(@Param("departmentId") Long departmentId, @Param("since") Instant since,
+                                                  @Param("afterId") long afterId, @Param("until") Instant until, Pageable pageable);
 
+    @Query("select s.id from Site s where s.id in :ids and (:departmentId is null or s.department.id = :departmentId)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("departmentId") Long departmentId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long countByDepartmentId(Long departmentId);
+
+    @Query("select s.department.id from Site s where s.id = :id")
+    Long findDepartmentIdById(@Param("id") Long id);
+
+    // Each row is [Long id, Long departmentId]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select s.id, s.department.id from Site s")
+    List<Object[]> findAllIdAndDepartmentId();
+}
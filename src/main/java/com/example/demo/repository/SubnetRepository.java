@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.entite.Subnet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+
+public interface SubnetRepository extends JpaRepository<Subnet, Long> {
+
+    // Each row is [Long id, String name, Long networkAddress, Integer prefixLength, Long gateway, Long siteId, Long departmentId]
+    @Query("select s.id, s.name, s.networkAddress, s.prefixLength, s.gateway, site.id, s.department.id "
+            + "from Subnet s left join s.site site")
+    List<Object[]> findAllRows();
+}
@@ -0,0 +1,23 @@
+package com.example.demo.repository;
+
+import com.example.demo.entite.Tombstone;
+import com.example.demo.enums.InventoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.List;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    @Query("select distinct t.entityId from Tombstone t "
+            + "where t.entityType = :type and t.deletedAt > :after and t.deletedAt <= :until")
+    List<Long> findEntityIds(@Param("type") InventoryEntity type, @Param("after") Instant after, @Param("until") Instant until);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Tombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -1,14 +1,62 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.UserDto;
 import com.example.demo.entite.User;
+import com.example.demo.security.UserPrincipal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Login and /api/auth/me read the department name, so fetch it in the same select
+    @EntityGraph(attributePaths = "department")
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(attributePaths = "department")
+    Optional<User> findWithDepartmentById(Long id);
+
     Optional<User> findByEmail(String email);
     List<User> findByDepartmentId(Long departmentId);
+
+    @Query("select new com.example.demo.security.UserPrincipal(u.id, u.role, u.department.id, u.enabled) from User u where u.id = :id")
+    Optional<UserPrincipal> findPrincipalById(@Param("id") Long id);
+
+    @Query("select u.department.id from User u where u.id = :id")
+    Long findDepartmentIdById(@Param("id") Long id);
+
+    @Query("select new com.example.demo.dto.UserDto(u.id, u.username, u.email, u.enabled, u.role, u.department.id) from User u "
+            + "where u.id > :cursor order by u.id")
+    Slice<UserDto> findDtoPage(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.UserDto(u.id, u.username, u.email, u.enabled, u.role, u.department.id) from User u "
+            + "where u.department.id = :departmentId and u.id > :cursor order by u.id")
+    Slice<UserDto> findDtoPageByDepartmentId(@Param("departmentId") Long departmentId, @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.UserDto(u.id, u.username, u.email, u.enabled, u.role, u.department.id) from User u where u.id in :ids")
+    List<UserDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Each row is [Long id, Instant updatedAt]; see HardwareRepository.findChangedSince
+    @Query("select u.id, u.updatedAt from User u "
+            + "where (u.updatedAt > :since or (u.updatedAt = :since and u.id > :afterId)) and u.updatedAt <= :until "
+            + "order by u.updatedAt, u.id")
+    List<Object[]> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, @Param("until") Instant until,
+                                    Pageable pageable);
+
+    @Query("select u.id, u.updatedAt from User u "
+            + "where (u.updatedAt > :since or (u.updatedAt = :since and u.id > :afterId)) and u.updatedAt <= :until "
+            + "and u.department.id = :departmentId order by u.updatedAt, u.id")
+    List<Object[]> findChangedSinceByDepartmentId(@Param("departmentId") Long departmentId, @Param("since") Instant since,
+                                                  @Param("afterId") long afterId, @Param("until") Instant until, Pageable pageable);
+
+    @Query("select u.id from User u where u.id in :ids and (:departmentId is null or u.department.id = :departmentId)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("departmentId") Long departmentId);
 }
 
 
@@ -1,11 +1,79 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.VirtualMachineDto;
 import com.example.demo.entite.VirtualMachine;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VirtualMachineRepository extends JpaRepository<VirtualMachine, Long> {
     List<VirtualMachine> findByDepartmentId(Long departmentId);
-}
 
+    // Held until commit, so concurrent updates and deletes of one VM see each other's capacity changes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from VirtualMachine v where v.id = :id")
+    Optional<VirtualMachine> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select new com.example.demo.dto.VirtualMachineDto(v.id, v.name, v.hostname, v.ipAddress, v.operatingSystem, v.vcpu, v.vram, v.diskSize, v.status, v.hardware.id, v.department.id) from VirtualMachine v "
+            + "where v.id > :cursor order by v.id")
+    Slice<VirtualMachineDto> findDtoPage(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.VirtualMachineDto(v.id, v.name, v.hostname, v.ipAddress, v.operatingSystem, v.vcpu, v.vram, v.diskSize, v.status, v.hardware.id, v.department.id) from VirtualMachine v "
+            + "where v.department.id = :departmentId and v.id > :cursor order by v.id")
+    Slice<VirtualMachineDto> findDtoPageByDepartmentId(@Param("departmentId") Long departmentId, @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.VirtualMachineDto(v.id, v.name, v.hostname, v.ipAddress, v.operatingSystem, v.vcpu, v.vram, v.diskSize, v.status, v.hardware.id, v.department.id) from VirtualMachine v where v.id in :ids")
+    List<VirtualMachineDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Each row is [Long id, Instant updatedAt]; see HardwareRepository.findChangedSince
+    @Query("select v.id, v.updatedAt from VirtualMachine v "
+            + "where (v.updatedAt > :since or (v.updatedAt = :since and v.id > :afterId)) and v.updatedAt <= :until "
+            + "order by v.updatedAt, v.id")
+    List<Object[]> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, @Param("until") Instant until,
+                                    Pageable pageable);
+
+    @Query("select v.id, v.updatedAt from VirtualMachine v "
+            + "where (v.updatedAt > :since or (v.updatedAt = :since and v.id > :afterId)) and v.updatedAt <= :until "
+            + "and v.department.id = :departmentId order by v.updatedAt, v.id")
+    List<Object[]> findChangedSinceByDepartmentId(@Param("departmentId") Long departmentId, @Param("since") Instant since,
+                                                  @Param("afterId") long afterId, @Param("until") Instant until, Pageable pageable);
+
+    @Query("select v.id from VirtualMachine v where v.id in :ids and (:departmentId is null or v.department.id = :departmentId)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids, @Param("departmentId") Long departmentId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.VirtualMachineDto(v.id, v.name, v.hostname, v.ipAddress, v.operatingSystem, v.vcpu, v.vram, v.diskSize, v.status, v.hardware.id, v.department.id) from VirtualMachine v "
+            + "order by v.id")
+    Stream<VirtualMachineDto> streamDtos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.demo.dto.VirtualMachineDto(v.id, v.name, v.hostname, v.ipAddress, v.operatingSystem, v.vcpu, v.vram, v.diskSize, v.status, v.hardware.id, v.department.id) from VirtualMachine v "
+            + "where v.department.id = :departmentId order by v.id")
+    Stream<VirtualMachineDto> streamDtosByDepartmentId(@Param("departmentId") Long departmentId);
+
+    // Each row is [VMStatus, Long count]
+    @Query("select v.status, count(v) from VirtualMachine v group by v.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("select v.status, count(v) from VirtualMachine v where v.department.id = :departmentId group by v.status")
+    List<Object[]> countGroupByStatusForDepartment(@Param("departmentId") Long departmentId);
+
+    // Each row is [Long hardwareId, Long vcpu, Long vram, Long diskSize, Long vmCount]
+    @Query("select v.hardware.id, sum(v.vcpu), sum(v.vram), sum(v.diskSize), count(v) from VirtualMachine v group by v.hardware.id")
+    List<Object[]> sumAllocationGroupByHardware();
+
+    @Query("select v.ipNumeric from VirtualMachine v where v.ipNumeric is not null")
+    List<Long> findAllIpNumerics();
+}
@@ -0,0 +1,40 @@
+package com.example.demo.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signing keys for auth tokens, bound from {@code inventory.auth.token.*}.
+ *
+ * Every node verifies with all configured keys and signs with {@code activeKey}, so keys
+ * can be rotated without shared state: add the new key everywhere, switch {@code activeKey},
+ * then drop the old key once tokens signed with it have expired.
+ */
+@ConfigurationProperties(prefix = "inventory.auth.token")
+public class AuthTokenProperties {
+    /** Key id -> Base64 encoded HMAC-SHA256 secret (at least 32 bytes). */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /** Key id used to sign new tokens. */
+    private String activeKey;
+
+    private Duration ttl = Duration.ofHours(8);
+
+    /** Whether requests without a token may still identify themselves with the X-User-Id header. */
+    private boolean legacyUserHeader = true;
+
+    public Map<String, String> getKeys() { return keys; }
+    public void setKeys(Map<String, String> keys) { this.keys = keys; }
+
+    public String getActiveKey() { return activeKey; }
+    public void setActiveKey(String activeKey) { this.activeKey = activeKey; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public boolean isLegacyUserHeader() { return legacyUserHeader; }
+    public void setLegacyUserHeader(boolean legacyUserHeader) { this.legacyUserHeader = legacyUserHeader; }
+}
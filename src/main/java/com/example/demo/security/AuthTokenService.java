@@ -0,0 +1,116 @@
+package com.example.demo.security;
+
+import com.example.demo.enums.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed tokens of the form
+ * {@code v1.<keyId>.<payload>.<signature>}, where the payload carries
+ * userId, role, departmentId and expiry. Verification is done in memory.
+ */
+@Service
+public class AuthTokenService {
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys = new HashMap<>();
+    private final String activeKeyId;
+    private final AuthTokenProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public AuthTokenService(AuthTokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    AuthTokenService(AuthTokenProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        properties.getKeys().forEach((id, secret) -> {
+            byte[] bytes = Base64.getDecoder().decode(secret);
+            if (bytes.length < 32) {
+                throw new IllegalStateException("Auth token key '" + id + "' must be at least 32 bytes");
+            }
+            keys.put(id, new SecretKeySpec(bytes, ALGORITHM));
+        });
+        if (keys.isEmpty()) {
+            byte[] bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            keys.put("local", new SecretKeySpec(bytes, ALGORITHM));
+            activeKeyId = "local";
+            log.warn("No inventory.auth.token.keys configured: using a random key, tokens will not survive a restart "
+                    + "or be accepted by other nodes");
+        } else {
+            // Map order is not the configured order, so with several keys nodes could pick different ones
+            if (properties.getActiveKey() == null && keys.size() > 1) {
+                throw new IllegalStateException("inventory.auth.token.active-key is required when more than one key is configured");
+            }
+            activeKeyId = properties.getActiveKey() != null ? properties.getActiveKey() : keys.keySet().iterator().next();
+            if (!keys.containsKey(activeKeyId)) {
+                throw new IllegalStateException("inventory.auth.token.active-key '" + activeKeyId + "' is not a configured key");
+            }
+        }
+    }
+
+    public String issue(UserPrincipal principal) {
+        long expiresAt = clock.instant().plus(properties.getTtl()).getEpochSecond();
+        String payload = principal.getUserId() + ":" + principal.getRole() + ":"
+                + (principal.getDepartmentId() != null ? principal.getDepartmentId() : "") + ":" + expiresAt;
+        String signed = VERSION + "." + activeKeyId + "." + B64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signed + "." + B64.encodeToString(sign(keys.get(activeKeyId), signed));
+    }
+
+    /** The principal carried by a well-formed, correctly signed and unexpired token. */
+    public Optional<UserPrincipal> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            return Optional.empty();
+        }
+        SecretKeySpec key = keys.get(parts[1]);
+        if (key == null) {
+            return Optional.empty();
+        }
+        try {
+            byte[] expected = sign(key, parts[0] + "." + parts[1] + "." + parts[2]);
+            if (!MessageDigest.isEqual(expected, B64_DECODER.decode(parts[3]))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(B64_DECODER.decode(parts[2]), StandardCharsets.UTF_8).split(":", -1);
+            if (fields.length != 4 || Long.parseLong(fields[3]) < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            Long departmentId = fields[2].isEmpty() ? null : Long.valueOf(fields[2]);
+            return Optional.of(new UserPrincipal(Long.valueOf(fields[0]), Role.valueOf(fields[1]), departmentId, true));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC signing failed", e);
+        }
+    }
+}
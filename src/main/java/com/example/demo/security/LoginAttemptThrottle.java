@@ -0,0 +1,106 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Sliding-window count of failed logins per username and per client IP. Once either key reaches
+ * its limit, further attempts are refused before any password hash is computed.
+ * Windows live in a size-bounded cache so a spray of random usernames cannot grow memory.
+ */
+@Component
+public class LoginAttemptThrottle {
+    private final Cache<String, FailureWindow> windows;
+    private final long windowMillis;
+    private final int maxPerUsername;
+    private final int maxPerIp;
+    private final Counter throttled;
+    private final Clock clock;
+
+    @Autowired
+    public LoginAttemptThrottle(MeterRegistry registry,
+                                @Value("${inventory.auth.throttle.window:15m}") Duration window,
+                                @Value("${inventory.auth.throttle.max-failures-per-username:5}") int maxPerUsername,
+                                @Value("${inventory.auth.throttle.max-failures-per-ip:20}") int maxPerIp,
+                                @Value("${inventory.auth.throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this(registry, window, maxPerUsername, maxPerIp, maxTrackedKeys, Clock.systemUTC());
+    }
+
+    LoginAttemptThrottle(MeterRegistry registry, Duration window, int maxPerUsername, int maxPerIp, long maxTrackedKeys,
+                         Clock clock) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+        this.maxPerUsername = maxPerUsername;
+        this.maxPerIp = maxPerIp;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window)
+                .build();
+        this.throttled = Counter.builder("auth.login.throttled")
+                .description("Logins refused because of repeated failures")
+                .register(registry);
+    }
+
+    public boolean isBlocked(String username, String clientIp) {
+        long now = clock.millis();
+        boolean blocked = count(userKey(username), now) >= maxPerUsername || count(ipKey(clientIp), now) >= maxPerIp;
+        if (blocked) {
+            throttled.increment();
+        }
+        return blocked;
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = clock.millis();
+        windows.get(userKey(username), k -> new FailureWindow()).add(now, windowMillis);
+        windows.get(ipKey(clientIp), k -> new FailureWindow()).add(now, windowMillis);
+    }
+
+    public void recordSuccess(String username) {
+        windows.invalidate(userKey(username));
+    }
+
+    private int count(String key, long now) {
+        FailureWindow window = windows.getIfPresent(key);
+        return window != null ? window.count(now, windowMillis) : 0;
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username != null ? username.toLowerCase(Locale.ROOT) : "");
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    /** Timestamps of recent failures, oldest first. */
+    private static final class FailureWindow {
+        private final ArrayDeque<Long> failures = new ArrayDeque<>();
+
+        synchronized void add(long now, long windowMillis) {
+            prune(now, windowMillis);
+            failures.addLast(now);
+        }
+
+        synchronized int count(long now, long windowMillis) {
+            prune(now, windowMillis);
+            return failures.size();
+        }
+
+        private void prune(long now, long windowMillis) {
+            while (!failures.isEmpty() && failures.peekFirst() <= now - windowMillis) {
+                failures.pollFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt checks on a small dedicated pool instead of the request threads, so a burst of
+ * logins can only ever occupy these threads. When the pool and its queue are full the login
+ * fails fast with 429 rather than queueing without limit.
+ */
+@Service
+public class PasswordVerificationService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordVerificationService(PasswordEncoder passwordEncoder, MeterRegistry registry,
+                                       @Value("${inventory.auth.bcrypt.threads:0}") int threads,
+                                       @Value("${inventory.auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                                       @Value("${inventory.auth.bcrypt.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.bcrypt.duration")
+                .description("Time spent verifying one password hash")
+                .register(registry);
+        this.rejected = Counter.builder("auth.bcrypt.rejected")
+                .description("Logins refused because the verification pool was saturated")
+                .register(registry);
+        Gauge.builder("auth.bcrypt.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password checks waiting for a verification thread")
+                .register(registry);
+        Gauge.builder("auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> hashTimer.record(() -> passwordEncoder.matches(rawPassword, passwordHash)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Login service is busy, retry shortly");
+        }
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Login service is busy, retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
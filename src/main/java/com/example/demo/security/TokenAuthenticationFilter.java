@@ -0,0 +1,58 @@
+package com.example.demo.security;
+
+import com.example.demo.service.UserContextService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} without touching the database.
+ * A token that is present but invalid or expired is rejected with 401.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final AuthTokenService tokenService;
+    private final UserContextService userContextService;
+
+    public TokenAuthenticationFilter(AuthTokenService tokenService, UserContextService userContextService) {
+        this.tokenService = tokenService;
+        this.userContextService = userContextService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<UserPrincipal> principal = tokenService.verify(header.substring(BEARER.length()).trim());
+        if (principal.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+            return;
+        }
+
+        UserPrincipal user = principal.get();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()))));
+        userContextService.setAuthenticatedPrincipal(user);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            userContextService.clear();
+        }
+    }
+}
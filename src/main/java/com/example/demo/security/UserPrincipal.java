@@ -0,0 +1,33 @@
+package com.example.demo.security;
+
+import com.example.demo.enums.Role;
+
+/**
+ * The part of a user that authorization checks need. Immutable, so one instance
+ * can be shared between requests through {@link UserPrincipalCache}.
+ */
+public final class UserPrincipal {
+    private final Long userId;
+    private final Role role;
+    private final Long departmentId;
+    private final boolean enabled;
+
+    public UserPrincipal(Long userId, Role role, Long departmentId, boolean enabled) {
+        this.userId = userId;
+        this.role = role;
+        this.departmentId = departmentId;
+        this.enabled = enabled;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public Role getRole() { return role; }
+
+    public Long getDepartmentId() { return departmentId; }
+
+    public boolean isEnabled() { return enabled; }
+
+    public boolean isAdmin() { return role == Role.ADMIN || role == Role.SUPER_ADMIN; }
+
+    public boolean isSuperAdmin() { return role == Role.SUPER_ADMIN; }
+}
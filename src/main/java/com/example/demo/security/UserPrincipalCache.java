@@ -0,0 +1,41 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cross-request cache of userId -> (role, departmentId, enabled).
+ * Bounded in size and evicted after a TTL so that changes made outside
+ * {@link com.example.demo.service.UserService} are picked up eventually;
+ * changes made through it evict the entry as soon as they are committed.
+ */
+@Component
+public class UserPrincipalCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, Optional<UserPrincipal>> cache;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${inventory.auth.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${inventory.auth.principal-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /** Unknown ids are cached too, so a bogus X-User-Id does not cost a query per request. */
+    public Optional<UserPrincipal> get(Long userId) {
+        return cache.get(userId, userRepository::findPrincipalById);
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+}
@@ -4,11 +4,15 @@ import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.LoginResponse;
 import com.example.demo.entite.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthTokenService;
+import com.example.demo.security.LoginAttemptThrottle;
+import com.example.demo.security.PasswordVerificationService;
+import com.example.demo.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Base64;
 import java.util.Optional;
 
 @Service
@@ -18,12 +22,24 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordVerificationService passwordVerificationService;
+
+    @Autowired
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        // Refuse repeated failures before spending any time on hashing
+        if (loginAttemptThrottle.isBlocked(request.getUsername(), clientIp)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many failed login attempts");
+        }
 
-    public LoginResponse login(LoginRequest request) {
         Optional<User> userOpt = userRepository.findByUsername(request.getUsername());
         
         if (userOpt.isEmpty()) {
+            loginAttemptThrottle.recordFailure(request.getUsername(), clientIp);
             throw new RuntimeException("Invalid username or password");
         }
 
@@ -33,9 +49,11 @@ public class AuthService {
             throw new RuntimeException("User account is disabled");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordVerificationService.matches(request.getPassword(), user.getPasswordHash())) {
+            loginAttemptThrottle.recordFailure(request.getUsername(), clientIp);
             throw new RuntimeException("Invalid username or password");
         }
+        loginAttemptThrottle.recordSuccess(request.getUsername());
 
         LoginResponse response = new LoginResponse();
         response.setUserId(user.getId());
@@ -45,17 +63,15 @@ public class AuthService {
         response.setDepartmentId(user.getDepartment().getId());
         response.setDepartmentName(user.getDepartment().getName());
         
-        // Create a simple token (in production, use JWT)
-        String token = Base64.getEncoder().encodeToString(
-            (user.getId() + ":" + System.currentTimeMillis()).getBytes()
-        );
-        response.setToken(token);
+        // Signed token carrying userId, role, department and expiry, verified without a DB lookup
+        response.setToken(tokenService.issue(new UserPrincipal(
+            user.getId(), user.getRole(), user.getDepartment().getId(), user.isEnabled())));
 
         return response;
     }
 
     public User getCurrentUser(Long userId) {
-        return userRepository.findById(userId)
+        return userRepository.findWithDepartmentById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
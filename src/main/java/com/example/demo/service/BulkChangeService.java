@@ -0,0 +1,308 @@
+package com.example.demo.service;
+
+import com.example.demo.audit.AuditRecord;
+import com.example.demo.audit.AuditTrail;
+import com.example.demo.dto.BulkChangeResultDto;
+import com.example.demo.dto.HardwareBulkChangeDto;
+import com.example.demo.dto.VmBulkChangeDto;
+import com.example.demo.entite.Department;
+import com.example.demo.enums.AuditAction;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.enums.VMStatus;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.service.CapacityService.VmAllocation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based changes to many VMs or hosts at once: each request is one JPQL UPDATE or DELETE
+ * with the selection as its WHERE clause, instead of loading and saving every row.
+ *
+ * @see VmBulkChangeDto
+ * @see HardwareBulkChangeDto
+ */
+@Service
+public class BulkChangeService {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final DepartmentRepository departmentRepository;
+    private final CapacityService capacityService;
+    private final IpamService ipamService;
+    private final VersionService versions;
+    private final ApplicationEventPublisher events;
+    private final AuditTrail auditTrail;
+    private final UserContextService userContextService;
+
+    public BulkChangeService(EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             DepartmentRepository departmentRepository,
+                             CapacityService capacityService,
+                             IpamService ipamService,
+                             VersionService versions,
+                             ApplicationEventPublisher events,
+                             AuditTrail auditTrail,
+                             UserContextService userContextService) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.departmentRepository = departmentRepository;
+        this.capacityService = capacityService;
+        this.ipamService = ipamService;
+        this.versions = versions;
+        this.events = events;
+        this.auditTrail = auditTrail;
+        this.userContextService = userContextService;
+    }
+
+    /**
+     * Status and department do not count against host capacity, so the change is a single UPDATE of
+     * the matched ids, read (and locked) first because the in-memory views and the change feed have
+     * to be told which VMs changed, and which ones moved when the department changes. Each VM gets
+     * its own audit entry.
+     *
+     * @param departmentScope when not null, only VMs of this department are touched and they cannot be moved out of it
+     */
+    public BulkChangeResultDto updateVirtualMachines(VmBulkChangeDto change, Long departmentScope) {
+        if (change.setStatus == null && change.setDepartmentId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to change: give setStatus and/or setDepartmentId");
+        }
+        if (change.setDepartmentId != null) {
+            if (departmentScope != null && !departmentScope.equals(change.setDepartmentId)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to move virtual machines to department " + change.setDepartmentId);
+            }
+            if (!departmentRepository.existsById(change.setDepartmentId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid setDepartmentId");
+            }
+        }
+        Where where = vmWhere(change.ids, change.hardwareId, change.departmentId, change.status, departmentScope);
+        if (where.isEmpty()) {
+            return new BulkChangeResultDto(0);
+        }
+
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (change.setStatus != null) {
+            assignments.add("v.status = :newStatus");
+            values.put("newStatus", change.setStatus);
+        }
+        if (change.setDepartmentId != null) {
+            assignments.add("v.department = :newDepartment");
+            values.put("newDepartment", entityManager.getReference(Department.class, change.setDepartmentId));
+        }
+        // Bulk UPDATEs skip @UpdateTimestamp
+        assignments.add("v.updatedAt = :updatedAt");
+        values.put("updatedAt", Instant.now());
+        String set = "update VirtualMachine v set " + String.join(", ", assignments);
+        Long selectedDepartmentId = departmentScope != null ? departmentScope : change.departmentId;
+        Map<String, AuditRecord.Change> audited = new LinkedHashMap<>();
+        if (change.setStatus != null) {
+            audited.put("status", AuditRecord.Change.to(change.setStatus));
+        }
+        if (change.setDepartmentId != null) {
+            audited.put("department", AuditRecord.Change.to(change.setDepartmentId));
+        }
+        Integer affected = transactionTemplate.execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = where.bind(entityManager.createQuery("select v.id, v.department.id from VirtualMachine v" + where.clause))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<Long> matched = rows.stream().map(row -> (Long) row[0]).toList();
+            Query update = entityManager.createQuery(set + " where v.id in :ids").setParameter("ids", matched);
+            values.forEach(update::setParameter);
+            int updated = update.executeUpdate();
+            audit("VirtualMachine", rows, AuditAction.UPDATE, audited);
+            changed(InventoryEntity.VIRTUAL_MACHINE, selectedDepartmentId, change.setDepartmentId);
+            events.publishEvent(change.setDepartmentId == null
+                    ? InventoryChangedEvent.saved(InventoryEntity.VIRTUAL_MACHINE, matched)
+                    : InventoryChangedEvent.moved(InventoryEntity.VIRTUAL_MACHINE, matched));
+            return updated;
+        });
+        return new BulkChangeResultDto(affected);
+    }
+
+    /**
+     * Locks and reads the matching VMs' allocations and addresses so they can be handed back, then deletes
+     * exactly those rows in one statement. VMs that still have deployment tasks block the whole delete.
+     */
+    public BulkChangeResultDto deleteVirtualMachines(List<Long> ids, Long hardwareId, Long departmentId, VMStatus status,
+                                                     Long departmentScope) {
+        Where where = vmWhere(ids, hardwareId, departmentId, status, departmentScope);
+        if (where.isEmpty()) {
+            return new BulkChangeResultDto(0);
+        }
+        try {
+            Integer affected = transactionTemplate.execute(tx -> {
+                @SuppressWarnings("unchecked")
+                List<Object[]> rows = where.bind(entityManager.createQuery(
+                                "select v.id, v.department.id, v.hardware.id, v.vcpu, v.vram, v.diskSize, v.ipNumeric from VirtualMachine v" + where.clause))
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                List<Long> matched = rows.stream().map(row -> (Long) row[0]).toList();
+                int deleted = entityManager.createQuery("delete from VirtualMachine v where v.id in :ids")
+                        .setParameter("ids", matched)
+                        .executeUpdate();
+                for (Object[] row : rows) {
+                    capacityService.vmChanged(new VmAllocation((Long) row[2], (Integer) row[3], (Integer) row[4], (Integer) row[5]), null);
+                }
+                ipamService.addressesReleased(rows.stream().map(row -> (Long) row[6]).toList());
+                audit("VirtualMachine", rows, AuditAction.DELETE, Map.of());
+                changed(InventoryEntity.VIRTUAL_MACHINE, departmentScope != null ? departmentScope : departmentId, null);
+                events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.VIRTUAL_MACHINE, matched));
+                return deleted;
+            });
+            return new BulkChangeResultDto(affected);
+        } catch (PersistenceException | DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Some of the selected virtual machines still have deployment tasks; nothing was deleted");
+        }
+    }
+
+    /**
+     * Changes the status of every selected host. Capacity tracks host status (placement skips hosts
+     * that are not OPERATIONAL), so the ids are read first and the UPDATE targets exactly those.
+     *
+     * @param departmentScope when not null, only hosts of this department are touched
+     */
+    public BulkChangeResultDto updateHardware(HardwareBulkChangeDto change, Long departmentScope) {
+        if (change.setStatus == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to change: give setStatus");
+        }
+        Where where = new Where("h");
+        where.in("id", change.ids);
+        where.eq("site.id", "siteId", change.siteId);
+        where.eq("department.id", "departmentId", change.departmentId);
+        where.eq("status", "status", change.status);
+        requireSelection(where);
+        where.eq("department.id", "departmentScope", departmentScope);
+        if (where.isEmpty()) {
+            return new BulkChangeResultDto(0);
+        }
+        HardwareStatus newStatus = change.setStatus;
+        Integer affected = transactionTemplate.execute(tx -> {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = where.bind(entityManager.createQuery("select h.id, h.department.id from Hardware h" + where.clause))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<Long> matched = rows.stream().map(row -> (Long) row[0]).toList();
+            int updated = entityManager.createQuery("update Hardware h set h.status = :newStatus, h.updatedAt = :updatedAt where h.id in :ids")
+                    .setParameter("newStatus", newStatus)
+                    .setParameter("updatedAt", Instant.now())
+                    .setParameter("ids", matched)
+                    .executeUpdate();
+            capacityService.hostStatusChanged(matched, newStatus);
+            audit("Hardware", rows, AuditAction.UPDATE, Map.of("status", AuditRecord.Change.to(newStatus)));
+            changed(InventoryEntity.HARDWARE, departmentScope != null ? departmentScope : change.departmentId, null);
+            events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.HARDWARE, matched));
+            return updated;
+        });
+        return new BulkChangeResultDto(affected);
+    }
+
+    // Bulk statements bypass the entity listeners; rows are (id, department id, ...). The old values are not known
+    private void audit(String entityType, List<Object[]> rows, AuditAction action, Map<String, AuditRecord.Change> changes) {
+        Instant now = Instant.now();
+        Long userId = userContextService.getCurrentUserId();
+        List<AuditRecord> records = rows.stream()
+                .map(row -> new AuditRecord(now, entityType, (Long) row[0], (Long) row[1], action, userId, changes))
+                .toList();
+        TransactionHooks.afterCommit(() -> records.forEach(auditTrail::record));
+    }
+
+    // The selection only names its department when it is scoped or filtered by one
+    private void changed(InventoryEntity type, Long selectedDepartmentId, Long targetDepartmentId) {
+        if (selectedDepartmentId == null) {
+            versions.changedEverywhere(type);
+        } else {
+            versions.changed(type, selectedDepartmentId, targetDepartmentId);
+        }
+    }
+
+    private static Where vmWhere(List<Long> ids, Long hardwareId, Long departmentId, VMStatus status, Long departmentScope) {
+        Where where = new Where("v");
+        where.in("id", ids);
+        where.eq("hardware.id", "hardwareId", hardwareId);
+        where.eq("department.id", "departmentId", departmentId);
+        where.eq("status", "status", status);
+        requireSelection(where);
+        where.eq("department.id", "departmentScope", departmentScope);
+        return where;
+    }
+
+    // The department scope alone is not a selection: an admin must still say which rows
+    private static void requireSelection(Where where) {
+        if (!where.hasCondition()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Select rows with ids and/or at least one filter");
+        }
+    }
+
+    /** WHERE clause built from the optional selection fields, with its parameters. */
+    private static final class Where {
+        private final String alias;
+        private final StringBuilder conditions = new StringBuilder();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+        private boolean empty;
+        String clause = "";
+
+        Where(String alias) {
+            this.alias = alias;
+        }
+
+        void in(String path, List<Long> values) {
+            if (values == null) {
+                return;
+            }
+            // An explicit empty id list selects nothing
+            empty |= values.isEmpty();
+            add(path + " in :ids", "ids", values);
+        }
+
+        void eq(String path, String parameter, Object value) {
+            if (value != null) {
+                add(path + " = :" + parameter, parameter, value);
+            }
+        }
+
+        boolean hasCondition() {
+            return !parameters.isEmpty();
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        Query bind(Query query) {
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+
+        private void add(String condition, String parameter, Object value) {
+            conditions.append(conditions.isEmpty() ? " where " : " and ").append(alias).append('.').append(condition);
+            parameters.put(parameter, value);
+            clause = conditions.toString();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkImportResultDto;
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.service.CapacityService.VmAllocation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streams CSV or NDJSON uploads into the hardware and virtual_machine tables.
+ *
+ * Foreign keys are checked against id sets loaded once per import and attached with
+ * {@code getReference}, so a row costs no SELECT. Rows are inserted in JDBC batches of
+ * {@code inventory.import.batch-size}, one transaction per batch. When the database rejects a
+ * batch, that batch is replayed one row per transaction so only the offending rows are reported.
+ */
+@Service
+public class BulkImportService {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DepartmentRepository departmentRepository;
+    private final SiteRepository siteRepository;
+    private final HardwareRepository hardwareRepository;
+    private final CapacityService capacityService;
+    private final IpamService ipamService;
+    private final VersionService versions;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+
+    public BulkImportService(EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             DepartmentRepository departmentRepository,
+                             SiteRepository siteRepository,
+                             HardwareRepository hardwareRepository,
+                             CapacityService capacityService,
+                             IpamService ipamService,
+                             VersionService versions,
+                             ApplicationEventPublisher events,
+                             @Value("${inventory.import.batch-size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.departmentRepository = departmentRepository;
+        this.siteRepository = siteRepository;
+        this.hardwareRepository = hardwareRepository;
+        this.capacityService = capacityService;
+        this.ipamService = ipamService;
+        this.versions = versions;
+        this.events = events;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Validates a parsed row and returns how to build its entity, or throws IllegalArgumentException.
+     * A VM's capacity is booked on its host like a manual create; the row's IP address, if any, is
+     * claimed last, once nothing else can reject the row.
+     */
+    private interface RowMapper<D> {
+        PendingRow map(long line, D dto);
+    }
+
+    // ipAddress and allocation (VMs only) are what the row claimed, handed back if it is not inserted
+    private record PendingRow(long line, Long ipAddress, VmAllocation allocation, Function<EntityManager, Object> factory) {}
+
+    /**
+     * @param departmentScope when not null, every row must belong to this department (department admins)
+     */
+    public BulkImportResultDto importHardware(InputStream body, String contentType, Long departmentScope) throws IOException {
+        Set<Long> departmentIds = new HashSet<>(departmentRepository.findAllIds());
+        Map<Long, Long> siteDepartments = toMap(siteRepository.findAllIdAndDepartmentId());
+        Set<String> serialNumbers = new HashSet<>();
+
+        RowMapper<HardwareDto> mapper = (line, dto) -> {
+            require(dto.name, "name");
+            require(dto.type, "type");
+            require(dto.model, "model");
+            require(dto.serialNumber, "serialNumber");
+            require(dto.purchaseDate, "purchaseDate");
+            require(dto.warrantyEndDate, "warrantyEndDate");
+            require(dto.siteId, "siteId");
+            Long siteDepartmentId = siteDepartments.get(dto.siteId);
+            if (siteDepartmentId == null) {
+                throw new IllegalArgumentException("Unknown siteId " + dto.siteId);
+            }
+            Long departmentId = dto.departmentId != null ? dto.departmentId : siteDepartmentId;
+            checkDepartment(departmentId, departmentIds, departmentScope);
+            checkDepartment(siteDepartmentId, departmentIds, departmentScope);
+            if (!serialNumbers.add(dto.serialNumber)) {
+                throw new IllegalArgumentException("Duplicate serialNumber " + dto.serialNumber + " in this file");
+            }
+            Long address = claimAddress(InventoryEntity.HARDWARE, dto.ipAddress);
+            return new PendingRow(line, address, null, em -> {
+                Hardware e = new Hardware();
+                e.setName(dto.name);
+                e.setType(dto.type);
+                e.setModel(dto.model);
+                e.setSerialNumber(dto.serialNumber);
+                e.setIpAddress(IpamService.format(address));
+                e.setIpNumeric(address);
+                e.setCpuCores(dto.cpuCores);
+                e.setRamGb(dto.ramGb);
+                e.setStorageGb(dto.storageGb);
+                if (dto.status != null) {
+                    e.setStatus(dto.status);
+                }
+                e.setPurchaseDate(dto.purchaseDate);
+                e.setWarrantyEndDate(dto.warrantyEndDate);
+                e.setSite(em.getReference(Site.class, dto.siteId));
+                e.setDepartment(em.getReference(Department.class, departmentId));
+                return e;
+            });
+        };
+        return importRows(body, contentType, HardwareDto.class, mapper);
+    }
+
+    /**
+     * @param departmentScope when not null, every row must belong to this department (department admins)
+     */
+    public BulkImportResultDto importVirtualMachines(InputStream body, String contentType, Long departmentScope) throws IOException {
+        Set<Long> departmentIds = new HashSet<>(departmentRepository.findAllIds());
+        Map<Long, Long> hardwareDepartments = toMap(hardwareRepository.findAllIdAndDepartmentId());
+
+        RowMapper<VirtualMachineDto> mapper = (line, dto) -> {
+            require(dto.name, "name");
+            require(dto.hostname, "hostname");
+            require(dto.operatingSystem, "operatingSystem");
+            if (dto.vcpu <= 0 || dto.vram <= 0 || dto.diskSize <= 0) {
+                throw new IllegalArgumentException("vcpu, vram and diskSize must be positive");
+            }
+            require(dto.hardwareId, "hardwareId");
+            Long hardwareDepartmentId = hardwareDepartments.get(dto.hardwareId);
+            if (hardwareDepartmentId == null) {
+                throw new IllegalArgumentException("Unknown hardwareId " + dto.hardwareId);
+            }
+            Long departmentId = dto.departmentId != null ? dto.departmentId : hardwareDepartmentId;
+            checkDepartment(departmentId, departmentIds, departmentScope);
+            checkDepartment(hardwareDepartmentId, departmentIds, departmentScope);
+            VmAllocation allocation = new VmAllocation(dto.hardwareId, dto.vcpu, dto.vram, dto.diskSize);
+            try {
+                capacityService.reserve(null, allocation);
+            } catch (ResponseStatusException e) {
+                throw new IllegalArgumentException(e.getReason());
+            }
+            Long address;
+            try {
+                address = claimAddress(InventoryEntity.VIRTUAL_MACHINE, dto.ipAddress);
+            } catch (IllegalArgumentException e) {
+                capacityService.vmChanged(allocation, null);
+                throw e;
+            }
+            return new PendingRow(line, address, allocation, em -> {
+                VirtualMachine e = new VirtualMachine();
+                e.setName(dto.name);
+                e.setHostname(dto.hostname);
+                e.setIpAddress(IpamService.format(address));
+                e.setIpNumeric(address);
+                e.setOperatingSystem(dto.operatingSystem);
+                e.setVcpu(dto.vcpu);
+                e.setVram(dto.vram);
+                e.setDiskSize(dto.diskSize);
+                if (dto.status != null) {
+                    e.setStatus(dto.status);
+                }
+                e.setHardware(em.getReference(Hardware.class, dto.hardwareId));
+                e.setDepartment(em.getReference(Department.class, departmentId));
+                return e;
+            });
+        };
+        return importRows(body, contentType, VirtualMachineDto.class, mapper);
+    }
+
+    private <D> BulkImportResultDto importRows(InputStream body, String contentType, Class<D> type, RowMapper<D> mapper) throws IOException {
+        BulkImportResultDto result = new BulkImportResultDto();
+        BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        BulkRecordReader<D> reader = new BulkRecordReader<>(in, BulkRecordReader.formatOf(contentType), objectMapper, type);
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        BulkRecordReader.Record<D> record;
+        try {
+            while ((record = reader.next()) != null) {
+                result.received++;
+                if (record.error != null) {
+                    result.addError(record.line, record.error);
+                    continue;
+                }
+                try {
+                    batch.add(mapper.map(record.line, record.value));
+                } catch (IllegalArgumentException e) {
+                    result.addError(record.line, e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    insert(batch, result);
+                    batch.clear();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The upload broke off: rows still waiting for their batch will never be inserted
+            batch.forEach(this::release);
+            throw e;
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, result);
+        }
+        return result;
+    }
+
+    private void insert(List<PendingRow> batch, BulkImportResultDto result) {
+        try {
+            inserted(transactionTemplate.execute(status -> persist(batch)));
+            result.imported += batch.size();
+        } catch (RuntimeException batchFailure) {
+            // One bad row fails the whole JDBC batch, so replay it a row at a time
+            for (PendingRow row : batch) {
+                try {
+                    inserted(transactionTemplate.execute(status -> persist(List.of(row))));
+                    result.imported++;
+                } catch (RuntimeException e) {
+                    release(row);
+                    result.addError(row.line(), "Rejected by the database: " + rootCauseMessage(e));
+                }
+            }
+        }
+    }
+
+    // The session may be the caller's: its batch size is put back and only the rows persisted here are detached
+    private List<Object> persist(List<PendingRow> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        List<Object> entities = new ArrayList<>(rows.size());
+        try {
+            for (PendingRow row : rows) {
+                Object entity = row.factory().apply(entityManager);
+                entityManager.persist(entity);
+                entities.add(entity);
+            }
+            session.flush();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        entities.forEach(entityManager::detach);
+        return entities;
+    }
+
+    private void inserted(List<Object> entities) {
+        List<Long> hardwareIds = new ArrayList<>();
+        List<Long> vmIds = new ArrayList<>();
+        Set<Long> hardwareDepartments = new HashSet<>();
+        Set<Long> vmDepartments = new HashSet<>();
+        for (Object entity : entities) {
+            if (entity instanceof Hardware hardware) {
+                capacityService.hostSaved(hardware);
+                hardwareIds.add(hardware.getId());
+                hardwareDepartments.add(hardware.getDepartment().getId());
+            } else if (entity instanceof VirtualMachine vm) {
+                // Its capacity was reserved when the row was read
+                vmIds.add(vm.getId());
+                vmDepartments.add(vm.getDepartment().getId());
+            }
+        }
+        versions.changed(InventoryEntity.HARDWARE, hardwareDepartments);
+        versions.changed(InventoryEntity.VIRTUAL_MACHINE, vmDepartments);
+        if (!hardwareIds.isEmpty()) {
+            events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.HARDWARE, hardwareIds));
+        }
+        if (!vmIds.isEmpty()) {
+            events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.VIRTUAL_MACHINE, vmIds));
+        }
+    }
+
+    private void release(PendingRow row) {
+        ipamService.addressChanged(row.ipAddress(), null);
+        if (row.allocation() != null) {
+            capacityService.vmChanged(row.allocation(), null);
+        }
+    }
+
+    private Long claimAddress(InventoryEntity type, String ipAddress) {
+        try {
+            return ipamService.claim(type, null, ipAddress);
+        } catch (ResponseStatusException e) {
+            throw new IllegalArgumentException(e.getReason());
+        }
+    }
+
+    private static void require(Object value, String field) {
+        if (value == null || (value instanceof String s && s.isBlank())) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+    }
+
+    private static void checkDepartment(Long departmentId, Set<Long> departmentIds, Long departmentScope) {
+        if (!departmentIds.contains(departmentId)) {
+            throw new IllegalArgumentException("Unknown departmentId " + departmentId);
+        }
+        if (departmentScope != null && !departmentScope.equals(departmentId)) {
+            throw new IllegalArgumentException("Not allowed to import into department " + departmentId);
+        }
+    }
+
+    private static Map<Long, Long> toMap(List<Object[]> idPairs) {
+        Map<Long, Long> map = new HashMap<>(idPairs.size() * 2);
+        for (Object[] pair : idPairs) {
+            map.put((Long) pair[0], (Long) pair[1]);
+        }
+        return map;
+    }
+
+    private static String rootCauseMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return message.length() > 300 ? message.substring(0, 300) + "..." : message;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an uploaded file one record at a time, so an import never holds more than a batch in memory.
+ * NDJSON lines are the same JSON objects the single-item POST endpoints accept; CSV files have a
+ * header row naming the same fields (for example {@code name,type,model,serialNumber,siteId}).
+ * Quoted CSV values may contain commas and doubled quotes, but not line breaks.
+ */
+class BulkRecordReader<D> {
+
+    enum Format { CSV, NDJSON }
+
+    /** A parsed record, or the reason its line could not be parsed. */
+    static final class Record<D> {
+        final long line;
+        final D value;
+        final String error;
+
+        private Record(long line, D value, String error) {
+            this.line = line;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final Class<D> type;
+    private List<String> header;
+    private long lineNumber;
+
+    BulkRecordReader(BufferedReader reader, Format format, ObjectMapper objectMapper, Class<D> type) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    static Format formatOf(String contentType) {
+        return contentType != null && contentType.toLowerCase().startsWith("text/csv") ? Format.CSV : Format.NDJSON;
+    }
+
+    /** The next non-blank record, or null at the end of the input. */
+    Record<D> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(line);
+            }
+            if (header == null) {
+                header = splitCsv(line).stream().map(String::trim).toList();
+                continue;
+            }
+            return parseCsv(line);
+        }
+        return null;
+    }
+
+    private Record<D> parseJson(String line) {
+        try {
+            return new Record<>(lineNumber, objectMapper.readValue(line, type), null);
+        } catch (JsonProcessingException e) {
+            return new Record<>(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Record<D> parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() > header.size()) {
+            return new Record<>(lineNumber, null, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        // Empty cells are left out so they read as null rather than failing number and date parsing
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                fields.put(header.get(i), value);
+            }
+        }
+        try {
+            return new Record<>(lineNumber, objectMapper.convertValue(fields, type), null);
+        } catch (IllegalArgumentException e) {
+            String message = e.getCause() instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage();
+            return new Record<>(lineNumber, null, "Invalid value: " + message);
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
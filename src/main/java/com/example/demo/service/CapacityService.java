@@ -0,0 +1,381 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CapacityRollupDto;
+import com.example.demo.dto.HostCapacityDto;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.CapacityResource;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.PlacementStrategy;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Allocated and free CPU, RAM and storage per host, kept in memory.
+ *
+ * Totals are summed from the database once at startup; after that every hardware and VM
+ * change adjusts only the host it touches, once its transaction has committed. For each
+ * resource, hosts are also kept in skip lists ordered by free amount (overall and per
+ * department), so "hosts with at least N free" is a range scan rather than a table scan.
+ *
+ * "Free" is measured against the host size times its overcommit ratio
+ * ({@code inventory.placement.overcommit.*}, 1.0 by default, i.e. no overcommit).
+ * {@link #place} and {@link #reserve} check and book capacity in one step, so concurrent
+ * creates cannot both take the last slot on a host.
+ *
+ * Writers are serialized; readers take no lock and always see whole {@link HostCapacity} snapshots.
+ */
+@Service
+public class CapacityService {
+
+    /** What one VM takes from its host. */
+    public record VmAllocation(Long hardwareId, int vcpu, int vram, int diskSize) {
+        public static VmAllocation of(VirtualMachine vm) {
+            return new VmAllocation(vm.getHardware().getId(), vm.getVcpu(), vm.getVram(), vm.getDiskSize());
+        }
+    }
+
+    private record Key(long free, long hardwareId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key o) {
+            int c = Long.compare(free, o.free);
+            return c != 0 ? c : Long.compare(hardwareId, o.hardwareId);
+        }
+    }
+
+    private static final class FreeIndex {
+        final ConcurrentSkipListSet<Key> all = new ConcurrentSkipListSet<>();
+        final Map<Long, ConcurrentSkipListSet<Key>> byDepartment = new ConcurrentHashMap<>();
+
+        /** Moves a host from its old key to its new one; inserts first so a concurrent search never misses it. */
+        void update(Long oldDepartmentId, Key oldKey, Long newDepartmentId, Key newKey) {
+            if (newKey != null) {
+                all.add(newKey);
+                if (newDepartmentId != null) {
+                    byDepartment.computeIfAbsent(newDepartmentId, d -> new ConcurrentSkipListSet<>()).add(newKey);
+                }
+            }
+            if (oldKey == null) {
+                return;
+            }
+            boolean sameKey = oldKey.equals(newKey);
+            if (!sameKey) {
+                all.remove(oldKey);
+            }
+            if (oldDepartmentId != null && !(sameKey && oldDepartmentId.equals(newDepartmentId))) {
+                NavigableSet<Key> keys = byDepartment.get(oldDepartmentId);
+                if (keys != null) {
+                    keys.remove(oldKey);
+                }
+            }
+        }
+
+        void clear() {
+            all.clear();
+            byDepartment.clear();
+        }
+    }
+
+    private final HardwareRepository hardwareRepository;
+    private final VirtualMachineRepository vmRepository;
+    private final Map<Long, HostCapacity> hosts = new ConcurrentHashMap<>();
+    private final Map<CapacityResource, FreeIndex> indexes = new EnumMap<>(CapacityResource.class);
+    private final Map<CapacityResource, Double> overcommit = new EnumMap<>(CapacityResource.class);
+
+    public CapacityService(HardwareRepository hardwareRepository,
+                           VirtualMachineRepository vmRepository,
+                           @Value("${inventory.placement.overcommit.cpu:1.0}") double cpuOvercommit,
+                           @Value("${inventory.placement.overcommit.ram:1.0}") double ramOvercommit,
+                           @Value("${inventory.placement.overcommit.storage:1.0}") double storageOvercommit) {
+        this.hardwareRepository = hardwareRepository;
+        this.vmRepository = vmRepository;
+        overcommit.put(CapacityResource.CPU, cpuOvercommit);
+        overcommit.put(CapacityResource.RAM, ramOvercommit);
+        overcommit.put(CapacityResource.STORAGE, storageOvercommit);
+        for (CapacityResource resource : CapacityResource.values()) {
+            indexes.put(resource, new FreeIndex());
+        }
+    }
+
+    /** Reloads every host from the database; runs once at startup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, Object[]> allocations = new HashMap<>();
+        for (Object[] row : vmRepository.sumAllocationGroupByHardware()) {
+            allocations.put((Long) row[0], row);
+        }
+        hosts.clear();
+        indexes.values().forEach(FreeIndex::clear);
+        for (Object[] row : hardwareRepository.findAllCapacities()) {
+            Long hardwareId = (Long) row[0];
+            Object[] used = allocations.get(hardwareId);
+            HostCapacity host = new HostCapacity(hardwareId, (Long) row[1], (Long) row[2], (HardwareStatus) row[3],
+                    intOrZero(row[4]), intOrZero(row[5]), intOrZero(row[6]),
+                    used != null ? ((Number) used[1]).longValue() : 0,
+                    used != null ? ((Number) used[2]).longValue() : 0,
+                    used != null ? ((Number) used[3]).longValue() : 0,
+                    used != null ? ((Number) used[4]).intValue() : 0);
+            replace(null, host);
+        }
+    }
+
+    // ---- updates, applied after commit ----
+
+    public void hostSaved(Hardware hardware) {
+        Long hardwareId = hardware.getId();
+        Long departmentId = hardware.getDepartment() != null ? hardware.getDepartment().getId() : null;
+        Long siteId = hardware.getSite() != null ? hardware.getSite().getId() : null;
+        HardwareStatus status = hardware.getStatus();
+        int cpu = intOrZero(hardware.getCpuCores());
+        int ram = intOrZero(hardware.getRamGb());
+        int storage = intOrZero(hardware.getStorageGb());
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                HostCapacity current = hosts.get(hardwareId);
+                HostCapacity updated = current != null
+                        ? current.withHost(departmentId, siteId, status, cpu, ram, storage)
+                        : new HostCapacity(hardwareId, departmentId, siteId, status, cpu, ram, storage, 0, 0, 0, 0);
+                replace(current, updated);
+            }
+        });
+    }
+
+    /** Bulk status change of several hosts whose size, site and department stay the same. */
+    public void hostStatusChanged(Collection<Long> hardwareIds, HardwareStatus status) {
+        List<Long> ids = List.copyOf(hardwareIds);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                for (Long hardwareId : ids) {
+                    HostCapacity current = hosts.get(hardwareId);
+                    if (current != null) {
+                        replace(current, current.withHost(current.departmentId, current.siteId, status,
+                                current.cpuCores, current.ramGb, current.storageGb));
+                    }
+                }
+            }
+        });
+    }
+
+    public void hostRemoved(Long hardwareId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                replace(hosts.get(hardwareId), null);
+            }
+        });
+    }
+
+    /**
+     * Records a VM create ({@code before} null), delete ({@code after} null), resize or move.
+     */
+    public void vmChanged(VmAllocation before, VmAllocation after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                if (before != null) {
+                    adjust(before, -1);
+                }
+                if (after != null) {
+                    adjust(after, 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Books a VM create ({@code before} null), resize or move right away, refusing it when the target
+     * host has no room left. Undo with {@code vmChanged(after, before)} if the change is not saved.
+     */
+    public synchronized void reserve(VmAllocation before, VmAllocation after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        HostCapacity target = hosts.get(after.hardwareId());
+        if (target != null) {
+            HostCapacity withoutBefore = before != null && before.hardwareId().equals(after.hardwareId())
+                    ? target.withVm(-1, before.vcpu(), before.vram(), before.diskSize())
+                    : target;
+            if (!hasRoom(withoutBefore, after.vcpu(), after.vram(), after.diskSize())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Hardware " + after.hardwareId() + " does not have enough free capacity for this VM");
+            }
+        }
+        if (before != null) {
+            adjust(before, -1);
+        }
+        adjust(after, 1);
+    }
+
+    /**
+     * Picks an OPERATIONAL host in the department (and site, when given) with room for the VM and
+     * books the capacity on it. Undo with {@code vmChanged(allocation, null)} if the VM is not saved.
+     *
+     * Candidates come from the department's RAM index starting at the requested RAM, so hosts that
+     * are too small are never looked at; best and worst fit stop at the first host that fits.
+     */
+    public synchronized VmAllocation place(int vcpu, int vram, int diskSize, Long departmentId, Long siteId,
+                                           PlacementStrategy strategy) {
+        FreeIndex ramIndex = indexes.get(CapacityResource.RAM);
+        NavigableSet<Key> keys = departmentId != null ? ramIndex.byDepartment.get(departmentId) : ramIndex.all;
+        HostCapacity chosen = null;
+        if (keys != null) {
+            NavigableSet<Key> bigEnough = keys.tailSet(new Key(vram, Long.MIN_VALUE), true);
+            Iterable<Key> candidates = strategy == PlacementStrategy.WORST_FIT ? bigEnough.descendingSet() : bigEnough;
+            for (Key key : candidates) {
+                HostCapacity host = hosts.get(key.hardwareId());
+                if (host == null || host.status != HardwareStatus.OPERATIONAL
+                        || (siteId != null && !siteId.equals(host.siteId))
+                        || !hasRoom(host, vcpu, vram, diskSize)) {
+                    continue;
+                }
+                if (strategy != PlacementStrategy.SPREAD) {
+                    chosen = host;
+                    break;
+                }
+                if (chosen == null || host.vmCount < chosen.vmCount) {
+                    chosen = host;
+                }
+            }
+        }
+        if (chosen == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No operational host has enough free capacity for this VM");
+        }
+        VmAllocation allocation = new VmAllocation(chosen.hardwareId, vcpu, vram, diskSize);
+        adjust(allocation, 1);
+        return allocation;
+    }
+
+    private boolean hasRoom(HostCapacity host, int vcpu, int vram, int diskSize) {
+        return free(host, CapacityResource.CPU) >= vcpu
+                && free(host, CapacityResource.RAM) >= vram
+                && free(host, CapacityResource.STORAGE) >= diskSize;
+    }
+
+    private void adjust(VmAllocation vm, int sign) {
+        HostCapacity current = hosts.get(vm.hardwareId());
+        if (current != null) {
+            replace(current, current.withVm(sign, vm.vcpu(), vm.vram(), vm.diskSize()));
+        }
+    }
+
+    // ---- reads ----
+
+    public Optional<HostCapacityDto> getHost(Long hardwareId) {
+        return Optional.ofNullable(hosts.get(hardwareId)).map(this::toDto);
+    }
+
+    /**
+     * Hosts with at least {@code minFree} of a resource left, tightest fit first.
+     *
+     * @param departmentId limits the search to one department, or null for every host
+     */
+    public List<HostCapacityDto> findHostsWithFree(CapacityResource resource, long minFree, Long departmentId, int limit) {
+        FreeIndex index = indexes.get(resource);
+        NavigableSet<Key> keys = departmentId != null ? index.byDepartment.get(departmentId) : index.all;
+        List<HostCapacityDto> result = new ArrayList<>();
+        if (keys == null) {
+            return result;
+        }
+        for (Key key : keys.tailSet(new Key(minFree, Long.MIN_VALUE))) {
+            HostCapacity host = hosts.get(key.hardwareId());
+            // A key can briefly outlive its snapshot while a writer swaps them; skip it then
+            if (host != null && free(host, resource) == key.free()
+                    && (departmentId == null || departmentId.equals(host.departmentId))) {
+                result.add(toDto(host));
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Capacity summed over a department and/or site; either filter may be null. */
+    public CapacityRollupDto rollup(Long departmentId, Long siteId) {
+        CapacityRollupDto dto = new CapacityRollupDto();
+        dto.departmentId = departmentId;
+        dto.siteId = siteId;
+        for (HostCapacity host : hosts.values()) {
+            if ((departmentId != null && !departmentId.equals(host.departmentId))
+                    || (siteId != null && !siteId.equals(host.siteId))) {
+                continue;
+            }
+            dto.hosts++;
+            dto.vmCount += host.vmCount;
+            dto.cpuCores += host.cpuCores;
+            dto.allocatedVcpu += host.allocatedVcpu;
+            dto.ramGb += host.ramGb;
+            dto.allocatedRamGb += host.allocatedRamGb;
+            dto.storageGb += host.storageGb;
+            dto.allocatedStorageGb += host.allocatedStorageGb;
+            dto.freeVcpu += free(host, CapacityResource.CPU);
+            dto.freeRamGb += free(host, CapacityResource.RAM);
+            dto.freeStorageGb += free(host, CapacityResource.STORAGE);
+        }
+        return dto;
+    }
+
+    /** Swaps a host's snapshot and index entries; either side may be null. Callers hold the lock. */
+    private void replace(HostCapacity current, HostCapacity updated) {
+        if (updated != null) {
+            hosts.put(updated.hardwareId, updated);
+        } else if (current != null) {
+            hosts.remove(current.hardwareId);
+        }
+        for (Map.Entry<CapacityResource, FreeIndex> entry : indexes.entrySet()) {
+            CapacityResource resource = entry.getKey();
+            entry.getValue().update(
+                    current != null ? current.departmentId : null,
+                    current != null ? new Key(free(current, resource), current.hardwareId) : null,
+                    updated != null ? updated.departmentId : null,
+                    updated != null ? new Key(free(updated, resource), updated.hardwareId) : null);
+        }
+    }
+
+    /** What is left of a resource once the overcommit ratio is applied; negative when overbooked. */
+    private long free(HostCapacity host, CapacityResource resource) {
+        return (long) Math.floor(host.total(resource) * overcommit.get(resource)) - host.allocated(resource);
+    }
+
+    private static int intOrZero(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private HostCapacityDto toDto(HostCapacity host) {
+        HostCapacityDto dto = new HostCapacityDto();
+        dto.hardwareId = host.hardwareId;
+        dto.departmentId = host.departmentId;
+        dto.siteId = host.siteId;
+        dto.status = host.status;
+        dto.vmCount = host.vmCount;
+        dto.cpuCores = host.cpuCores;
+        dto.allocatedVcpu = host.allocatedVcpu;
+        dto.freeVcpu = free(host, CapacityResource.CPU);
+        dto.ramGb = host.ramGb;
+        dto.allocatedRamGb = host.allocatedRamGb;
+        dto.freeRamGb = free(host, CapacityResource.RAM);
+        dto.storageGb = host.storageGb;
+        dto.allocatedStorageGb = host.allocatedStorageGb;
+        dto.freeStorageGb = free(host, CapacityResource.STORAGE);
+        return dto;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Open SSE streams grouped by the department they are scoped to, plus the unscoped ones (admins
+ * watching every department). Publishing builds a message once per department set, not once per
+ * stream, and only enqueues it: every stream has a bounded buffer drained by the {@code sender}
+ * executor, so a publisher never waits on a socket. A stream whose buffer is full is too slow to
+ * keep up and is closed; its client reconnects and reloads.
+ *
+ * A message is an already rendered event, shared by all streams it goes to.
+ */
+final class ChangeFanout {
+
+    /** One open stream. */
+    final class Subscriber {
+        final Long departmentId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        // True while a drain is scheduled or running; a closed subscriber keeps it set
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long departmentId, SseEmitter emitter) {
+            this.departmentId = departmentId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<DataWithMediaType> message) {
+            if (closed.get()) {
+                return;
+            }
+            if (buffer.offer(message)) {
+                scheduleDrain();
+            } else {
+                evicted.run();
+                close();
+            }
+        }
+
+        /** Stops delivery and unregisters; the emitter is completed by the sender. */
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            unregister(this);
+            buffer.clear();
+            scheduleDrain();
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                try {
+                    Set<DataWithMediaType> next;
+                    while (!closed.get() && (next = buffer.poll()) != null) {
+                        emitter.send(next);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Client went away, or the emitter timed out or completed
+                    close();
+                }
+                if (closed.get()) {
+                    try {
+                        emitter.complete();
+                    } catch (RuntimeException e) {
+                        // already completed
+                    }
+                    return;
+                }
+                draining.set(false);
+                // Something may have been offered (or close called) after the last poll
+                if ((buffer.isEmpty() && !closed.get()) || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Map<Long, Set<Subscriber>> byDepartment = new ConcurrentHashMap<>();
+    private final Set<Subscriber> unscoped = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int bufferSize;
+    private final Executor sender;
+    private final Runnable evicted;
+
+    ChangeFanout(int bufferSize, Executor sender, Runnable evicted) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.sender = sender;
+        this.evicted = evicted;
+    }
+
+    /** Registers the stream; {@code departmentId} null means every department. */
+    Subscriber subscribe(Long departmentId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(departmentId, emitter);
+        if (departmentId == null) {
+            unscoped.add(subscriber);
+        } else {
+            // compute, like unregister, so a set is never dropped between lookup and add
+            byDepartment.compute(departmentId, (id, subscribers) -> {
+                Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        size.incrementAndGet();
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return subscriber;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Sends each department set the message {@code messageFor} builds for its department (null for
+     * the unscoped streams); a null message skips that set.
+     */
+    void publish(Function<Long, Set<DataWithMediaType>> messageFor) {
+        if (!unscoped.isEmpty()) {
+            offerAll(unscoped, messageFor.apply(null));
+        }
+        byDepartment.forEach((departmentId, subscribers) -> offerAll(subscribers, messageFor.apply(departmentId)));
+    }
+
+    /** Sends every stream the same message. */
+    void publishToAll(Set<DataWithMediaType> message) {
+        publish(departmentId -> message);
+    }
+
+    void closeAll() {
+        unscoped.forEach(Subscriber::close);
+        byDepartment.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+    }
+
+    private static void offerAll(Set<Subscriber> subscribers, Set<DataWithMediaType> message) {
+        if (message != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        if (subscriber.departmentId == null) {
+            removed.set(unscoped.remove(subscriber));
+        } else {
+            // Drops the department's set along with its last stream
+            byDepartment.computeIfPresent(subscriber.departmentId, (id, subscribers) -> {
+                removed.set(subscribers.remove(subscriber));
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        if (removed.get()) {
+            size.decrementAndGet();
+        }
+    }
+}
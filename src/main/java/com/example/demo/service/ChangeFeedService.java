@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkerThreads;
+import com.example.demo.dto.DeploymentTaskDto;
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.SiteDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent.Change;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes hardware, VM, site and deployment task changes to the open {@code /api/events} streams,
+ * so pages patch the lists they hold instead of fetching them again.
+ *
+ * Changed rows are read after commit, on the {@link ChangeRefresher} thread, as the DTOs the list
+ * endpoints return; rows changed again before they were read go out once. Each department's
+ * streams then get one {@code change} event per type,
+ * {@code {"type": "HARDWARE", "saved": [...], "deleted": [ids]}}, holding only that department's
+ * rows; unscoped streams get every row. Deleted rows have no department left, so their ids go to
+ * every stream (clients ignore ids they do not hold). Rows that moved are sent as deleted to the
+ * streams of every department but their new one.
+ *
+ * Fan-out, buffering and slow-consumer eviction are {@link ChangeFanout}'s. A comment is sent every
+ * heartbeat so proxies keep quiet streams open and closed connections get noticed.
+ */
+@Service
+public class ChangeFeedService {
+
+    private record Feed<D>(Function<Collection<Long>, List<D>> load, Function<D, Long> id, Function<D, Long> departmentId) {}
+
+    private static final Set<DataWithMediaType> CONNECTED = SseEmitter.event().comment("connected").build();
+    private static final Set<DataWithMediaType> PING = SseEmitter.event().comment("ping").build();
+
+    private final Map<InventoryEntity, Feed<?>> feeds = new EnumMap<>(InventoryEntity.class);
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+    private final ChangeFanout fanout;
+
+    public ChangeFeedService(HardwareRepository hardwareRepository,
+                             VirtualMachineRepository vmRepository,
+                             SiteRepository siteRepository,
+                             DeploymentTaskRepository taskRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             WorkerThreads workerThreads,
+                             MeterRegistry registry,
+                             ChangeRefresher refresher,
+                             @Value("${inventory.events.buffer-size:256}") int bufferSize,
+                             @Value("${inventory.events.sender-threads:4}") int senderThreads,
+                             @Value("${inventory.events.heartbeat:20s}") Duration heartbeatInterval) {
+        feeds.put(InventoryEntity.HARDWARE, new Feed<HardwareDto>(hardwareRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId));
+        feeds.put(InventoryEntity.VIRTUAL_MACHINE, new Feed<VirtualMachineDto>(vmRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId));
+        feeds.put(InventoryEntity.SITE, new Feed<SiteDto>(siteRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId));
+        feeds.put(InventoryEntity.DEPLOYMENT_TASK, new Feed<DeploymentTaskDto>(taskRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId));
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), workerThreads.factory("sse-sender-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "sse-heartbeat"));
+        Counter evicted = Counter.builder("events.evicted")
+                .description("Change streams closed because the client did not keep up")
+                .register(registry);
+        this.fanout = new ChangeFanout(bufferSize, sender, evicted::increment);
+        Gauge.builder("events.subscribers", fanout, ChangeFanout::size)
+                .description("Open /api/events streams")
+                .register(registry);
+
+        long pingMs = Math.max(1, heartbeatInterval.toMillis());
+        heartbeat.scheduleWithFixedDelay(() -> fanout.publishToAll(PING), pingMs, pingMs, TimeUnit.MILLISECONDS);
+        refresher.register(this::refresh);
+    }
+
+    /**
+     * Opens a stream of changes to rows of one department, or of all of them when
+     * {@code departmentId} is null. It ends after {@code spring.mvc.async.request-timeout}.
+     */
+    public SseEmitter subscribe(Long departmentId) {
+        return subscribe(departmentId, new SseEmitter());
+    }
+
+    SseEmitter subscribe(Long departmentId, SseEmitter emitter) {
+        // Sent first so the response headers go out right away and the client knows it is connected
+        fanout.subscribe(departmentId, emitter).offer(CONNECTED);
+        return emitter;
+    }
+
+    public int subscribers() {
+        return fanout.size();
+    }
+
+    private void refresh(InventoryEntity type, Map<Long, Change> changes) {
+        Feed<?> feed = feeds.get(type);
+        if (feed == null || fanout.size() == 0) {
+            return;
+        }
+        publish(type, changes, feed);
+    }
+
+    private <D> void publish(InventoryEntity type, Map<Long, Change> changes, Feed<D> feed) {
+        List<Long> saved = changes.entrySet().stream()
+                .filter(change -> change.getValue() != Change.DELETED)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<D> rows = saved.isEmpty() ? List.of() : readTransaction.execute(status -> feed.load().apply(saved));
+        Map<Long, List<D>> byDepartment = rows.stream().collect(Collectors.groupingBy(feed.departmentId()));
+        // Deleted ids, and ids that no longer load because they were deleted in the meantime
+        Set<Long> gone = new HashSet<>(changes.keySet());
+        rows.forEach(row -> gone.remove(feed.id().apply(row)));
+        Set<Long> moved = changes.entrySet().stream()
+                .filter(change -> change.getValue() == Change.MOVED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+
+        fanout.publish(departmentId -> {
+            if (departmentId == null) {
+                return message(type, rows, gone);
+            }
+            List<D> own = byDepartment.getOrDefault(departmentId, List.of());
+            if (moved.isEmpty()) {
+                return message(type, own, gone);
+            }
+            Set<Long> left = new HashSet<>(moved);
+            own.forEach(row -> left.remove(feed.id().apply(row)));
+            left.addAll(gone);
+            return message(type, own, left);
+        });
+    }
+
+    /** The rendered {@code change} event, or null when it would say nothing. */
+    private Set<DataWithMediaType> message(InventoryEntity type, List<?> saved, Collection<Long> deleted) {
+        if (saved.isEmpty() && deleted.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", type);
+        if (!saved.isEmpty()) {
+            body.put("saved", saved);
+        }
+        if (!deleted.isEmpty()) {
+            body.put("deleted", deleted);
+        }
+        try {
+            return SseEmitter.event().name("change").data(objectMapper.writeValueAsString(body)).build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        fanout.closeAll();
+        // Lets the drains scheduled by closeAll complete their emitters
+        sender.shutdown();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
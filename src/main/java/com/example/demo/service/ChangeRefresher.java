@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.event.InventoryChangedEvent.Change;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hands committed {@link InventoryChangedEvent}s to the in-memory views that re-read the changed
+ * rows (search index, change streams, list snapshots), on one background thread.
+ *
+ * Re-reading on the writer's thread needed a second connection while the writer still held its
+ * own (open-in-view keeps it until the request ends), one per view: at pool saturation, writers
+ * waited on each other until the connection timeout. Here the writer only records the ids. The
+ * refresh thread takes everything recorded so far, ids changed several times coalesced, and passes
+ * it to each view in turn, so the re-reads use one connection whatever the write rate. Reads and
+ * applies of one type happen one after the other on that thread, so a view never applies an older
+ * read of a row after a newer one.
+ *
+ * Views lag the commit by the time it takes to drain what is waiting; {@link #flush} waits for it.
+ */
+@Component
+public class ChangeRefresher {
+    private static final Logger log = LoggerFactory.getLogger(ChangeRefresher.class);
+
+    /** An in-memory view kept up to date from re-read rows. */
+    @FunctionalInterface
+    public interface View {
+        /** Called on the refresh thread with the rows of {@code type} changed since the last call, and how. */
+        void refresh(InventoryEntity type, Map<Long, Change> changes);
+    }
+
+    private final List<View> views = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    // Guarded by this
+    private final Map<InventoryEntity, Map<Long, Change>> pending = new EnumMap<>(InventoryEntity.class);
+    private boolean draining;
+
+    public ChangeRefresher(MeterRegistry registry) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("inventory.refresh.pending", this, ChangeRefresher::pending)
+                .description("Changed rows waiting to be re-read for the in-memory views")
+                .register(registry);
+    }
+
+    public void register(View view) {
+        views.add(view);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.ids().isEmpty() || views.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Map<Long, Change> changes = pending.computeIfAbsent(event.entity(), type -> new HashMap<>());
+            event.ids().forEach(id -> changes.merge(id, event.change(), ChangeRefresher::merge));
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        executor.execute(this::drain);
+    }
+
+    /** Waits until every change recorded before the call has reached the views. */
+    public void flush() {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Map<InventoryEntity, Map<Long, Change>> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                batch = new EnumMap<>(pending);
+                pending.clear();
+            }
+            batch.forEach((type, changes) -> {
+                for (View view : views) {
+                    try {
+                        view.refresh(type, changes);
+                    } catch (RuntimeException e) {
+                        log.error("Could not refresh an in-memory view with {} changed {} rows", changes.size(), type, e);
+                    }
+                }
+            });
+        }
+    }
+
+    // The latest change wins, except that a row saved again after a move still left its old department
+    private static Change merge(Change before, Change after) {
+        return before == Change.MOVED && after == Change.SAVED ? Change.MOVED : after;
+    }
+
+    private synchronized int pending() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardSummaryDto;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.VMStatus;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import org.springframework.stereotype.Service;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the dashboard figures with aggregate queries so that no inventory
+ * row has to be loaded just to be counted.
+ */
+@Service
+public class DashboardService {
+    private final HardwareRepository hardwareRepository;
+    private final VirtualMachineRepository vmRepository;
+    private final SiteRepository siteRepository;
+    private final DeploymentTaskRepository taskRepository;
+
+    public DashboardService(HardwareRepository hardwareRepository, VirtualMachineRepository vmRepository,
+                            SiteRepository siteRepository, DeploymentTaskRepository taskRepository) {
+        this.hardwareRepository = hardwareRepository;
+        this.vmRepository = vmRepository;
+        this.siteRepository = siteRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Counts for one department, or for every department when {@code departmentId} is null.
+     * Recent tasks are left to the caller.
+     */
+    public DashboardSummaryDto getSummary(Long departmentId) {
+        DashboardSummaryDto dto = new DashboardSummaryDto();
+        dto.departmentId = departmentId;
+
+        List<Object[]> hardware = departmentId != null
+                ? hardwareRepository.countGroupByStatusForDepartment(departmentId)
+                : hardwareRepository.countGroupByStatus();
+        dto.hardwareByStatus = toStatusMap(HardwareStatus.class, hardware);
+        dto.totalHardware = total(hardware);
+
+        List<Object[]> vms = departmentId != null
+                ? vmRepository.countGroupByStatusForDepartment(departmentId)
+                : vmRepository.countGroupByStatus();
+        dto.virtualMachinesByStatus = toStatusMap(VMStatus.class, vms);
+        dto.totalVirtualMachines = total(vms);
+
+        dto.totalSites = departmentId != null
+                ? siteRepository.countByDepartmentId(departmentId)
+                : siteRepository.count();
+
+        dto.tasksByStatus = toStatusMap(DeploymentStatus.class, departmentId != null
+                ? taskRepository.countGroupByStatusForDepartment(departmentId)
+                : taskRepository.countGroupByStatus());
+        dto.activeTasks = dto.tasksByStatus.get(DeploymentStatus.PENDING)
+                + dto.tasksByStatus.get(DeploymentStatus.IN_PROGRESS);
+        return dto;
+    }
+
+    public List<DeploymentTask> findRecentTasks(Long departmentId) {
+        return departmentId != null
+                ? taskRepository.findTop5ByDepartmentIdOrderByCreatedAtDesc(departmentId)
+                : taskRepository.findTop5ByOrderByCreatedAtDesc();
+    }
+
+    // Every status is present in the result, with 0 for the ones the query did not return
+    private static <E extends Enum<E>> Map<E, Long> toStatusMap(Class<E> type, List<Object[]> rows) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (E status : type.getEnumConstants()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put(type.cast(row[0]), (Long) row[1]);
+            }
+        }
+        return counts;
+    }
+
+    // Includes the rows without a status, which the per-status map leaves out
+    private static long total(List<Object[]> rows) {
+        long total = 0;
+        for (Object[] row : rows) {
+            total += (Long) row[1];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.DeploymentTaskDto;
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.SiteDto;
+import com.example.demo.dto.UserDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.entite.Tombstone;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.TombstoneRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "What changed since my last sync" for mirrors of the inventory (CMDB, monitoring), so they do not
+ * have to download every row again. Costs one index range scan over the rows that changed.
+ *
+ * Rows are walked in {@code (updatedAt, id)} order from the position in the token. Only rows
+ * older than {@code inventory.sync.settle-time} are handed out: a row's timestamp is taken before
+ * its transaction commits, and a sync that had already moved past it would never see it. That lag
+ * also has to cover clock differences between nodes.
+ *
+ * Deletes leave a {@link Tombstone}. So do department moves, because a mirror scoped to the old
+ * department no longer finds the row among its changes; tombstoned ids that are still visible to
+ * the caller are left out of {@code deleted}. Tombstones are pruned after
+ * {@code inventory.sync.tombstone-retention}, and a token that old is answered with 410: the
+ * mirror has to start over without {@code since}.
+ */
+@Service
+public class DeltaSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeltaSyncService.class);
+
+    // Ids per "which of these still exist" query
+    private static final int LOOKUP_CHUNK = 1000;
+    // JDBC batch size for the tombstones of a bulk delete
+    private static final int TOMBSTONE_BATCH = 500;
+
+    private interface ChangedRows {
+        List<Object[]> find(Instant since, long afterId, Instant until, Pageable pageable);
+    }
+
+    private interface ChangedRowsOfDepartment {
+        List<Object[]> find(Long departmentId, Instant since, long afterId, Instant until, Pageable pageable);
+    }
+
+    private interface ExistingIds {
+        List<Long> find(Collection<Long> ids, Long departmentId);
+    }
+
+    private record Source<D>(String entityName, ChangedRows changed, ChangedRowsOfDepartment changedOfDepartment,
+                             Function<Collection<Long>, List<D>> load, Function<D, Long> id, ExistingIds existing) {}
+
+    /**
+     * Where a sync stands: rows after {@code (at, afterId)} and tombstones after {@code deletedAfter}
+     * are still to be sent. Handed to clients as an opaque token.
+     */
+    record Position(Instant at, long afterId, Instant deletedAfter) {
+
+        String encode() {
+            return Long.toString(micros(at), 36) + "." + Long.toString(afterId, 36) + "." + Long.toString(micros(deletedAfter), 36);
+        }
+
+        static Position decode(String token) {
+            String[] parts = token.split("\\.");
+            try {
+                if (parts.length != 3) {
+                    throw new NumberFormatException();
+                }
+                return new Position(instant(Long.parseLong(parts[0], 36)), Long.parseLong(parts[1], 36),
+                        instant(Long.parseLong(parts[2], 36)));
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid since token");
+            }
+        }
+
+        private static long micros(Instant instant) {
+            return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+        }
+
+        private static Instant instant(long micros) {
+            return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+        }
+    }
+
+    private final Map<InventoryEntity, Source<?>> sources = new EnumMap<>(InventoryEntity.class);
+    private final TombstoneRepository tombstoneRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+    private final ScheduledExecutorService pruner;
+
+    public DeltaSyncService(HardwareRepository hardwareRepository,
+                            VirtualMachineRepository vmRepository,
+                            SiteRepository siteRepository,
+                            DeploymentTaskRepository taskRepository,
+                            UserRepository userRepository,
+                            TombstoneRepository tombstoneRepository,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventory.sync.settle-time:5s}") Duration settleTime,
+                            @Value("${inventory.sync.tombstone-retention:30d}") Duration tombstoneRetention,
+                            @Value("${inventory.sync.prune-interval:1h}") Duration pruneInterval) {
+        sources.put(InventoryEntity.HARDWARE, new Source<HardwareDto>("Hardware",
+                hardwareRepository::findChangedSince, hardwareRepository::findChangedSinceByDepartmentId,
+                hardwareRepository::findDtosByIds, dto -> dto.id, hardwareRepository::findExistingIds));
+        sources.put(InventoryEntity.VIRTUAL_MACHINE, new Source<VirtualMachineDto>("VirtualMachine",
+                vmRepository::findChangedSince, vmRepository::findChangedSinceByDepartmentId,
+                vmRepository::findDtosByIds, dto -> dto.id, vmRepository::findExistingIds));
+        sources.put(InventoryEntity.SITE, new Source<SiteDto>("Site",
+                siteRepository::findChangedSince, siteRepository::findChangedSinceByDepartmentId,
+                siteRepository::findDtosByIds, dto -> dto.id, siteRepository::findExistingIds));
+        sources.put(InventoryEntity.DEPLOYMENT_TASK, new Source<DeploymentTaskDto>("DeploymentTask",
+                taskRepository::findChangedSince, taskRepository::findChangedSinceByDepartmentId,
+                taskRepository::findDtosByIds, dto -> dto.id, taskRepository::findExistingIds));
+        sources.put(InventoryEntity.USER, new Source<UserDto>("User",
+                userRepository::findChangedSince, userRepository::findChangedSinceByDepartmentId,
+                userRepository::findDtosByIds, dto -> dto.id, userRepository::findExistingIds));
+        this.tombstoneRepository = tombstoneRepository;
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+
+        this.pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tombstone-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long pruneMs = Math.max(1, pruneInterval.toMillis());
+        pruner.scheduleWithFixedDelay(this::prune, pruneMs, pruneMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The next page of {@code type} rows changed since {@code since}, or of all rows when it is null.
+     *
+     * @param departmentId when not null, only rows of this department (and the ids that left it)
+     */
+    @SuppressWarnings("unchecked")
+    public <D> ChangesPageDto<D> changes(InventoryEntity type, String since, Long departmentId, int limit) {
+        Source<D> source = (Source<D>) sources.get(type);
+        Instant now = Instant.now();
+        Instant until = now.minus(settleTime).truncatedTo(ChronoUnit.MICROS);
+        Position from = since != null ? Position.decode(since) : new Position(Instant.EPOCH, 0L, until);
+        if (from.deletedAfter().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "The since token is older than " + tombstoneRetention.toDays() + " days; sync again without it");
+        }
+        return readTransaction.execute(status -> page(type, source, from, until, departmentId, limit));
+    }
+
+    private <D> ChangesPageDto<D> page(InventoryEntity type, Source<D> source, Position from, Instant until,
+                                       Long departmentId, int limit) {
+        PageRequest page = PageRequest.ofSize(limit + 1);
+        List<Object[]> rows = departmentId == null
+                ? source.changed().find(from.at(), from.afterId(), until, page)
+                : source.changedOfDepartment().find(departmentId, from.at(), from.afterId(), until, page);
+        boolean hasMore = rows.size() > limit;
+        Position next;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+            Object[] last = rows.get(limit - 1);
+            Instant lastAt = (Instant) last[1];
+            next = new Position(lastAt, (Long) last[0], latest(from.deletedAfter(), lastAt));
+        } else {
+            // Everything up to until has been sent; ids do not matter any more
+            Instant end = latest(from.at(), until);
+            next = new Position(end, Long.MAX_VALUE, latest(from.deletedAfter(), end));
+        }
+
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, D> loaded = ids.isEmpty() ? Map.of()
+                : source.load().apply(ids).stream().collect(Collectors.toMap(source.id(), Function.identity()));
+        // In (updatedAt, id) order; a row deleted since the first query is in the tombstones instead
+        List<D> items = ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+        List<Long> deleted = deletedIds(type, source, from.deletedAfter(), next.deletedAfter(), departmentId);
+        return new ChangesPageDto<>(items, deleted, next.encode(), hasMore);
+    }
+
+    private List<Long> deletedIds(InventoryEntity type, Source<?> source, Instant after, Instant until, Long departmentId) {
+        if (!until.isAfter(after)) {
+            return List.of();
+        }
+        List<Long> tombstoned = tombstoneRepository.findEntityIds(type, after, until);
+        Set<Long> stillVisible = new HashSet<>();
+        for (int i = 0; i < tombstoned.size(); i += LOOKUP_CHUNK) {
+            List<Long> chunk = tombstoned.subList(i, Math.min(i + LOOKUP_CHUNK, tombstoned.size()));
+            stillVisible.addAll(source.existing().find(chunk, departmentId));
+        }
+        return tombstoned.stream().filter(id -> !stillVisible.contains(id)).toList();
+    }
+
+    // Before commit, so the tombstones are written in the transaction that deleted or moved the rows: every
+    // path publishing MOVED or DELETED runs in one. Outside a transaction they would follow in a second one
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.change() == InventoryChangedEvent.Change.SAVED || !sources.containsKey(event.entity())) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Tombstone> tombstones = new ArrayList<>(event.ids().size());
+        event.ids().forEach(id -> tombstones.add(new Tombstone(event.entity(), id, now)));
+        writeTransaction.executeWithoutResult(status -> {
+            // The session is usually the deleting caller's; leave its batch size as it was
+            Session session = entityManager.unwrap(Session.class);
+            Integer batchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(TOMBSTONE_BATCH);
+            try {
+                tombstoneRepository.saveAll(tombstones);
+                session.flush();
+            } finally {
+                session.setJdbcBatchSize(batchSize);
+            }
+        });
+    }
+
+    /** Rows written before updatedAt existed have none, and would never be synced. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUpdatedAt() {
+        Instant now = Instant.now();
+        sources.values().forEach(source -> {
+            Integer stamped = writeTransaction.execute(status -> entityManager
+                    .createQuery("update " + source.entityName() + " e set e.updatedAt = :now where e.updatedAt is null")
+                    .setParameter("now", now)
+                    .executeUpdate());
+            if (stamped != null && stamped > 0) {
+                log.info("Stamped updatedAt on {} {} rows", stamped, source.entityName());
+            }
+        });
+    }
+
+    void prune() {
+        try {
+            int pruned = tombstoneRepository.deleteOlderThan(Instant.now().minus(tombstoneRetention));
+            if (pruned > 0) {
+                log.info("Pruned {} tombstones older than {}", pruned, tombstoneRetention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Pruning tombstones failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pruner.shutdownNow();
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.DeploymentTaskDto;
 import com.example.demo.entite.DeploymentTask;
 import com.example.demo.entite.User;
 import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.execution.TaskExecutionEngine;
 import com.example.demo.repository.DeploymentTaskRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.VirtualMachineRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.util.List;
 
@@ -17,11 +26,20 @@ public class DeploymentTaskService {
     private final DeploymentTaskRepository taskRepository;
     private final VirtualMachineRepository vmRepository;
     private final UserRepository userRepository;
+    private final VersionService versions;
+    private final ApplicationEventPublisher events;
+    // Only present when inventory.tasks.executor.enabled=true
+    private final ObjectProvider<TaskExecutionEngine> executionEngine;
 
-    public DeploymentTaskService(DeploymentTaskRepository taskRepository, VirtualMachineRepository vmRepository, UserRepository userRepository) {
+    public DeploymentTaskService(DeploymentTaskRepository taskRepository, VirtualMachineRepository vmRepository, UserRepository userRepository,
+                                 VersionService versions, ApplicationEventPublisher events,
+                                 ObjectProvider<TaskExecutionEngine> executionEngine) {
         this.taskRepository = taskRepository;
         this.vmRepository = vmRepository;
         this.userRepository = userRepository;
+        this.versions = versions;
+        this.events = events;
+        this.executionEngine = executionEngine;
     }
 
     public List<DeploymentTask> findAll() { return taskRepository.findAll(); }
@@ -30,6 +48,14 @@ public class DeploymentTaskService {
         return taskRepository.findByDepartmentId(departmentId);
     }
 
+    public Slice<DeploymentTaskDto> findPage(Long departmentId, Long cursor, int limit) {
+        long after = cursor != null ? cursor : 0L;
+        PageRequest page = PageRequest.ofSize(limit);
+        return departmentId != null
+                ? taskRepository.findDtoPageByDepartmentId(departmentId, after, page)
+                : taskRepository.findDtoPage(after, page);
+    }
+
     public DeploymentTask findByIdOrThrow(Long id) {
         return taskRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
@@ -40,7 +66,11 @@ public class DeploymentTaskService {
         task.setVm(vm);
         task.setRequestedBy(user);
         if (task.getCreatedAt() == null) task.setCreatedAt(Instant.now());
-        return taskRepository.save(task);
+        DeploymentTask saved = taskRepository.save(task);
+        versions.changed(InventoryEntity.DEPLOYMENT_TASK, saved.getDepartment().getId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.DEPLOYMENT_TASK, saved.getId()));
+        executionEngine.ifAvailable(engine -> engine.taskChanged(saved.getId(), saved.getStatus(), saved.getScheduledDate()));
+        return saved;
     }
 
     public DeploymentTask update(Long id, DeploymentTask updated, Long vmId, Long requestedById) {
@@ -59,10 +89,22 @@ public class DeploymentTaskService {
         if (updated.getCreatedAt() != null) existing.setCreatedAt(updated.getCreatedAt());
         existing.setCompletedAt(updated.getCompletedAt());
         existing.setScheduledDate(updated.getScheduledDate());
-        return taskRepository.save(existing);
+        DeploymentTask saved = taskRepository.save(existing);
+        versions.changed(InventoryEntity.DEPLOYMENT_TASK, saved.getDepartment().getId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.DEPLOYMENT_TASK, saved.getId()));
+        executionEngine.ifAvailable(engine -> engine.taskChanged(saved.getId(), saved.getStatus(), saved.getScheduledDate()));
+        return saved;
     }
 
-    public void delete(Long id) { taskRepository.deleteById(id); }
+    @Transactional
+    public void delete(Long id) {
+        taskRepository.findById(id).ifPresent(task -> {
+            taskRepository.delete(task);
+            versions.changed(InventoryEntity.DEPLOYMENT_TASK, task.getDepartment().getId());
+            events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.DEPLOYMENT_TASK, id));
+        });
+        executionEngine.ifAvailable(engine -> engine.taskRemoved(id));
+    }
 }
 
 
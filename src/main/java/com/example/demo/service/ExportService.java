@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a whole table as NDJSON, one DTO per line. Rows are read through a repository stream with a
+ * JDBC fetch size and written as they arrive, so memory use does not depend on the number of rows.
+ * The read-only transaction (and its connection) stays open until the last row is written.
+ */
+@Service
+public class ExportService {
+    private record Source(Supplier<Stream<?>> all, Function<Long, Stream<?>> ofDepartment) {}
+
+    private final Map<String, Source> sources;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public ExportService(PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         HardwareRepository hardwareRepository,
+                         VirtualMachineRepository vmRepository,
+                         DeploymentTaskRepository taskRepository) {
+        // Keys match the REST resource names
+        this.sources = Map.of(
+                "hardware", new Source(hardwareRepository::streamDtos, hardwareRepository::streamDtosByDepartmentId),
+                "virtual-machines", new Source(vmRepository::streamDtos, vmRepository::streamDtosByDepartmentId),
+                "deployment-tasks", new Source(taskRepository::streamDtos, taskRepository::streamDtosByDepartmentId));
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Let the servlet buffer decide when to flush instead of flushing after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public boolean supports(String entity) {
+        return sources.containsKey(entity);
+    }
+
+    /**
+     * @param departmentId limits the export to one department, or null for everything
+     */
+    public void writeNdjson(String entity, Long departmentId, OutputStream out) {
+        Source source = sources.get(entity);
+        if (source == null) {
+            throw new IllegalArgumentException("Unknown export: " + entity);
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<?> rows = departmentId == null ? source.all().get() : source.ofDepartment().apply(departmentId);
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.setRootValueSeparator(null);
+                Iterator<?> it = rows.iterator();
+                while (it.hasNext()) {
+                    rowWriter.writeValue(json, it.next());
+                    json.writeRaw('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -1,22 +1,41 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.HardwareDto;
 import com.example.demo.entite.Hardware;
 import com.example.demo.entite.Site;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
 import com.example.demo.repository.HardwareRepository;
 import com.example.demo.repository.SiteRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class HardwareService {
     private final HardwareRepository hardwareRepository;
     private final SiteRepository siteRepository;
+    private final CapacityService capacityService;
+    private final IpamService ipamService;
+    private final VersionService versions;
+    private final SnapshotService snapshots;
+    private final ApplicationEventPublisher events;
 
-    public HardwareService(HardwareRepository hardwareRepository, SiteRepository siteRepository) {
+    public HardwareService(HardwareRepository hardwareRepository, SiteRepository siteRepository, CapacityService capacityService,
+                           IpamService ipamService, VersionService versions, SnapshotService snapshots, ApplicationEventPublisher events) {
         this.hardwareRepository = hardwareRepository;
         this.siteRepository = siteRepository;
+        this.capacityService = capacityService;
+        this.ipamService = ipamService;
+        this.versions = versions;
+        this.snapshots = snapshots;
+        this.events = events;
     }
 
     public List<Hardware> findAll() { return hardwareRepository.findAll(); }
@@ -25,6 +44,19 @@ public class HardwareService {
         return hardwareRepository.findByDepartmentId(departmentId);
     }
 
+    public Slice<HardwareDto> findPage(Long departmentId, Long cursor, int limit) {
+        // A department's list is served from memory in snapshot mode
+        Optional<Slice<HardwareDto>> snapshot = snapshots.findPage(InventoryEntity.HARDWARE, departmentId, cursor, limit);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        long after = cursor != null ? cursor : 0L;
+        PageRequest page = PageRequest.ofSize(limit);
+        return departmentId != null
+                ? hardwareRepository.findDtoPageByDepartmentId(departmentId, after, page)
+                : hardwareRepository.findDtoPage(after, page);
+    }
+
     public Hardware findByIdOrThrow(Long id) {
         return hardwareRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
@@ -32,11 +64,25 @@ public class HardwareService {
     public Hardware create(Hardware hardware, Long siteId) {
         Site site = siteRepository.findById(siteId).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid siteId"));
         hardware.setSite(site);
-        return hardwareRepository.save(hardware);
+        Long address = ipamService.claim(InventoryEntity.HARDWARE, null, hardware.getIpAddress());
+        hardware.setIpNumeric(address);
+        hardware.setIpAddress(IpamService.format(address));
+        Hardware saved;
+        try {
+            saved = hardwareRepository.save(hardware);
+        } catch (RuntimeException e) {
+            ipamService.addressChanged(address, null);
+            throw e;
+        }
+        capacityService.hostSaved(saved);
+        versions.changed(InventoryEntity.HARDWARE, saved.getDepartment().getId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.HARDWARE, saved.getId()));
+        return saved;
     }
 
+    @Transactional
     public Hardware update(Long id, Hardware updated, Long siteId) {
-        Hardware existing = findByIdOrThrow(id);
+        Hardware existing = hardwareRepository.findByIdForUpdate(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
         if (siteId != null) {
             Site site = siteRepository.findById(siteId).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid siteId"));
             existing.setSite(site);
@@ -45,17 +91,35 @@ public class HardwareService {
         existing.setType(updated.getType());
         existing.setModel(updated.getModel());
         existing.setSerialNumber(updated.getSerialNumber());
-        existing.setIpAddress(updated.getIpAddress());
         existing.setCpuCores(updated.getCpuCores());
         existing.setRamGb(updated.getRamGb());
         existing.setStorageGb(updated.getStorageGb());
         existing.setStatus(updated.getStatus());
         existing.setPurchaseDate(updated.getPurchaseDate());
         existing.setWarrantyEndDate(updated.getWarrantyEndDate());
-        return hardwareRepository.save(existing);
+        Long previousAddress = existing.getIpNumeric();
+        Long address = ipamService.claim(InventoryEntity.HARDWARE, previousAddress, updated.getIpAddress());
+        TransactionHooks.afterRollback(() -> ipamService.addressChanged(address, previousAddress));
+        existing.setIpNumeric(address);
+        existing.setIpAddress(IpamService.format(address));
+        Hardware saved = hardwareRepository.save(existing);
+        ipamService.addressChanged(previousAddress, address);
+        capacityService.hostSaved(saved);
+        versions.changed(InventoryEntity.HARDWARE, saved.getDepartment().getId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.HARDWARE, saved.getId()));
+        return saved;
     }
 
-    public void delete(Long id) { hardwareRepository.deleteById(id); }
+    @Transactional
+    public void delete(Long id) {
+        hardwareRepository.findByIdForUpdate(id).ifPresent(hardware -> {
+            hardwareRepository.delete(hardware);
+            capacityService.hostRemoved(id);
+            ipamService.addressChanged(hardware.getIpNumeric(), null);
+            versions.changed(InventoryEntity.HARDWARE, hardware.getDepartment().getId());
+            events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.HARDWARE, id));
+        });
+    }
 }
 
 
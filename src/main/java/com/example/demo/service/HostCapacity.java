@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.CapacityResource;
+import com.example.demo.enums.HardwareStatus;
+
+/**
+ * Immutable capacity snapshot of one host. Changes produce a new instance, so readers
+ * of {@link CapacityService} never see a half-applied update.
+ */
+final class HostCapacity {
+    final long hardwareId;
+    final Long departmentId;
+    final Long siteId;
+    final HardwareStatus status;
+    final int cpuCores;
+    final int ramGb;
+    final int storageGb;
+    final long allocatedVcpu;
+    final long allocatedRamGb;
+    final long allocatedStorageGb;
+    final int vmCount;
+
+    HostCapacity(long hardwareId, Long departmentId, Long siteId, HardwareStatus status, int cpuCores, int ramGb, int storageGb,
+                 long allocatedVcpu, long allocatedRamGb, long allocatedStorageGb, int vmCount) {
+        this.hardwareId = hardwareId;
+        this.departmentId = departmentId;
+        this.siteId = siteId;
+        this.status = status;
+        this.cpuCores = cpuCores;
+        this.ramGb = ramGb;
+        this.storageGb = storageGb;
+        this.allocatedVcpu = allocatedVcpu;
+        this.allocatedRamGb = allocatedRamGb;
+        this.allocatedStorageGb = allocatedStorageGb;
+        this.vmCount = vmCount;
+    }
+
+    /** Same allocations on a host whose size, status, site or department changed. */
+    HostCapacity withHost(Long departmentId, Long siteId, HardwareStatus status, int cpuCores, int ramGb, int storageGb) {
+        return new HostCapacity(hardwareId, departmentId, siteId, status, cpuCores, ramGb, storageGb,
+                allocatedVcpu, allocatedRamGb, allocatedStorageGb, vmCount);
+    }
+
+    /** Adds (sign 1) or removes (sign -1) one VM's allocation. */
+    HostCapacity withVm(int sign, int vcpu, int vram, int diskSize) {
+        return new HostCapacity(hardwareId, departmentId, siteId, status, cpuCores, ramGb, storageGb,
+                allocatedVcpu + sign * (long) vcpu, allocatedRamGb + sign * (long) vram,
+                allocatedStorageGb + sign * (long) diskSize, vmCount + sign);
+    }
+
+    long total(CapacityResource resource) {
+        return switch (resource) {
+            case CPU -> cpuCores;
+            case RAM -> ramGb;
+            case STORAGE -> storageGb;
+        };
+    }
+
+    long allocated(CapacityResource resource) {
+        return switch (resource) {
+            case CPU -> allocatedVcpu;
+            case RAM -> allocatedRamGb;
+            case STORAGE -> allocatedStorageGb;
+        };
+    }
+}
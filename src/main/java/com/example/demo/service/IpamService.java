@@ -0,0 +1,462 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SubnetDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.Subnet;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.SubnetRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * IP address management: which IPv4 addresses hardware and VMs hold, and which are still free
+ * in each {@link Subnet}.
+ *
+ * Every assigned address sits in a hash map, so a conflict check is one lookup whatever the
+ * inventory size. Subnets never overlap and are kept by network address, so the subnet holding
+ * an address is a floor lookup; each one carries a bitmap of its taken host addresses, and
+ * "next free" is a scan for the first clear bit. Loaded once at startup, then kept current by
+ * the services that write IP addresses.
+ *
+ * Like {@link CapacityService#reserve}, {@link #claim} and {@link #allocate} take an address
+ * right away so two concurrent creates cannot get the same one; addresses are handed back after
+ * the change that freed them commits.
+ */
+@Service
+public class IpamService {
+
+    /** Smallest prefix accepted for a subnet, which keeps a bitmap at 8 KB at most. */
+    public static final int MIN_PREFIX_LENGTH = 16;
+
+    private static final class Block {
+        final Long subnetId;
+        final String name;
+        final long network;
+        final int prefixLength;
+        final Long gateway;
+        final Long siteId;
+        final Long departmentId;
+        // Bit i is the address network + i
+        final BitSet used;
+
+        Block(Long subnetId, String name, long network, int prefixLength, Long gateway, Long siteId, Long departmentId) {
+            this.subnetId = subnetId;
+            this.name = name;
+            this.network = network;
+            this.prefixLength = prefixLength;
+            this.gateway = gateway;
+            this.siteId = siteId;
+            this.departmentId = departmentId;
+            this.used = new BitSet((int) size());
+            if (gateway != null) {
+                used.set(offset(gateway));
+            }
+        }
+
+        long size() {
+            return 1L << (32 - prefixLength);
+        }
+
+        long last() {
+            return network + size() - 1;
+        }
+
+        boolean contains(long address) {
+            return address >= network && address <= last();
+        }
+
+        // Network and broadcast addresses cannot be assigned, except in /31 and /32
+        long firstHost() {
+            return prefixLength >= 31 ? network : network + 1;
+        }
+
+        long lastHost() {
+            return prefixLength >= 31 ? last() : last() - 1;
+        }
+
+        boolean isHost(long address) {
+            return address >= firstHost() && address <= lastHost();
+        }
+
+        int offset(long address) {
+            return (int) (address - network);
+        }
+
+        String cidr() {
+            return Ipv4.cidr(network, prefixLength);
+        }
+    }
+
+    private final SubnetRepository subnetRepository;
+    private final HardwareRepository hardwareRepository;
+    private final VirtualMachineRepository vmRepository;
+    private final DepartmentRepository departmentRepository;
+    private final SiteRepository siteRepository;
+    private final Map<Long, InventoryEntity> assigned = new HashMap<>();
+    private final TreeMap<Long, Block> blocks = new TreeMap<>();
+    private final Map<Long, Block> blocksById = new HashMap<>();
+    // Not a monitor: subnet changes hold it across queries, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public IpamService(SubnetRepository subnetRepository,
+                       HardwareRepository hardwareRepository,
+                       VirtualMachineRepository vmRepository,
+                       DepartmentRepository departmentRepository,
+                       SiteRepository siteRepository) {
+        this.subnetRepository = subnetRepository;
+        this.hardwareRepository = hardwareRepository;
+        this.vmRepository = vmRepository;
+        this.departmentRepository = departmentRepository;
+        this.siteRepository = siteRepository;
+    }
+
+    /** Reloads subnets and assigned addresses from the database; runs once at startup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            assigned.clear();
+            blocks.clear();
+            blocksById.clear();
+            for (Object[] row : subnetRepository.findAllRows()) {
+                add(new Block((Long) row[0], (String) row[1], (Long) row[2], (Integer) row[3], (Long) row[4], (Long) row[5], (Long) row[6]));
+            }
+            for (Long address : hardwareRepository.findAllIpNumerics()) {
+                mark(address, InventoryEntity.HARDWARE);
+            }
+            for (Long address : vmRepository.findAllIpNumerics()) {
+                mark(address, InventoryEntity.VIRTUAL_MACHINE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- addresses ----
+
+    /**
+     * Takes {@code ipAddress} for a {@code type} row that currently holds {@code previous} (null for
+     * a new row) and returns it as a number, or null when blank. Keeping the same address is a no-op.
+     * Undo with {@code addressChanged(claimed, previous)} if the row is not saved.
+     */
+    public Long claim(InventoryEntity type, Long previous, String ipAddress) {
+        lock.lock();
+        try {
+            if (ipAddress == null || ipAddress.isBlank()) {
+                return null;
+            }
+            long address;
+            try {
+                address = Ipv4.parse(ipAddress);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (previous != null && previous == address) {
+                return address;
+            }
+            InventoryEntity holder = assigned.get(address);
+            if (holder != null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        Ipv4.format(address) + " is already assigned to " + describe(holder));
+            }
+            Block block = blockOf(address);
+            if (block != null) {
+                if (!block.isHost(address)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            Ipv4.format(address) + " is the network or broadcast address of " + block.cidr());
+                }
+                if (block.gateway != null && block.gateway == address) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            Ipv4.format(address) + " is the gateway of " + block.cidr());
+                }
+                block.used.set(block.offset(address));
+            }
+            assigned.put(address, type);
+            return address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the lowest free host address of the subnet. {@code departmentId}, when given, must own
+     * the subnet. Undo with {@code addressChanged(allocated, null)} if the row is not saved.
+     */
+    public long allocate(InventoryEntity type, Long subnetId, Long departmentId) {
+        lock.lock();
+        try {
+            Block block = blocksById.get(subnetId);
+            if (block == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid subnetId");
+            }
+            if (departmentId != null && !departmentId.equals(block.departmentId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Subnet " + block.cidr() + " belongs to another department");
+            }
+            int offset = block.used.nextClearBit(block.offset(block.firstHost()));
+            if (offset > block.offset(block.lastHost())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Subnet " + block.cidr() + " has no free addresses");
+            }
+            block.used.set(offset);
+            long address = block.network + offset;
+            assigned.put(address, type);
+            return address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands {@code before} back once the change commits, unless the row still holds it as
+     * {@code after}. {@code after} must already have been claimed.
+     */
+    public void addressChanged(Long before, Long after) {
+        if (before == null || before.equals(after)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            lock.lock();
+            try {
+                release(before);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** Bulk form of {@code addressChanged(address, null)}; nulls are skipped. */
+    public void addressesReleased(Collection<Long> addresses) {
+        List<Long> released = addresses.stream().filter(Objects::nonNull).toList();
+        if (released.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            lock.lock();
+            try {
+                released.forEach(this::release);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    static String format(Long address) {
+        return address != null ? Ipv4.format(address) : null;
+    }
+
+    // ---- subnets ----
+
+    public List<SubnetDto> findSubnets(Long departmentId) {
+        lock.lock();
+        try {
+            List<SubnetDto> result = new ArrayList<>();
+            for (Block block : blocks.values()) {
+                if (departmentId == null || departmentId.equals(block.departmentId)) {
+                    result.add(toDto(block));
+                }
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<SubnetDto> findSubnet(Long id) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(blocksById.get(id)).map(IpamService::toDto);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Up to {@code limit} free host addresses of the subnet, lowest first. */
+    public List<String> freeAddresses(Long subnetId, int limit) {
+        lock.lock();
+        try {
+            Block block = blocksById.get(subnetId);
+            if (block == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            List<String> free = new ArrayList<>(Math.min(limit, 256));
+            int last = block.offset(block.lastHost());
+            for (int offset = block.used.nextClearBit(block.offset(block.firstHost()));
+                 offset <= last && free.size() < limit;
+                 offset = block.used.nextClearBit(offset + 1)) {
+                free.add(Ipv4.format(block.network + offset));
+            }
+            return free;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves a subnet from {@code dto.cidr}, which must be a network address (10.20.0.0/22, not
+     * 10.20.1.0/22) no longer than /{@value #MIN_PREFIX_LENGTH}, and must not overlap another subnet.
+     * Addresses already assigned inside the range count as used from the start.
+     */
+    public SubnetDto createSubnet(SubnetDto dto) {
+        lock.lock();
+        try {
+            if (dto.name == null || dto.name.isBlank() || dto.cidr == null || dto.departmentId == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "name, cidr and departmentId are required");
+            }
+            String[] parts = dto.cidr.trim().split("/", -1);
+            long network;
+            int prefixLength;
+            try {
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected a.b.c.d/prefix, got " + dto.cidr);
+                }
+                network = Ipv4.parse(parts[0]);
+                prefixLength = Integer.parseInt(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (prefixLength < MIN_PREFIX_LENGTH || prefixLength > 32) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Prefix length must be between /" + MIN_PREFIX_LENGTH + " and /32");
+            }
+            long mask = (0xFFFFFFFFL << (32 - prefixLength)) & 0xFFFFFFFFL;
+            if ((network & mask) != network) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        dto.cidr + " is not a network address; did you mean " + Ipv4.cidr(network & mask, prefixLength) + "?");
+            }
+            long last = network + (1L << (32 - prefixLength)) - 1;
+            Map.Entry<Long, Block> below = blocks.floorEntry(last);
+            if (below != null && below.getValue().last() >= network) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, dto.cidr + " overlaps subnet " + below.getValue().cidr());
+            }
+
+            Department department = departmentRepository.findById(dto.departmentId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid departmentId"));
+            Site site = null;
+            if (dto.siteId != null) {
+                site = siteRepository.findById(dto.siteId)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid siteId"));
+                if (!dto.departmentId.equals(site.getDepartment().getId())) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Site " + dto.siteId + " belongs to another department");
+                }
+            }
+            Long gateway = null;
+            if (dto.gateway != null && !dto.gateway.isBlank()) {
+                try {
+                    gateway = Ipv4.parse(dto.gateway);
+                } catch (IllegalArgumentException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+                }
+                Block probe = new Block(null, dto.name, network, prefixLength, null, null, null);
+                if (!probe.isHost(gateway)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Gateway " + dto.gateway + " is not a host address of " + dto.cidr);
+                }
+                InventoryEntity holder = assigned.get(gateway);
+                if (holder != null) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Gateway " + dto.gateway + " is already assigned to " + describe(holder));
+                }
+            }
+
+            Subnet subnet = new Subnet();
+            subnet.setName(dto.name);
+            subnet.setNetworkAddress(network);
+            subnet.setPrefixLength(prefixLength);
+            subnet.setGateway(gateway);
+            subnet.setSite(site);
+            subnet.setDepartment(department);
+            Subnet saved = subnetRepository.save(subnet);
+
+            Block block = new Block(saved.getId(), saved.getName(), network, prefixLength, gateway, dto.siteId, dto.departmentId);
+            for (Long address : assigned.keySet()) {
+                if (block.isHost(address)) {
+                    block.used.set(block.offset(address));
+                }
+            }
+            add(block);
+            return toDto(block);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes the range only; addresses assigned inside it stay assigned. */
+    public void deleteSubnet(Long id) {
+        lock.lock();
+        try {
+            Block block = blocksById.get(id);
+            if (block == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            subnetRepository.deleteById(id);
+            blocksById.remove(id);
+            blocks.remove(block.network);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- internals, caller holds the lock ----
+
+    private void add(Block block) {
+        blocks.put(block.network, block);
+        blocksById.put(block.subnetId, block);
+    }
+
+    private Block blockOf(long address) {
+        Map.Entry<Long, Block> entry = blocks.floorEntry(address);
+        return entry != null && entry.getValue().contains(address) ? entry.getValue() : null;
+    }
+
+    private void mark(long address, InventoryEntity type) {
+        assigned.put(address, type);
+        Block block = blockOf(address);
+        if (block != null && block.isHost(address)) {
+            block.used.set(block.offset(address));
+        }
+    }
+
+    private void release(long address) {
+        if (assigned.remove(address) == null) {
+            return;
+        }
+        Block block = blockOf(address);
+        if (block != null && block.isHost(address) && !Objects.equals(block.gateway, address)) {
+            block.used.clear(block.offset(address));
+        }
+    }
+
+    private static String describe(InventoryEntity type) {
+        return type == InventoryEntity.VIRTUAL_MACHINE ? "a virtual machine" : "hardware";
+    }
+
+    private static SubnetDto toDto(Block block) {
+        SubnetDto dto = new SubnetDto();
+        dto.id = block.subnetId;
+        dto.name = block.name;
+        dto.cidr = block.cidr();
+        dto.gateway = format(block.gateway);
+        dto.siteId = block.siteId;
+        dto.departmentId = block.departmentId;
+        dto.size = block.lastHost() - block.firstHost() + 1;
+        dto.used = block.used.cardinality();
+        dto.free = dto.size - dto.used;
+        return dto;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+/**
+ * IPv4 addresses as unsigned 32-bit values held in a long, so ranges are plain arithmetic.
+ */
+final class Ipv4 {
+
+    private Ipv4() {
+    }
+
+    /** Parses dotted-quad notation; throws IllegalArgumentException for anything else. */
+    static long parse(String text) {
+        String[] parts = text.trim().split("\\.", -1);
+        if (parts.length != 4) {
+            throw invalid(text);
+        }
+        long value = 0;
+        for (String part : parts) {
+            if (part.isEmpty() || part.length() > 3) {
+                throw invalid(text);
+            }
+            int octet = 0;
+            for (int i = 0; i < part.length(); i++) {
+                char c = part.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw invalid(text);
+                }
+                octet = octet * 10 + (c - '0');
+            }
+            if (octet > 255) {
+                throw invalid(text);
+            }
+            value = (value << 8) | octet;
+        }
+        return value;
+    }
+
+    static String format(long address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    static String cidr(long network, int prefixLength) {
+        return format(network) + "/" + prefixLength;
+    }
+
+    private static IllegalArgumentException invalid(String text) {
+        return new IllegalArgumentException("Invalid IPv4 address: " + text);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SearchHitDto;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.event.InventoryChangedEvent.Change;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Substring search over hardware, VMs, sites and users, served from an in-memory
+ * {@link TrigramIndex} instead of the database.
+ *
+ * The index is loaded at startup and follows {@link InventoryChangedEvent}s: changed rows are
+ * re-read by id after commit, on the {@link ChangeRefresher} thread, so a search right after a write
+ * may not see it yet. Every query token must occur in some indexed field; tokens of 3+
+ * characters narrow the candidates through the index, shorter ones only filter. Hits are ranked by
+ * how well each token matches (whole field, field prefix, word prefix, anywhere) times the field's
+ * weight, so an exact serial number or IP beats a model name containing it.
+ */
+@Service
+public class SearchService {
+    public static final int MIN_TOKEN_LENGTH = 3;
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private record Field(String name, double weight) {}
+
+    /** JPQL selecting id, department id, then the fields in order. The first field is the hit's title. */
+    private record Source(String select, String idPath, List<Field> fields) {}
+
+    private static final Map<InventoryEntity, Source> SOURCES = new EnumMap<>(Map.of(
+            InventoryEntity.HARDWARE, new Source(
+                    "select h.id, h.department.id, h.name, h.serialNumber, h.model, h.ipAddress from Hardware h", "h.id",
+                    List.of(new Field("name", 2), new Field("serialNumber", 3), new Field("model", 1), new Field("ipAddress", 3))),
+            InventoryEntity.VIRTUAL_MACHINE, new Source(
+                    "select v.id, v.department.id, v.name, v.hostname, v.ipAddress, v.operatingSystem from VirtualMachine v", "v.id",
+                    List.of(new Field("name", 2), new Field("hostname", 3), new Field("ipAddress", 3), new Field("operatingSystem", 1))),
+            InventoryEntity.SITE, new Source(
+                    "select s.id, s.department.id, s.name, s.city from Site s", "s.id",
+                    List.of(new Field("name", 2), new Field("city", 1))),
+            InventoryEntity.USER, new Source(
+                    "select u.id, u.department.id, u.username, u.email from User u", "u.id",
+                    List.of(new Field("username", 3), new Field("email", 2)))));
+
+    private record Hit(TrigramIndex.Doc doc, double score, int field) {}
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final TrigramIndex index = new TrigramIndex();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer queryTimer;
+
+    public SearchService(EntityManager entityManager, PlatformTransactionManager transactionManager, MeterRegistry registry,
+                         ChangeRefresher refresher) {
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.queryTimer = Timer.builder("search.query.duration")
+                .description("Time to answer one /api/search query from the index")
+                .register(registry);
+        Gauge.builder("search.index.documents", this, SearchService::size)
+                .description("Rows held in the search index")
+                .register(registry);
+        refresher.register(this::refresh);
+    }
+
+    /** Loads every searchable row; runs once at startup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            readTransaction.executeWithoutResult(status -> SOURCES.forEach((type, source) -> {
+                try (Stream<?> rows = entityManager.createQuery(source.select())
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                        .getResultStream()) {
+                    rows.forEach(row -> index.put(toDoc(type, (Object[]) row)));
+                }
+            }));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // On the refresh thread, which also serializes the read and the apply: the last row read is the last indexed
+    private void refresh(InventoryEntity type, Map<Long, Change> changes) {
+        Source source = SOURCES.get(type);
+        if (source == null) {
+            return;
+        }
+        List<Long> saved = changes.entrySet().stream()
+                .filter(change -> change.getValue() != Change.DELETED)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<TrigramIndex.Doc> docs = saved.isEmpty() ? List.of() : readTransaction.execute(status -> load(type, source, saved));
+        lock.writeLock().lock();
+        try {
+            // Ids that no longer load were deleted in the meantime
+            changes.keySet().forEach(id -> index.remove(type, id));
+            docs.forEach(index::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param types          entity types to return, all when null or empty
+     * @param departmentId   only rows of this department when not null
+     * @throws IllegalArgumentException when no token is at least {@link #MIN_TOKEN_LENGTH} characters long
+     */
+    public List<SearchHitDto> search(String query, Set<InventoryEntity> types, Long departmentId, int limit) {
+        List<String> tokens = Arrays.stream(TrigramIndex.normalize(query == null ? "" : query).split("\\s+"))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .toList();
+        List<String> indexed = tokens.stream().filter(t -> t.length() >= MIN_TOKEN_LENGTH).toList();
+        if (indexed.isEmpty()) {
+            throw new IllegalArgumentException("Search needs at least one word of " + MIN_TOKEN_LENGTH + " or more characters");
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score)
+                .thenComparing(h -> h.doc().id, Comparator.reverseOrder());
+
+        return queryTimer.record(() -> {
+            // Worst of the best hits on top, so it is the one evicted
+            PriorityQueue<Hit> best = new PriorityQueue<>(max + 1, ranking);
+            lock.readLock().lock();
+            try {
+                index.forEachCandidate(indexed, ordinal -> {
+                    TrigramIndex.Doc doc = index.doc(ordinal);
+                    if ((types != null && !types.isEmpty() && !types.contains(doc.type))
+                            || (departmentId != null && !departmentId.equals(doc.departmentId))) {
+                        return;
+                    }
+                    Hit hit = score(doc, tokens);
+                    if (hit != null) {
+                        best.add(hit);
+                        if (best.size() > max) {
+                            best.poll();
+                        }
+                    }
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(ranking.reversed());
+            return hits.stream().map(this::toDto).toList();
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TrigramIndex.Doc> load(InventoryEntity type, Source source, Collection<Long> ids) {
+        List<TrigramIndex.Doc> docs = new ArrayList<>(ids.size());
+        for (Object row : entityManager.createQuery(source.select() + " where " + source.idPath() + " in :ids")
+                .setParameter("ids", ids)
+                .getResultList()) {
+            docs.add(toDoc(type, (Object[]) row));
+        }
+        return docs;
+    }
+
+    private static TrigramIndex.Doc toDoc(InventoryEntity type, Object[] row) {
+        String[] values = new String[row.length - 2];
+        for (int i = 2; i < row.length; i++) {
+            values[i - 2] = (String) row[i];
+        }
+        return new TrigramIndex.Doc(type, (Long) row[0], (Long) row[1], values);
+    }
+
+    // Null when some token occurs in none of the fields (a trigram false positive or a short token)
+    private static Hit score(TrigramIndex.Doc doc, List<String> tokens) {
+        List<Field> fields = SOURCES.get(doc.type).fields();
+        double total = 0;
+        int bestField = -1;
+        double bestFieldScore = 0;
+        for (String token : tokens) {
+            double tokenScore = 0;
+            for (int f = 0; f < doc.normalized.length; f++) {
+                String value = doc.normalized[f];
+                if (value == null) {
+                    continue;
+                }
+                int at = value.indexOf(token);
+                if (at < 0) {
+                    continue;
+                }
+                double match;
+                if (value.length() == token.length()) {
+                    match = 8;
+                } else if (at == 0) {
+                    match = 4;
+                } else if (!Character.isLetterOrDigit(value.charAt(at - 1))) {
+                    match = 2;
+                } else {
+                    match = 1;
+                }
+                double fieldScore = match * fields.get(f).weight();
+                if (fieldScore > tokenScore) {
+                    tokenScore = fieldScore;
+                }
+                if (fieldScore > bestFieldScore) {
+                    bestFieldScore = fieldScore;
+                    bestField = f;
+                }
+            }
+            if (tokenScore == 0) {
+                return null;
+            }
+            total += tokenScore;
+        }
+        return new Hit(doc, total, bestField);
+    }
+
+    private SearchHitDto toDto(Hit hit) {
+        TrigramIndex.Doc doc = hit.doc();
+        SearchHitDto dto = new SearchHitDto();
+        dto.type = doc.type;
+        dto.id = doc.id;
+        dto.departmentId = doc.departmentId;
+        dto.title = doc.values[0];
+        dto.field = SOURCES.get(doc.type).fields().get(hit.field()).name();
+        dto.value = doc.values[hit.field()];
+        dto.score = hit.score();
+        return dto;
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.SiteDto;
 import com.example.demo.entite.Site;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
 import com.example.demo.repository.SiteRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class SiteService {
     private final SiteRepository repository;
+    private final VersionService versions;
+    private final SnapshotService snapshots;
+    private final ApplicationEventPublisher events;
 
-    public SiteService(SiteRepository repository) {
+    public SiteService(SiteRepository repository, VersionService versions, SnapshotService snapshots, ApplicationEventPublisher events) {
         this.repository = repository;
+        this.versions = versions;
+        this.snapshots = snapshots;
+        this.events = events;
     }
 
     public List<Site> findAll() { return repository.findAll(); }
@@ -20,13 +33,43 @@ public class SiteService {
         return repository.findByDepartmentId(departmentId);
     }
 
+    public Slice<SiteDto> findPage(Long departmentId, Long cursor, int limit) {
+        // A department's list is served from memory in snapshot mode
+        Optional<Slice<SiteDto>> snapshot = snapshots.findPage(InventoryEntity.SITE, departmentId, cursor, limit);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        long after = cursor != null ? cursor : 0L;
+        PageRequest page = PageRequest.ofSize(limit);
+        return departmentId != null
+                ? repository.findDtoPageByDepartmentId(departmentId, after, page)
+                : repository.findDtoPage(after, page);
+    }
+
     public Optional<Site> findById(Long id) { return repository.findById(id); }
 
-    public Site save(Site site) { return repository.save(site); }
+    @Transactional
+    public Site save(Site site) {
+        // An update may move the site to another department; both lists change
+        Long previousDepartmentId = site.getId() != null ? repository.findDepartmentIdById(site.getId()) : null;
+        Site saved = repository.save(site);
+        versions.changed(InventoryEntity.SITE, saved.getDepartment().getId(), previousDepartmentId);
+        boolean moved = previousDepartmentId != null && !previousDepartmentId.equals(saved.getDepartment().getId());
+        events.publishEvent(moved
+                ? InventoryChangedEvent.moved(InventoryEntity.SITE, saved.getId())
+                : InventoryChangedEvent.saved(InventoryEntity.SITE, saved.getId()));
+        return saved;
+    }
 
     public boolean existsById(Long id) { return repository.existsById(id); }
 
-    public void deleteById(Long id) { repository.deleteById(id); }
+    @Transactional
+    public void deleteById(Long id) {
+        Long departmentId = repository.findDepartmentIdById(id);
+        repository.deleteById(id);
+        versions.changed(InventoryEntity.SITE, departmentId);
+        events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.SITE, id));
+    }
 }
 
 
@@ -0,0 +1,404 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.SiteDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.event.InventoryChangedEvent.Change;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Optional in-memory copy of each department's hardware, VM and site lists
+ * ({@code inventory.snapshot.enabled=true}), so the department-scoped list endpoints are answered
+ * without a query.
+ *
+ * Each department's rows are an immutable array of the list DTOs sorted by id, published by
+ * replacing the map entry: a reader takes the current array and pages through it without locking,
+ * while a writer builds the next one. Changes arrive as {@link InventoryChangedEvent}s after commit;
+ * the changed rows are re-read by id on the {@link ChangeRefresher} thread, which takes them one
+ * batch at a time, so the last row read is the last applied. Only the departments they left or
+ * entered are copied again, then given a new list version.
+ *
+ * Everything is loaded once at startup; until then, and for unscoped lists, the services query the
+ * database as usual. Every {@code inventory.snapshot.check-interval} the copy is compared with the
+ * database; a department that drifted (a change that published no event, such as a manual SQL
+ * update) is reloaded, counted in {@code snapshot.repairs} and given a new list version, so clients
+ * holding an ETag for the stale rows reload. The DTOs are shared between requests and must not be
+ * modified.
+ */
+@Service
+public class SnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+    private static final int LOAD_BATCH = 1000;
+
+    /** How one entity type is read: a keyset page of DTOs (all rows or one department's), and DTOs by id. */
+    private record Source<D>(BiFunction<Long, Pageable, Slice<D>> page,
+                             PageOfDepartment<D> pageOfDepartment,
+                             Function<Collection<Long>, List<D>> byIds,
+                             ToLongFunction<D> id,
+                             Function<D, Long> departmentId) {}
+
+    @FunctionalInterface
+    private interface PageOfDepartment<D> {
+        Slice<D> load(Long departmentId, Long cursor, Pageable pageable);
+    }
+
+    /** One department's rows, sorted by id; never modified once published. */
+    private record Rows<D>(Object[] dtos, long[] ids) {
+        private static final Rows<?> EMPTY = new Rows<>(new Object[0], new long[0]);
+
+        @SuppressWarnings("unchecked")
+        static <D> Rows<D> empty() {
+            return (Rows<D>) EMPTY;
+        }
+    }
+
+    private static final class Snapshot<D> {
+        final Source<D> source;
+        final Map<Long, Rows<D>> departments = new ConcurrentHashMap<>();
+        // Row id -> department, so a deleted or moved row is found without scanning; writers only
+        final Map<Long, Long> departmentOf = new HashMap<>();
+        final ReentrantLock writer = new ReentrantLock();
+
+        Snapshot(Source<D> source) {
+            this.source = source;
+        }
+    }
+
+    private final Map<InventoryEntity, Snapshot<?>> snapshots = new EnumMap<>(InventoryEntity.class);
+    private final boolean enabled;
+    private final Duration checkInterval;
+    private final TransactionTemplate readTransaction;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService checker;
+    private final Counter repairs;
+    private final VersionService versions;
+    private volatile boolean ready;
+
+    public SnapshotService(HardwareRepository hardwareRepository,
+                           VirtualMachineRepository vmRepository,
+                           SiteRepository siteRepository,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           MeterRegistry registry,
+                           VersionService versions,
+                           ChangeRefresher refresher,
+                           @Value("${inventory.snapshot.enabled:false}") boolean enabled,
+                           @Value("${inventory.snapshot.check-interval:10m}") Duration checkInterval) {
+        snapshots.put(InventoryEntity.HARDWARE, new Snapshot<>(new Source<HardwareDto>(
+                hardwareRepository::findDtoPage, hardwareRepository::findDtoPageByDepartmentId, hardwareRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId)));
+        snapshots.put(InventoryEntity.VIRTUAL_MACHINE, new Snapshot<>(new Source<VirtualMachineDto>(
+                vmRepository::findDtoPage, vmRepository::findDtoPageByDepartmentId, vmRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId)));
+        snapshots.put(InventoryEntity.SITE, new Snapshot<>(new Source<SiteDto>(
+                siteRepository::findDtoPage, siteRepository::findDtoPageByDepartmentId, siteRepository::findDtosByIds,
+                dto -> dto.id, dto -> dto.departmentId)));
+        this.enabled = enabled;
+        this.checkInterval = checkInterval;
+        this.objectMapper = objectMapper;
+        this.versions = versions;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.repairs = Counter.builder("snapshot.repairs")
+                .description("Department snapshots reloaded because they no longer matched the database")
+                .register(registry);
+        snapshots.forEach((type, snapshot) -> Gauge.builder("snapshot.rows", snapshot, SnapshotService::rows)
+                .tag("type", type.name())
+                .description("Rows held in the list snapshots")
+                .register(registry));
+        if (enabled) {
+            refresher.register(this::refresh);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        long checkMs = Math.max(1, checkInterval.toMillis());
+        checker.scheduleWithFixedDelay(this::check, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Loads every department's rows; runs once at startup when snapshots are enabled. */
+    public void rebuild() {
+        long start = System.nanoTime();
+        snapshots.values().forEach(this::load);
+        ready = true;
+        log.info("Loaded list snapshots in {} ms: {} hardware, {} virtual machines, {} sites",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rows(snapshots.get(InventoryEntity.HARDWARE)),
+                rows(snapshots.get(InventoryEntity.VIRTUAL_MACHINE)), rows(snapshots.get(InventoryEntity.SITE)));
+    }
+
+    /**
+     * One page of a department's list, in the order and shape of the {@code findDtoPageByDepartmentId}
+     * queries; empty when snapshots are off or not loaded yet.
+     */
+    @SuppressWarnings("unchecked")
+    public <D> Optional<Slice<D>> findPage(InventoryEntity type, Long departmentId, Long cursor, int limit) {
+        Snapshot<D> snapshot = (Snapshot<D>) snapshots.get(type);
+        if (!ready || snapshot == null || departmentId == null) {
+            return Optional.empty();
+        }
+        Rows<D> rows = rows(snapshot, departmentId);
+        long after = cursor != null ? cursor : 0L;
+        int from = Arrays.binarySearch(rows.ids(), after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = Math.min(rows.ids().length, from + limit);
+        List<D> content = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            content.add(dto(rows, i));
+        }
+        return Optional.of(new SliceImpl<>(content, PageRequest.ofSize(limit), to < rows.ids().length));
+    }
+
+    /**
+     * Compares every department's snapshot with the database and reloads the ones that differ.
+     *
+     * @return the departments reloaded, per type
+     */
+    public Map<InventoryEntity, Set<Long>> check() {
+        Map<InventoryEntity, Set<Long>> repaired = new EnumMap<>(InventoryEntity.class);
+        if (!ready) {
+            return repaired;
+        }
+        try {
+            snapshots.forEach((type, snapshot) -> {
+                Set<Long> drifted = check(snapshot);
+                if (!drifted.isEmpty()) {
+                    log.warn("{} snapshot of departments {} did not match the database; reloaded", type, drifted);
+                    repairs.increment(drifted.size());
+                    // Lists were served from the stale copy, possibly under the current ETag
+                    versions.changed(type, drifted);
+                    repaired.put(type, drifted);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not check the list snapshots", e);
+        }
+        return repaired;
+    }
+
+    private <D> void load(Snapshot<D> snapshot) {
+        snapshot.writer.lock();
+        try {
+            Map<Long, List<D>> byDepartment = readTransaction.execute(status -> readAll(snapshot.source));
+            snapshot.departments.clear();
+            snapshot.departmentOf.clear();
+            byDepartment.forEach((departmentId, dtos) -> publish(snapshot, departmentId, dtos));
+        } finally {
+            snapshot.writer.unlock();
+        }
+    }
+
+    // On the refresh thread
+    private void refresh(InventoryEntity type, Map<Long, Change> changes) {
+        Snapshot<?> snapshot = snapshots.get(type);
+        if (snapshot != null) {
+            apply(type, snapshot, changes);
+        }
+    }
+
+    private <D> void apply(InventoryEntity type, Snapshot<D> snapshot, Map<Long, Change> changes) {
+        snapshot.writer.lock();
+        try {
+            List<Long> saved = changes.entrySet().stream()
+                    .filter(change -> change.getValue() != Change.DELETED)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            List<D> loaded = saved.isEmpty()
+                    ? List.of()
+                    : readTransaction.execute(status -> snapshot.source.byIds().apply(saved));
+            // Every department a changed row was in or is in now; ids that no longer load were deleted
+            Map<Long, Map<Long, D>> upserts = new HashMap<>();
+            Set<Long> touched = new HashSet<>();
+            for (Long id : changes.keySet()) {
+                Long previous = snapshot.departmentOf.get(id);
+                if (previous != null) {
+                    touched.add(previous);
+                }
+            }
+            for (D dto : loaded) {
+                Long departmentId = snapshot.source.departmentId().apply(dto);
+                touched.add(departmentId);
+                upserts.computeIfAbsent(departmentId, d -> new HashMap<>()).put(snapshot.source.id().applyAsLong(dto), dto);
+            }
+            Set<Long> changed = changes.keySet();
+            for (Long departmentId : touched) {
+                Rows<D> current = rows(snapshot, departmentId);
+                Map<Long, D> incoming = upserts.getOrDefault(departmentId, Map.of());
+                List<D> next = new ArrayList<>(current.ids().length + incoming.size());
+                for (int i = 0; i < current.ids().length; i++) {
+                    if (!changed.contains(current.ids()[i])) {
+                        next.add(dto(current, i));
+                    }
+                }
+                next.addAll(incoming.values());
+                next.sort((a, b) -> Long.compare(snapshot.source.id().applyAsLong(a), snapshot.source.id().applyAsLong(b)));
+                changed.forEach(id -> snapshot.departmentOf.remove(id, departmentId));
+                publish(snapshot, departmentId, next);
+            }
+            // The writer bumped these versions at commit, before the new rows were here: a list read in
+            // between got the new ETag with the old rows, and would keep getting 304s for them
+            versions.changed(type, touched);
+        } catch (RuntimeException e) {
+            // The next check reloads whatever this missed
+            log.error("Could not update the {} snapshot for {}", type, changes.keySet(), e);
+        } finally {
+            snapshot.writer.unlock();
+        }
+    }
+
+    // Compared without holding up writers; a department that looks different is read again under the writer lock
+    private <D> Set<Long> check(Snapshot<D> snapshot) {
+        Map<Long, List<D>> fromDatabase = readTransaction.execute(status -> readAll(snapshot.source));
+        Set<Long> departments = new HashSet<>(snapshot.departments.keySet());
+        departments.addAll(fromDatabase.keySet());
+        Set<Long> drifted = new HashSet<>();
+        for (Long departmentId : departments) {
+            if (!same(rows(snapshot, departmentId), fromDatabase.getOrDefault(departmentId, List.of()))
+                    && repair(snapshot, departmentId)) {
+                drifted.add(departmentId);
+            }
+        }
+        return drifted;
+    }
+
+    private <D> boolean repair(Snapshot<D> snapshot, Long departmentId) {
+        snapshot.writer.lock();
+        try {
+            List<D> dtos = readTransaction.execute(status -> readDepartment(snapshot.source, departmentId));
+            Rows<D> current = rows(snapshot, departmentId);
+            if (same(current, dtos)) {
+                // It was a change in flight
+                return false;
+            }
+            for (long id : current.ids()) {
+                snapshot.departmentOf.remove(id, departmentId);
+            }
+            publish(snapshot, departmentId, dtos);
+            return true;
+        } finally {
+            snapshot.writer.unlock();
+        }
+    }
+
+    private static <D> Map<Long, List<D>> readAll(Source<D> source) {
+        Map<Long, List<D>> byDepartment = new HashMap<>();
+        Slice<D> page;
+        long after = 0;
+        do {
+            page = source.page().apply(after, PageRequest.ofSize(LOAD_BATCH));
+            for (D dto : page.getContent()) {
+                byDepartment.computeIfAbsent(source.departmentId().apply(dto), d -> new ArrayList<>()).add(dto);
+                after = source.id().applyAsLong(dto);
+            }
+        } while (page.hasNext());
+        return byDepartment;
+    }
+
+    private static <D> List<D> readDepartment(Source<D> source, Long departmentId) {
+        List<D> dtos = new ArrayList<>();
+        Slice<D> page;
+        long after = 0;
+        do {
+            page = source.pageOfDepartment().load(departmentId, after, PageRequest.ofSize(LOAD_BATCH));
+            for (D dto : page.getContent()) {
+                dtos.add(dto);
+                after = source.id().applyAsLong(dto);
+            }
+        } while (page.hasNext());
+        return dtos;
+    }
+
+    // dtos sorted by id
+    private <D> void publish(Snapshot<D> snapshot, Long departmentId, List<D> dtos) {
+        if (dtos.isEmpty()) {
+            snapshot.departments.remove(departmentId);
+            return;
+        }
+        long[] ids = new long[dtos.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = snapshot.source.id().applyAsLong(dtos.get(i));
+            snapshot.departmentOf.put(ids[i], departmentId);
+        }
+        snapshot.departments.put(departmentId, new Rows<>(dtos.toArray(), ids));
+    }
+
+    private <D> boolean same(Rows<D> rows, List<D> expected) {
+        if (rows.ids().length != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!objectMapper.valueToTree(dto(rows, i)).equals(objectMapper.valueToTree(expected.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <D> Rows<D> rows(Snapshot<D> snapshot, Long departmentId) {
+        return snapshot.departments.getOrDefault(departmentId, Rows.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <D> D dto(Rows<D> rows, int index) {
+        return (D) rows.dtos()[index];
+    }
+
+    private static int rows(Snapshot<?> snapshot) {
+        return snapshot.departments.values().stream().mapToInt(rows -> rows.ids().length).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checker.shutdownNow();
+    }
+}
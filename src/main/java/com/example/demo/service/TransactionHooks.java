@@ -0,0 +1,42 @@
+package com.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Deferring in-memory bookkeeping until the database change behind it is committed. */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /** Runs {@code action} after the current transaction commits (never on rollback), or right away outside one. */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs {@code action} if the current transaction rolls back, to give back what was reserved in
+     * memory ahead of the commit. Outside a transaction there is nothing to roll back and it never runs.
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.InventoryEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Inverted index from every 3-character substring of the indexed fields to the documents
+ * containing it. A search token of 3+ characters only needs to look at the documents in the
+ * intersection of its trigrams' posting lists, which {@link SearchService} then verifies.
+ *
+ * Documents get increasing ordinals, so posting lists stay sorted by simply appending. Updating
+ * a document appends it under a new ordinal and leaves a tombstone behind; once tombstones
+ * outnumber live documents everything is re-indexed under fresh ordinals. Not thread-safe;
+ * {@link SearchService} guards it with a read/write lock.
+ */
+final class TrigramIndex {
+
+    /** One indexed row. {@code normalized} holds the lower-cased {@code values}, null for empty fields. */
+    static final class Doc {
+        final InventoryEntity type;
+        final long id;
+        final Long departmentId;
+        final String[] values;
+        final String[] normalized;
+
+        Doc(InventoryEntity type, long id, Long departmentId, String[] values) {
+            this.type = type;
+            this.id = id;
+            this.departmentId = departmentId;
+            this.values = values;
+            this.normalized = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                normalized[i] = values[i] == null || values[i].isBlank() ? null : normalize(values[i]);
+            }
+        }
+    }
+
+    private record DocKey(InventoryEntity type, long id) {}
+
+    /** Growable sorted int array. */
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final int MIN_COMPACT_SIZE = 1024;
+
+    private Map<Long, Postings> postings = new HashMap<>();
+    private List<Doc> docs = new ArrayList<>();
+    private final Map<DocKey, Integer> ordinals = new HashMap<>();
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    void clear() {
+        postings = new HashMap<>();
+        docs = new ArrayList<>();
+        ordinals.clear();
+    }
+
+    void put(Doc doc) {
+        remove(doc.type, doc.id);
+        append(doc);
+        maybeCompact();
+    }
+
+    void remove(InventoryEntity type, long id) {
+        Integer ordinal = ordinals.remove(new DocKey(type, id));
+        if (ordinal != null) {
+            docs.set(ordinal, null);
+            maybeCompact();
+        }
+    }
+
+    /**
+     * Calls {@code sink} with every live document containing all trigrams of the given tokens
+     * (each at least 3 characters, normalized), in ordinal order.
+     */
+    void forEachCandidate(List<String> tokens, IntConsumer sink) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                grams.add(trigram(token, i));
+            }
+        }
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return;
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return;
+        }
+        // Drive from the rarest trigram and probe the others
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        Postings smallest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.ordinals[i];
+            for (int l = 1; l < lists.size(); l++) {
+                Postings other = lists.get(l);
+                int found = Arrays.binarySearch(other.ordinals, cursors[l], other.size, ordinal);
+                if (found < 0) {
+                    cursors[l] = -found - 1;
+                    if (cursors[l] >= other.size) {
+                        return;
+                    }
+                    continue candidates;
+                }
+                cursors[l] = found + 1;
+            }
+            if (docs.get(ordinal) != null) {
+                sink.accept(ordinal);
+            }
+        }
+    }
+
+    Doc doc(int ordinal) {
+        return docs.get(ordinal);
+    }
+
+    private void append(Doc doc) {
+        int ordinal = docs.size();
+        docs.add(doc);
+        ordinals.put(new DocKey(doc.type, doc.id), ordinal);
+        for (String value : doc.normalized) {
+            if (value == null) {
+                continue;
+            }
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                postings.computeIfAbsent(trigram(value, i), g -> new Postings()).add(ordinal);
+            }
+        }
+    }
+
+    private void maybeCompact() {
+        int live = ordinals.size();
+        if (docs.size() < MIN_COMPACT_SIZE || docs.size() - live <= live) {
+            return;
+        }
+        List<Doc> current = docs;
+        clear();
+        for (Doc doc : current) {
+            if (doc != null) {
+                append(doc);
+            }
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
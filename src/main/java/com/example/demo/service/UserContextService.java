@@ -1,14 +1,23 @@
 package com.example.demo.service;
 
 import com.example.demo.entite.User;
-import com.example.demo.enums.Role;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthTokenProperties;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
+
 /**
  * Service to manage the current user context
  * In a real application, this would integrate with Spring Security's SecurityContext
+ *
+ * The principal either comes from a verified auth token ({@link com.example.demo.security.TokenAuthenticationFilter})
+ * or, for the legacy X-User-Id header, is resolved at most once per request from {@link UserPrincipalCache},
+ * so role and department checks normally cost no query at all.
+ * {@link com.example.demo.config.UserContextFilter} clears the context when the request ends.
  */
 @Service
 public class UserContextService {
@@ -16,17 +25,60 @@ public class UserContextService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private AuthTokenProperties tokenProperties;
+
     // In a real app, this would come from SecurityContext
-    private ThreadLocal<Long> currentUserId = new ThreadLocal<>();
+    private final ThreadLocal<Long> currentUserId = new ThreadLocal<>();
+
+    private final ThreadLocal<UserPrincipal> currentPrincipal = new ThreadLocal<>();
+
+    private final ThreadLocal<Boolean> tokenAuthenticated = new ThreadLocal<>();
 
+    /**
+     * Identifies the caller from the X-User-Id header. Ignored when the request carried a
+     * verified token (the header cannot override it) or when the legacy header is disabled.
+     */
     public void setCurrentUserId(Long userId) {
+        if (tokenAuthenticated.get() != null || !tokenProperties.isLegacyUserHeader()) {
+            return;
+        }
+        if (!Objects.equals(userId, currentUserId.get())) {
+            currentPrincipal.remove();
+        }
         currentUserId.set(userId);
     }
 
+    public void setAuthenticatedPrincipal(UserPrincipal principal) {
+        currentUserId.set(principal.getUserId());
+        currentPrincipal.set(principal);
+        tokenAuthenticated.set(Boolean.TRUE);
+    }
+
     public Long getCurrentUserId() {
         return currentUserId.get();
     }
 
+    /** The current user if it exists and is enabled, otherwise null. */
+    public UserPrincipal getCurrentPrincipal() {
+        UserPrincipal principal = currentPrincipal.get();
+        if (principal != null) {
+            return principal;
+        }
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return null;
+        }
+        principal = principalCache.get(userId).filter(UserPrincipal::isEnabled).orElse(null);
+        if (principal != null) {
+            currentPrincipal.set(principal);
+        }
+        return principal;
+    }
+
     public User getCurrentUser() {
         Long userId = getCurrentUserId();
         if (userId == null) {
@@ -37,37 +89,23 @@ public class UserContextService {
     }
 
     public boolean isAdmin() {
-        try {
-            User user = getCurrentUser();
-            return user.getRole() == Role.ADMIN || user.getRole() == Role.SUPER_ADMIN;
-        } catch (RuntimeException e) {
-            return false;
-        }
+        UserPrincipal principal = getCurrentPrincipal();
+        return principal != null && principal.isAdmin();
     }
 
     public boolean isSuperAdmin() {
-        try {
-            User user = getCurrentUser();
-            return user.getRole() == Role.SUPER_ADMIN;
-        } catch (RuntimeException e) {
-            return false;
-        }
+        UserPrincipal principal = getCurrentPrincipal();
+        return principal != null && principal.isSuperAdmin();
     }
 
     public Long getCurrentUserDepartmentId() {
-        try {
-            User user = getCurrentUser();
-            if (user.getDepartment() != null) {
-                return user.getDepartment().getId();
-            }
-            return null;
-        } catch (RuntimeException e) {
-            return null;
-        }
+        UserPrincipal principal = getCurrentPrincipal();
+        return principal != null ? principal.getDepartmentId() : null;
     }
 
     public void clear() {
         currentUserId.remove();
+        currentPrincipal.remove();
+        tokenAuthenticated.remove();
     }
 }
-
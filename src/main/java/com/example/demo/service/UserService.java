@@ -1,17 +1,32 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.UserDto;
 import com.example.demo.entite.User;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.event.InventoryChangedEvent;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.UserPrincipalCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class UserService {
     private final UserRepository repository;
+    private final UserPrincipalCache principalCache;
+    private final VersionService versions;
+    private final ApplicationEventPublisher events;
 
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository, UserPrincipalCache principalCache, VersionService versions,
+                       ApplicationEventPublisher events) {
         this.repository = repository;
+        this.principalCache = principalCache;
+        this.versions = versions;
+        this.events = events;
     }
 
     public List<User> findAll() { return repository.findAll(); }
@@ -20,13 +35,41 @@ public class UserService {
         return repository.findByDepartmentId(departmentId);
     }
 
+    public Slice<UserDto> findPage(Long departmentId, Long cursor, int limit) {
+        long after = cursor != null ? cursor : 0L;
+        PageRequest page = PageRequest.ofSize(limit);
+        return departmentId != null
+                ? repository.findDtoPageByDepartmentId(departmentId, after, page)
+                : repository.findDtoPage(after, page);
+    }
+
     public Optional<User> findById(Long id) { return repository.findById(id); }
 
-    public User save(User user) { return repository.save(user); }
+    @Transactional
+    public User save(User user) {
+        // An update may move the user to another department; both lists change
+        Long previousDepartmentId = user.getId() != null ? repository.findDepartmentIdById(user.getId()) : null;
+        User saved = repository.save(user);
+        // After commit: evicting earlier would let a concurrent request cache the old row again
+        TransactionHooks.afterCommit(() -> principalCache.evict(saved.getId()));
+        versions.changed(InventoryEntity.USER, saved.getDepartment().getId(), previousDepartmentId);
+        boolean moved = previousDepartmentId != null && !previousDepartmentId.equals(saved.getDepartment().getId());
+        events.publishEvent(moved
+                ? InventoryChangedEvent.moved(InventoryEntity.USER, saved.getId())
+                : InventoryChangedEvent.saved(InventoryEntity.USER, saved.getId()));
+        return saved;
+    }
 
     public boolean existsById(Long id) { return repository.existsById(id); }
 
-    public void deleteById(Long id) { repository.deleteById(id); }
+    @Transactional
+    public void deleteById(Long id) {
+        Long departmentId = repository.findDepartmentIdById(id);
+        repository.deleteById(id);
+        TransactionHooks.afterCommit(() -> principalCache.evict(id));
+        versions.changed(InventoryEntity.USER, departmentId);
+        events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.USER, id));
+    }
 }
 
 
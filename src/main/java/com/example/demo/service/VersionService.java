@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.InventoryEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters per entity type and department, from which the list endpoints build weak
+ * ETags and answer {@code If-None-Match} without a query.
+ *
+ * Every write path reports the departments it touched once its transaction commits; changes
+ * whose departments are unknown (set-based bulk updates, task claims) bump every department of
+ * that type. A department's version is the sum of its own counter and that type-wide one, so it
+ * only ever grows. Callers must take the ETag <em>before</em> reading the data it describes: a
+ * response can then be newer than its tag, which costs one extra reload, but never older.
+ *
+ * Counters live in this instance's memory and restart at zero, so ETags carry an instance id.
+ * With several instances behind a load balancer, writes made on one are not seen by the others'
+ * counters; route a client to one instance or it may be told "not modified" for a list another
+ * instance changed.
+ */
+@Service
+public class VersionService {
+
+    private static final class Counters {
+        final AtomicLong all = new AtomicLong();
+        final AtomicLong everywhere = new AtomicLong();
+        final Map<Long, AtomicLong> byDepartment = new ConcurrentHashMap<>();
+    }
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<InventoryEntity, Counters> counters = new EnumMap<>(InventoryEntity.class);
+
+    public VersionService() {
+        for (InventoryEntity type : InventoryEntity.values()) {
+            counters.put(type, new Counters());
+        }
+    }
+
+    /** A row of {@code type} in this department changed; null means the department is unknown. */
+    public void changed(InventoryEntity type, Long departmentId) {
+        TransactionHooks.afterCommit(() -> bump(type, departmentId));
+    }
+
+    /** A row moved from one department to another, or was saved in both. */
+    public void changed(InventoryEntity type, Long departmentId, Long otherDepartmentId) {
+        TransactionHooks.afterCommit(() -> {
+            bump(type, departmentId);
+            if (otherDepartmentId != null && !otherDepartmentId.equals(departmentId)) {
+                bump(type, otherDepartmentId);
+            }
+        });
+    }
+
+    public void changed(InventoryEntity type, Collection<Long> departmentIds) {
+        TransactionHooks.afterCommit(() -> departmentIds.stream().distinct().forEach(id -> bump(type, id)));
+    }
+
+    public void changedEverywhere(InventoryEntity type) {
+        changed(type, (Long) null);
+    }
+
+    /** The version of one department's rows, or of all rows when {@code departmentId} is null. */
+    public long version(InventoryEntity type, Long departmentId) {
+        Counters c = counters.get(type);
+        if (departmentId == null) {
+            return c.all.get();
+        }
+        AtomicLong own = c.byDepartment.get(departmentId);
+        return c.everywhere.get() + (own != null ? own.get() : 0);
+    }
+
+    /** Weak ETag for a response built from the given types, scoped to a department or to all of them. */
+    public String etag(Long departmentId, InventoryEntity... types) {
+        StringBuilder tag = new StringBuilder("W/\"").append(instance).append('-')
+                .append(departmentId != null ? departmentId.toString() : "all");
+        for (InventoryEntity type : types) {
+            tag.append('-').append(version(type, departmentId));
+        }
+        return tag.append('"').toString();
+    }
+
+    private void bump(InventoryEntity type, Long departmentId) {
+        Counters c = counters.get(type);
+        if (departmentId == null) {
+            c.everywhere.incrementAndGet();
+        } else {
+            c.byDepartment.computeIfAbsent(departmentId, id -> new AtomicLong()).incrementAndGet();
+        }
+        c.all.incrementAndGet();
+    }
+}
@@ -1,22 +1,48 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.VirtualMachineDto;
 import com.example.demo.entite.Hardware;
 import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.enums.PlacementStrategy;
+import com.example.demo.event.InventoryChangedEvent;
 import com.example.demo.repository.HardwareRepository;
 import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.service.CapacityService.VmAllocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class VirtualMachineService {
     private final VirtualMachineRepository vmRepository;
     private final HardwareRepository hardwareRepository;
+    private final CapacityService capacityService;
+    private final IpamService ipamService;
+    private final VersionService versions;
+    private final SnapshotService snapshots;
+    private final PlacementStrategy defaultStrategy;
+    private final ApplicationEventPublisher events;
 
-    public VirtualMachineService(VirtualMachineRepository vmRepository, HardwareRepository hardwareRepository) {
+    public VirtualMachineService(VirtualMachineRepository vmRepository, HardwareRepository hardwareRepository, CapacityService capacityService,
+                                 IpamService ipamService, VersionService versions, SnapshotService snapshots,
+                                 @Value("${inventory.placement.strategy:BEST_FIT}") PlacementStrategy defaultStrategy,
+                                 ApplicationEventPublisher events) {
         this.vmRepository = vmRepository;
         this.hardwareRepository = hardwareRepository;
+        this.capacityService = capacityService;
+        this.ipamService = ipamService;
+        this.versions = versions;
+        this.snapshots = snapshots;
+        this.defaultStrategy = defaultStrategy;
+        this.events = events;
     }
 
     public List<VirtualMachine> findAll() { return vmRepository.findAll(); }
@@ -25,37 +51,127 @@ public class VirtualMachineService {
         return vmRepository.findByDepartmentId(departmentId);
     }
 
+    public Slice<VirtualMachineDto> findPage(Long departmentId, Long cursor, int limit) {
+        // A department's list is served from memory in snapshot mode
+        Optional<Slice<VirtualMachineDto>> snapshot = snapshots.findPage(InventoryEntity.VIRTUAL_MACHINE, departmentId, cursor, limit);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        long after = cursor != null ? cursor : 0L;
+        PageRequest page = PageRequest.ofSize(limit);
+        return departmentId != null
+                ? vmRepository.findDtoPageByDepartmentId(departmentId, after, page)
+                : vmRepository.findDtoPage(after, page);
+    }
+
     public VirtualMachine findByIdOrThrow(Long id) {
         return vmRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
-    public VirtualMachine create(VirtualMachine vm, Long hardwareId) {
-        if (hardwareId == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hardware ID is required");
+    /**
+     * Saves a new VM on {@code hardwareId} or, when that is null, on a host picked by
+     * {@link CapacityService#place} in the VM's department (and {@code siteId}, if given).
+     * Either way the host must have room for it.
+     *
+     * With a {@code subnetId} the VM gets the subnet's next free address; otherwise its own
+     * ipAddress, if any, must not be taken by another VM or host.
+     */
+    public VirtualMachine create(VirtualMachine vm, Long hardwareId, Long siteId, PlacementStrategy strategy, Long subnetId) {
+        VmAllocation allocation;
+        if (hardwareId != null) {
+            Hardware hw = hardwareRepository.findById(hardwareId).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid hardwareId"));
+            vm.setHardware(hw);
+            if (vm.getDepartment() == null) {
+                vm.setDepartment(hw.getDepartment());
+            }
+            allocation = VmAllocation.of(vm);
+            capacityService.reserve(null, allocation);
+        } else {
+            if (vm.getDepartment() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hardware ID or department ID is required");
+            }
+            allocation = capacityService.place(vm.getVcpu(), vm.getVram(), vm.getDiskSize(),
+                    vm.getDepartment().getId(), siteId, strategy != null ? strategy : defaultStrategy);
+        }
+        Long address = null;
+        try {
+            address = assignAddress(vm, subnetId);
+            if (vm.getHardware() == null) {
+                vm.setHardware(hardwareRepository.findById(allocation.hardwareId())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Selected host no longer exists")));
+            }
+            VirtualMachine saved = vmRepository.save(vm);
+            versions.changed(InventoryEntity.VIRTUAL_MACHINE, saved.getDepartment().getId());
+            events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.VIRTUAL_MACHINE, saved.getId()));
+            return saved;
+        } catch (RuntimeException e) {
+            capacityService.vmChanged(allocation, null);
+            ipamService.addressChanged(address, null);
+            throw e;
+        }
+    }
+
+    private Long assignAddress(VirtualMachine vm, Long subnetId) {
+        Long address;
+        if (subnetId != null) {
+            if (vm.getIpAddress() != null && !vm.getIpAddress().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give either ipAddress or subnetId, not both");
+            }
+            address = ipamService.allocate(InventoryEntity.VIRTUAL_MACHINE, subnetId, vm.getDepartment().getId());
+        } else {
+            address = ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, null, vm.getIpAddress());
         }
-        Hardware hw = hardwareRepository.findById(hardwareId).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid hardwareId"));
-        vm.setHardware(hw);
-        return vmRepository.save(vm);
+        vm.setIpNumeric(address);
+        vm.setIpAddress(IpamService.format(address));
+        return address;
     }
 
+    /**
+     * Locks the VM row for the rest of the transaction before reading its current allocation, so two
+     * concurrent changes to one VM cannot both reserve capacity against the same starting point.
+     * Capacity and the new address are reserved in memory right away and handed back on rollback.
+     */
+    @Transactional
     public VirtualMachine update(Long id, VirtualMachine updated, Long hardwareId) {
-        VirtualMachine existing = findByIdOrThrow(id);
+        VirtualMachine existing = vmRepository.findByIdForUpdate(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        VmAllocation before = VmAllocation.of(existing);
         if (hardwareId != null) {
             Hardware hw = hardwareRepository.findById(hardwareId).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid hardwareId"));
             existing.setHardware(hw);
         }
         existing.setName(updated.getName());
         existing.setHostname(updated.getHostname());
-        existing.setIpAddress(updated.getIpAddress());
         existing.setOperatingSystem(updated.getOperatingSystem());
         existing.setVcpu(updated.getVcpu());
         existing.setVram(updated.getVram());
         existing.setDiskSize(updated.getDiskSize());
         existing.setStatus(updated.getStatus());
-        return vmRepository.save(existing);
+        VmAllocation after = VmAllocation.of(existing);
+        capacityService.reserve(before, after);
+        TransactionHooks.afterRollback(() -> capacityService.vmChanged(after, before));
+        Long previousAddress = existing.getIpNumeric();
+        Long address = ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, previousAddress, updated.getIpAddress());
+        TransactionHooks.afterRollback(() -> ipamService.addressChanged(address, previousAddress));
+        existing.setIpNumeric(address);
+        existing.setIpAddress(IpamService.format(address));
+        VirtualMachine saved = vmRepository.save(existing);
+        ipamService.addressChanged(previousAddress, address);
+        versions.changed(InventoryEntity.VIRTUAL_MACHINE, saved.getDepartment().getId());
+        events.publishEvent(InventoryChangedEvent.saved(InventoryEntity.VIRTUAL_MACHINE, saved.getId()));
+        return saved;
     }
 
-    public void delete(Long id) { vmRepository.deleteById(id); }
+    @Transactional
+    public void delete(Long id) {
+        vmRepository.findByIdForUpdate(id).ifPresent(vm -> {
+            VmAllocation released = VmAllocation.of(vm);
+            vmRepository.delete(vm);
+            capacityService.vmChanged(released, null);
+            ipamService.addressChanged(vm.getIpNumeric(), null);
+            versions.changed(InventoryEntity.VIRTUAL_MACHINE, vm.getDepartment().getId());
+            events.publishEvent(InventoryChangedEvent.deleted(InventoryEntity.VIRTUAL_MACHINE, id));
+        });
+    }
 }
 
 
@@ -1,6 +1,9 @@
 // API Base URL
 const API_BASE_URL = '/api';
 
+// Page size used when walking cursor-paginated list endpoints
+const PAGE_SIZE = 200;
+
 // Authentication Helper Functions
 function getCurrentUser() {
     const userStr = sessionStorage.getItem('currentUser');
@@ -67,6 +70,7 @@ function getAuthHeaders() {
     };
     if (user) {
         headers['X-User-Id'] = user.userId;
+        if (user.token) headers['Authorization'] = `Bearer ${user.token}`;
     }
     return headers;
 }
@@ -78,6 +82,7 @@ async function apiRequest(url, options = {}) {
     
     if (user) {
         headers['X-User-Id'] = user.userId;
+        if (user.token) headers['Authorization'] = `Bearer ${user.token}`;
     }
     
     if (options.body && !headers['Content-Type']) {
@@ -127,9 +132,24 @@ const API = {
             method: 'DELETE'
         });
     },
+    // List endpoints are cursor-paginated ({ items, nextCursor }). Walks every page and
+    // calls onPage(itemsSoFar, pageItems) as each one arrives so callers can render incrementally.
+    getAllPages: async (endpoint, onPage, limit = PAGE_SIZE) => {
+        const items = [];
+        const separator = endpoint.includes('?') ? '&' : '?';
+        let cursor = null;
+        do {
+            const cursorParam = cursor !== null ? `&cursor=${cursor}` : '';
+            const page = await API.get(`${endpoint}${separator}limit=${limit}${cursorParam}`);
+            items.push(...page.items);
+            if (onPage) onPage(items, page.items);
+            cursor = page.nextCursor ?? null;
+        } while (cursor !== null);
+        return items;
+    },
     // Hardware APIs (legacy - use generic methods above)
     hardware: {
-        getAll: () => API.get('/hardware'),
+        getAll: (onPage) => API.getAllPages('/hardware', onPage),
         getById: (id) => API.get(`/hardware/${id}`),
         create: (data) => API.post('/hardware', data),
         update: (id, data) => API.put(`/hardware/${id}`, data),
@@ -138,7 +158,7 @@ const API = {
 
     // Virtual Machine APIs
     virtualMachines: {
-        getAll: () => API.get('/virtual-machines'),
+        getAll: (onPage) => API.getAllPages('/virtual-machines', onPage),
         getById: (id) => API.get(`/virtual-machines/${id}`),
         create: (data) => API.post('/virtual-machines', data),
         update: (id, data) => API.put(`/virtual-machines/${id}`, data),
@@ -147,7 +167,7 @@ const API = {
 
     // Site APIs
     sites: {
-        getAll: () => API.get('/sites'),
+        getAll: (onPage) => API.getAllPages('/sites', onPage),
         getById: (id) => API.get(`/sites/${id}`),
         create: (data) => API.post('/sites', data),
         update: (id, data) => API.put(`/sites/${id}`, data),
@@ -156,20 +176,83 @@ const API = {
 
     // Deployment Task APIs
     deploymentTasks: {
-        getAll: () => API.get('/deployment-tasks'),
+        getAll: (onPage) => API.getAllPages('/deployment-tasks', onPage),
         getById: (id) => API.get(`/deployment-tasks/${id}`),
         create: (data) => API.post('/deployment-tasks', data),
         update: (id, data) => API.put(`/deployment-tasks/${id}`, data),
         delete: (id) => API.delete(`/deployment-tasks/${id}`)
     },
 
+    // Dashboard APIs
+    dashboard: {
+        summary: (departmentId) => API.get(`/dashboard/summary${departmentId ? `?departmentId=${departmentId}` : ''}`)
+    },
+
     // User APIs
     users: {
-        getAll: () => API.get('/users'),
+        getAll: (onPage) => API.getAllPages('/users', onPage),
         getById: (id) => API.get(`/users/${id}`)
     }
 };
 
+// Live updates from /api/events (Server-Sent Events). EventSource cannot send the auth headers,
+// so the stream is read with fetch. Each event is { type, saved: [dto...], deleted: [id...] }.
+const LiveChanges = {
+    connected: false,
+    // onChange(event) runs for every change; onResync() after every reconnect, because changes
+    // made while the stream was down are not replayed and the lists have to be loaded again.
+    subscribe: (onChange, onResync) => {
+        let retryMs = 1000;
+        let firstAttempt = true;
+        const connect = async () => {
+            try {
+                const response = await apiRequest(`${API_BASE_URL}/events`, {
+                    headers: { 'Accept': 'text/event-stream' }
+                });
+                if (!response.ok || !response.body) {
+                    throw new Error(`HTTP ${response.status}`);
+                }
+                LiveChanges.connected = true;
+                retryMs = 1000;
+                if (!firstAttempt && onResync) onResync();
+                firstAttempt = false;
+
+                const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) break;
+                    buffer += value.replace(/\r\n?/g, '\n');
+                    let end;
+                    while ((end = buffer.indexOf('\n\n')) >= 0) {
+                        const data = buffer.slice(0, end).split('\n')
+                            .filter(line => line.startsWith('data:'))
+                            .map(line => line.slice(5).replace(/^ /, ''))
+                            .join('\n');
+                        buffer = buffer.slice(end + 2);
+                        if (data) onChange(JSON.parse(data));
+                    }
+                }
+            } catch (error) {
+                console.warn('Live updates interrupted:', error.message);
+            }
+            LiveChanges.connected = false;
+            firstAttempt = false;
+            setTimeout(connect, retryMs);
+            retryMs = Math.min(retryMs * 2, 30000);
+        };
+        connect();
+    },
+    // Returns list with the event applied: deleted ids dropped, saved items replaced or added
+    // (only those accepted by keep), ordered by id like the list endpoints.
+    apply: (list, event, keep = () => true) => {
+        const saved = (event.saved || []).filter(keep);
+        const removed = new Set([...(event.deleted || []), ...(event.saved || []).map(item => item.id)]);
+        const result = list.filter(item => !removed.has(item.id)).concat(saved);
+        return saved.length ? result.sort((a, b) => a.id - b.id) : result;
+    }
+};
+
 // Utility Functions
 function showToast(message, type = 'success') {
     const toast = document.createElement('div');
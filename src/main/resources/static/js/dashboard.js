@@ -28,6 +28,16 @@ document.addEventListener('DOMContentLoaded', () => {
     // Load data
     loadDepartments();
     loadDashboardData();
+    // Counts are computed server-side: refetch the summary (a 304 when nothing in scope changed)
+    // at most once per burst of changes
+    let refresh = null;
+    LiveChanges.subscribe(() => {
+        if (refresh) return;
+        refresh = setTimeout(() => {
+            refresh = null;
+            loadDashboardData();
+        }, 1000);
+    }, loadDashboardData);
 });
 
 // Load departments for filter
@@ -48,36 +58,30 @@ async function loadDepartments() {
     }
 }
 
-// Load all dashboard data
-function loadDashboardData() {
-    loadStatistics();
-    loadRecentTasks();
-}
-
-// Load statistics
-async function loadStatistics() {
+// Load all dashboard data (counts and recent tasks come from a single summary call)
+async function loadDashboardData() {
     try {
         const departmentId = document.getElementById('departmentFilter')?.value || '';
-        const query = departmentId ? `?departmentId=${departmentId}` : '';
-        
-        const [hardware, vms, sites, tasks] = await Promise.all([
-            API.get(`/hardware${query}`),
-            API.get(`/virtual-machines${query}`),
-            API.get(`/sites${query}`),
-            API.get(`/deployment-tasks${query}`)
-        ]);
+        const summary = await API.dashboard.summary(departmentId);
 
-        stats.hardware = hardware.length;
-        stats.vms = vms.length;
-        stats.sites = sites.length;
-        stats.tasks = tasks.filter(t => t.status === 'PENDING' || t.status === 'IN_PROGRESS').length;
+        stats.hardware = summary.totalHardware;
+        stats.vms = summary.totalVirtualMachines;
+        stats.sites = summary.totalSites;
+        stats.tasks = summary.activeTasks;
 
         updateStatistics();
+        renderRecentTasks(summary.recentTasks || []);
     } catch (error) {
-        console.error('Error loading statistics:', error);
+        console.error('Error loading dashboard summary:', error);
         if (typeof showToast !== 'undefined') {
             showToast('Error loading statistics', 'danger');
         }
+        const container = document.getElementById('recentTasks');
+        container.innerHTML = `
+            <div class="alert alert-danger">
+                Error loading recent tasks
+            </div>
+        `;
     }
 }
 
@@ -89,63 +93,44 @@ function updateStatistics() {
     document.getElementById('activeTasks').textContent = stats.tasks;
 }
 
-// Load recent deployment tasks
-async function loadRecentTasks() {
-    try {
-        const departmentId = document.getElementById('departmentFilter')?.value || '';
-        const query = departmentId ? `?departmentId=${departmentId}` : '';
-        const tasks = await API.get(`/deployment-tasks${query}`);
-        const container = document.getElementById('recentTasks');
-        
-        if (tasks.length === 0) {
-            container.innerHTML = `
-                <div class="empty-state">
-                    <i class="fas fa-inbox"></i>
-                    <p>No deployment tasks yet</p>
-                </div>
-            `;
-            return;
-        }
-
-        // Sort by created date and take the 5 most recent
-        const recentTasks = tasks
-            .sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt))
-            .slice(0, 5);
+// Render recent deployment tasks (already sorted newest first and limited to 5 by the server)
+function renderRecentTasks(recentTasks) {
+    const container = document.getElementById('recentTasks');
 
+    if (recentTasks.length === 0) {
         container.innerHTML = `
-            <table class="table table-hover">
-                <thead>
-                    <tr>
-                        <th>Task Name</th>
-                        <th>Status</th>
-                        <th>Scheduled Date</th>
-                        <th>Created</th>
-                    </tr>
-                </thead>
-                <tbody>
-                    ${recentTasks.map(task => `
-                        <tr>
-                            <td>${task.taskName}</td>
-                            <td>
-                                <span class="status-badge ${getStatusBadgeClass(task.status)}">
-                                    ${task.status}
-                                </span>
-                            </td>
-                            <td>${formatDateTime(task.scheduledDate)}</td>
-                            <td>${formatDateTime(task.createdAt)}</td>
-                        </tr>
-                    `).join('')}
-                </tbody>
-            </table>
-        `;
-    } catch (error) {
-        console.error('Error loading recent tasks:', error);
-        const container = document.getElementById('recentTasks');
-        container.innerHTML = `
-            <div class="alert alert-danger">
-                Error loading recent tasks
+            <div class="empty-state">
+                <i class="fas fa-inbox"></i>
+                <p>No deployment tasks yet</p>
             </div>
         `;
+        return;
     }
-}
 
+    container.innerHTML = `
+        <table class="table table-hover">
+            <thead>
+                <tr>
+                    <th>Task Name</th>
+                    <th>Status</th>
+                    <th>Scheduled Date</th>
+                    <th>Created</th>
+                </tr>
+            </thead>
+            <tbody>
+                ${recentTasks.map(task => `
+                    <tr>
+                        <td>${task.taskName}</td>
+                        <td>
+                            <span class="status-badge ${getStatusBadgeClass(task.status)}">
+                                ${task.status}
+                            </span>
+                        </td>
+                        <td>${formatDateTime(task.scheduledDate)}</td>
+                        <td>${formatDateTime(task.createdAt)}</td>
+                    </tr>
+                `).join('')}
+            </tbody>
+        </table>
+    `;
+}
@@ -14,16 +14,35 @@ document.addEventListener('DOMContentLoaded', () => {
     updateNavUserInfo();
     hideRestrictedNavItems();
     
+    LiveChanges.subscribe(applyLiveChange, loadTasks);
     loadTasks();
     loadDropdownData();
 });
 
+// Patch the lists from the change feed instead of reloading them
+function applyLiveChange(event) {
+    if (event.type === 'DEPLOYMENT_TASK') {
+        tasksList = LiveChanges.apply(tasksList, event);
+    } else if (event.type === 'VIRTUAL_MACHINE') {
+        vmList = LiveChanges.apply(vmList, event);
+    } else {
+        return;
+    }
+    renderTasks();
+}
+
 // Load all tasks
 async function loadTasks() {
     try {
-        tasksList = await API.deploymentTasks.getAll();
-        vmList = await API.virtualMachines.getAll();
-        usersList = await API.users.getAll();
+        [vmList, usersList] = await Promise.all([
+            API.virtualMachines.getAll(),
+            API.users.getAll()
+        ]);
+        tasksList = [];
+        await API.deploymentTasks.getAll(items => {
+            tasksList = items;
+            renderTasks();
+        });
         renderTasks();
     } catch (error) {
         console.error('Error loading tasks:', error);
@@ -172,7 +191,7 @@ async function addTask() {
         showToast('Task created successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('addTaskModal')).hide();
         document.getElementById('addTaskForm').reset();
-        loadTasks();
+        if (!LiveChanges.connected) loadTasks();
     } catch (error) {
         console.error('Error creating task:', error);
         showToast('Error creating task', 'danger');
@@ -227,7 +246,7 @@ async function updateTask() {
         await API.deploymentTasks.update(id, data);
         showToast('Task updated successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editTaskModal')).hide();
-        loadTasks();
+        if (!LiveChanges.connected) loadTasks();
     } catch (error) {
         console.error('Error updating task:', error);
         showToast('Error updating task', 'danger');
@@ -246,7 +265,7 @@ async function deleteTask() {
         await API.deploymentTasks.delete(id);
         showToast('Task deleted successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editTaskModal')).hide();
-        loadTasks();
+        if (!LiveChanges.connected) loadTasks();
     } catch (error) {
         console.error('Error deleting task:', error);
         showToast('Error deleting task', 'danger');
@@ -22,10 +22,24 @@ document.addEventListener('DOMContentLoaded', () => {
         loadDepartments();
     }
     
+    LiveChanges.subscribe(applyLiveChange, loadHardware);
     loadHardware();
     loadSitesForDropdown();
 });
 
+// Patch the lists from the change feed instead of reloading them
+function applyLiveChange(event) {
+    if (event.type === 'HARDWARE') {
+        const departmentId = document.getElementById('departmentFilter')?.value || '';
+        hardwareList = LiveChanges.apply(hardwareList, event, h => !departmentId || h.departmentId == departmentId);
+    } else if (event.type === 'SITE') {
+        sitesList = LiveChanges.apply(sitesList, event);
+    } else {
+        return;
+    }
+    renderHardware();
+}
+
 // Load departments for filter (SUPER_ADMIN only)
 async function loadDepartments() {
     try {
@@ -55,8 +69,12 @@ async function loadHardware() {
         const departmentId = document.getElementById('departmentFilter')?.value || '';
         const query = departmentId ? `?departmentId=${departmentId}` : '';
         
-        hardwareList = await API.get(`/hardware${query}`);
         sitesList = await API.sites.getAll();
+        hardwareList = [];
+        await API.getAllPages(`/hardware${query}`, items => {
+            hardwareList = items;
+            renderHardware();
+        });
         renderHardware();
     } catch (error) {
         console.error('Error loading hardware:', error);
@@ -219,7 +237,7 @@ async function addHardware() {
         showToast('Hardware added successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('addHardwareModal')).hide();
         document.getElementById('addHardwareForm').reset();
-        loadHardware();
+        if (!LiveChanges.connected) loadHardware();
     } catch (error) {
         console.error('Error adding hardware:', error);
         showToast('Error adding hardware: ' + (error.message || 'Unknown error'), 'danger');
@@ -274,7 +292,7 @@ async function updateHardware() {
         await API.hardware.update(id, data);
         showToast('Hardware updated successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editHardwareModal')).hide();
-        loadHardware();
+        if (!LiveChanges.connected) loadHardware();
     } catch (error) {
         console.error('Error updating hardware:', error);
         showToast('Error updating hardware', 'danger');
@@ -293,7 +311,7 @@ async function deleteHardware() {
         await API.hardware.delete(id);
         showToast('Hardware deleted successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editHardwareModal')).hide();
-        loadHardware();
+        if (!LiveChanges.connected) loadHardware();
     } catch (error) {
         console.error('Error deleting hardware:', error);
         showToast('Error deleting hardware', 'danger');
@@ -11,13 +11,26 @@ document.addEventListener('DOMContentLoaded', () => {
     updateNavUserInfo();
     hideRestrictedNavItems();
     
+    LiveChanges.subscribe(applyLiveChange, loadSites);
     loadSites();
 });
 
+// Patch the list from the change feed instead of reloading it
+function applyLiveChange(event) {
+    if (event.type === 'SITE') {
+        sitesList = LiveChanges.apply(sitesList, event);
+        renderSites();
+    }
+}
+
 // Load all sites
 async function loadSites() {
     try {
-        sitesList = await API.sites.getAll();
+        sitesList = [];
+        await API.sites.getAll(items => {
+            sitesList = items;
+            renderSites();
+        });
         renderSites();
     } catch (error) {
         console.error('Error loading sites:', error);
@@ -104,7 +117,7 @@ async function addSite() {
         showToast('Site added successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('addSiteModal')).hide();
         document.getElementById('addSiteForm').reset();
-        loadSites();
+        if (!LiveChanges.connected) loadSites();
     } catch (error) {
         console.error('Error adding site:', error);
         showToast('Error adding site', 'danger');
@@ -151,7 +164,7 @@ async function updateSite() {
         await API.sites.update(id, data);
         showToast('Site updated successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editSiteModal')).hide();
-        loadSites();
+        if (!LiveChanges.connected) loadSites();
     } catch (error) {
         console.error('Error updating site:', error);
         showToast('Error updating site', 'danger');
@@ -170,7 +183,7 @@ async function deleteSite() {
         await API.sites.delete(id);
         showToast('Site deleted successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editSiteModal')).hide();
-        loadSites();
+        if (!LiveChanges.connected) loadSites();
     } catch (error) {
         console.error('Error deleting site:', error);
         showToast('Error deleting site. It may be in use.', 'danger');
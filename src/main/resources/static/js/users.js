@@ -23,86 +23,21 @@ document.addEventListener('DOMContentLoaded', function() {
     }
 });
 
-// Load all users
+// Department names already resolved, by id
+const departmentNames = {};
+
+// Load all users, rendering each page as it arrives
 async function loadUsers() {
     try {
         const departmentId = document.getElementById('departmentFilter')?.value || '';
         const query = departmentId ? `?departmentId=${departmentId}` : '';
-        const users = await API.get(`/users${query}`);
-        
-        const container = document.getElementById('usersContainer');
-        
+        const users = await API.getAllPages(`/users${query}`, (items, pageItems) => {
+            renderUsers(items);
+            loadDepartmentNames(pageItems);
+        });
         if (users.length === 0) {
-            container.innerHTML = `
-                <div class="empty-state">
-                    <i class="fas fa-users fa-3x"></i>
-                    <p>No users found</p>
-                </div>
-            `;
-            return;
+            renderUsers(users);
         }
-        
-        container.innerHTML = `
-            <table class="table table-hover">
-                <thead>
-                    <tr>
-                        <th>ID</th>
-                        <th>Username</th>
-                        <th>Email</th>
-                        <th>Department</th>
-                        <th>Role</th>
-                        <th>Status</th>
-                        <th>Actions</th>
-                    </tr>
-                </thead>
-                <tbody>
-                    ${users.map(user => `
-                        <tr>
-                            <td>${user.id}</td>
-                            <td><i class="fas fa-user me-2"></i>${user.username}</td>
-                            <td>${user.email}</td>
-                            <td>
-                                <i class="fas fa-sitemap me-1"></i>
-                                <span id="dept-${user.id}">Loading...</span>
-                            </td>
-                            <td>
-                                <span class="badge ${user.role === 'ADMIN' ? 'bg-danger' : 'bg-primary'}">
-                                    <i class="fas ${user.role === 'ADMIN' ? 'fa-user-shield' : 'fa-user'}"></i>
-                                    ${user.role}
-                                </span>
-                            </td>
-                            <td>
-                                <span class="status-badge ${user.enabled ? 'status-active' : 'status-inactive'}">
-                                    ${user.enabled ? 'Active' : 'Inactive'}
-                                </span>
-                            </td>
-                            <td>
-                                <button class="btn btn-sm btn-primary me-1" onclick="openEditModal(${user.id})">
-                                    <i class="fas fa-edit"></i> Edit
-                                </button>
-                                <button class="btn btn-sm btn-danger" onclick="deleteUser(${user.id})">
-                                    <i class="fas fa-trash"></i> Delete
-                                </button>
-                            </td>
-                        </tr>
-                    `).join('')}
-                </tbody>
-            </table>
-        `;
-        
-        // Load department names
-        users.forEach(async user => {
-            if (user.departmentId) {
-                try {
-                    const dept = await API.get(`/departments/${user.departmentId}`);
-                    document.getElementById(`dept-${user.id}`).textContent = dept.name;
-                } catch (error) {
-                    document.getElementById(`dept-${user.id}`).textContent = 'Unknown';
-                }
-            } else {
-                document.getElementById(`dept-${user.id}`).textContent = '-';
-            }
-        });
     } catch (error) {
         console.error('Error loading users:', error);
         const container = document.getElementById('usersContainer');
@@ -114,6 +49,92 @@ async function loadUsers() {
     }
 }
 
+// Render users table
+function renderUsers(users) {
+    const container = document.getElementById('usersContainer');
+    
+    if (users.length === 0) {
+        container.innerHTML = `
+            <div class="empty-state">
+                <i class="fas fa-users fa-3x"></i>
+                <p>No users found</p>
+            </div>
+        `;
+        return;
+    }
+    
+    container.innerHTML = `
+        <table class="table table-hover">
+            <thead>
+                <tr>
+                    <th>ID</th>
+                    <th>Username</th>
+                    <th>Email</th>
+                    <th>Department</th>
+                    <th>Role</th>
+                    <th>Status</th>
+                    <th>Actions</th>
+                </tr>
+            </thead>
+            <tbody>
+                ${users.map(user => `
+                    <tr>
+                        <td>${user.id}</td>
+                        <td><i class="fas fa-user me-2"></i>${user.username}</td>
+                        <td>${user.email}</td>
+                        <td>
+                            <i class="fas fa-sitemap me-1"></i>
+                            <span class="dept-name-${user.departmentId}">${departmentLabel(user.departmentId)}</span>
+                        </td>
+                        <td>
+                            <span class="badge ${user.role === 'ADMIN' ? 'bg-danger' : 'bg-primary'}">
+                                <i class="fas ${user.role === 'ADMIN' ? 'fa-user-shield' : 'fa-user'}"></i>
+                                ${user.role}
+                            </span>
+                        </td>
+                        <td>
+                            <span class="status-badge ${user.enabled ? 'status-active' : 'status-inactive'}">
+                                ${user.enabled ? 'Active' : 'Inactive'}
+                            </span>
+                        </td>
+                        <td>
+                            <button class="btn btn-sm btn-primary me-1" onclick="openEditModal(${user.id})">
+                                <i class="fas fa-edit"></i> Edit
+                            </button>
+                            <button class="btn btn-sm btn-danger" onclick="deleteUser(${user.id})">
+                                <i class="fas fa-trash"></i> Delete
+                            </button>
+                        </td>
+                    </tr>
+                `).join('')}
+            </tbody>
+        </table>
+    `;
+}
+
+function departmentLabel(departmentId) {
+    if (!departmentId) return '-';
+    return departmentNames[departmentId] || 'Loading...';
+}
+
+// Resolve department names once per department rather than once per user
+function loadDepartmentNames(users) {
+    const missing = [...new Set(users.map(u => u.departmentId))]
+        .filter(id => id && !(id in departmentNames));
+    missing.forEach(async id => {
+        departmentNames[id] = 'Loading...';
+        try {
+            const dept = await API.get(`/departments/${id}`);
+            departmentNames[id] = dept.name;
+        } catch (error) {
+            departmentNames[id] = 'Unknown';
+        }
+        document.querySelectorAll(`.dept-name-${id}`).forEach(el => {
+            el.textContent = departmentNames[id];
+        });
+    });
+}
+
 // Load departments for filter
 async function loadDepartmentFilter() {
     try {
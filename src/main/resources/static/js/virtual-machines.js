@@ -13,15 +13,32 @@ document.addEventListener('DOMContentLoaded', () => {
     updateNavUserInfo();
     hideRestrictedNavItems();
     
+    LiveChanges.subscribe(applyLiveChange, loadVMs);
     loadVMs();
     loadHardwareForDropdown();
 });
 
+// Patch the lists from the change feed instead of reloading them
+function applyLiveChange(event) {
+    if (event.type === 'VIRTUAL_MACHINE') {
+        vmList = LiveChanges.apply(vmList, event);
+    } else if (event.type === 'HARDWARE') {
+        hardwareList = LiveChanges.apply(hardwareList, event);
+    } else {
+        return;
+    }
+    renderVMs();
+}
+
 // Load all VMs
 async function loadVMs() {
     try {
-        vmList = await API.virtualMachines.getAll();
         hardwareList = await API.hardware.getAll();
+        vmList = [];
+        await API.virtualMachines.getAll(items => {
+            vmList = items;
+            renderVMs();
+        });
         renderVMs();
     } catch (error) {
         console.error('Error loading VMs:', error);
@@ -169,16 +186,21 @@ async function addVM() {
         vcpu: parseInt(document.getElementById('vcpu').value),
         vram: parseInt(document.getElementById('vram').value),
         diskSize: parseInt(document.getElementById('diskSize').value),
-        status: document.getElementById('status').value,
-        hardwareId: parseInt(hardwareIdValue)
+        status: document.getElementById('status').value
     };
+    if (hardwareIdValue === 'auto') {
+        // The server picks a host with enough free capacity in the user's department
+        data.departmentId = getCurrentUser().departmentId;
+    } else {
+        data.hardwareId = parseInt(hardwareIdValue);
+    }
 
     try {
         await API.virtualMachines.create(data);
         showToast('VM added successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('addVMModal')).hide();
         document.getElementById('addVMForm').reset();
-        loadVMs();
+        if (!LiveChanges.connected) loadVMs();
     } catch (error) {
         console.error('Error adding VM:', error);
         showToast('Error adding VM: ' + (error.message || 'Unknown error'), 'danger');
@@ -234,7 +256,7 @@ async function updateVM() {
         await API.virtualMachines.update(id, data);
         showToast('VM updated successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editVMModal')).hide();
-        loadVMs();
+        if (!LiveChanges.connected) loadVMs();
     } catch (error) {
         console.error('Error updating VM:', error);
         showToast('Error updating VM: ' + (error.message || 'Unknown error'), 'danger');
@@ -253,7 +275,7 @@ async function deleteVM() {
         await API.virtualMachines.delete(id);
         showToast('VM deleted successfully', 'success');
         bootstrap.Modal.getInstance(document.getElementById('editVMModal')).hide();
-        loadVMs();
+        if (!LiveChanges.connected) loadVMs();
     } catch (error) {
         console.error('Error deleting VM:', error);
         showToast('Error deleting VM', 'danger');
@@ -1,9 +1,9 @@
 package com.example.demo;
 
+import com.example.demo.support.InventoryTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@InventoryTest
 class InventoryVmApplicationTests {
 
 	@Test
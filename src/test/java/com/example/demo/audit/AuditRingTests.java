@@ -0,0 +1,67 @@
+package com.example.demo.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingTests {
+
+    @Test
+    void everyOfferedElementIsDrainedExactlyOnce() throws InterruptedException {
+        AuditRing<Long> ring = new AuditRing<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            pool.execute(() -> {
+                for (long i = base; i < base + perProducer; i++) {
+                    while (!ring.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        List<Long> drained = new ArrayList<>();
+        while (done.getCount() > 0 || ring.size() > 0) {
+            if (ring.drainTo(drained, 32) == 0) {
+                Thread.yield();
+            }
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(drained).hasSize(producers * perProducer);
+        assertThat(new HashSet<>(drained)).hasSize(producers * perProducer);
+    }
+
+    @Test
+    void aFullRingRejectsUntilDrained() {
+        AuditRing<String> ring = new AuditRing<>(3);
+        assertThat(ring.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer("r" + i)).isTrue();
+        }
+        assertThat(ring.offer("r4")).isFalse();
+
+        List<String> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(ring.offer("r4")).isTrue();
+        ring.drainTo(drained, 10);
+        assertThat(drained).containsExactly("r0", "r1", "r2", "r3", "r4");
+        assertThat(ring.size()).isZero();
+        assertThat(Set.copyOf(drained)).hasSize(5);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.audit;
+
+import com.example.demo.dto.AuditEventDto;
+import com.example.demo.dto.HardwareBulkChangeDto;
+import com.example.demo.dto.VmBulkChangeDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.AuditAction;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.VMStatus;
+import com.example.demo.repository.AuditEventRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.service.BulkChangeService;
+import com.example.demo.service.HardwareService;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest(properties = "inventory.audit.flush-interval=50ms")
+class AuditTrailTests {
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private BulkChangeService bulkChangeService;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        site = fixtures.site("Paris North", infra);
+    }
+
+    @Test
+    void recordsCreateUpdateAndDeleteWithTheChangedFields() throws InterruptedException {
+        Hardware host = hardwareService.create(newHardware("edge-1", infra), site.getId());
+        host.setName("edge-1b");
+        host.setRamGb(512);
+        hardwareService.update(host.getId(), host, site.getId());
+        hardwareService.delete(host.getId());
+
+        List<AuditEventDto> rows = awaitAudit("Hardware", host.getId(), 3);
+
+        assertThat(rows).extracting(row -> row.action)
+                .containsExactly(AuditAction.CREATE, AuditAction.UPDATE, AuditAction.DELETE);
+        assertThat(rows).allSatisfy(row -> assertThat(row.departmentId).isEqualTo(infra.getId()));
+        assertThat(rows.get(0).changes).contains("\"name\":{\"to\":\"edge-1\"}");
+        assertThat(rows.get(1).changes)
+                .contains("\"name\":{\"from\":\"edge-1\",\"to\":\"edge-1b\"}")
+                .contains("\"ramGb\":{\"from\":256,\"to\":512}")
+                .doesNotContain("updatedAt")
+                .doesNotContain("model");
+        assertThat(rows.get(2).changes).contains("\"name\":{\"from\":\"edge-1b\"}");
+    }
+
+    @Test
+    void bulkChangesAreRecordedPerRow() throws InterruptedException {
+        Hardware a = hardwareService.create(newHardware("edge-a", infra), site.getId());
+        Hardware b = hardwareService.create(newHardware("edge-b", infra), site.getId());
+
+        HardwareBulkChangeDto change = new HardwareBulkChangeDto();
+        change.ids = List.of(a.getId(), b.getId());
+        change.setStatus = HardwareStatus.MAINTENANCE;
+        bulkChangeService.updateHardware(change, null);
+
+        for (Hardware host : List.of(a, b)) {
+            List<AuditEventDto> rows = awaitAudit("Hardware", host.getId(), 2);
+            assertThat(rows.get(1).action).isEqualTo(AuditAction.UPDATE);
+            assertThat(rows.get(1).changes).isEqualTo("{\"status\":{\"to\":\"MAINTENANCE\"}}");
+        }
+
+        List<VirtualMachine> vms = vmRepository.saveAll(List.of(vm("vm-a", a), vm("vm-b", a)));
+        VmBulkChangeDto vmChange = new VmBulkChangeDto();
+        vmChange.hardwareId = a.getId();
+        vmChange.setStatus = VMStatus.STOPPED;
+        bulkChangeService.updateVirtualMachines(vmChange, null);
+
+        for (VirtualMachine vm : vms) {
+            List<AuditEventDto> rows = awaitAudit("VirtualMachine", vm.getId(), 2);
+            assertThat(rows.get(1).action).isEqualTo(AuditAction.UPDATE);
+            assertThat(rows.get(1).departmentId).isEqualTo(infra.getId());
+            assertThat(rows.get(1).changes).isEqualTo("{\"status\":{\"to\":\"STOPPED\"}}");
+        }
+    }
+
+    // Oldest first
+    private List<AuditEventDto> awaitAudit(String entityType, Long entityId, int expected) throws InterruptedException {
+        List<AuditEventDto> rows = new ArrayList<>();
+        for (int attempt = 0; attempt < 100 && rows.size() < expected; attempt++) {
+            Thread.sleep(50);
+            rows = new ArrayList<>(auditEventRepository.findDtoPage(entityType, entityId, null, null, Long.MAX_VALUE,
+                    PageRequest.of(0, 10)).getContent());
+        }
+        assertThat(rows).hasSize(expected);
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    private VirtualMachine vm(String name, Hardware host) {
+        VirtualMachine vm = newVm(name, host);
+        vm.setStatus(VMStatus.RUNNING);
+        return vm;
+    }
+}
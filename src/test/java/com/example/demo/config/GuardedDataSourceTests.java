@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedDataSourceTests {
+
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    void setUp() {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:guard;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void aPermitIsHeldUntilTheConnectionIsClosed() throws Exception {
+        GuardedDataSource guard = new GuardedDataSource(h2, 1, Duration.ofMillis(50), 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        guard.bindTo(registry);
+
+        Connection first = guard.getConnection();
+        assertThat(guard.getActive()).isEqualTo(1);
+        assertThatThrownBy(guard::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("within 50 ms");
+
+        first.close();
+        first.close();
+        assertThat(guard.getActive()).isZero();
+        try (Connection second = guard.getConnection()) {
+            assertThat(second.isValid(1)).isTrue();
+        }
+        assertThat(registry.get("datasource.guard.rejected").tag("reason", "timeout").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aWaiterGetsTheReleasedConnection() throws Exception {
+        GuardedDataSource guard = new GuardedDataSource(h2, 1, Duration.ofSeconds(10), 10);
+        Connection held = guard.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return guard.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (guard.getWaiting() == 0) {
+            Thread.sleep(5);
+        }
+        held.close();
+
+        try (Connection next = waiter.get(5, TimeUnit.SECONDS)) {
+            assertThat(next.isClosed()).isFalse();
+        }
+        assertThat(guard.getWaiting()).isZero();
+    }
+
+    @Test
+    void aFullQueueFailsWithoutWaiting() throws Exception {
+        GuardedDataSource guard = new GuardedDataSource(h2, 1, Duration.ofSeconds(10), 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        guard.bindTo(registry);
+
+        try (Connection held = guard.getConnection()) {
+            long start = System.nanoTime();
+            assertThatThrownBy(guard::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("Too many callers");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        }
+        assertThat(registry.get("datasource.guard.rejected").tag("reason", "saturated").functionCounter().count()).isEqualTo(1);
+    }
+}
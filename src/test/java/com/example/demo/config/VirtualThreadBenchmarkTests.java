@@ -0,0 +1,141 @@
+package com.example.demo.config;
+
+import com.example.demo.InventoryVmApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of the thread-per-request model against virtual threads, for requests
+ * that hold a connection for {@value #QUERY_MS} ms and then wait {@value #REMOTE_MS} ms on another
+ * system (a provisioning API, say), with {@value #CLIENTS} clients sending at once. Each run starts
+ * the whole application with its defaults: 200 Tomcat threads, or virtual threads behind the
+ * connection guard; {@value #POOL_SIZE} pooled connections either way.
+ * Run with {@code mvn test -Pvirtual-threads,benchmark} on Java 21.
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadBenchmarkTests {
+
+    private static final int QUERY_MS = 5;
+    private static final int REMOTE_MS = 400;
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS = 4000;
+    private static final int POOL_SIZE = 20;
+
+    @Test
+    void throughputAndTailLatencyPerThreadingModel() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%d requests from %d clients (%d ms holding a connection + %d ms remote call):%n",
+                REQUESTS, CLIENTS, QUERY_MS, REMOTE_MS);
+        System.out.println("  platform threads: " + platform);
+        System.out.println("  virtual threads:  " + virtual);
+        assertThat(platform.failures).isZero();
+        assertThat(virtual.failures).isZero();
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryVmApplication.class)
+                .initializers((GenericApplicationContext ctx) -> ctx.registerBean("benchmarkRoute", RouterFunction.class,
+                        () -> RouterFunctions.route().GET("/bench/request", request -> {
+                            handle(ctx.getBean(JdbcTemplate.class));
+                            return ServerResponse.ok().body("ok");
+                        }).build()))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.jpa.show-sql=false")) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/bench/request");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            load(client, uri, CLIENTS / 2);
+            return load(client, uri, REQUESTS);
+        }
+    }
+
+    private static void handle(JdbcTemplate jdbc) {
+        jdbc.execute((ConnectionCallback<Object>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("select 1");
+            }
+            sleep(QUERY_MS);
+            return null;
+        });
+        sleep(REMOTE_MS);
+    }
+
+    // At most CLIENTS requests in flight; each latency is measured from the moment it was sent
+    private static Result load(HttpClient client, URI uri, int requests) throws Exception {
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        long[] latencies = new long[requests];
+        List<CompletableFuture<?>> responses = new ArrayList<>(requests);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).handle((r, e) -> null).get();
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(requests, Duration.ofNanos(elapsed), Duration.ofNanos(latencies[requests / 2]),
+                Duration.ofNanos(latencies[(int) Math.ceil(requests * 0.99) - 1]), failures.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(int requests, Duration elapsed, Duration p50, Duration p99, int failures) {
+        double throughput() {
+            return requests * 1000.0 / elapsed.toMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f requests/s, p50 %d ms, p99 %d ms, %d failed",
+                    throughput(), p50.toMillis(), p99.toMillis(), failures);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.LoginResponse;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "inventory.auth.throttle.max-failures-per-ip=2")
+class AuthControllerTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void throttlesByTheClientAddressForwardedByATrustedProxy() {
+        // The test client connects from loopback, which Tomcat trusts as a proxy by default
+        assertThat(login("nobody-1", "203.0.113.7").value()).isEqualTo(401);
+        assertThat(login("nobody-2", "203.0.113.7").value()).isEqualTo(401);
+
+        assertThat(login("nobody-3", "203.0.113.7").value()).isEqualTo(429);
+        assertThat(login("nobody-3", "198.51.100.9").value()).isEqualTo(401);
+    }
+
+    private HttpStatusCode login(String username, String forwardedFor) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword("wrong");
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", forwardedFor);
+        return rest.postForEntity("/api/auth/login", new HttpEntity<>(request, headers), LoginResponse.class).getStatusCode();
+    }
+}
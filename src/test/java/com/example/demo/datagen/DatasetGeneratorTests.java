@@ -0,0 +1,175 @@
+package com.example.demo.datagen;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.enums.HardwareType;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Not an {@link com.example.demo.support.InventoryTest}: the loader writes its own ids and restarts the
+ * identity columns after them, which on the shared database would hand out ids again that the other
+ * contexts' caches still hold for earlier rows. It gets a database of its own.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:datagen;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+class DatasetGeneratorTests {
+
+    @Autowired
+    private DatasetLoader loader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("deployment_task", "virtual_machine", "hardware", "users", "site", "department")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameRows() throws Exception {
+        List<String> first = rows(spec(7));
+        List<String> second = rows(spec(7));
+        List<String> other = rows(spec(8));
+
+        assertThat(first).hasSize(5 + 12 + 40 + 60 + 400 + 300).isEqualTo(second);
+        assertThat(other).hasSameSizeAs(first).isNotEqualTo(first);
+        assertThat(new BCryptPasswordEncoder().matches("password123", DatasetGenerator.PASSWORD_HASH)).isTrue();
+    }
+
+    @Test
+    void skewFavoursTheFirstDepartments() {
+        double[] weights = DatasetGenerator.zipf(10, 1.0);
+        assertThat(weights[0] / weights[1]).isCloseTo(2.0, within(1e-9));
+        assertThat(Arrays.stream(weights).sum()).isCloseTo(1.0, within(1e-9));
+        assertThat(DatasetGenerator.zipf(4, 0)).containsOnly(0.25);
+
+        int[] sites = DatasetGenerator.apportion(weights, 100);
+        assertThat(Arrays.stream(sites).sum()).isEqualTo(100);
+        assertThat(Arrays.stream(sites).min().getAsInt()).isPositive();
+        assertThat(sites[0]).isGreaterThan(sites[9]);
+    }
+
+    @Test
+    void insertsConsistentRowsAfterExistingOnes() throws Exception {
+        DatasetLoader.Result first = loader.load(spec(7));
+        DatasetLoader.Result second = loader.load(spec(7));
+
+        assertThat(first.rows()).containsExactly(entry("department", 5L), entry("site", 12L), entry("users", 40L),
+                entry("hardware", 60L), entry("virtual_machine", 400L), entry("deployment_task", 300L));
+        assertThat(second.rows()).isEqualTo(first.rows());
+        assertThat(count("virtual_machine")).isEqualTo(800);
+        assertThat(count("deployment_task")).isEqualTo(600);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from virtual_machine vm join hardware h on h.id = vm.hardware_id"
+                + " where vm.department_id <> h.department_id", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from deployment_task t join virtual_machine vm on vm.id = t.vm_id"
+                + " where t.department_id <> vm.department_id", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from hardware h join site s on s.id = h.site_id"
+                + " where h.department_id <> s.department_id", Long.class)).isZero();
+
+        // Ids handed out by the application continue after the generated rows
+        long maxHardware = jdbcTemplate.queryForObject("select max(id) from hardware", Long.class);
+        Department department = new Department();
+        department.setName("added after datagen");
+        department = departmentRepository.save(department);
+        assertThat(department.getId()).isGreaterThan(10);
+
+        Hardware hardware = new Hardware();
+        hardware.setName("added-after-datagen");
+        hardware.setType(HardwareType.SERVER);
+        hardware.setModel("PowerEdge R750");
+        hardware.setSerialNumber("SN-AFTER");
+        hardware.setPurchaseDate(LocalDate.of(2025, 1, 1));
+        hardware.setWarrantyEndDate(LocalDate.of(2028, 1, 1));
+        hardware.setSite(siteRepository.findAll().get(0));
+        hardware.setDepartment(department);
+        assertThat(hardwareRepository.save(hardware).getId()).isGreaterThan(maxHardware);
+    }
+
+    @Test
+    void csvScriptLoadsIntoH2(@TempDir Path directory) throws Exception {
+        DatasetProperties spec = spec(7);
+        spec.setFormat(DatasetProperties.Format.CSV);
+        spec.setOutputDirectory(directory);
+        DatasetLoader.Result result = loader.load(spec);
+
+        assertThat(directory.resolve("load-mysql.sql")).exists();
+        jdbcTemplate.execute("runscript from '" + directory.resolve("load-h2.sql") + "'");
+
+        result.rows().forEach((table, rows) -> assertThat(count(table)).as(table).isEqualTo(rows));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from deployment_task where status = 'COMPLETED'"
+                + " and completed_at is null", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from deployment_task where description is null", Long.class))
+                .isPositive();
+        assertThat(jdbcTemplate.queryForObject("select ip_address from virtual_machine where id = 1", String.class))
+                .isEqualTo("10.64.0.1");
+    }
+
+    private static DatasetProperties spec(long seed) {
+        DatasetProperties spec = new DatasetProperties();
+        spec.setSeed(seed);
+        spec.setDepartments(5);
+        spec.setSites(12);
+        spec.setUsers(40);
+        spec.setHardware(60);
+        spec.setVirtualMachines(400);
+        spec.setTasks(300);
+        spec.setRowsPerStatement(50);
+        spec.setCommitInterval(200);
+        return spec;
+    }
+
+    private static List<String> rows(DatasetProperties spec) throws Exception {
+        List<String> rows = new ArrayList<>();
+        new DatasetGenerator(spec, DatasetGenerator.IdBase.EMPTY).generate(new RowSink() {
+            private String table;
+
+            @Override
+            public void begin(Table table) {
+                this.table = table.name();
+            }
+
+            @Override
+            public void row(Object[] values) {
+                rows.add(table + Arrays.toString(values));
+            }
+
+            @Override
+            public void end() {
+            }
+        });
+        return rows;
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
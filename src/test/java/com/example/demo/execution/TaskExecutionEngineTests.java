@@ -0,0 +1,141 @@
+package com.example.demo.execution;
+
+import com.example.demo.audit.AuditTrail;
+import com.example.demo.config.WorkerThreads;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.Role;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.service.DeploymentTaskService;
+import com.example.demo.service.VersionService;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newTask;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest(properties = {
+        "inventory.tasks.executor.enabled=true",
+        "inventory.tasks.executor.tick=10ms",
+        "inventory.tasks.simulator.min-duration=0s",
+        "inventory.tasks.simulator.max-duration=0s",
+        "inventory.tasks.simulator.failure-rate=0",
+        // The engine outlives this class in the context cache: it must not sweep up other tests' tasks
+        "inventory.tasks.executor.recovery-interval=1h"
+})
+class TaskExecutionEngineTests {
+
+    @Autowired
+    private DeploymentTaskService taskService;
+
+    @Autowired
+    private DeploymentTaskRepository taskRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    @Autowired
+    private VersionService versionService;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    private Department dept;
+    private User user;
+    private VirtualMachine vm;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        user = fixtures.user("scheduler", Role.USER, dept);
+        vm = fixtures.vm("vm-1", fixtures.hardware("hw-1", fixtures.site("DC1", dept)));
+    }
+
+    @Test
+    void runsDueTasksAndLeavesTheRestAlone() throws Exception {
+        Instant now = Instant.now();
+        DeploymentTask overdue = taskService.create(task("overdue", dept, now.minusSeconds(60)), vm.getId(), user.getId());
+        DeploymentTask soon = taskService.create(task("soon", dept, now.plusMillis(300)), vm.getId(), user.getId());
+        DeploymentTask postponed = taskService.create(task("postponed", dept, now.plusMillis(200)), vm.getId(), user.getId());
+        DeploymentTask unscheduled = taskService.create(task("unscheduled", dept, null), vm.getId(), user.getId());
+
+        // Moving the date out must cancel the original timer
+        DeploymentTask later = task("postponed", dept, now.plusSeconds(3600));
+        taskService.update(postponed.getId(), later, null, null);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline
+                && (status(overdue) != DeploymentStatus.COMPLETED || status(soon) != DeploymentStatus.COMPLETED)) {
+            Thread.sleep(50);
+        }
+
+        assertThat(status(overdue)).isEqualTo(DeploymentStatus.COMPLETED);
+        DeploymentTask done = taskRepository.findById(soon.getId()).orElseThrow();
+        assertThat(done.getStatus()).isEqualTo(DeploymentStatus.COMPLETED);
+        assertThat(done.getCompletedAt()).isAfterOrEqualTo(soon.getScheduledDate());
+        assertThat(status(postponed)).isEqualTo(DeploymentStatus.PENDING);
+        assertThat(status(unscheduled)).isEqualTo(DeploymentStatus.PENDING);
+    }
+
+    @Test
+    void aTaskInterruptedByShutdownIsHandedBackNotFailed() throws Exception {
+        DeploymentTask task = taskService.create(task("cut-short", dept, null), vm.getId(), user.getId());
+        // Made due behind the service's back, so only the node below is told about it
+        DeploymentTask stored = taskRepository.findById(task.getId()).orElseThrow();
+        Instant due = Instant.now().minusSeconds(1);
+        stored.setScheduledDate(due);
+        taskRepository.save(stored);
+
+        CountDownLatch started = new CountDownLatch(1);
+        TaskExecutionEngine node = new TaskExecutionEngine(taskRepository, execution -> {
+            started.countDown();
+            Thread.sleep(60_000);
+        }, versionService, events, auditTrail, workerThreads, new SimpleMeterRegistry(), "node-b", 1, 0, 20,
+                Duration.ofSeconds(60), Duration.ofSeconds(30), Duration.ofMillis(10), 64);
+        try {
+            node.taskChanged(task.getId(), DeploymentStatus.PENDING, due);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(status(task)).isEqualTo(DeploymentStatus.IN_PROGRESS);
+        } finally {
+            node.shutdown();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline && status(task) != DeploymentStatus.PENDING) {
+            Thread.sleep(50);
+        }
+        DeploymentTask released = taskRepository.findById(task.getId()).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(DeploymentStatus.PENDING);
+        assertThat(released.getLeaseOwner()).isNull();
+        assertThat(released.getCompletedAt()).isNull();
+    }
+
+    private DeploymentStatus status(DeploymentTask task) {
+        return taskRepository.findById(task.getId()).orElseThrow().getStatus();
+    }
+
+    private static DeploymentTask task(String name, Department dept, Instant scheduledDate) {
+        DeploymentTask task = newTask(name, dept);
+        task.setScheduledDate(scheduledDate);
+        return task;
+    }
+}
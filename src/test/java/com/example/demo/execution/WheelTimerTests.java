@@ -0,0 +1,71 @@
+package com.example.demo.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WheelTimerTests {
+
+    // 10ms x 8 slots: anything past 80ms starts out on an overflow wheel
+    private final WheelTimer timer = new WheelTimer("test-wheel", 10, 8);
+
+    @AfterEach
+    void close() {
+        timer.close();
+    }
+
+    @Test
+    void firesInDueOrderAcrossWheelLevels() throws Exception {
+        long now = System.currentTimeMillis();
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+        for (int delay : new int[] {700, 50, 250, 0}) {
+            timer.schedule(now + delay, () -> {
+                fired.add(delay);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(3, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired).containsExactly(0, 50, 250, 700);
+        assertThat(timer.size()).isZero();
+    }
+
+    @Test
+    void neverFiresEarly() throws Exception {
+        long due = System.currentTimeMillis() + 300;
+        long[] firedAt = new long[1];
+        CountDownLatch done = new CountDownLatch(1);
+        timer.schedule(due, () -> {
+            firedAt[0] = System.currentTimeMillis();
+            done.countDown();
+        });
+
+        assertThat(done.await(3, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt[0]).isGreaterThanOrEqualTo(due);
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() throws Exception {
+        long now = System.currentTimeMillis();
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        WheelTimer.Timeout near = timer.schedule(now + 30, () -> fired.add("near"));
+        WheelTimer.Timeout far = timer.schedule(now + 200, () -> fired.add("far"));
+        timer.schedule(now + 300, done::countDown);
+
+        assertThat(near.cancel()).isTrue();
+        assertThat(far.cancel()).isTrue();
+        assertThat(far.cancel()).isFalse();
+        assertThat(timer.size()).isEqualTo(1);
+
+        assertThat(done.await(3, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired).isEmpty();
+    }
+}
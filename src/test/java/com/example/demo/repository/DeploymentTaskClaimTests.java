@@ -0,0 +1,141 @@
+package com.example.demo.repository;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.Role;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.demo.support.Fixtures.newTask;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claims run in their own transactions against the embedded database, so this test has none.
+ */
+@InventoryTest
+class DeploymentTaskClaimTests {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Autowired
+    private DeploymentTaskRepository taskRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private User user;
+    private VirtualMachine vm;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        user = fixtures.user("scheduler", Role.USER, dept);
+        vm = fixtures.vm("vm-1", fixtures.hardware("hw-1", fixtures.site("DC1", dept)));
+    }
+
+    @Test
+    void concurrentNodesDrainTheQueueWithoutDuplicates() throws Exception {
+        Instant now = Instant.now();
+        List<DeploymentTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(task("task-" + i, now.minusSeconds(i)));
+        }
+        taskRepository.saveAll(tasks);
+
+        int nodes = 8;
+        Map<Long, String> owners = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nodes);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int n = 0; n < nodes; n++) {
+            String owner = "node-" + n;
+            pool.submit(() -> {
+                start.await();
+                List<Long> claimed;
+                do {
+                    claimed = taskRepository.claimDue(owner, Instant.now(), LEASE, 7);
+                    for (Long id : claimed) {
+                        if (owners.putIfAbsent(id, owner) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                } while (!claimed.isEmpty());
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(owners).hasSize(300);
+        assertThat(owners.values()).hasSizeGreaterThan(1);
+        for (DeploymentTask task : taskRepository.findAll()) {
+            assertThat(task.getStatus()).isEqualTo(DeploymentStatus.IN_PROGRESS);
+            assertThat(task.getLeaseOwner()).isEqualTo(owners.get(task.getId()));
+        }
+        assertThat(taskRepository.claimDue("late-node", Instant.now(), LEASE, 10)).isEmpty();
+    }
+
+    @Test
+    void onlyDueTasksAreClaimed() {
+        Instant now = Instant.now();
+        DeploymentTask due = taskRepository.save(task("due", now.minusSeconds(1)));
+        taskRepository.save(task("future", now.plusSeconds(3600)));
+        taskRepository.save(task("unscheduled", null));
+        DeploymentTask manual = task("manual", now.minusSeconds(1));
+        manual.setStatus(DeploymentStatus.IN_PROGRESS);  // set by hand, no lease
+        taskRepository.save(manual);
+
+        assertThat(taskRepository.claimDue("node-a", now, LEASE, 10)).containsExactly(due.getId());
+    }
+
+    @Test
+    void expiredLeasesAreReclaimedAndTheOldOwnerIsFencedOff() {
+        Instant now = Instant.now();
+        DeploymentTask task = taskRepository.save(task("crashy", now.minusSeconds(1)));
+
+        assertThat(taskRepository.claimDue("node-a", now, LEASE, 10)).containsExactly(task.getId());
+        // node-a keeps its lease alive, nobody else may take the task
+        assertThat(taskRepository.renewLeases("node-a", List.of(task.getId()), now.plus(LEASE))).isEqualTo(1);
+        assertThat(taskRepository.claimDue("node-b", now.plusSeconds(30), LEASE, 10)).isEmpty();
+
+        // node-a stops renewing; after the lease runs out node-b takes over
+        Instant later = now.plus(LEASE).plusSeconds(1);
+        assertThat(taskRepository.claimDue("node-b", later, LEASE, 10)).containsExactly(task.getId());
+        assertThat(taskRepository.renewLeases("node-a", List.of(task.getId()), later.plus(LEASE))).isZero();
+        assertThat(taskRepository.markFinished(task.getId(), "node-a", DeploymentStatus.FAILED, later)).isZero();
+
+        assertThat(taskRepository.markFinished(task.getId(), "node-b", DeploymentStatus.COMPLETED, later)).isEqualTo(1);
+        DeploymentTask done = taskRepository.findById(task.getId()).orElseThrow();
+        assertThat(done.getStatus()).isEqualTo(DeploymentStatus.COMPLETED);
+        assertThat(done.getLeaseOwner()).isNull();
+    }
+
+    private DeploymentTask task(String name, Instant scheduledDate) {
+        DeploymentTask task = newTask(name, dept);
+        task.setVm(vm);
+        task.setRequestedBy(user);
+        task.setScheduledDate(scheduledDate);
+        return task;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DeploymentTaskDto;
+import com.example.demo.dto.VirtualMachineDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.HardwareType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that list paths issue a bounded number of SQL statements, whatever the number of rows.
+ */
+@DataJpaTest
+class FetchPlanTests {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DeploymentTaskRepository taskRepository;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        // 3 departments x 2 sites x 2 hosts x 2 VMs, one task per VM: 24 tasks
+        for (int d = 0; d < 3; d++) {
+            Department dept = new Department();
+            dept.setName("dept-" + d);
+            em.persist(dept);
+
+            User user = new User();
+            user.setUsername("user-" + d);
+            user.setEmail("user-" + d + "@example.com");
+            user.setPasswordHash("x");
+            user.setDepartment(dept);
+            em.persist(user);
+
+            for (int s = 0; s < 2; s++) {
+                Site site = new Site();
+                site.setName("site-" + d + "-" + s);
+                site.setAddress("1 Main St");
+                site.setCity("Paris");
+                site.setCountry("FR");
+                site.setDepartment(dept);
+                em.persist(site);
+
+                for (int h = 0; h < 2; h++) {
+                    Hardware hw = new Hardware();
+                    hw.setName("hw-" + d + "-" + s + "-" + h);
+                    hw.setType(HardwareType.SERVER);
+                    hw.setModel("R740");
+                    hw.setSerialNumber("SN-" + d + s + h);
+                    hw.setPurchaseDate(LocalDate.of(2024, 1, 1));
+                    hw.setWarrantyEndDate(LocalDate.of(2027, 1, 1));
+                    hw.setSite(site);
+                    hw.setDepartment(dept);
+                    em.persist(hw);
+
+                    for (int v = 0; v < 2; v++) {
+                        VirtualMachine vm = new VirtualMachine();
+                        vm.setName("vm-" + hw.getName() + "-" + v);
+                        vm.setHostname(vm.getName() + ".local");
+                        vm.setOperatingSystem("Linux");
+                        vm.setVcpu(2);
+                        vm.setVram(4);
+                        vm.setDiskSize(40);
+                        vm.setHardware(hw);
+                        vm.setDepartment(dept);
+                        em.persist(vm);
+
+                        DeploymentTask task = new DeploymentTask();
+                        task.setTaskName("deploy " + vm.getName());
+                        task.setVm(vm);
+                        task.setRequestedBy(user);
+                        task.setDepartment(dept);
+                        em.persist(task);
+                    }
+                }
+            }
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void taskPageIsProjectedWithoutHydratingEntities() {
+        Slice<DeploymentTaskDto> page = taskRepository.findDtoPage(0L, PageRequest.ofSize(100));
+
+        for (DeploymentTaskDto task : page) {
+            assertThat(task.vmId).isNotNull();
+            assertThat(task.requestedById).isNotNull();
+            assertThat(task.departmentId).isNotNull();
+        }
+
+        assertThat(page.getContent()).hasSize(24);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void departmentVmPageStopsAtTheLimitAndResumesFromTheCursor() {
+        Long departmentId = userRepository.findByUsername("user-0").orElseThrow().getDepartment().getId();
+        statistics.clear();
+
+        Slice<VirtualMachineDto> first = vmRepository.findDtoPageByDepartmentId(departmentId, 0L, PageRequest.ofSize(5));
+        Long cursor = first.getContent().get(first.getNumberOfElements() - 1).id;
+        Slice<VirtualMachineDto> second = vmRepository.findDtoPageByDepartmentId(departmentId, cursor, PageRequest.ofSize(5));
+
+        assertThat(first.getContent()).hasSize(5);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(3);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent()).allMatch(vm -> vm.id > cursor && departmentId.equals(vm.departmentId));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void walkingTheWholeTaskGraphIsBatchedPerAssociation() {
+        List<DeploymentTask> tasks = taskRepository.findAll();
+
+        for (DeploymentTask task : tasks) {
+            assertThat(task.getVm().getHardware().getSite().getDepartment().getName()).isNotNull();
+            assertThat(task.getRequestedBy().getDepartment().getName()).isNotNull();
+        }
+
+        // tasks, then one batched select each for VMs, hosts, sites, departments and users
+        assertThat(tasks).hasSize(24);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void departmentVmListIsASingleStatement() {
+        Long departmentId = userRepository.findByUsername("user-1").orElseThrow().getDepartment().getId();
+        statistics.clear();
+
+        List<VirtualMachine> vms = vmRepository.findByDepartmentId(departmentId);
+        for (VirtualMachine vm : vms) {
+            assertThat(vm.getHardware().getId()).isNotNull();
+        }
+
+        assertThat(vms).hasSize(8);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void userLookupFetchesDepartmentInTheSameStatement() {
+        User user = userRepository.findByUsername("user-2").orElseThrow();
+
+        assertThat(user.getDepartment().getName()).isEqualTo("dept-2");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
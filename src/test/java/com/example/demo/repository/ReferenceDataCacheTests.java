@@ -0,0 +1,117 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DepartmentDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Site;
+import com.example.demo.service.DepartmentService;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest
+class ReferenceDataCacheTests {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Statistics statistics;
+    private List<Department> departments;
+    private List<Site> sites;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        departments = new ArrayList<>();
+        sites = new ArrayList<>();
+        for (int d = 0; d < 10; d++) {
+            Department dept = fixtures.department("dept-" + d);
+            departments.add(dept);
+            sites.add(fixtures.site("site-" + d, dept));
+        }
+    }
+
+    @Test
+    void cachedListsAndLookupsFollowWrites() {
+        departmentService.getActiveDepartments();
+        statistics.clear();
+        assertThat(departmentService.getActiveDepartments()).hasSize(10);
+        assertThat(departmentRepository.findById(departments.get(0).getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        DepartmentDto renamed = departmentService.getDepartmentById(departments.get(0).getId());
+        renamed.setName("dept-0b");
+        renamed.setActive(false);
+        departmentService.updateDepartment(renamed.getId(), renamed);
+
+        assertThat(departmentService.getActiveDepartments()).extracting(DepartmentDto::getName).doesNotContain("dept-0", "dept-0b");
+        assertThat(departmentRepository.findById(renamed.getId())).get().extracting(Department::getName).isEqualTo("dept-0b");
+    }
+
+    /**
+     * What a create/update request pays to resolve its department and site, and what the department
+     * picker pays, with every cache emptied before each request and with the caches warm.
+     * Run with {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void sqlPerRequestWithAndWithoutTheCache() {
+        int requests = 1000;
+        Result cold = run(requests, true);
+        Result warm = run(requests, false);
+
+        System.out.printf("Reference data, %d requests: without cache %.2f statements/request (%d ms), with cache %.2f statements/request (%d ms)%n",
+                requests, cold.statementsPerRequest(requests), cold.millis, warm.statementsPerRequest(requests), warm.millis);
+        assertThat(cold.statementsPerRequest(requests)).isGreaterThanOrEqualTo(3);
+        assertThat(warm.statementsPerRequest(requests)).isLessThan(0.1);
+    }
+
+    private Result run(int requests, boolean evictEachTime) {
+        // Warm-up, then measure
+        request(0);
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            if (evictEachTime) {
+                entityManagerFactory.getCache().evictAll();
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            }
+            request(i);
+        }
+        return new Result(statistics.getPrepareStatementCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void request(int i) {
+        departmentRepository.findById(departments.get(i % departments.size()).getId()).orElseThrow();
+        siteRepository.findById(sites.get(i % sites.size()).getId()).orElseThrow();
+        departmentService.getActiveDepartments();
+    }
+
+    private record Result(long statements, long millis) {
+        double statementsPerRequest(int requests) {
+            return (double) statements / requests;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.security;
+
+import com.example.demo.enums.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthTokenServiceTests {
+    private static final String KEY_1 = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String KEY_2 = Base64.getEncoder().encodeToString("another-32-byte-secret-for-tests".getBytes());
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private static AuthTokenService service(String activeKey, Instant now, String... keyIds) {
+        AuthTokenProperties properties = new AuthTokenProperties();
+        for (String keyId : keyIds) {
+            properties.getKeys().put(keyId, keyId.equals("k1") ? KEY_1 : KEY_2);
+        }
+        properties.setActiveKey(activeKey);
+        properties.setTtl(Duration.ofHours(1));
+        return new AuthTokenService(properties, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void roundTripsThePrincipal() {
+        AuthTokenService tokens = service("k1", NOW, "k1");
+        String token = tokens.issue(new UserPrincipal(7L, Role.ADMIN, 3L, true));
+
+        UserPrincipal principal = tokens.verify(token).orElseThrow();
+        assertThat(principal.getUserId()).isEqualTo(7L);
+        assertThat(principal.getRole()).isEqualTo(Role.ADMIN);
+        assertThat(principal.getDepartmentId()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        AuthTokenService tokens = service("k1", NOW, "k1");
+        String[] parts = tokens.issue(new UserPrincipal(7L, Role.USER, 3L, true)).split("\\.");
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("7:SUPER_ADMIN:3:" + NOW.plusSeconds(3600).getEpochSecond()).getBytes());
+
+        assertThat(tokens.verify(parts[0] + "." + parts[1] + "." + forged + "." + parts[3])).isEmpty();
+        assertThat(tokens.verify("garbage")).isEmpty();
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = service("k1", NOW, "k1").issue(new UserPrincipal(7L, Role.USER, 3L, true));
+
+        assertThat(service("k1", NOW.plus(Duration.ofMinutes(59)), "k1").verify(token)).isPresent();
+        assertThat(service("k1", NOW.plus(Duration.ofMinutes(61)), "k1").verify(token)).isEmpty();
+    }
+
+    @Test
+    void tokensSignedWithAPreviousKeyStillVerifyDuringRotation() {
+        String oldToken = service("k1", NOW, "k1").issue(new UserPrincipal(7L, Role.USER, 3L, true));
+        AuthTokenService rotated = service("k2", NOW, "k1", "k2");
+
+        assertThat(rotated.verify(oldToken)).isPresent();
+        assertThat(service("k2", NOW, "k2").verify(oldToken)).isEmpty();
+        assertThat(rotated.issue(new UserPrincipal(7L, Role.USER, 3L, true))).startsWith("v1.k2.");
+    }
+
+    @Test
+    void severalKeysNeedAnActiveOne() {
+        assertThatThrownBy(() -> service(null, NOW, "k1", "k2"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("inventory.auth.token.active-key");
+        assertThatThrownBy(() -> service("k3", NOW, "k1", "k2")).isInstanceOf(IllegalStateException.class);
+        assertThat(service(null, NOW, "k1").issue(new UserPrincipal(7L, Role.USER, 3L, true))).startsWith("v1.k1.");
+    }
+}
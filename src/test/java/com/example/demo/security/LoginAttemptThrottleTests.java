@@ -0,0 +1,100 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptThrottleTests {
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T12:00:00Z"));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LoginAttemptThrottle throttle = new LoginAttemptThrottle(registry, WINDOW, 3, 5, 1000, clock);
+
+    @Test
+    void blocksAUsernameAfterTooManyFailuresFromAnyAddress() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.isBlocked("Alice", "10.0.0." + i)).isFalse();
+            throttle.recordFailure("alice", "10.0.0." + i);
+        }
+
+        assertThat(throttle.isBlocked("ALICE", "10.0.0.99")).isTrue();
+        assertThat(throttle.isBlocked("bob", "10.0.0.99")).isFalse();
+        assertThat(registry.counter("auth.login.throttled").count()).isEqualTo(1);
+    }
+
+    @Test
+    void blocksAnAddressSprayingUsernames() {
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user-" + i, "203.0.113.7");
+        }
+
+        assertThat(throttle.isBlocked("someone-else", "203.0.113.7")).isTrue();
+        assertThat(throttle.isBlocked("someone-else", "203.0.113.8")).isFalse();
+    }
+
+    @Test
+    void failuresLeaveTheWindowOneByOne() {
+        throttle.recordFailure("alice", "10.0.0.1");
+        clock.advance(Duration.ofMinutes(5));
+        throttle.recordFailure("alice", "10.0.0.1");
+        throttle.recordFailure("alice", "10.0.0.1");
+        assertThat(throttle.isBlocked("alice", "10.0.0.1")).isTrue();
+
+        // The first failure is now 15 minutes old; the other two are still counted
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(throttle.isBlocked("alice", "10.0.0.1")).isFalse();
+        throttle.recordFailure("alice", "10.0.0.1");
+        assertThat(throttle.isBlocked("alice", "10.0.0.1")).isTrue();
+
+        clock.advance(WINDOW);
+        assertThat(throttle.isBlocked("alice", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void aSuccessfulLoginClearsTheUsernameButNotTheAddress() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("alice", "10.0.0.1");
+        }
+        throttle.recordFailure("bob", "10.0.0.1");
+        throttle.recordFailure("carol", "10.0.0.1");
+        throttle.recordSuccess("alice");
+
+        assertThat(throttle.isBlocked("alice", "10.0.0.2")).isFalse();
+        assertThat(throttle.isBlocked("alice", "10.0.0.1")).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordVerificationServiceTests {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Only "right" matches; every check waits for release, so the pool stays busy as long as the test wants
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    };
+
+    private PasswordVerificationService service;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void refusesWith429WhenThreadsAndQueueAreFull() throws Exception {
+        service = new PasswordVerificationService(slowEncoder, registry, 1, 1, Duration.ofSeconds(10));
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("right", "right"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> service.matches("wrong", "right"));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> service.matches("right", "right"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(registry.counter("auth.bcrypt.rejected").count()).isEqualTo(1);
+
+        // The checks already accepted still complete once the pool frees up
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(service.matches("right", "right")).isTrue();
+    }
+
+    @Test
+    void refusesWith429WhenTheCheckTakesLongerThanTheTimeout() {
+        service = new PasswordVerificationService(slowEncoder, registry, 1, 1, Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> service.matches("right", "right"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(registry.counter("auth.bcrypt.rejected").count()).isEqualTo(1);
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.bcrypt.queue.depth").gauge().value() < depth) {
+            assertThat(System.nanoTime()).as("queue depth %d", depth).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
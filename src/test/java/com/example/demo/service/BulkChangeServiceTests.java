@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.HardwareBulkChangeDto;
+import com.example.demo.dto.VmBulkChangeDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.CapacityResource;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.enums.VMStatus;
+import com.example.demo.event.InventoryChangedEvent;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@InventoryTest
+@RecordApplicationEvents
+class BulkChangeServiceTests {
+
+    @Autowired
+    private ChangeRefresher refresher;
+
+    @Autowired
+    private BulkChangeService bulkChangeService;
+
+    @Autowired
+    private CapacityService capacityService;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Department otherDept;
+    private Hardware host;
+    private Hardware otherHost;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        otherDept = fixtures.department("finance");
+        host = host("host-1", dept);
+        otherHost = host("host-2", otherDept);
+        List<VirtualMachine> vms = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            vms.add(vm("vm-" + i, host));
+        }
+        for (int i = 0; i < 5; i++) {
+            vms.add(vm("other-" + i, otherHost));
+        }
+        vmRepository.saveAll(vms);
+        capacityService.rebuild();
+    }
+
+    @Test
+    void patchReadsTheIdsThenRunsOneUpdateWithinTheDepartmentScope() {
+        VmBulkChangeDto change = new VmBulkChangeDto();
+        change.status = VMStatus.RUNNING;
+        change.setStatus = VMStatus.STOPPED;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(bulkChangeService.updateVirtualMachines(change, dept.getId()).affected).isEqualTo(40);
+        refresher.flush();
+        // The matched ids, the UPDATE, and the changed rows read back once for the in-memory views on the refresh thread
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        assertThat(vmRepository.findByDepartmentId(dept.getId())).allSatisfy(vm -> assertThat(vm.getStatus()).isEqualTo(VMStatus.STOPPED));
+        assertThat(vmRepository.findByDepartmentId(otherDept.getId())).allSatisfy(vm -> assertThat(vm.getStatus()).isEqualTo(VMStatus.RUNNING));
+    }
+
+    @Test
+    void statusPatchTellsTheInMemoryViewsWhichVmsChanged() {
+        List<Long> ids = vmRepository.findByDepartmentId(dept.getId()).stream().limit(3).map(VirtualMachine::getId).toList();
+        VmBulkChangeDto change = new VmBulkChangeDto();
+        change.ids = ids;
+        change.setStatus = VMStatus.STOPPED;
+
+        assertThat(bulkChangeService.updateVirtualMachines(change, dept.getId()).affected).isEqualTo(3);
+
+        assertThat(applicationEvents.stream(InventoryChangedEvent.class)).singleElement().satisfies(event -> {
+            assertThat(event.entity()).isEqualTo(InventoryEntity.VIRTUAL_MACHINE);
+            assertThat(event.change()).isEqualTo(InventoryChangedEvent.Change.SAVED);
+            assertThat(event.ids()).containsExactlyInAnyOrderElementsOf(ids);
+        });
+    }
+
+    @Test
+    void departmentAdminsCannotMoveVmsOutOrSelectEverything() {
+        VmBulkChangeDto move = new VmBulkChangeDto();
+        move.hardwareId = host.getId();
+        move.setDepartmentId = otherDept.getId();
+        assertThatThrownBy(() -> bulkChangeService.updateVirtualMachines(move, dept.getId()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        VmBulkChangeDto unselected = new VmBulkChangeDto();
+        unselected.setStatus = VMStatus.STOPPED;
+        assertThatThrownBy(() -> bulkChangeService.updateVirtualMachines(unselected, dept.getId()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        // Unscoped, the move goes through
+        assertThat(bulkChangeService.updateVirtualMachines(move, null).affected).isEqualTo(40);
+        assertThat(vmRepository.findByDepartmentId(otherDept.getId())).hasSize(45);
+    }
+
+    @Test
+    void deleteHandsTheCapacityBack() {
+        List<Long> ids = vmRepository.findByDepartmentId(dept.getId()).stream().limit(10).map(VirtualMachine::getId).toList();
+
+        // Another department's admin matches nothing
+        assertThat(bulkChangeService.deleteVirtualMachines(ids, null, null, null, otherDept.getId()).affected).isZero();
+        assertThat(bulkChangeService.deleteVirtualMachines(ids, null, null, null, dept.getId()).affected).isEqualTo(10);
+
+        assertThat(vmRepository.count()).isEqualTo(35);
+        assertThat(capacityService.getHost(host.getId()).get().allocatedRamGb).isEqualTo(30 * 4);
+        assertThat(capacityService.getHost(host.getId()).get().vmCount).isEqualTo(30);
+    }
+
+    @Test
+    void hostsPutInMaintenanceLeaveThePlacementPool() {
+        HardwareBulkChangeDto change = new HardwareBulkChangeDto();
+        change.departmentId = dept.getId();
+        change.setStatus = HardwareStatus.MAINTENANCE;
+
+        assertThat(bulkChangeService.updateHardware(change, null).affected).isEqualTo(1);
+
+        assertThat(hardwareRepository.findById(host.getId()).get().getStatus()).isEqualTo(HardwareStatus.MAINTENANCE);
+        assertThat(hardwareRepository.findById(otherHost.getId()).get().getStatus()).isEqualTo(HardwareStatus.OPERATIONAL);
+        assertThat(capacityService.getHost(host.getId()).get().status).isEqualTo(HardwareStatus.MAINTENANCE);
+        assertThat(capacityService.findHostsWithFree(CapacityResource.RAM, 0, dept.getId(), 10)).singleElement()
+                .satisfies(h -> assertThat(h.status).isEqualTo(HardwareStatus.MAINTENANCE));
+    }
+
+    private Hardware host(String name, Department department) {
+        Hardware hw = newHardware(name, department);
+        hw.setCpuCores(64);
+        hw.setRamGb(512);
+        hw.setStorageGb(10000);
+        hw.setSite(fixtures.site("DC-" + name, department));
+        return hardwareRepository.save(hw);
+    }
+
+    private static VirtualMachine vm(String name, Hardware host) {
+        VirtualMachine vm = newVm(name, host);
+        vm.setStatus(VMStatus.RUNNING);
+        return vm;
+    }
+}
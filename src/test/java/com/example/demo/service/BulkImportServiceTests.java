@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkImportResultDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs imports against the embedded database without a test transaction, since the importer
+ * commits one transaction per batch. Batches of 3 make the batch boundaries visible.
+ */
+@InventoryTest(properties = "inventory.import.batch-size=3")
+class BulkImportServiceTests {
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private CapacityService capacityService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Department otherDept;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        otherDept = fixtures.department("finance");
+        site = fixtures.site("DC1", dept);
+    }
+
+    @Test
+    void csvImportReportsBadRowsAndKeepsTheRest() throws Exception {
+        String csv = "name,type,model,serialNumber,cpuCores,purchaseDate,warrantyEndDate,siteId\n"
+                + row("hw-1", "SN-1", site.getId())
+                + row("hw-2", "SN-2", site.getId())
+                + row("hw-3", "SN-3", 999_999L)                 // line 4: unknown site
+                + row("hw-4", "SN-2", site.getId())             // line 5: duplicate serial
+                + "\"hw, 5\",SERVER,R740,SN-5,16,not-a-date,2028-01-01," + site.getId() + "\n" // line 6
+                + "\n"
+                + row("hw-6", "SN-6", site.getId())
+                + row("hw-7", "SN-7", site.getId())
+                + row("hw-8", "SN-8", site.getId());
+
+        BulkImportResultDto result = importService.importHardware(stream(csv), "text/csv", null);
+
+        assertThat(result.received).isEqualTo(8);
+        assertThat(result.imported).isEqualTo(5);
+        assertThat(result.failed).isEqualTo(3);
+        assertThat(result.errors).extracting(e -> e.line).containsExactly(4L, 5L, 6L);
+        assertThat(hardwareRepository.findByDepartmentId(dept.getId())).hasSize(5)
+                .allSatisfy(h -> assertThat(h.getId()).isNotNull());
+    }
+
+    @Test
+    void anImportWithinTheCallersTransactionLeavesItsSessionAsItWas() {
+        String csv = "name,type,model,serialNumber,cpuCores,purchaseDate,warrantyEndDate,siteId\n"
+                + row("hw-1", "SN-1", site.getId())
+                + row("hw-2", "SN-2", site.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Integer batchSize = session.getJdbcBatchSize();
+            Department loaded = entityManager.find(Department.class, dept.getId());
+
+            BulkImportResultDto result;
+            try {
+                result = importService.importHardware(stream(csv), "text/csv", null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            assertThat(result.imported).isEqualTo(2);
+            assertThat(session.getJdbcBatchSize()).isEqualTo(batchSize);
+            // Only the imported rows were detached
+            assertThat(entityManager.contains(loaded)).isTrue();
+        });
+        assertThat(hardwareRepository.findByDepartmentId(dept.getId())).hasSize(2);
+    }
+
+    @Test
+    void databaseRejectionOnlyFailsTheOffendingRow() throws Exception {
+        Hardware host = fixtures.hardware("host", site);
+
+        // The second VM's name is longer than the column, which only the database notices
+        String tooLong = "x".repeat(300);
+        String ndjson = vm("vm-1", host.getId()) + vm(tooLong, host.getId()) + vm("vm-3", host.getId())
+                + vm("vm-4", host.getId()) + "{not json\n";
+
+        BulkImportResultDto result = importService.importVirtualMachines(stream(ndjson), "application/x-ndjson", null);
+
+        assertThat(result.imported).isEqualTo(3);
+        assertThat(result.errors).extracting(e -> e.line).containsExactly(2L, 5L);
+        assertThat(result.errors.get(0).message).startsWith("Rejected by the database");
+        assertThat(vmRepository.findByDepartmentId(dept.getId())).hasSize(3);
+    }
+
+    @Test
+    void vmsBeyondTheHostsCapacityAreRejectedAndRejectedRowsGiveTheirsBack() throws Exception {
+        Hardware host = newHardware("small", dept);
+        host.setCpuCores(16);
+        host.setRamGb(12);
+        host.setStorageGb(1000);
+        host.setSite(site);
+        hardwareRepository.save(host);
+        capacityService.rebuild();
+
+        // 4 GB each on a 12 GB host. The row the database rejects hands its 4 GB back when its batch fails,
+        // so the fourth VM fits and the fifth does not
+        String ndjson = vm("vm-1", host.getId()) + vm("x".repeat(300), host.getId()) + vm("vm-3", host.getId())
+                + vm("vm-4", host.getId()) + vm("vm-5", host.getId());
+
+        BulkImportResultDto result = importService.importVirtualMachines(stream(ndjson), "application/x-ndjson", null);
+
+        assertThat(result.imported).isEqualTo(3);
+        assertThat(result.errors).extracting(e -> e.line).containsExactly(2L, 5L);
+        assertThat(result.errors.get(1).message).contains("not have enough free capacity");
+        assertThat(capacityService.getHost(host.getId())).get().satisfies(capacity -> {
+            assertThat(capacity.vmCount).isEqualTo(3);
+            assertThat(capacity.allocatedRamGb).isEqualTo(12);
+        });
+    }
+
+    @Test
+    void departmentScopeRejectsOtherDepartments() throws Exception {
+        String ndjson = "{\"name\":\"a\",\"type\":\"SERVER\",\"model\":\"m\",\"serialNumber\":\"S-A\",\"purchaseDate\":\"2024-01-01\","
+                + "\"warrantyEndDate\":\"2027-01-01\",\"siteId\":" + site.getId() + ",\"departmentId\":" + otherDept.getId() + "}\n";
+
+        BulkImportResultDto result = importService.importHardware(stream(ndjson), "application/x-ndjson", dept.getId());
+
+        assertThat(result.imported).isZero();
+        assertThat(result.errors).singleElement()
+                .satisfies(e -> assertThat(e.message).contains("Not allowed"));
+    }
+
+    private static String row(String name, String serial, Long siteId) {
+        return name + ",SERVER,R740," + serial + ",16,2024-01-01,2028-01-01," + siteId + "\n";
+    }
+
+    private static String vm(String name, Long hardwareId) {
+        return "{\"name\":\"" + name + "\",\"hostname\":\"" + name + ".local\",\"operatingSystem\":\"Linux\","
+                + "\"vcpu\":2,\"vram\":4,\"diskSize\":40,\"hardwareId\":" + hardwareId + "}\n";
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CapacityRollupDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.enums.CapacityResource;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.PlacementStrategy;
+import com.example.demo.service.CapacityService.VmAllocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exercises the incremental bookkeeping directly; outside a transaction the updates apply immediately.
+ */
+class CapacityServiceTests {
+
+    private CapacityService capacity;
+
+    @BeforeEach
+    void setUp() {
+        capacity = new CapacityService(null, null, 1.0, 1.0, 1.0);
+        capacity.hostSaved(host(1L, 10L, 100L, 64));
+        capacity.hostSaved(host(2L, 10L, 100L, 128));
+        capacity.hostSaved(host(3L, 20L, 200L, 256));
+    }
+
+    @Test
+    void vmLifecycleAdjustsOnlyTheHostsInvolved() {
+        VmAllocation onFirst = new VmAllocation(1L, 4, 16, 100);
+        capacity.vmChanged(null, onFirst);
+        assertThat(capacity.getHost(1L)).get().satisfies(h -> {
+            assertThat(h.freeRamGb).isEqualTo(48);
+            assertThat(h.freeVcpu).isEqualTo(12);
+            assertThat(h.vmCount).isEqualTo(1);
+        });
+
+        // Move to host 2 and grow the VM in the same update
+        VmAllocation onSecond = new VmAllocation(2L, 4, 32, 100);
+        capacity.vmChanged(onFirst, onSecond);
+        assertThat(capacity.getHost(1L).get().freeRamGb).isEqualTo(64);
+        assertThat(capacity.getHost(2L).get().freeRamGb).isEqualTo(96);
+
+        capacity.vmChanged(onSecond, null);
+        assertThat(capacity.getHost(2L).get().allocatedRamGb).isZero();
+        assertThat(capacity.getHost(2L).get().vmCount).isZero();
+    }
+
+    @Test
+    void freeSearchReturnsTightestFitFirst() {
+        capacity.vmChanged(null, new VmAllocation(3L, 2, 200, 10)); // host 3: 56 GB free
+
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 50, null, 10))
+                .extracting(h -> h.hardwareId).containsExactly(3L, 1L, 2L);
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 60, null, 10))
+                .extracting(h -> h.hardwareId).containsExactly(1L, 2L);
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 60, 10L, 1))
+                .extracting(h -> h.hardwareId).containsExactly(1L);
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 100, 20L, 10)).isEmpty();
+    }
+
+    @Test
+    void hostChangesMoveItBetweenDepartmentIndexes() {
+        // Same free amount, new department: must leave department 10 and stay in the global index
+        capacity.hostSaved(host(1L, 20L, 200L, 64));
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 64, 10L, 10))
+                .extracting(h -> h.hardwareId).containsExactly(2L);
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 64, 20L, 10))
+                .extracting(h -> h.hardwareId).containsExactly(1L, 3L);
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 64, null, 10)).hasSize(3);
+
+        capacity.hostRemoved(3L);
+        assertThat(capacity.getHost(3L)).isEmpty();
+        assertThat(capacity.findHostsWithFree(CapacityResource.RAM, 0, null, 10))
+                .extracting(h -> h.hardwareId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rollupSumsByDepartmentAndSite() {
+        capacity.vmChanged(null, new VmAllocation(1L, 4, 16, 100));
+
+        CapacityRollupDto dept = capacity.rollup(10L, null);
+        assertThat(dept.hosts).isEqualTo(2);
+        assertThat(dept.ramGb).isEqualTo(192);
+        assertThat(dept.allocatedRamGb).isEqualTo(16);
+        assertThat(dept.freeRamGb).isEqualTo(176);
+
+        assertThat(capacity.rollup(null, 200L).hosts).isEqualTo(1);
+        assertThat(capacity.rollup(null, null).vmCount).isEqualTo(1);
+    }
+
+    @Test
+    void placementStrategiesPickDifferentHosts() {
+        capacity.hostSaved(host(4L, 10L, 100L, 96));
+        capacity.vmChanged(null, new VmAllocation(4L, 1, 8, 10));   // host 4: 88 GB free, 1 VM
+        capacity.vmChanged(null, new VmAllocation(2L, 1, 8, 10));   // host 2: 120 GB free, 1 VM
+
+        assertThat(capacity.place(2, 60, 50, 10L, null, PlacementStrategy.BEST_FIT).hardwareId()).isEqualTo(1L);
+        // host 1 now has 4 GB left
+        assertThat(capacity.place(2, 60, 50, 10L, null, PlacementStrategy.WORST_FIT).hardwareId()).isEqualTo(2L);
+        // hosts 2 and 4 both have room, host 4 runs fewer VMs now
+        assertThat(capacity.place(2, 20, 50, 10L, null, PlacementStrategy.SPREAD).hardwareId()).isEqualTo(4L);
+    }
+
+    @Test
+    void placementSkipsHostsThatAreDownOrElsewhereOrTooSmall() {
+        Hardware down = host(2L, 10L, 100L, 128);
+        down.setStatus(HardwareStatus.MAINTENANCE);
+        capacity.hostSaved(down);
+
+        assertThat(capacity.place(1, 32, 10, 10L, null, PlacementStrategy.BEST_FIT).hardwareId()).isEqualTo(1L);
+        assertThat(capacity.place(1, 32, 10, 20L, 200L, PlacementStrategy.BEST_FIT).hardwareId()).isEqualTo(3L);
+        // 16 cores per host: RAM fits on host 3 but CPU does not
+        assertThatThrownBy(() -> capacity.place(32, 8, 10, 20L, null, PlacementStrategy.BEST_FIT))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> capacity.place(1, 32, 10, 10L, 200L, PlacementStrategy.BEST_FIT))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void overcommitRatiosRaiseTheLimit() {
+        CapacityService overcommitted = new CapacityService(null, null, 4.0, 1.5, 1.0);
+        overcommitted.hostSaved(host(1L, 10L, 100L, 64));
+
+        assertThat(overcommitted.getHost(1L).get().freeVcpu).isEqualTo(64);
+        assertThat(overcommitted.getHost(1L).get().freeRamGb).isEqualTo(96);
+        overcommitted.reserve(null, new VmAllocation(1L, 48, 90, 100));
+        assertThatThrownBy(() -> overcommitted.reserve(null, new VmAllocation(1L, 8, 8, 10)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void reserveChecksResizesAgainstTheVmsOwnAllocation() {
+        VmAllocation small = new VmAllocation(1L, 4, 32, 100);
+        capacity.reserve(null, small);
+        // Growing to 64 GB only fits because the VM's own 32 GB is handed back first
+        VmAllocation large = new VmAllocation(1L, 4, 64, 100);
+        capacity.reserve(small, large);
+        assertThat(capacity.getHost(1L).get().freeRamGb).isZero();
+        assertThatThrownBy(() -> capacity.reserve(large, new VmAllocation(1L, 4, 65, 100)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(capacity.getHost(1L).get().allocatedRamGb).isEqualTo(64);
+    }
+
+    @Test
+    void concurrentPlacementsNeverOverbook() throws Exception {
+        // Department 10 has 64 + 128 GB: exactly 12 VMs of 16 GB fit
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<VmAllocation> placed = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 40; i++) {
+            pool.submit(() -> {
+                start.await();
+                try {
+                    placed.add(capacity.place(1, 16, 10, 10L, null, PlacementStrategy.SPREAD));
+                } catch (ResponseStatusException full) {
+                    // expected once the department is full
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(placed).hasSize(12);
+        assertThat(capacity.getHost(1L).get().freeRamGb).isZero();
+        assertThat(capacity.getHost(2L).get().freeRamGb).isZero();
+    }
+
+    private static Hardware host(Long id, Long departmentId, Long siteId, int ramGb) {
+        Department department = new Department();
+        department.setId(departmentId);
+        Site site = new Site();
+        site.setId(siteId);
+        Hardware hardware = new Hardware();
+        hardware.setId(id);
+        hardware.setDepartment(department);
+        hardware.setSite(site);
+        hardware.setCpuCores(16);
+        hardware.setRamGb(ramGb);
+        hardware.setStorageGb(1000);
+        hardware.setStatus(HardwareStatus.OPERATIONAL);
+        return hardware;
+    }
+}
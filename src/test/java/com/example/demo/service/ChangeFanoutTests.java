@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFanoutTests {
+
+    /** Keeps what would have been written to the response. Also used by {@link ChangeFeedServiceTests}. */
+    static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+        // No servlet request to run it: close() stands in for the client going away
+        private volatile Runnable onCompletion = () -> { };
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            StringBuilder frame = new StringBuilder();
+            items.forEach(item -> frame.append(item.getData()));
+            sent.add(frame.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            onCompletion = callback;
+        }
+
+        void close() {
+            onCompletion.run();
+        }
+    }
+
+    private static Set<DataWithMediaType> message(String data) {
+        return SseEmitter.event().data(data).build();
+    }
+
+    @Test
+    void buildsOneMessagePerDepartmentAndSendsItToThatDepartmentOnly() {
+        ChangeFanout fanout = new ChangeFanout(8, Runnable::run, () -> {});
+        RecordingEmitter infra = new RecordingEmitter();
+        RecordingEmitter infra2 = new RecordingEmitter();
+        RecordingEmitter finance = new RecordingEmitter();
+        RecordingEmitter admin = new RecordingEmitter();
+        fanout.subscribe(1L, infra);
+        fanout.subscribe(1L, infra2);
+        fanout.subscribe(2L, finance);
+        fanout.subscribe(null, admin);
+        List<Long> built = new ArrayList<>();
+
+        fanout.publish(departmentId -> {
+            built.add(departmentId);
+            return departmentId == null || departmentId == 1L ? message("host-" + departmentId) : null;
+        });
+
+        assertThat(built).containsExactlyInAnyOrder(null, 1L, 2L);
+        assertThat(infra.sent).singleElement().asString().contains("host-1");
+        assertThat(infra2.sent).singleElement().asString().contains("host-1");
+        assertThat(finance.sent).isEmpty();
+        assertThat(admin.sent).singleElement().asString().contains("host-null");
+    }
+
+    @Test
+    void closesAStreamWhoseBufferOverflows() {
+        List<Runnable> pending = new ArrayList<>();
+        AtomicInteger evictions = new AtomicInteger();
+        ChangeFanout fanout = new ChangeFanout(2, pending::add, evictions::incrementAndGet);
+        RecordingEmitter slow = new RecordingEmitter();
+        ChangeFanout.Subscriber subscriber = fanout.subscribe(1L, slow);
+
+        // The sender never ran, so the third message finds the buffer full
+        for (int i = 0; i < 3; i++) {
+            fanout.publishToAll(message("change-" + i));
+        }
+
+        assertThat(evictions).hasValue(1);
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(fanout.size()).isZero();
+        pending.forEach(Runnable::run);
+        assertThat(slow.completed).isTrue();
+        assertThat(slow.sent).isEmpty();
+
+        pending.clear();
+        RecordingEmitter next = new RecordingEmitter();
+        fanout.subscribe(1L, next);
+        fanout.publishToAll(message("after"));
+        pending.forEach(Runnable::run);
+        assertThat(next.sent).singleElement().asString().contains("after");
+        assertThat(slow.sent).isEmpty();
+    }
+}
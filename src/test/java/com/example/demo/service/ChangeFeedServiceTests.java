@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.service.ChangeFanoutTests.RecordingEmitter;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newSite;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes go through the services, so these also check that the write paths publish their changes.
+ */
+@InventoryTest
+class ChangeFeedServiceTests {
+
+    @Autowired
+    private ChangeRefresher refresher;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Department finance;
+    private Site site;
+    private RecordingEmitter infraStream;
+    private RecordingEmitter financeStream;
+    private RecordingEmitter adminStream;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        finance = fixtures.department("finance");
+        site = siteService.save(newSite("Paris North", infra));
+        // So the streams opened below do not get the site just saved
+        refresher.flush();
+        infraStream = subscribe(infra.getId());
+        financeStream = subscribe(finance.getId());
+        adminStream = subscribe(null);
+    }
+
+    // The context outlives this class: its streams must not keep re-reading other tests' changes
+    @AfterEach
+    void closeStreams() {
+        infraStream.close();
+        financeStream.close();
+        adminStream.close();
+    }
+
+    @Test
+    void sendsSavedRowsToTheirDepartmentAndDeletesToEveryone() throws InterruptedException {
+        Hardware host = hardwareService.create(newHardware("edge-1", infra), site.getId());
+
+        assertThat(awaitChanges(infraStream, 1)).singleElement().asString()
+                .contains("\"type\":\"HARDWARE\"", "\"name\":\"edge-1\"");
+        assertThat(awaitChanges(adminStream, 1)).singleElement().asString().contains("\"name\":\"edge-1\"");
+
+        hardwareService.delete(host.getId());
+
+        String deleted = "\"deleted\":[" + host.getId() + "]";
+        assertThat(awaitChanges(infraStream, 2).get(1)).contains(deleted);
+        // The save never reached the other department, only the delete did
+        assertThat(awaitChanges(financeStream, 1)).singleElement().asString().contains(deleted).doesNotContain("edge-1");
+    }
+
+    @Test
+    void movedRowsLeaveTheirOldDepartment() throws InterruptedException {
+        site.setDepartment(finance);
+        siteService.save(site);
+
+        assertThat(awaitChanges(financeStream, 1)).singleElement().asString()
+                .contains("\"type\":\"SITE\"", "\"name\":\"Paris North\"");
+        assertThat(awaitChanges(infraStream, 1)).singleElement().asString()
+                .contains("\"deleted\":[" + site.getId() + "]")
+                .doesNotContain("Paris North");
+    }
+
+    private RecordingEmitter subscribe(Long departmentId) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeedService.subscribe(departmentId, emitter);
+        return emitter;
+    }
+
+    // Streams are written on the sender threads
+    private static List<String> awaitChanges(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (changes(emitter).size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return changes(emitter);
+    }
+
+    private static List<String> changes(RecordingEmitter emitter) {
+        return emitter.sent.stream().filter(frame -> frame.startsWith("event:change")).toList();
+    }
+}
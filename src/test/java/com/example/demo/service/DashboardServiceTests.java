@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardSummaryDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.DeploymentStatus;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.Role;
+import com.example.demo.enums.VMStatus;
+import com.example.demo.repository.DeploymentTaskRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newTask;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@InventoryTest
+class DashboardServiceTests {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private DeploymentTaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Department finance;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        finance = fixtures.department("finance");
+        User user = fixtures.user("dashboard", Role.USER, infra);
+
+        Site infraSite = fixtures.site("dc-1", infra);
+        fixtures.site("dc-2", infra);
+        Site financeSite = fixtures.site("dc-3", finance);
+
+        Hardware host = hardwareRepository.save(hardware("host-1", infraSite, HardwareStatus.OPERATIONAL));
+        hardwareRepository.save(hardware("host-2", infraSite, HardwareStatus.OPERATIONAL));
+        hardwareRepository.save(hardware("host-3", infraSite, HardwareStatus.DOWN));
+        Hardware financeHost = hardwareRepository.save(hardware("host-4", financeSite, HardwareStatus.MAINTENANCE));
+
+        VirtualMachine vm = vmRepository.save(vm("vm-1", host, VMStatus.RUNNING));
+        vmRepository.save(vm("vm-2", host, VMStatus.STOPPED));
+        vmRepository.save(vm("vm-3", financeHost, VMStatus.RUNNING));
+
+        taskRepository.save(task("deploy", vm, user, DeploymentStatus.PENDING));
+        taskRepository.save(task("patch", vm, user, DeploymentStatus.IN_PROGRESS));
+        taskRepository.save(task("backup", vm, user, DeploymentStatus.COMPLETED));
+    }
+
+    @Test
+    void countsEveryStatusForOneDepartmentOrAll() {
+        DashboardSummaryDto all = dashboardService.getSummary(null);
+        assertThat(all.departmentId).isNull();
+        assertThat(all.totalHardware).isEqualTo(4);
+        assertThat(all.hardwareByStatus).contains(entry(HardwareStatus.OPERATIONAL, 2L),
+                entry(HardwareStatus.MAINTENANCE, 1L), entry(HardwareStatus.DOWN, 1L));
+        assertThat(all.totalVirtualMachines).isEqualTo(3);
+        assertThat(all.virtualMachinesByStatus.get(VMStatus.RUNNING)).isEqualTo(2);
+        assertThat(all.totalSites).isEqualTo(3);
+        assertThat(all.activeTasks).isEqualTo(2);
+        assertThat(all.tasksByStatus.get(DeploymentStatus.COMPLETED)).isEqualTo(1);
+        assertThat(all.tasksByStatus.get(DeploymentStatus.FAILED)).isZero();
+
+        DashboardSummaryDto finance = dashboardService.getSummary(this.finance.getId());
+        assertThat(finance.departmentId).isEqualTo(this.finance.getId());
+        assertThat(finance.totalHardware).isEqualTo(1);
+        assertThat(finance.hardwareByStatus.get(HardwareStatus.OPERATIONAL)).isZero();
+        assertThat(finance.totalVirtualMachines).isEqualTo(1);
+        assertThat(finance.totalSites).isEqualTo(1);
+        assertThat(finance.activeTasks).isZero();
+        assertThat(finance.tasksByStatus.values()).containsOnly(0L);
+    }
+
+    @Test
+    void rowsWithoutAStatusCountInTheTotalsOnly() {
+        // Older schemas allowed a NULL status
+        jdbcTemplate.execute("alter table hardware alter column status set null");
+        jdbcTemplate.execute("alter table virtual_machine alter column status set null");
+        try {
+            jdbcTemplate.update("update hardware set status = null where name = 'host-3'");
+            jdbcTemplate.update("update virtual_machine set status = null where name = 'vm-2'");
+
+            DashboardSummaryDto infra = dashboardService.getSummary(this.infra.getId());
+            assertThat(infra.totalHardware).isEqualTo(3);
+            assertThat(infra.hardwareByStatus.get(HardwareStatus.OPERATIONAL)).isEqualTo(2);
+            assertThat(infra.hardwareByStatus.get(HardwareStatus.DOWN)).isZero();
+            assertThat(infra.totalVirtualMachines).isEqualTo(2);
+            assertThat(infra.virtualMachinesByStatus.get(VMStatus.RUNNING)).isEqualTo(1);
+            assertThat(infra.virtualMachinesByStatus.get(VMStatus.STOPPED)).isZero();
+
+            DashboardSummaryDto all = dashboardService.getSummary(null);
+            assertThat(all.totalHardware).isEqualTo(4);
+            assertThat(all.totalVirtualMachines).isEqualTo(3);
+        } finally {
+            // The schema is shared with the other tests
+            jdbcTemplate.update("update hardware set status = 'DOWN' where status is null");
+            jdbcTemplate.update("update virtual_machine set status = 'STOPPED' where status is null");
+            jdbcTemplate.execute("alter table hardware alter column status set not null");
+            jdbcTemplate.execute("alter table virtual_machine alter column status set not null");
+        }
+    }
+
+    private static Hardware hardware(String name, Site site, HardwareStatus status) {
+        Hardware hw = newHardware(name, site.getDepartment());
+        hw.setSite(site);
+        hw.setStatus(status);
+        return hw;
+    }
+
+    private static VirtualMachine vm(String name, Hardware host, VMStatus status) {
+        VirtualMachine vm = newVm(name, host);
+        vm.setStatus(status);
+        return vm;
+    }
+
+    private static DeploymentTask task(String name, VirtualMachine vm, User user, DeploymentStatus status) {
+        DeploymentTask task = newTask(name, vm.getDepartment());
+        task.setVm(vm);
+        task.setRequestedBy(user);
+        task.setStatus(status);
+        return task;
+    }
+}
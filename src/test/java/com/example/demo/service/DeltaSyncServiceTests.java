@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ChangesPageDto;
+import com.example.demo.dto.HardwareBulkChangeDto;
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.SiteDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newSite;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@InventoryTest(properties = "inventory.sync.settle-time=0s")
+class DeltaSyncServiceTests {
+
+    @Autowired
+    private DeltaSyncService deltaSync;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private BulkChangeService bulkChangeService;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Department finance;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        finance = fixtures.department("finance");
+        site = siteService.save(newSite("Paris North", infra));
+    }
+
+    @Test
+    void pagesThroughEverythingThenReturnsOnlyWhatChanged() {
+        List<Hardware> hosts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            hosts.add(hardwareService.create(newHardware("edge-" + i, infra), site.getId()));
+        }
+
+        List<String> synced = new ArrayList<>();
+        String token = null;
+        ChangesPageDto<HardwareDto> page;
+        do {
+            page = deltaSync.changes(InventoryEntity.HARDWARE, token, null, 2);
+            page.items.forEach(dto -> synced.add(dto.name));
+            assertThat(page.deleted).isEmpty();
+            token = page.nextToken;
+        } while (page.hasMore);
+        assertThat(synced).containsExactly("edge-0", "edge-1", "edge-2", "edge-3", "edge-4");
+
+        Hardware renamed = hosts.get(1);
+        renamed.setName("edge-1b");
+        hardwareService.update(renamed.getId(), renamed, null);
+        hardwareService.delete(hosts.get(3).getId());
+        // Bulk UPDATEs stamp updatedAt too
+        HardwareBulkChangeDto change = new HardwareBulkChangeDto();
+        change.ids = List.of(hosts.get(4).getId());
+        change.setStatus = HardwareStatus.MAINTENANCE;
+        bulkChangeService.updateHardware(change, null);
+
+        ChangesPageDto<HardwareDto> delta = deltaSync.changes(InventoryEntity.HARDWARE, token, null, 100);
+
+        assertThat(delta.items).extracting(dto -> dto.name).containsExactly("edge-1b", "edge-4");
+        assertThat(delta.deleted).containsExactly(hosts.get(3).getId());
+        assertThat(delta.hasMore).isFalse();
+
+        ChangesPageDto<HardwareDto> nothing = deltaSync.changes(InventoryEntity.HARDWARE, delta.nextToken, null, 100);
+        assertThat(nothing.items).isEmpty();
+        assertThat(nothing.deleted).isEmpty();
+    }
+
+    @Test
+    void aRowMovedToAnotherDepartmentIsDeletedFromTheOldOne() {
+        String infraToken = deltaSync.changes(InventoryEntity.SITE, null, infra.getId(), 100).nextToken;
+        String financeToken = deltaSync.changes(InventoryEntity.SITE, null, finance.getId(), 100).nextToken;
+
+        site.setDepartment(finance);
+        siteService.save(site);
+
+        ChangesPageDto<SiteDto> infraDelta = deltaSync.changes(InventoryEntity.SITE, infraToken, infra.getId(), 100);
+        assertThat(infraDelta.items).isEmpty();
+        assertThat(infraDelta.deleted).containsExactly(site.getId());
+
+        ChangesPageDto<SiteDto> financeDelta = deltaSync.changes(InventoryEntity.SITE, financeToken, finance.getId(), 100);
+        assertThat(financeDelta.items).extracting(dto -> dto.name).containsExactly("Paris North");
+        assertThat(financeDelta.deleted).isEmpty();
+    }
+
+    @Test
+    void rejectsTokensOlderThanTheTombstones() {
+        Instant old = Instant.now().minus(Duration.ofDays(60));
+        String token = new DeltaSyncService.Position(old, Long.MAX_VALUE, old).encode();
+
+        assertThatThrownBy(() -> deltaSync.changes(InventoryEntity.HARDWARE, token, null, 100))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GONE));
+        assertThatThrownBy(() -> deltaSync.changes(InventoryEntity.HARDWARE, "not-a-token", null, 100))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.ExportController;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.enums.Role;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest
+class ExportServiceTests {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ExportController exportController;
+
+    @Autowired
+    private UserContextService userContextService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Department finance;
+    private User member;
+    private User admin;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        finance = fixtures.department("finance");
+        member = fixtures.user("member", Role.USER, infra);
+        admin = fixtures.user("admin", Role.ADMIN, infra);
+        Site infraSite = fixtures.site("dc-1", infra);
+        Site financeSite = fixtures.site("dc-2", finance);
+        for (int i = 0; i < 3; i++) {
+            fixtures.hardware("infra-" + i, infraSite);
+        }
+        fixtures.hardware("finance-0", financeSite);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userContextService.clear();
+    }
+
+    @Test
+    void writesOneLinePerRowInsideAReadOnlyTransaction() {
+        List<String> seen = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                check();
+                bytes.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                check();
+                bytes.write(b, off, len);
+            }
+
+            private void check() {
+                seen.add(TransactionSynchronizationManager.isActualTransactionActive() + "/"
+                        + TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            }
+        };
+
+        exportService.writeNdjson("hardware", null, out);
+
+        assertThat(names(bytes.toString(StandardCharsets.UTF_8)))
+                .containsExactly("infra-0", "infra-1", "infra-2", "finance-0");
+        assertThat(seen).isNotEmpty().containsOnly("true/true");
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+    }
+
+    @Test
+    void nonAdminsOnlyExportTheirOwnDepartment() throws IOException {
+        assertThat(export(member.getId(), finance.getId())).containsExactly("infra-0", "infra-1", "infra-2");
+        assertThat(export(member.getId(), null)).containsExactly("infra-0", "infra-1", "infra-2");
+
+        assertThat(export(admin.getId(), finance.getId())).containsExactly("finance-0");
+        assertThat(export(admin.getId(), null)).hasSize(4);
+        assertThat(exportController.export("users", null, admin.getId()).getStatusCode().value()).isEqualTo(404);
+    }
+
+    // The body is written after the request's user context is gone, as on the async dispatch thread
+    private List<String> export(Long userId, Long departmentId) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = exportController.export("hardware", departmentId, userId);
+        userContextService.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return names(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private List<String> names(String ndjson) {
+        List<String> names = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            try {
+                names.add(objectMapper.readTree(line).get("name").asText());
+            } catch (IOException e) {
+                throw new AssertionError(line, e);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@InventoryTest
+class HardwareServiceTests {
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private IpamService ipamService;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        site = fixtures.site("dc-1", dept);
+    }
+
+    @Test
+    void anUpdateRolledBackAtCommitGivesBackTheAddressItClaimed() {
+        Hardware host = hardwareService.create(hardware("host-1", "10.30.0.10"), site.getId());
+
+        // The new address is claimed, then the row fails its NOT NULL name when written at commit
+        assertThatThrownBy(() -> hardwareService.update(host.getId(), hardware(null, "10.30.0.11"), site.getId()))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(hardwareRepository.findById(host.getId()).get().getIpAddress()).isEqualTo("10.30.0.10");
+        assertThat(ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, null, "10.30.0.11")).isEqualTo(0x0A1E000BL);
+        assertThatThrownBy(() -> ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, null, "10.30.0.10"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void concurrentUpdatesOfOneHostLeaveOnlyTheStoredAddressClaimed() throws Exception {
+        Hardware host = hardwareService.create(hardware("host-1", "10.30.1.0"), site.getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 1; i <= 16; i++) {
+            String address = "10.30.1." + i;
+            pool.submit(() -> {
+                start.await();
+                hardwareService.update(host.getId(), hardware("host-1", address), site.getId());
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Each update released the address the previous one committed, not the one it first read
+        String stored = hardwareRepository.findById(host.getId()).get().getIpAddress();
+        for (int i = 0; i <= 16; i++) {
+            String address = "10.30.1." + i;
+            if (address.equals(stored)) {
+                assertThatThrownBy(() -> ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, null, address))
+                        .isInstanceOf(ResponseStatusException.class);
+            } else {
+                assertThat(ipamService.claim(InventoryEntity.VIRTUAL_MACHINE, null, address)).isNotNull();
+            }
+        }
+    }
+
+    private Hardware hardware(String name, String ipAddress) {
+        Hardware hw = newHardware(name, dept);
+        hw.setIpAddress(ipAddress);
+        return hw;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SubnetDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest
+class IpamServiceTests {
+
+    @Autowired
+    private IpamService ipamService;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private VirtualMachineService vmService;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Hardware host;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        Site site = fixtures.site("dc-1", dept);
+        // Room for every VM the concurrent test below places on it
+        host = newHardware("host-1", dept);
+        host.setIpAddress("10.20.0.10");
+        host.setCpuCores(512);
+        host.setRamGb(1024);
+        host.setStorageGb(100000);
+        host = hardwareService.create(host, site.getId());
+    }
+
+    @Test
+    void subnetsMustBeAlignedAndDisjoint() {
+        SubnetDto created = ipamService.createSubnet(subnet("10.20.0.0/22", "10.20.0.1"));
+        // network, broadcast and gateway are not host addresses for VMs; the host's .10 is taken
+        assertThat(created.size).isEqualTo(1022);
+        assertThat(created.used).isEqualTo(2);
+        assertThat(ipamService.freeAddresses(created.id, 9)).startsWith("10.20.0.2").doesNotContain("10.20.0.10").hasSize(9);
+
+        assertThat(status(() -> ipamService.createSubnet(subnet("10.20.1.0/22", null)))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(status(() -> ipamService.createSubnet(subnet("10.20.2.0/24", null)))).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(status(() -> ipamService.createSubnet(subnet("10.0.0.0/8", null)))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(ipamService.createSubnet(subnet("10.20.4.0/24", null)).free).isEqualTo(254);
+    }
+
+    @Test
+    void addressesAreUniqueAcrossHardwareAndVms() {
+        VirtualMachine clash = newVm("clash", host);
+        clash.setIpAddress("10.20.0.10");
+        assertThat(status(() -> vmService.create(clash, host.getId(), null, null, null))).isEqualTo(HttpStatus.CONFLICT);
+
+        VirtualMachine moved = newVm("moved", host);
+        moved.setIpAddress("10.20.0.11");
+        moved = vmService.create(moved, host.getId(), null, null, null);
+        assertThat(moved.getIpNumeric()).isEqualTo(0x0A14000BL);
+
+        VirtualMachine change = newVm("moved", host);
+        change.setIpAddress(" 10.20.0.12 ");
+        vmService.update(moved.getId(), change, null);
+        assertThat(vmRepository.findById(moved.getId()).get().getIpAddress()).isEqualTo("10.20.0.12");
+        // the old address is free again, the new one is not
+        assertThat(ipamService.claim(InventoryEntity.HARDWARE, null, "10.20.0.11")).isEqualTo(0x0A14000BL);
+        VirtualMachine other = newVm("other", host);
+        other.setIpAddress("10.20.0.12");
+        assertThat(status(() -> vmService.create(other, host.getId(), null, null, null))).isEqualTo(HttpStatus.CONFLICT);
+
+        vmService.delete(moved.getId());
+        assertThat(vmService.create(other, host.getId(), null, null, null).getIpAddress()).isEqualTo("10.20.0.12");
+        assertThat(status(() -> vmService.create(withIp(newVm("bad", host), "10.20.0.300"), host.getId(), null, null, null)))
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void concurrentCreatesNeverShareAnAddress() throws Exception {
+        SubnetDto subnet = ipamService.createSubnet(subnet("10.30.0.0/26", "10.30.0.1"));
+        assertThat(subnet.free).isEqualTo(61);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<String> addresses = new ConcurrentLinkedQueue<>();
+        AtomicInteger full = new AtomicInteger();
+        for (int i = 0; i < 70; i++) {
+            String name = "vm-" + i;
+            pool.submit(() -> {
+                start.await();
+                try {
+                    addresses.add(vmService.create(newVm(name, host), host.getId(), null, null, subnet.id).getIpAddress());
+                } catch (ResponseStatusException e) {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                    full.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(addresses).hasSize(61).doesNotHaveDuplicates().doesNotContain("10.30.0.1");
+        assertThat(full).hasValue(9);
+        assertThat(ipamService.findSubnet(subnet.id).get().free).isZero();
+        assertThat(List.copyOf(addresses)).allMatch(ip -> ip.startsWith("10.30.0."));
+    }
+
+    private SubnetDto subnet(String cidr, String gateway) {
+        SubnetDto dto = new SubnetDto();
+        dto.name = cidr;
+        dto.cidr = cidr;
+        dto.gateway = gateway;
+        dto.departmentId = dept.getId();
+        return dto;
+    }
+
+    private static VirtualMachine withIp(VirtualMachine vm, String ipAddress) {
+        vm.setIpAddress(ipAddress);
+        return vm;
+    }
+
+    private static HttpStatus status(Runnable call) {
+        try {
+            call.run();
+        } catch (ResponseStatusException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        throw new AssertionError("Expected a ResponseStatusException");
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SearchHitDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newSite;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes go through the services, so these also check that the index follows the write paths.
+ */
+@InventoryTest
+class SearchServiceTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ChangeRefresher refresher;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private VirtualMachineService vmService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    private Department dept;
+    private Department otherDept;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        otherDept = fixtures.department("finance");
+        site = siteService.save(newSite("Paris North", dept));
+    }
+
+    @Test
+    void exactSerialRanksAboveModelMatches() {
+        Hardware exact = hardwareService.create(hardware("edge-1", "R740XD", "R740", dept), site.getId());
+        hardwareService.create(hardware("edge-2", "R740", "R740XD-2", dept), site.getId());
+        hardwareService.create(hardware("edge-3", "SN-3", "R740", dept), site.getId());
+        refresher.flush();
+
+        List<SearchHitDto> hits = searchService.search("r740xd", null, null, 10);
+
+        assertThat(hits).extracting(h -> h.id).hasSize(2).first().isEqualTo(exact.getId());
+        assertThat(hits.get(0).field).isEqualTo("serialNumber");
+        assertThat(hits.get(0).title).isEqualTo("edge-1");
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        Hardware host = hardwareService.create(hardware("edge-1", "SN-OLD-1", "R740", dept), site.getId());
+        VirtualMachine vm = newVm("billing-api", host);
+        vmService.create(vm, host.getId(), null, null, null);
+        refresher.flush();
+        assertThat(searchService.search("billing", null, null, 10)).extracting(h -> h.type).containsExactly(InventoryEntity.VIRTUAL_MACHINE);
+
+        Hardware renamed = hardware("edge-1", "SN-NEW-1", "R740", dept);
+        hardwareService.update(host.getId(), renamed, null);
+        refresher.flush();
+        assertThat(searchService.search("sn-old", null, null, 10)).isEmpty();
+        assertThat(searchService.search("sn-new", null, null, 10)).extracting(h -> h.id).containsExactly(host.getId());
+
+        vmService.delete(vm.getId());
+        refresher.flush();
+        assertThat(searchService.search("billing", null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void scopesByDepartmentAndTypeAndChecksShortTokens() {
+        hardwareService.create(hardware("paris-db-1", "SN-1", "R740", dept), site.getId());
+        hardwareService.create(hardware("paris-db-2", "SN-2", "R740", otherDept), site.getId());
+        refresher.flush();
+
+        assertThat(searchService.search("paris", null, null, 10)).hasSize(3);
+        assertThat(searchService.search("paris", Set.of(InventoryEntity.HARDWARE), null, 10)).hasSize(2);
+        assertThat(searchService.search("paris", null, otherDept.getId(), 10)).extracting(h -> h.title).containsExactly("paris-db-2");
+        // "2" is too short for the index but still has to match
+        assertThat(searchService.search("paris 2", null, null, 10)).extracting(h -> h.title).containsExactly("paris-db-2");
+        assertThatThrownBy(() -> searchService.search("db", null, null, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentUpdatesOfOneRowLeaveTheLastCommittedValueIndexed() throws Exception {
+        Hardware host = hardwareService.create(hardware("edge-1", "SN-0", "R740", dept), site.getId());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 1; i <= 32; i++) {
+            String serial = "SN-" + i;
+            pool.submit(() -> {
+                start.await();
+                hardwareService.update(host.getId(), hardware("edge-1", serial, "R740", dept), null);
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        refresher.flush();
+
+        String stored = hardwareRepository.findById(host.getId()).get().getSerialNumber();
+        assertThat(searchService.search(stored, null, null, 10)).singleElement().satisfies(hit -> {
+            assertThat(hit.id).isEqualTo(host.getId());
+            assertThat(hit.value).isEqualTo(stored);
+        });
+    }
+
+    private static Hardware hardware(String name, String serial, String model, Department department) {
+        Hardware hw = newHardware(name, department);
+        hw.setSerialNumber(serial);
+        hw.setModel(model);
+        return hw;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.HardwareDto;
+import com.example.demo.dto.SiteDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newSite;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest(properties = {
+        "inventory.snapshot.enabled=true",
+        "inventory.snapshot.check-interval=1h"
+})
+class SnapshotServiceTests {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private ChangeRefresher refresher;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private HardwareRepository hardwareRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private VersionService versionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department infra;
+    private Department finance;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        infra = fixtures.department("infra");
+        finance = fixtures.department("finance");
+        site = siteService.save(newSite("Paris North", infra));
+    }
+
+    @Test
+    void departmentListsFollowWritesWithoutQueries() {
+        hardwareService.create(newHardware("edge-a", infra), site.getId());
+        Hardware b = hardwareService.create(newHardware("edge-b", infra), site.getId());
+        Hardware c = hardwareService.create(newHardware("edge-c", infra), site.getId());
+        b.setName("edge-b2");
+        hardwareService.update(b.getId(), b, site.getId());
+        hardwareService.delete(c.getId());
+        refresher.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Slice<HardwareDto> first = hardwareService.findPage(infra.getId(), null, 1);
+        Slice<HardwareDto> second = hardwareService.findPage(infra.getId(), first.getContent().get(0).id, 1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(first.getContent()).extracting(dto -> dto.name).containsExactly("edge-a");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(dto -> dto.name).containsExactly("edge-b2");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(hardwareService.findPage(finance.getId(), null, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    void aMovedRowLeavesItsOldDepartment() {
+        site.setDepartment(finance);
+        siteService.save(site);
+        refresher.flush();
+
+        assertThat(siteService.findPage(infra.getId(), null, 10).getContent()).isEmpty();
+        assertThat(siteService.findPage(finance.getId(), null, 10).getContent())
+                .extracting((SiteDto dto) -> dto.name).containsExactly("Paris North");
+    }
+
+    @Test
+    void aListReadBeforeTheSnapshotCaughtUpIsNotPinnedToItsETag() throws InterruptedException {
+        // Holds the refresh thread once the create below reached the snapshot, so the update waits behind it
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        refresher.register((type, changes) -> {
+            if (type == InventoryEntity.HARDWARE) {
+                holding.countDown();
+                awaitQuietly(release);
+            }
+        });
+        Hardware host = hardwareService.create(newHardware("edge-a", infra), site.getId());
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        List<String> served = new ArrayList<>();
+        String[] etag = new String[1];
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            host.setName("edge-a2");
+            hardwareService.update(host.getId(), host, site.getId());
+            // Registered after the update's version bump, so it runs between that and the snapshot update
+            TransactionHooks.afterCommit(() -> {
+                etag[0] = versionService.etag(infra.getId(), InventoryEntity.HARDWARE);
+                hardwareService.findPage(infra.getId(), null, 10).getContent().forEach(dto -> served.add(dto.name));
+            });
+        });
+        release.countDown();
+        refresher.flush();
+
+        assertThat(served).containsExactly("edge-a");
+        assertThat(versionService.etag(infra.getId(), InventoryEntity.HARDWARE)).isNotEqualTo(etag[0]);
+        assertThat(hardwareService.findPage(infra.getId(), null, 10).getContent())
+                .extracting(dto -> dto.name).containsExactly("edge-a2");
+    }
+
+    @Test
+    void theCheckReloadsDepartmentsChangedBehindItsBack() {
+        hardwareService.create(newHardware("edge-a", infra), site.getId());
+        refresher.flush();
+        // Saved without going through the service: no event
+        Hardware hidden = newHardware("edge-hidden", infra);
+        hidden.setSite(site);
+        hardwareRepository.save(hidden);
+        assertThat(hardwareService.findPage(infra.getId(), null, 10).getContent()).hasSize(1);
+
+        long staleVersion = versionService.version(InventoryEntity.HARDWARE, infra.getId());
+        Map<InventoryEntity, Set<Long>> repaired = snapshotService.check();
+
+        assertThat(repaired).containsOnlyKeys(InventoryEntity.HARDWARE);
+        assertThat(repaired.get(InventoryEntity.HARDWARE)).containsExactly(infra.getId());
+        assertThat(hardwareService.findPage(infra.getId(), null, 10).getContent())
+                .extracting(dto -> dto.name).containsExactly("edge-a", "edge-hidden");
+        // ETags handed out with the stale rows no longer match
+        assertThat(versionService.version(InventoryEntity.HARDWARE, infra.getId())).isGreaterThan(staleVersion);
+        assertThat(snapshotService.check()).isEmpty();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
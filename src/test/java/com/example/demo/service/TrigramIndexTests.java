@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.InventoryEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTests {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void candidatesContainEveryTrigramOfEveryToken() {
+        index.put(doc(1, "web-01", "SN-AB1234"));
+        index.put(doc(2, "web-02", "SN-CD5678"));
+        index.put(doc(3, "db-01", "SN-AB9999"));
+
+        assertThat(candidates("web")).containsExactly(1L, 2L);
+        assertThat(candidates("sn-ab")).containsExactly(1L, 3L);
+        assertThat(candidates("web", "sn-ab")).containsExactly(1L);
+        assertThat(candidates("zzz")).isEmpty();
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceTheOldPostings() {
+        index.put(doc(1, "web-01", "SN-OLD"));
+        index.put(doc(1, "web-01", "SN-NEW"));
+        index.put(doc(2, "web-02", "SN-OLD"));
+        index.remove(InventoryEntity.HARDWARE, 2);
+
+        assertThat(candidates("sn-old")).isEmpty();
+        assertThat(candidates("sn-new")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsEveryLiveDocument() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1000; id++) {
+                index.put(doc(id, "host-" + id, "SN-" + round + "-" + id));
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(candidates("host")).hasSize(1000);
+        assertThat(candidates("sn-4-999")).containsExactly(999L);
+        assertThat(candidates("sn-3-999")).isEmpty();
+    }
+
+    private List<Long> candidates(String... tokens) {
+        List<Long> ids = new ArrayList<>();
+        index.forEachCandidate(List.of(tokens), ordinal -> ids.add(index.doc(ordinal).id));
+        return ids;
+    }
+
+    private static TrigramIndex.Doc doc(long id, String name, String serial) {
+        return new TrigramIndex.Doc(InventoryEntity.HARDWARE, id, 1L, new String[] {name, serial});
+    }
+}
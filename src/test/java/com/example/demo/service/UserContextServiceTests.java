@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserContextFilter;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.User;
+import com.example.demo.enums.Role;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.UserPrincipalCache;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static com.example.demo.support.Fixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@InventoryTest
+class UserContextServiceTests {
+
+    @Autowired
+    private UserContextService userContextService;
+
+    @Autowired
+    private UserContextFilter userContextFilter;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChangeRefresher refresher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        user = userService.save(newUser("alice", Role.USER, dept));
+        refresher.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userContextService.clear();
+    }
+
+    @Test
+    void unknownUsersAreCachedToo() {
+        long unknown = user.getId() + 1000;
+
+        assertThat(principalCache.get(unknown)).isEmpty();
+        assertThat(principalCache.get(unknown)).isEmpty();
+        assertThat(principalCache.get(user.getId())).isPresent();
+        assertThat(principalCache.get(user.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void savingOrDeletingThroughTheServiceEvictsTheEntry() {
+        assertThat(principalCache.get(user.getId())).get().extracting(UserPrincipal::getRole).isEqualTo(Role.USER);
+
+        user.setRole(Role.ADMIN);
+        userService.save(user);
+        assertThat(principalCache.get(user.getId())).get().extracting(UserPrincipal::getRole).isEqualTo(Role.ADMIN);
+
+        // Changes behind the service's back are only seen once the entry expires
+        user.setEnabled(false);
+        userRepository.save(user);
+        assertThat(principalCache.get(user.getId())).get().extracting(UserPrincipal::isEnabled).isEqualTo(true);
+
+        userService.deleteById(user.getId());
+        assertThat(principalCache.get(user.getId())).isEmpty();
+    }
+
+    @Test
+    void theFilterClearsTheContextAfterEachRequest() throws Exception {
+        userContextFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            userContextService.setCurrentUserId(user.getId());
+            assertThat(userContextService.getCurrentUserDepartmentId()).isEqualTo(dept.getId());
+        });
+        assertThat(userContextService.getCurrentUserId()).isNull();
+        assertThat(userContextService.getCurrentPrincipal()).isNull();
+
+        // A token-authenticated request must not leave the header locked out for the next one, even when it fails
+        assertThatThrownBy(() -> userContextFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> {
+                    userContextService.setAuthenticatedPrincipal(new UserPrincipal(42L, Role.SUPER_ADMIN, null, true));
+                    throw new IllegalStateException("request failed");
+                })).isInstanceOf(IllegalStateException.class);
+        assertThat(userContextService.getCurrentUserId()).isNull();
+        assertThat(userContextService.isSuperAdmin()).isFalse();
+
+        userContextService.setCurrentUserId(user.getId());
+        assertThat(userContextService.getCurrentUserId()).isEqualTo(user.getId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.HardwareController;
+import com.example.demo.dto.HardwareBulkChangeDto;
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.enums.HardwareStatus;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newSite;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@InventoryTest
+class VersionServiceTests {
+
+    @Autowired
+    private VersionService versions;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private BulkChangeService bulkChangeService;
+
+    @Autowired
+    private HardwareController hardwareController;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Department otherDept;
+    private Site site;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        otherDept = fixtures.department("finance");
+        site = siteService.save(newSite("Paris North", dept));
+    }
+
+    @Test
+    void writesOnlyChangeTheirOwnDepartmentAndRollbacksNothing() {
+        String deptTag = versions.etag(dept.getId(), InventoryEntity.HARDWARE);
+        String otherTag = versions.etag(otherDept.getId(), InventoryEntity.HARDWARE);
+        String allTag = versions.etag(null, InventoryEntity.HARDWARE);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            hardwareService.create(newHardware("edge-0", dept), site.getId());
+            tx.setRollbackOnly();
+        });
+        assertThat(versions.etag(dept.getId(), InventoryEntity.HARDWARE)).isEqualTo(deptTag);
+
+        hardwareService.create(newHardware("edge-1", dept), site.getId());
+        assertThat(versions.etag(dept.getId(), InventoryEntity.HARDWARE)).isNotEqualTo(deptTag);
+        assertThat(versions.etag(otherDept.getId(), InventoryEntity.HARDWARE)).isEqualTo(otherTag);
+        assertThat(versions.etag(null, InventoryEntity.HARDWARE)).isNotEqualTo(allTag);
+    }
+
+    @Test
+    void movingASiteChangesBothDepartments() {
+        Site lyon = siteService.save(newSite("Lyon South", dept));
+        String deptTag = versions.etag(dept.getId(), InventoryEntity.SITE);
+        String otherTag = versions.etag(otherDept.getId(), InventoryEntity.SITE);
+
+        lyon.setDepartment(otherDept);
+        siteService.save(lyon);
+
+        assertThat(versions.etag(dept.getId(), InventoryEntity.SITE)).isNotEqualTo(deptTag);
+        assertThat(versions.etag(otherDept.getId(), InventoryEntity.SITE)).isNotEqualTo(otherTag);
+    }
+
+    @Test
+    void unscopedBulkChangeChangesEveryDepartment() {
+        Hardware host = hardwareService.create(newHardware("edge-1", dept), site.getId());
+        String otherTag = versions.etag(otherDept.getId(), InventoryEntity.HARDWARE);
+
+        HardwareBulkChangeDto change = new HardwareBulkChangeDto();
+        change.ids = List.of(host.getId());
+        change.setStatus = HardwareStatus.MAINTENANCE;
+        bulkChangeService.updateHardware(change, null);
+
+        assertThat(versions.etag(otherDept.getId(), InventoryEntity.HARDWARE)).isNotEqualTo(otherTag);
+    }
+
+    @Test
+    void listAnswersNotModifiedUntilSomethingChanges() {
+        hardwareService.create(newHardware("edge-1", dept), site.getId());
+
+        ResponseEntity<?> first = hardwareController.list(dept.getId(), null, null, null, null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).startsWith("W/\"");
+
+        ResponseEntity<?> again = hardwareController.list(dept.getId(), null, null, null, etag);
+        assertThat(again.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(again.getBody()).isNull();
+        assertThat(again.getHeaders().getETag()).isEqualTo(etag);
+
+        hardwareService.create(newHardware("edge-2", dept), site.getId());
+        ResponseEntity<?> changed = hardwareController.list(dept.getId(), null, null, null, etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.InventoryEntity;
+import com.example.demo.repository.VirtualMachineRepository;
+import com.example.demo.support.Fixtures;
+import com.example.demo.support.InventoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.support.Fixtures.newHardware;
+import static com.example.demo.support.Fixtures.newVm;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@InventoryTest
+class VirtualMachineServiceTests {
+
+    @Autowired
+    private VirtualMachineService vmService;
+
+    @Autowired
+    private HardwareService hardwareService;
+
+    @Autowired
+    private CapacityService capacityService;
+
+    @Autowired
+    private IpamService ipamService;
+
+    @Autowired
+    private VirtualMachineRepository vmRepository;
+
+    @Autowired
+    private Fixtures fixtures;
+
+    private Department dept;
+    private Hardware host;
+
+    @BeforeEach
+    void seed() {
+        dept = fixtures.department("infra");
+        Site site = fixtures.site("dc-1", dept);
+        host = newHardware("host-1", dept);
+        host.setIpAddress("10.20.0.10");
+        host = hardwareService.create(host, site.getId());
+    }
+
+    @Test
+    void aRejectedUpdateGivesBackWhatItReserved() {
+        VirtualMachine created = vmService.create(vm("web", 8, "10.20.0.11"), host.getId(), null, null, null);
+
+        // The resize is reserved before the address turns out to belong to the host
+        assertThatThrownBy(() -> vmService.update(created.getId(), vm("web", 32, "10.20.0.10"), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(capacityService.getHost(host.getId()).get().allocatedRamGb).isEqualTo(8);
+
+        // This one claims a new address and more RAM, then fails when the row is written at commit
+        assertThatThrownBy(() -> vmService.update(created.getId(), vm(null, 32, "10.20.0.12"), null))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(capacityService.getHost(host.getId()).get().allocatedRamGb).isEqualTo(8);
+        assertThat(ipamService.claim(InventoryEntity.HARDWARE, null, "10.20.0.12")).isEqualTo(0x0A14000CL);
+        assertThat(vmRepository.findById(created.getId()).get().getIpAddress()).isEqualTo("10.20.0.11");
+    }
+
+    @Test
+    void concurrentResizesOfOneVmLeaveCapacityMatchingTheRow() throws Exception {
+        VirtualMachine created = vmService.create(vm("db", 1, null), host.getId(), null, null, null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 1; i <= 16; i++) {
+            int ramGb = i;
+            pool.submit(() -> {
+                start.await();
+                vmService.update(created.getId(), vm("db", ramGb, null), null);
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Each update started from the allocation the previous one committed
+        int stored = vmRepository.findById(created.getId()).get().getVram();
+        assertThat(capacityService.getHost(host.getId()).get().allocatedRamGb).isEqualTo(stored);
+        assertThat(capacityService.getHost(host.getId()).get().vmCount).isEqualTo(1);
+    }
+
+    @Test
+    void deleteGivesBackCapacityAndAddressOnceCommitted() {
+        VirtualMachine created = vmService.create(vm("cache", 12, "10.20.0.20"), host.getId(), null, null, null);
+
+        vmService.delete(created.getId());
+
+        assertThat(capacityService.getHost(host.getId()).get().allocatedRamGb).isZero();
+        assertThat(capacityService.getHost(host.getId()).get().vmCount).isZero();
+        assertThat(ipamService.claim(InventoryEntity.HARDWARE, null, "10.20.0.20")).isEqualTo(0x0A140014L);
+    }
+
+    private VirtualMachine vm(String name, int ramGb, String ipAddress) {
+        VirtualMachine vm = newVm(name, host);
+        vm.setVram(ramGb);
+        vm.setIpAddress(ipAddress);
+        return vm;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.support;
+
+import com.example.demo.entite.Department;
+import com.example.demo.entite.DeploymentTask;
+import com.example.demo.entite.Hardware;
+import com.example.demo.entite.Site;
+import com.example.demo.entite.User;
+import com.example.demo.entite.VirtualMachine;
+import com.example.demo.enums.HardwareType;
+import com.example.demo.enums.Role;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.HardwareRepository;
+import com.example.demo.repository.SiteRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.VirtualMachineRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.LocalDate;
+
+/**
+ * Rows the tests start from. The instance methods save them through the repositories, bypassing
+ * the services; the {@code new...} ones only build an entity with every required field set, for
+ * the test to adjust and hand to a service or save itself.
+ */
+@TestComponent
+public class Fixtures {
+    private final DepartmentRepository departmentRepository;
+    private final SiteRepository siteRepository;
+    private final HardwareRepository hardwareRepository;
+    private final VirtualMachineRepository vmRepository;
+    private final UserRepository userRepository;
+
+    public Fixtures(DepartmentRepository departmentRepository, SiteRepository siteRepository,
+                    HardwareRepository hardwareRepository, VirtualMachineRepository vmRepository,
+                    UserRepository userRepository) {
+        this.departmentRepository = departmentRepository;
+        this.siteRepository = siteRepository;
+        this.hardwareRepository = hardwareRepository;
+        this.vmRepository = vmRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Department department(String name) {
+        Department department = new Department();
+        department.setName(name);
+        return departmentRepository.save(department);
+    }
+
+    public Site site(String name, Department department) {
+        return siteRepository.save(newSite(name, department));
+    }
+
+    public User user(String username, Role role, Department department) {
+        return userRepository.save(newUser(username, role, department));
+    }
+
+    /** A host in {@code site}, of the site's department. */
+    public Hardware hardware(String name, Site site) {
+        Hardware hardware = newHardware(name, site.getDepartment());
+        hardware.setSite(site);
+        return hardwareRepository.save(hardware);
+    }
+
+    public VirtualMachine vm(String name, Hardware host) {
+        return vmRepository.save(newVm(name, host));
+    }
+
+    public static Site newSite(String name, Department department) {
+        Site site = new Site();
+        site.setName(name);
+        site.setAddress("1 Main St");
+        site.setCity("Paris");
+        site.setCountry("FR");
+        site.setDepartment(department);
+        return site;
+    }
+
+    /** A user whose password no login will match. */
+    public static User newUser(String username, Role role, Department department) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        user.setRole(role);
+        user.setDepartment(department);
+        return user;
+    }
+
+    /** A 32-core, 256 GB, 2000 GB server without a site. */
+    public static Hardware newHardware(String name, Department department) {
+        Hardware hardware = new Hardware();
+        hardware.setName(name);
+        hardware.setType(HardwareType.SERVER);
+        hardware.setModel("R740");
+        hardware.setSerialNumber("SN-" + name);
+        hardware.setCpuCores(32);
+        hardware.setRamGb(256);
+        hardware.setStorageGb(2000);
+        hardware.setPurchaseDate(LocalDate.of(2024, 1, 1));
+        hardware.setWarrantyEndDate(LocalDate.of(2027, 1, 1));
+        hardware.setDepartment(department);
+        return hardware;
+    }
+
+    /** A 2 vCPU, 4 GB, 40 GB VM on {@code host}, in the host's department. */
+    public static VirtualMachine newVm(String name, Hardware host) {
+        VirtualMachine vm = new VirtualMachine();
+        vm.setName(name);
+        vm.setHostname(name + ".local");
+        vm.setOperatingSystem("Linux");
+        vm.setVcpu(2);
+        vm.setVram(4);
+        vm.setDiskSize(40);
+        vm.setHardware(host);
+        vm.setDepartment(host != null ? host.getDepartment() : null);
+        return vm;
+    }
+
+    public static DeploymentTask newTask(String name, Department department) {
+        DeploymentTask task = new DeploymentTask();
+        task.setTaskName(name);
+        task.setDepartment(department);
+        return task;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A {@link SpringBootTest} on the embedded database of the test application.properties, which every
+ * such test shares. {@link TestDatabase} empties it before each test, and {@link Fixtures} builds the
+ * rows tests start from.
+ *
+ * Tests without {@link #properties} share one application context. Only set the properties a test
+ * cannot run without: each distinct set starts another context.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest
+@Import({TestDatabase.class, Fixtures.class})
+@TestExecutionListeners(listeners = TestDatabase.Reset.class, mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+public @interface InventoryTest {
+
+    @AliasFor(annotation = SpringBootTest.class)
+    String[] properties() default {};
+
+    @AliasFor(annotation = SpringBootTest.class)
+    SpringBootTest.WebEnvironment webEnvironment() default SpringBootTest.WebEnvironment.MOCK;
+}
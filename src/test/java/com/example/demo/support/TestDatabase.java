@@ -0,0 +1,88 @@
+package com.example.demo.support;
+
+import com.example.demo.service.CapacityService;
+import com.example.demo.service.ChangeRefresher;
+import com.example.demo.service.IpamService;
+import com.example.demo.service.SearchService;
+import com.example.demo.service.SnapshotService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import java.util.List;
+
+/**
+ * Empties the shared test database, and the in-memory views and caches loaded from it, before every
+ * {@link InventoryTest}: a test starts without rows whatever ran before it, in this context or in
+ * another one on the same database.
+ */
+@TestComponent
+public class TestDatabase {
+    // Ids are never handed out twice, so no context's caches confuse a new row with one of the last test's:
+    // identity columns continue, and the table generators' counters stay
+    private static final String KEPT = "id_generator";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeRefresher refresher;
+    private final CapacityService capacityService;
+    private final IpamService ipamService;
+    private final SearchService searchService;
+    private final SnapshotService snapshotService;
+    private final boolean snapshots;
+
+    public TestDatabase(JdbcTemplate jdbcTemplate,
+                        EntityManagerFactory entityManagerFactory,
+                        ChangeRefresher refresher,
+                        CapacityService capacityService,
+                        IpamService ipamService,
+                        SearchService searchService,
+                        SnapshotService snapshotService,
+                        @Value("${inventory.snapshot.enabled:false}") boolean snapshots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.refresher = refresher;
+        this.capacityService = capacityService;
+        this.ipamService = ipamService;
+        this.searchService = searchService;
+        this.snapshotService = snapshotService;
+        this.snapshots = snapshots;
+    }
+
+    public void reset() {
+        // Re-reads of the last test's writes would otherwise land after the rebuilds below
+        refresher.flush();
+        List<String> tables = jdbcTemplate.queryForList("select table_name from information_schema.tables "
+                + "where table_schema = 'public' and table_type = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("set referential_integrity false");
+        try {
+            for (String table : tables) {
+                if (!table.equals(KEPT)) {
+                    jdbcTemplate.execute("truncate table " + table + " continue identity");
+                }
+            }
+        } finally {
+            jdbcTemplate.execute("set referential_integrity true");
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        capacityService.rebuild();
+        ipamService.rebuild();
+        searchService.rebuild();
+        if (snapshots) {
+            snapshotService.rebuild();
+        }
+    }
+
+    /** Calls {@link #reset} before each test method, ahead of its {@code @BeforeEach} methods. */
+    public static class Reset extends AbstractTestExecutionListener {
+
+        @Override
+        public void beforeTestMethod(TestContext testContext) {
+            testContext.getApplicationContext().getBean(TestDatabase.class).reset();
+        }
+    }
+}